@@ -0,0 +1,185 @@
+package com.example.finalprojectapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.testing.FragmentScenario;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide.Glide;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import Adapters.GardenAdapter;
+import Adapters.PhotosAdapter;
+import Objects.ChildPhoto;
+import Objects.Garden;
+
+import static org.junit.Assert.*;
+
+/**
+ * Instrumented test that scrolls the photo gallery and the garden list through their images and back,
+ * and checks with ImageLoadStats that every image is decoded once on the way down and served from
+ * Glide's caches on the way back.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageScrollTest {
+
+    private static final int IMAGE_COUNT = 40;
+    private static final int SCROLL_STEP_PIXELS = 300;
+
+    // Creates the adapter displayed by ImageListFragment, set by each test before it launches the fragment
+    private static Function<Context, RecyclerView.Adapter<?>> adapterFactory;
+
+    private Context context;
+    private final List<String> imageUrls = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File directory = new File(context.getCacheDir(), "image_scroll_test");
+        assertTrue(directory.isDirectory() || directory.mkdirs());
+
+        imageUrls.clear();
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            File file = new File(directory, "image_" + i + ".jpg");
+            Bitmap bitmap = Bitmap.createBitmap(640, 480, Bitmap.Config.ARGB_8888);
+            bitmap.eraseColor(Color.HSVToColor(new float[]{i * 360f / IMAGE_COUNT, 0.8f, 0.9f}));
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, 80, out);
+            }
+            bitmap.recycle();
+            imageUrls.add(Uri.fromFile(file).toString());
+        }
+
+        Glide.get(context).clearDiskCache();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> Glide.get(context).clearMemory());
+    }
+
+    @Test
+    public void scrollPhotos_decodesEachPhotoOnceAndReusesTheCaches() {
+        List<ChildPhoto> photos = new ArrayList<>();
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            ChildPhoto photo = new ChildPhoto(imageUrls.get(i), "Class", new Date(), "child" + i);
+            photo.setThumbnailURL(imageUrls.get(i));
+            photos.add(photo);
+        }
+        adapterFactory = activity -> new PhotosAdapter(activity, photos);
+
+        scrollDownAndBack();
+    }
+
+    @Test
+    public void scrollGardens_decodesEachCoverOnceAndReusesTheCaches() {
+        List<Garden> gardens = new ArrayList<>();
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            Garden garden = new Garden("Garden " + i, "Street " + i, "Haifa", "04-0000000",
+                    "07:30", "16:00", "Municipal", imageUrls.get(i));
+            garden.setId("garden" + i);
+            gardens.add(garden);
+        }
+        adapterFactory = activity -> new GardenAdapter(gardens, activity, "parent");
+
+        scrollDownAndBack();
+    }
+
+    /**
+     * Scrolls the list created by the adapter factory to the end and back to the top, and checks
+     * that no image is decoded twice on the way down and that the way back is served from the caches.
+     */
+    private void scrollDownAndBack() {
+        FragmentScenario<ImageListFragment> scenario = FragmentScenario.launchInContainer(ImageListFragment.class);
+        ImageLoadStats stats = ImageLoadStats.getInstance();
+        stats.reset();
+
+        awaitLoads();
+        scroll(scenario, SCROLL_STEP_PIXELS);
+        int firstPassDecodes = stats.getDecodeCount();
+        int firstPassLoads = stats.getLoadCount();
+        Log.d("ImageScrollTest", "Scrolling down: " + stats);
+
+        stats.reset();
+        scroll(scenario, -SCROLL_STEP_PIXELS);
+        Log.d("ImageScrollTest", "Scrolling back: " + stats);
+
+        // Each row loads one request for its image, so no image is decoded twice on the way down
+        assertTrue("Loaded " + firstPassLoads + " images", firstPassLoads >= IMAGE_COUNT / 2);
+        assertTrue("Decoded " + firstPassDecodes + " images for " + IMAGE_COUNT + " rows", firstPassDecodes <= IMAGE_COUNT);
+        // On the way back every image comes from the memory or disk cache
+        assertTrue("Cache hit ratio " + stats.getCacheHitRatio(), stats.getCacheHitRatio() >= 0.95f);
+        scenario.close();
+    }
+
+    /**
+     * Scrolls the list in steps until it cannot scroll further in that direction,
+     * waiting for the images of each step to load.
+     *
+     * @param scenario The scenario of the image list.
+     * @param step     The pixels to scroll per step; negative to scroll up.
+     */
+    private void scroll(FragmentScenario<ImageListFragment> scenario, int step) {
+        boolean[] canScroll = {true};
+        while (canScroll[0]) {
+            scenario.onFragment(fragment -> {
+                fragment.recyclerView.scrollBy(0, step);
+                canScroll[0] = fragment.recyclerView.canScrollVertically(step > 0 ? 1 : -1);
+            });
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            awaitLoads();
+        }
+    }
+
+    /**
+     * Waits until Glide has not completed a load for a while, since its loads are not tracked by the idle sync.
+     */
+    private static void awaitLoads() {
+        long deadline = SystemClock.uptimeMillis() + 10000;
+        int loads = -1;
+        while (SystemClock.uptimeMillis() < deadline) {
+            int current = ImageLoadStats.getInstance().getLoadCount();
+            if (current == loads) {
+                return;
+            }
+            loads = current;
+            SystemClock.sleep(300);
+        }
+    }
+
+    /**
+     * Displays the test images in a RecyclerView with the adapter created by the adapter factory.
+     */
+    public static class ImageListFragment extends Fragment {
+        RecyclerView recyclerView;
+
+        @Override
+        public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+            recyclerView = new RecyclerView(requireContext());
+            recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+            recyclerView.setAdapter(adapterFactory.apply(requireActivity()));
+            return recyclerView;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package Adapters;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BackgroundListDiffer replaces the contents of an adapter's list with a new list, computing the
+ * difference with DiffUtil on a background thread and dispatching it as fine-grained notifyItem* calls.
+ * Unlike AsyncListDiffer it updates the list the adapter already holds, so adapters that also
+ * change their list directly (e.g. removing a deleted item) stay in sync with it.
+ */
+public class BackgroundListDiffer<T> {
+
+    // One thread for every list, so the diffs of a list are computed in the order they were submitted
+    private static final ExecutorService diffExecutor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final List<T> items;
+    private final RecyclerView.Adapter<?> adapter;
+    private final DiffUtil.ItemCallback<T> itemCallback;
+    private int generation;
+
+    /**
+     * Constructor for BackgroundListDiffer.
+     *
+     * @param items        The list backing the adapter, which the differ updates.
+     * @param adapter      The adapter displaying the list.
+     * @param itemCallback Decides whether two items are the same item and whether their displayed contents are equal.
+     */
+    public BackgroundListDiffer(List<T> items, RecyclerView.Adapter<?> adapter, DiffUtil.ItemCallback<T> itemCallback) {
+        this.items = items;
+        this.adapter = adapter;
+        this.itemCallback = itemCallback;
+    }
+
+    /**
+     * Replaces the contents of the list. Must be called on the main thread.
+     * If another list is submitted before the difference is computed, only the latest list is applied.
+     *
+     * @param newItems The new contents of the list.
+     */
+    public void submit(List<T> newItems) {
+        int submitted = ++generation;
+        List<T> oldItems = new ArrayList<>(items);
+        List<T> newSnapshot = new ArrayList<>(newItems);
+
+        diffExecutor.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                @Override
+                public int getOldListSize() {
+                    return oldItems.size();
+                }
+
+                @Override
+                public int getNewListSize() {
+                    return newSnapshot.size();
+                }
+
+                @Override
+                public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                    return itemCallback.areItemsTheSame(oldItems.get(oldItemPosition), newSnapshot.get(newItemPosition));
+                }
+
+                @Override
+                public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                    return itemCallback.areContentsTheSame(oldItems.get(oldItemPosition), newSnapshot.get(newItemPosition));
+                }
+            });
+
+            mainHandler.post(() -> {
+                if (submitted != generation) {
+                    return; // A newer list was submitted meanwhile
+                }
+                if (!items.equals(oldItems)) {
+                    // The adapter changed the list while the diff was computed, so diff against its current contents
+                    submit(newSnapshot);
+                    return;
+                }
+                items.clear();
+                items.addAll(newSnapshot);
+                result.dispatchUpdatesTo(adapter);
+            });
+        });
+    }
+}
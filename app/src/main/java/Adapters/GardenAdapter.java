@@ -1,8 +1,9 @@
 package Adapters;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,11 +14,17 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.FragmentActivity;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.UserSessionManager;
 import com.example.finalprojectapp.database.FireBaseManager;
@@ -32,19 +39,46 @@ import com.example.finalprojectapp.staff.ClasssForGardenFragment;
 import com.google.android.material.snackbar.Snackbar;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import Objects.Child;
 import Objects.Garden;
 import Objects.GardenClass;
 
-public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder> {
+public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder> implements ListPreloader.PreloadModelProvider<Garden> {
+
+    // How many cover images ahead of the scroll direction are loaded before their rows are shown
+    private static final int MAX_PRELOAD = 6;
+
+    // Gardens are the same item when they have the same ID, and need a rebind when a displayed field changed
+    private static final DiffUtil.ItemCallback<Garden> DIFF_CALLBACK = new DiffUtil.ItemCallback<Garden>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Garden oldGarden, @NonNull Garden newGarden) {
+            return TextUtils.equals(oldGarden.getId(), newGarden.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Garden oldGarden, @NonNull Garden newGarden) {
+            return TextUtils.equals(oldGarden.getName(), newGarden.getName())
+                    && TextUtils.equals(oldGarden.getAddress(), newGarden.getAddress())
+                    && TextUtils.equals(oldGarden.getCity(), newGarden.getCity())
+                    && TextUtils.equals(oldGarden.getImageUrl(), newGarden.getImageUrl())
+                    && TextUtils.equals(oldGarden.getStatus(), newGarden.getStatus())
+                    && oldGarden.isRegistered() == newGarden.isRegistered()
+                    && (oldGarden.getRegistrationStartDate() == null) == (newGarden.getRegistrationStartDate() == null);
+        }
+    };
 
     private String childId;
     private List<Garden> gardens;
     private Context context;
     private FireBaseManager fireBaseManager;
     private String userType;
+    private BackgroundListDiffer<Garden> differ;
+    // Measures the first bound image view, so preloaded images are decoded at the size they are displayed
+    private final ViewPreloadSizeProvider<Garden> preloadSizeProvider = new ViewPreloadSizeProvider<>();
+    private RecyclerViewPreloader<Garden> preloader;
 
     public GardenAdapter(List<Garden> gardens, Context context, String userType, String childId) {
         this.gardens = gardens;
@@ -62,9 +96,18 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
 
     public void setGardens(List<Garden> gardens) {
         this.gardens = gardens;
+        differ = null;
         notifyDataSetChanged();
     }
 
+    // Replaces the gardens with only the notifyItem* calls needed, diffing off the main thread
+    public void submitGardens(List<Garden> newGardens) {
+        if (differ == null) {
+            differ = new BackgroundListDiffer<>(gardens, this, DIFF_CALLBACK);
+        }
+        differ.submit(newGardens);
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -72,16 +115,16 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
         return new ViewHolder(view);
     }
 
-    @SuppressLint("RecyclerView")
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         Garden garden = gardens.get(position);
-        holder.textViewName.append(": "+garden.getName());
-        holder.textViewAddress.append(": "+garden.getAddress());
-        holder.textViewCity.append(": "+garden.getCity());
+        holder.textViewName.setText(holder.nameLabel + ": " + garden.getName());
+        holder.textViewAddress.setText(holder.addressLabel + ": " + garden.getAddress());
+        holder.textViewCity.setText(holder.cityLabel + ": " + garden.getCity());
 
-        String imageUrl = garden.getImageUrl();
-        Glide.with(context).load(imageUrl).into(holder.imageViewGarten);
+        // The same request as the preloader's, so a preloaded image is found in the memory cache
+        imageRequest(garden).into(holder.imageViewGarten);
+        preloadSizeProvider.setView(holder.imageViewGarten);
 
 
         if ("SYSTEM_ADMINISTRATOR".equals(userType)) {
@@ -130,47 +173,49 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
             holder.buttonViewChildren.setVisibility(View.VISIBLE);
             if ("director".equals(userType) ) {
                 if (((FragmentActivity) context).getSupportFragmentManager().findFragmentById(R.id.fragment_container) instanceof DirectorGardensFragment) {
-                    holder.StatusText.append(": " + garden.getStatus());
+                    holder.StatusText.setText(holder.statusLabel + ": " + garden.getStatus());
                     holder.StatusText.setVisibility(View.VISIBLE);
                 }
             }
         }
 
         holder.buttonViewChildren.setOnClickListener(v -> {
-            fireBaseManager.getAllChildrenInGarden(garden.getName(), childrenList -> {
-                if (childrenList != null && !childrenList.isEmpty()) {
-                    List<Child> unapprovedChildren = new ArrayList<>();
-                    List<Child> approvedChildren = new ArrayList<>();
-
-
-                    List<Child> childrenInGarden = new ArrayList<>();
-                    for (Child child : childrenList) {
-                        if (garden.getChildren() != null && garden.getChildren().containsKey(child.getID())) {
-                            boolean isApproved = garden.getChildren().get(child.getID()).isApproved(); // בדיקה אם הילד מאושר
-                            if (isApproved) {
-                                approvedChildren.add(child);
-                            } else {
-                                unapprovedChildren.add(child);
+            loadFullGarden(garden, holder.itemView, fullGarden -> {
+                fireBaseManager.getAllChildrenInGarden(fullGarden.getName(), childrenList -> {
+                    if (childrenList != null && !childrenList.isEmpty()) {
+                        List<Child> unapprovedChildren = new ArrayList<>();
+                        List<Child> approvedChildren = new ArrayList<>();
+
+
+                        List<Child> childrenInGarden = new ArrayList<>();
+                        for (Child child : childrenList) {
+                            if (fullGarden.getChildren() != null && fullGarden.getChildren().containsKey(child.getID())) {
+                                boolean isApproved = fullGarden.getChildren().get(child.getID()).isApproved(); // בדיקה אם הילד מאושר
+                                if (isApproved) {
+                                    approvedChildren.add(child);
+                                } else {
+                                    unapprovedChildren.add(child);
+                                }
+                                childrenInGarden.add(child);
                             }
-                            childrenInGarden.add(child);
                         }
-                    }
 
-                    if (!childrenInGarden.isEmpty()) {
-                        String[] unapprovedChildrenNames = new String[unapprovedChildren.size()];
-                        boolean[] checkedItems = new boolean[unapprovedChildren.size()];
-                        for (int i = 0; i < unapprovedChildren.size(); i++) {
-                            unapprovedChildrenNames[i] = unapprovedChildren.get(i).getFullName();
-                            checkedItems[i] = false;
-                        }
+                        if (!childrenInGarden.isEmpty()) {
+                            String[] unapprovedChildrenNames = new String[unapprovedChildren.size()];
+                            boolean[] checkedItems = new boolean[unapprovedChildren.size()];
+                            for (int i = 0; i < unapprovedChildren.size(); i++) {
+                                unapprovedChildrenNames[i] = unapprovedChildren.get(i).getFullName();
+                                checkedItems[i] = false;
+                            }
 
-                        displayChildrenDialog(context, holder, approvedChildren, unapprovedChildren, unapprovedChildrenNames, checkedItems, garden.getName());
+                            displayChildrenDialog(context, holder, approvedChildren, unapprovedChildren, unapprovedChildrenNames, checkedItems, fullGarden.getName());
+                        } else {
+                            Snackbar.make(holder.itemView, "No children found in this garden", Snackbar.LENGTH_SHORT).show();
+                        }
                     } else {
                         Snackbar.make(holder.itemView, "No children found in this garden", Snackbar.LENGTH_SHORT).show();
                     }
-                } else {
-                    Snackbar.make(holder.itemView, "No children found in this garden", Snackbar.LENGTH_SHORT).show();
-                }
+                });
             });
         });
 
@@ -183,111 +228,113 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
 
                 if (parentEmail != null) {
 
-                    fireBaseManager.getParentByEmail(parentEmail, (parentDocumentId, parent) -> {
-                        if (parent == null || parentDocumentId == null) {
-                            Snackbar.make(holder.itemView, "Failed to retrieve parent details", Snackbar.LENGTH_SHORT).show();
-                            return;
-                        }
+                    loadFullGarden(garden, holder.itemView, fullGarden -> {
+                        fireBaseManager.getParentByEmail(parentEmail, (parentDocumentId, parent) -> {
+                            if (parent == null || parentDocumentId == null) {
+                                Snackbar.make(holder.itemView, "Failed to retrieve parent details", Snackbar.LENGTH_SHORT).show();
+                                return;
+                            }
 
-                        List<Child> children = parent.getChildren();
-                        if (children == null || children.isEmpty()) {
-                            Snackbar.make(holder.itemView, "No children found for this parent", Snackbar.LENGTH_SHORT).show();
-                            return;
-                        }
+                            List<Child> children = parent.getChildren();
+                            if (children == null || children.isEmpty()) {
+                                Snackbar.make(holder.itemView, "No children found for this parent", Snackbar.LENGTH_SHORT).show();
+                                return;
+                            }
 
 
-                        List<Child> childrenInGarden = new ArrayList<>();
-                        for (Child child : children) {
-                            if (garden.getChildren() != null && garden.getChildren().containsKey(child.getID())) {
-                                childrenInGarden.add(child);
+                            List<Child> childrenInGarden = new ArrayList<>();
+                            for (Child child : children) {
+                                if (fullGarden.getChildren() != null && fullGarden.getChildren().containsKey(child.getID())) {
+                                    childrenInGarden.add(child);
+                                }
                             }
-                        }
 
-                        if (childrenInGarden.isEmpty()) {
-                            Snackbar.make(holder.itemView, "No children from this parent are in this garden", Snackbar.LENGTH_SHORT).show();
-                            return;
-                        }
+                            if (childrenInGarden.isEmpty()) {
+                                Snackbar.make(holder.itemView, "No children from this parent are in this garden", Snackbar.LENGTH_SHORT).show();
+                                return;
+                            }
 
 
-                        String[] childNames = new String[childrenInGarden.size()];
-                        boolean[] selectedChildren = new boolean[childrenInGarden.size()];
-                        for (int i = 0; i < childrenInGarden.size(); i++) {
-                            childNames[i] = childrenInGarden.get(i).getFullName();
-                            selectedChildren[i] = false; // אף אחד מהילדים לא נבחר כברירת מחדל
-                        }
+                            String[] childNames = new String[childrenInGarden.size()];
+                            boolean[] selectedChildren = new boolean[childrenInGarden.size()];
+                            for (int i = 0; i < childrenInGarden.size(); i++) {
+                                childNames[i] = childrenInGarden.get(i).getFullName();
+                                selectedChildren[i] = false; // אף אחד מהילדים לא נבחר כברירת מחדל
+                            }
 
 
-                        new AlertDialog.Builder(context)
-                                .setTitle("Select Children to Remove")
-                                .setMultiChoiceItems(childNames, selectedChildren, (dialog, which, isChecked) -> {
-                                    selectedChildren[which] = isChecked;
-                                })
-                                .setPositiveButton("Remove", (dialog, which) -> {
-                                    boolean hasUpdated = false;
-                                    List<Child> childrenToRemove = new ArrayList<>();
+                            new AlertDialog.Builder(context)
+                                    .setTitle("Select Children to Remove")
+                                    .setMultiChoiceItems(childNames, selectedChildren, (dialog, which, isChecked) -> {
+                                        selectedChildren[which] = isChecked;
+                                    })
+                                    .setPositiveButton("Remove", (dialog, which) -> {
+                                        boolean hasUpdated = false;
+                                        List<Child> childrenToRemove = new ArrayList<>();
 
-                                    for (int i = 0; i < selectedChildren.length; i++) {
-                                        if (selectedChildren[i]) {
-                                            String childId = childrenInGarden.get(i).getID();
+                                        for (int i = 0; i < selectedChildren.length; i++) {
+                                            if (selectedChildren[i]) {
+                                                String childId = childrenInGarden.get(i).getID();
 
 
-                                            if (garden.getChildren() != null) {
-                                                garden.getChildren().remove(childId);
-                                            }
+                                                if (fullGarden.getChildren() != null) {
+                                                    fullGarden.getChildren().remove(childId);
+                                                }
 
 
-                                            for (GardenClass gardenClass : garden.getClasses()) {
-                                                if (gardenClass.getChildren() != null) {
-                                                    gardenClass.getChildren().remove(childId);
+                                                for (GardenClass gardenClass : fullGarden.getClasses()) {
+                                                    if (gardenClass.getChildren() != null) {
+                                                        gardenClass.getChildren().remove(childId);
+                                                    }
                                                 }
-                                            }
 
 
-                                            childrenToRemove.add(childrenInGarden.get(i));
-                                            hasUpdated = true;
+                                                childrenToRemove.add(childrenInGarden.get(i));
+                                                hasUpdated = true;
 
 
-                                            fireBaseManager.deleteChildById(childId, success -> {
-                                                if (!success) {
-                                                    Snackbar.make(holder.itemView, "Failed to delete child from Firestore", Snackbar.LENGTH_SHORT).show();
-                                                }
-                                            });
+                                                fireBaseManager.deleteChildById(childId, success -> {
+                                                    if (!success) {
+                                                        Snackbar.make(holder.itemView, "Failed to delete child from Firestore", Snackbar.LENGTH_SHORT).show();
+                                                    }
+                                                });
+                                            }
                                         }
-                                    }
 
-                                    if (hasUpdated) {
+                                        if (hasUpdated) {
 
-                                        fireBaseManager.getGardenByName(garden.getName(), retrievedGarden -> {
-                                            if (retrievedGarden != null && retrievedGarden.getId() != null) {
-                                                fireBaseManager.updateKinderGarten(retrievedGarden.getId(), garden, successUpdate -> {
-                                                    if (successUpdate) {
+                                            fireBaseManager.getGardenByName(fullGarden.getName(), retrievedGarden -> {
+                                                if (retrievedGarden != null && retrievedGarden.getId() != null) {
+                                                    fireBaseManager.updateKinderGarten(retrievedGarden.getId(), fullGarden, successUpdate -> {
+                                                        if (successUpdate) {
 
-                                                        for (Child childToRemove : childrenToRemove) {
-                                                            children.remove(childToRemove);
+                                                            for (Child childToRemove : childrenToRemove) {
+                                                                children.remove(childToRemove);
 
 
-                                                            fireBaseManager.updateParent(parentDocumentId, parent, success -> {
-                                                                if (success) {
-                                                                    Snackbar.make(holder.itemView, "Selected children removed successfully from garden, classes, parent, and Firestore", Snackbar.LENGTH_SHORT).show();
-                                                                } else {
-                                                                    Snackbar.make(holder.itemView, "Failed to update parent after removing children", Snackbar.LENGTH_SHORT).show();
-                                                                }
-                                                            });
+                                                                fireBaseManager.updateParent(parentDocumentId, parent, success -> {
+                                                                    if (success) {
+                                                                        Snackbar.make(holder.itemView, "Selected children removed successfully from garden, classes, parent, and Firestore", Snackbar.LENGTH_SHORT).show();
+                                                                    } else {
+                                                                        Snackbar.make(holder.itemView, "Failed to update parent after removing children", Snackbar.LENGTH_SHORT).show();
+                                                                    }
+                                                                });
+                                                            }
+                                                        } else {
+                                                            Snackbar.make(holder.itemView, "Failed to remove children from garden and classes", Snackbar.LENGTH_SHORT).show();
                                                         }
-                                                    } else {
-                                                        Snackbar.make(holder.itemView, "Failed to remove children from garden and classes", Snackbar.LENGTH_SHORT).show();
-                                                    }
-                                                });
-                                            } else {
-                                                Snackbar.make(holder.itemView, "Failed to retrieve garden by name or Document ID", Snackbar.LENGTH_SHORT).show();
-                                            }
-                                        });
-                                    } else {
-                                        Snackbar.make(holder.itemView, "No children selected for removal", Snackbar.LENGTH_SHORT).show();
-                                    }
-                                })
-                                .setNegativeButton("Cancel", null)
-                                .show();
+                                                    });
+                                                } else {
+                                                    Snackbar.make(holder.itemView, "Failed to retrieve garden by name or Document ID", Snackbar.LENGTH_SHORT).show();
+                                                }
+                                            });
+                                        } else {
+                                            Snackbar.make(holder.itemView, "No children selected for removal", Snackbar.LENGTH_SHORT).show();
+                                        }
+                                    })
+                                    .setNegativeButton("Cancel", null)
+                                    .show();
+                        });
                     });
                 } else {
                     Snackbar.make(holder.itemView, "Failed to retrieve parent email from session", Snackbar.LENGTH_SHORT).show();
@@ -296,9 +343,12 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
                 showConfirmationDialog("Delete Garden", "Are you sure you want to delete this garden?", () -> {
                     fireBaseManager.deleteKinderGarten(garden.getId(), holder.itemView, gartenId -> {
                         if (gartenId != null) {
-                            gardens.remove(position);
-                            notifyItemRemoved(position);
-                            notifyItemRangeChanged(position, gardens.size());
+                            // The row may have moved since it was bound, e.g. after a live update
+                            int index = gardens.indexOf(garden);
+                            if (index >= 0) {
+                                gardens.remove(index);
+                                notifyItemRemoved(index);
+                            }
                             Snackbar.make(holder.itemView, "Garden deleted successfully", Snackbar.LENGTH_SHORT).show();
                         } else {
                             Snackbar.make(holder.itemView, "Failed to delete garden", Snackbar.LENGTH_SHORT).show();
@@ -320,11 +370,13 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
                         .addToBackStack(null)
                         .commit();
             } else {
-                AddGardenFragment addGardenFragment = AddGardenFragment.newInstance(garden);
-                ((FragmentActivity) context).getSupportFragmentManager().beginTransaction()
-                        .replace(R.id.fragment_container, addGardenFragment)
-                        .addToBackStack(null)
-                        .commit();
+                loadFullGarden(garden, holder.itemView, fullGarden -> {
+                    AddGardenFragment addGardenFragment = AddGardenFragment.newInstance(fullGarden);
+                    ((FragmentActivity) context).getSupportFragmentManager().beginTransaction()
+                            .replace(R.id.fragment_container, addGardenFragment)
+                            .addToBackStack(null)
+                            .commit();
+                });
             }
         });
 
@@ -389,30 +441,20 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
                     String selectedAffiliation = affiliationsArray[which];
 
 
-                    fireBaseManager.getGartenIdByName(garden.getName(), new FireBaseManager.GartenIdCallback() {
-                        @Override
-                        public void onCallback(String gartenId) {
-                            if (gartenId != null) {
-
-                                garden.setId(gartenId);
-
-                                garden.setOrganizationalAffiliation(selectedAffiliation);
-
+                    loadFullGarden(garden, holder.itemView, fullGarden -> {
+                        fullGarden.setOrganizationalAffiliation(selectedAffiliation);
 
-                                fireBaseManager.updateKinderGarten(garden, new FireBaseManager.GartenIdCallback() {
-                                    @Override
-                                    public void onCallback(String gartenId) {
-                                        if (gartenId != null) {
-                                            Snackbar.make(holder.itemView, "Affiliation updated successfully", Snackbar.LENGTH_SHORT).show();
-                                        } else {
-                                            Snackbar.make(holder.itemView, "Failed to update affiliation", Snackbar.LENGTH_SHORT).show();
-                                        }
-                                    }
-                                }, holder.itemView);
-                            } else {
-                                Snackbar.make(holder.itemView, "Failed to find garden by name", Snackbar.LENGTH_SHORT).show();
+                        fireBaseManager.updateKinderGarten(fullGarden, new FireBaseManager.GartenIdCallback() {
+                            @Override
+                            public void onCallback(String gartenId) {
+                                if (gartenId != null) {
+                                    garden.setOrganizationalAffiliation(selectedAffiliation);
+                                    Snackbar.make(holder.itemView, "Affiliation updated successfully", Snackbar.LENGTH_SHORT).show();
+                                } else {
+                                    Snackbar.make(holder.itemView, "Failed to update affiliation", Snackbar.LENGTH_SHORT).show();
+                                }
                             }
-                        }
+                        }, holder.itemView);
                     });
                 });
                 builder.setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss());
@@ -541,6 +583,17 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
         builder.show();
     }
 
+    // Lists hold only the summary fields, so actions that use the children or classes load the full garden first
+    private void loadFullGarden(Garden garden, View view, FireBaseManager.GartenCallback callback) {
+        fireBaseManager.getGartenById(garden.getId(), fullGarden -> {
+            if (fullGarden != null) {
+                callback.onCallback(fullGarden);
+            } else {
+                Snackbar.make(view, "Failed to load garden details", Snackbar.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     private void showConfirmationDialog(String title, String message, Runnable onConfirm) {
         new AlertDialog.Builder(context)
                 .setTitle(title)
@@ -551,15 +604,54 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
     }
     public void updateGardens(List<Garden> gardens) {
         this.gardens = gardens;
+        differ = null;
         notifyDataSetChanged();
     }
 
 
+    // Preloads the cover images ahead of the rows of every RecyclerView displaying this adapter
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        preloader = new RecyclerViewPreloader<>(Glide.with(context), this, preloadSizeProvider, MAX_PRELOAD);
+        recyclerView.addOnScrollListener(preloader);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(preloader);
+    }
+
+    @NonNull
+    @Override
+    public List<Garden> getPreloadItems(int position) {
+        if (position >= gardens.size() || gardens.get(position).getImageUrl() == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(gardens.get(position));
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull Garden garden) {
+        return imageRequest(garden);
+    }
+
+    // Center-cropped explicitly, like the layout, so bound and preloaded requests share one cache key
+    private RequestBuilder<Drawable> imageRequest(Garden garden) {
+        return Glide.with(context)
+                .load(garden.getImageUrl())
+                .centerCrop();
+    }
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         TextView textViewName, textViewAddress, textViewCity,StatusText;
         Button buttonDeleteGarden, buttonEditGarden, buttonViewClasses, buttonRegisterGarden, OpenRegisterGarden,
                 buttonChangeAffiliation, buttonViewChildren,ButtonRateGarden,ReviewsButton,buttonPhotos;
         ImageView imageViewGarten;
+        // The labels from the layout, kept so that rebinding a recycled row does not append the values twice
+        CharSequence nameLabel, addressLabel, cityLabel, statusLabel;
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -578,6 +670,10 @@ public class GardenAdapter extends RecyclerView.Adapter<GardenAdapter.ViewHolder
             ReviewsButton = itemView.findViewById(R.id.Reviews);
             buttonPhotos = itemView.findViewById(R.id.buttonPhoto);
             StatusText = itemView.findViewById(R.id.StatusText);
+            nameLabel = textViewName.getText();
+            addressLabel = textViewAddress.getText();
+            cityLabel = textViewCity.getText();
+            statusLabel = StatusText.getText();
         }
     }
 }
@@ -2,6 +2,7 @@ package Adapters;
 
 import android.app.AlertDialog;
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,6 +11,7 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.FragmentActivity;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalprojectapp.R;
@@ -26,10 +28,27 @@ import Objects.GardenClass;
  */
 public class GardenClassAdapter extends RecyclerView.Adapter<GardenClassAdapter.ClassViewHolder> {
 
+    // Course numbers are unique within a garden, so they identify a class across updates
+    private static final DiffUtil.ItemCallback<GardenClass> DIFF_CALLBACK = new DiffUtil.ItemCallback<GardenClass>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull GardenClass oldClass, @NonNull GardenClass newClass) {
+            return TextUtils.equals(oldClass.getCourseNumber(), newClass.getCourseNumber());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull GardenClass oldClass, @NonNull GardenClass newClass) {
+            return TextUtils.equals(oldClass.getCourseType(), newClass.getCourseType())
+                    && oldClass.getMaxChildren() == newClass.getMaxChildren()
+                    && oldClass.getMinAge() == newClass.getMinAge()
+                    && oldClass.getMaxAge() == newClass.getMaxAge();
+        }
+    };
+
     private List<GardenClass> classes;
     private Context context;
     private FireBaseManager fireBaseManager;
     private String gartenId;
+    private final BackgroundListDiffer<GardenClass> differ;
 
     /**
      * Constructor for GardenClassAdapter.
@@ -44,6 +63,16 @@ public class GardenClassAdapter extends RecyclerView.Adapter<GardenClassAdapter.
         this.context = context;
         this.fireBaseManager = fireBaseManager;
         this.gartenId = gartenId;
+        this.differ = new BackgroundListDiffer<>(classes, this, DIFF_CALLBACK);
+    }
+
+    /**
+     * Replaces the displayed classes, diffing the lists off the main thread and notifying only the changed rows.
+     *
+     * @param newClasses The new list of classes.
+     */
+    public void submitClasses(List<GardenClass> newClasses) {
+        differ.submit(newClasses);
     }
 
     @NonNull
@@ -64,7 +93,7 @@ public class GardenClassAdapter extends RecyclerView.Adapter<GardenClassAdapter.
         holder.ageRange.setText("Age Range: " + gardenClass.getMinAge() + " - " + gardenClass.getMaxAge());
 
         // Set up click listeners for delete and edit buttons
-        holder.buttonDeleteClass.setOnClickListener(v -> showDeleteDialog(holder.itemView, gardenClass, position));
+        holder.buttonDeleteClass.setOnClickListener(v -> showDeleteDialog(holder.itemView, gardenClass));
         holder.buttonEditClass.setOnClickListener(v -> showEditFragment(gardenClass));
     }
 
@@ -99,13 +128,12 @@ public class GardenClassAdapter extends RecyclerView.Adapter<GardenClassAdapter.
      *
      * @param view The view to anchor the Snackbar.
      * @param gardenClass The garden class to be deleted.
-     * @param position The position of the garden class in the list.
      */
-    private void showDeleteDialog(View view, GardenClass gardenClass, int position) {
+    private void showDeleteDialog(View view, GardenClass gardenClass) {
         new AlertDialog.Builder(context)
                 .setTitle("Delete Class")
                 .setMessage("Are you sure you want to delete this class?")
-                .setPositiveButton("Yes", (dialog, which) -> deleteClass(view, gardenClass, position))
+                .setPositiveButton("Yes", (dialog, which) -> deleteClass(view, gardenClass))
                 .setNegativeButton("No", null)
                 .show();
     }
@@ -115,16 +143,18 @@ public class GardenClassAdapter extends RecyclerView.Adapter<GardenClassAdapter.
      *
      * @param view The view to anchor the Snackbar.
      * @param gardenClass The garden class to be deleted.
-     * @param position The position of the garden class in the list.
      */
-    private void deleteClass(View view, GardenClass gardenClass, int position) {
+    private void deleteClass(View view, GardenClass gardenClass) {
         fireBaseManager.deleteClassFromGarten(gartenId, gardenClass, new FireBaseManager.GartenIdCallback() {
             @Override
             public void onCallback(String gartenId) {
                 if (gartenId != null) {
-                    classes.remove(position);
-                    notifyItemRemoved(position);
-                    notifyItemRangeChanged(position, classes.size());
+                    // Look the class up again, since live updates may have moved its row
+                    int index = classes.indexOf(gardenClass);
+                    if (index >= 0) {
+                        classes.remove(index);
+                        notifyItemRemoved(index);
+                    }
                     Snackbar.make(view, "Class deleted successfully", Snackbar.LENGTH_SHORT).show();
                 } else {
                     Snackbar.make(view, "Failed to delete class", Snackbar.LENGTH_SHORT).show();
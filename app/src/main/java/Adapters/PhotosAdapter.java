@@ -1,6 +1,8 @@
 package Adapters;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,21 +10,38 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.finalprojectapp.R;
 
+import java.util.Collections;
 import java.util.List;
 
 import Objects.ChildPhoto;
 
 /**
  * Adapter for displaying a list of ChildPhoto objects in a RecyclerView.
+ * The photos ahead of the scroll direction are preloaded at the size of the displayed image view.
  */
-public class PhotosAdapter extends RecyclerView.Adapter<PhotosAdapter.PhotoViewHolder> {
+public class PhotosAdapter extends RecyclerView.Adapter<PhotosAdapter.PhotoViewHolder> implements ListPreloader.PreloadModelProvider<ChildPhoto> {
+
+    // How many photos ahead of the scroll direction are loaded before their rows are shown
+    private static final int MAX_PRELOAD = 8;
+
     private List<ChildPhoto> photosList;
     private Context context;
+    private final ViewPreloadSizeProvider<ChildPhoto> preloadSizeProvider = new ViewPreloadSizeProvider<>();
+    private RecyclerViewPreloader<ChildPhoto> preloader;
 
     /**
      * Constructor for PhotosAdapter.
@@ -46,8 +65,12 @@ public class PhotosAdapter extends RecyclerView.Adapter<PhotosAdapter.PhotoViewH
     public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
         ChildPhoto photo = photosList.get(position);
 
-        // Display the image using Glide
-        Glide.with(context).load(photo.getImageURL()).into(holder.imageView);
+        // Display the thumbnail using Glide, with the same request the preloader uses
+        boolean hasThumbnail = photo.getThumbnailURL() != null;
+        imageRequest(photo)
+                .listener(new DownloadLogger(hasThumbnail ? photo.getThumbnailBytes() : photo.getImageBytes()))
+                .into(holder.imageView);
+        preloadSizeProvider.setView(holder.imageView);
 
         // Display other parameters
         holder.textViewChildId.setText("Child ID: " + photo.getChildId());
@@ -60,6 +83,60 @@ public class PhotosAdapter extends RecyclerView.Adapter<PhotosAdapter.PhotoViewH
         return photosList.size();
     }
 
+    /**
+     * Starts preloading photos as the RecyclerView displaying this adapter scrolls.
+     *
+     * @param recyclerView The RecyclerView.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        preloader = new RecyclerViewPreloader<>(Glide.with(context), this, preloadSizeProvider, MAX_PRELOAD);
+        recyclerView.addOnScrollListener(preloader);
+    }
+
+    /**
+     * Stops preloading photos for a RecyclerView that no longer displays this adapter.
+     *
+     * @param recyclerView The RecyclerView.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(preloader);
+    }
+
+    @NonNull
+    @Override
+    public List<ChildPhoto> getPreloadItems(int position) {
+        if (position >= photosList.size()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(photosList.get(position));
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull ChildPhoto photo) {
+        return imageRequest(photo);
+    }
+
+    /**
+     * Builds the request for a photo's list image: its thumbnail, or the full image for photos uploaded
+     * before thumbnails existed. A low-resolution request of the same URL would download and decode the same
+     * source again, so none is added. The image is center-cropped explicitly, like the layout,
+     * so the bound and preloaded requests share one cache key.
+     *
+     * @param photo The photo.
+     * @return The request, without a target.
+     */
+    private RequestBuilder<Drawable> imageRequest(ChildPhoto photo) {
+        if (photo.getThumbnailURL() != null) {
+            return Glide.with(context).load(photo.getThumbnailURL()).centerCrop();
+        }
+        return Glide.with(context).load(photo.getImageURL()).centerCrop();
+    }
+
     /**
      * Updates the list of photos and notifies the adapter of data changes.
      *
@@ -71,6 +148,36 @@ public class PhotosAdapter extends RecyclerView.Adapter<PhotosAdapter.PhotoViewH
         notifyDataSetChanged();
     }
 
+    /**
+     * Logs the bytes downloaded for a photo when it is loaded from the network rather than from Glide's caches.
+     */
+    private static class DownloadLogger implements RequestListener<Drawable> {
+        private final long bytes;
+
+        /**
+         * Constructor for DownloadLogger.
+         *
+         * @param bytes The size of the loaded file, or 0 if it is unknown.
+         */
+        DownloadLogger(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target, boolean isFirstResource) {
+            Log.w("PhotosAdapter", "Failed to load photo " + model, e);
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target, DataSource dataSource, boolean isFirstResource) {
+            if (dataSource == DataSource.REMOTE) {
+                Log.d("PhotosAdapter", "Downloaded " + (bytes > 0 ? bytes + " bytes" : "a photo of unknown size") + " for " + model);
+            }
+            return false;
+        }
+    }
+
     /**
      * ViewHolder class for holding and binding photo item views.
      */
@@ -54,6 +54,17 @@ public class ReviewsAdapter extends RecyclerView.Adapter<ReviewsAdapter.ReviewVi
         notifyDataSetChanged();
     }
 
+    /**
+     * Appends a page of reviews to the end of the list and notifies the adapter of the inserted items.
+     *
+     * @param page The Review objects to append.
+     */
+    public void addReviews(List<Review> page) {
+        int start = reviews.size();
+        reviews.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
     @NonNull
     @Override
     public ReviewViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -140,28 +151,13 @@ public class ReviewsAdapter extends RecyclerView.Adapter<ReviewsAdapter.ReviewVi
      * @param view            The view associated with this operation.
      */
     private void saveManagerResponse(Review review, String managerResponse, View view) {
-        review.setManagerResponse(managerResponse);
-
-        // Update the review in Firebase for the garden by garden name
-        fireBaseManager.updateReviewInGardenByName(gartenName, review);
-
-        // Update the review in Firebase for the parent by parent email
-        fireBaseManager.updateReviewInParentByEmail(review.getParentEmail(), review);
-    }
-
-    /**
-     * Reloads the reviews from Firebase and updates the adapter.
-     *
-     * @param view The view associated with this operation.
-     */
-    private void reloadReviews(View view) {
-        fireBaseManager.getReviewsForGarten(gartenName, reviews -> {
-            if (reviews != null && !reviews.isEmpty()) {
-                setReviews(reviews);
+        // Write the response to the garden's and the parent's copy of the review together
+        fireBaseManager.updateManagerResponse(gartenName, review, managerResponse, success -> {
+            if (success) {
+                Toast.makeText(view.getContext(), "Response saved", Toast.LENGTH_SHORT).show();
             } else {
-                setReviews(new ArrayList<>());
+                Toast.makeText(view.getContext(), "Failed to save response", Toast.LENGTH_SHORT).show();
             }
-            notifyDataSetChanged();
         });
     }
 
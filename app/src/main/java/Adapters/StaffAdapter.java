@@ -1,5 +1,6 @@
 package Adapters;
 
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -8,12 +9,12 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalprojectapp.R;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -23,9 +24,30 @@ import Objects.GardenStaff;
  * Adapter for displaying a list of GardenStaff objects in a RecyclerView.
  */
 public class StaffAdapter extends RecyclerView.Adapter<StaffAdapter.StaffViewHolder> {
-    private List<GardenStaff> staffList;
+    // Staff members are identified by their email and rebound when a displayed field changes
+    private static final DiffUtil.ItemCallback<GardenStaff> DIFF_CALLBACK = new DiffUtil.ItemCallback<GardenStaff>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull GardenStaff oldStaff, @NonNull GardenStaff newStaff) {
+            return TextUtils.equals(oldStaff.getEmail(), newStaff.getEmail());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull GardenStaff oldStaff, @NonNull GardenStaff newStaff) {
+            return TextUtils.equals(oldStaff.getName(), newStaff.getName())
+                    && TextUtils.equals(oldStaff.getRole(), newStaff.getRole())
+                    && (oldStaff.getStartToWork() == null ? newStaff.getStartToWork() == null : oldStaff.getStartToWork().equals(newStaff.getStartToWork()))
+                    && TextUtils.equals(gartenName(oldStaff), gartenName(newStaff));
+        }
+
+        private String gartenName(GardenStaff staff) {
+            return staff.getGarten() != null ? staff.getGarten().getName() : null;
+        }
+    };
+
+    private final List<GardenStaff> staffList;
     private static SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
     private OnItemClickListener listener;
+    private final BackgroundListDiffer<GardenStaff> differ;
 
     /**
      * Interface for handling item click events.
@@ -46,16 +68,28 @@ public class StaffAdapter extends RecyclerView.Adapter<StaffAdapter.StaffViewHol
     public StaffAdapter(List<GardenStaff> staffList, OnItemClickListener listener) {
         this.staffList = staffList;
         this.listener = listener;
+        this.differ = new BackgroundListDiffer<>(staffList, this, DIFF_CALLBACK);
     }
 
     /**
-     * Updates the list of staff and notifies the adapter of data changes.
+     * Updates the list of staff. The lists are diffed off the main thread and only the changed rows are notified.
      *
      * @param newList The new list of GardenStaff objects.
      */
     public void updateList(List<GardenStaff> newList) {
-        staffList = new ArrayList<>(newList);
-        notifyDataSetChanged();
+        differ.submit(newList);
+    }
+
+    /**
+     * Rebinds a staff member that was changed in place, e.g. by a dialog.
+     *
+     * @param staff The changed GardenStaff object.
+     */
+    public void refresh(GardenStaff staff) {
+        int index = staffList.indexOf(staff);
+        if (index >= 0) {
+            notifyItemChanged(index);
+        }
     }
 
     @NonNull
@@ -14,6 +14,12 @@ public class ChildPhoto {
 
     private String ChildId;
 
+    private String ThumbnailURL; // תמונה מוקטנת למסכי רשימה
+
+    private long ImageBytes; // גודל התמונה שהועלתה בבתים
+
+    private long ThumbnailBytes; // גודל התמונה המוקטנת בבתים
+
 
     public ChildPhoto() {
 
@@ -58,5 +64,28 @@ public class ChildPhoto {
     public void setChildId(String childId) {
         ChildId = childId;
     }
-}
 
+    public String getThumbnailURL() {
+        return ThumbnailURL;
+    }
+
+    public void setThumbnailURL(String thumbnailURL) {
+        ThumbnailURL = thumbnailURL;
+    }
+
+    public long getImageBytes() {
+        return ImageBytes;
+    }
+
+    public void setImageBytes(long imageBytes) {
+        ImageBytes = imageBytes;
+    }
+
+    public long getThumbnailBytes() {
+        return ThumbnailBytes;
+    }
+
+    public void setThumbnailBytes(long thumbnailBytes) {
+        ThumbnailBytes = thumbnailBytes;
+    }
+}
@@ -20,7 +20,11 @@ public class Garden implements Serializable {
     private List<GardenClass> classes;
     private Map<String, ChildStatus> children = new HashMap<>();
     private List<Review> reviews;
+    private int ratingSum;
+    private int ratingCount;
     private double averageRating;
+    private double ratingPercent;
+    private Map<String, Integer> ratingHistogram = new HashMap<>();
     private boolean isRegistered;
     private Date registrationStartDate;
 
@@ -175,6 +179,22 @@ public class Garden implements Serializable {
         }
         this.reviews.add(review);
     }
+    public int getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(int ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
     public double getAverageRating() {
         return averageRating;
     }
@@ -183,6 +203,44 @@ public class Garden implements Serializable {
         this.averageRating = averageRating;
     }
 
+    public double getRatingPercent() {
+        return ratingPercent;
+    }
+
+    public void setRatingPercent(double ratingPercent) {
+        this.ratingPercent = ratingPercent;
+    }
+
+    public Map<String, Integer> getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public void setRatingHistogram(Map<String, Integer> ratingHistogram) {
+        this.ratingHistogram = ratingHistogram;
+    }
+
+    /**
+     * Returns the rating (1-10) at the given percentile of this garden's rating histogram.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The rating at that percentile, or 0 if the garden has no ratings.
+     */
+    public int ratingAtPercentile(double percentile) {
+        if (ratingHistogram == null || ratingCount == 0) {
+            return 0;
+        }
+        double target = Math.max(1, Math.ceil(percentile / 100.0 * ratingCount));
+        int seen = 0;
+        for (int rating = 1; rating <= 10; rating++) {
+            Integer count = ratingHistogram.get(String.valueOf(rating));
+            seen += count != null ? count : 0;
+            if (seen >= target) {
+                return rating;
+            }
+        }
+        return 10;
+    }
+
 
     public String getStatus() {
         return status;
@@ -0,0 +1,220 @@
+package Objects;
+
+import com.google.firebase.firestore.ServerTimestamp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * GardenSummary holds the fields of a kindergarten shown in list screens.
+ * It is stored in the gardenSummaries collection under the same ID as the kindergarten,
+ * so lists can be loaded without the children, classes and reviews of each kindergarten.
+ */
+public class GardenSummary {
+
+    // Firestore fields of a kindergarten that are copied to its summary
+    public static final List<String> FIELDS = Arrays.asList(
+            "name", "address", "city", "imageUrl", "organizationalAffiliation",
+            "registered", "registrationStartDate", "status",
+            "averageRating", "ratingPercent", "ratingCount");
+
+    private String id;
+    private String name;
+    private String address;
+    private String city;
+    private String imageUrl;
+    private String organizationalAffiliation;
+    private boolean registered;
+    private Date registrationStartDate;
+    private String status;
+    private double averageRating;
+    private double ratingPercent;
+    private int ratingCount;
+    private List<Integer> ages;  // הגילאים שמכוסים על ידי הכיתות של הגן, לחיפוש לפי גיל
+    @ServerTimestamp
+    private Date updatedAt;  // זמן הכתיבה האחרונה לתקציר, לסנכרון של אינדקס החיפוש
+
+    public GardenSummary() {
+        // קונסטרוקטור ריק נדרש לפיירבייס
+    }
+
+    /**
+     * Creates the summary of a kindergarten.
+     *
+     * @param garden The full kindergarten.
+     * @return The summary of the kindergarten.
+     */
+    public static GardenSummary from(Garden garden) {
+        GardenSummary summary = new GardenSummary();
+        summary.id = garden.getId();
+        summary.name = garden.getName();
+        summary.address = garden.getAddress();
+        summary.city = garden.getCity();
+        summary.imageUrl = garden.getImageUrl();
+        summary.organizationalAffiliation = garden.getOrganizationalAffiliation();
+        summary.registered = garden.isRegistered();
+        summary.registrationStartDate = garden.getRegistrationStartDate();
+        summary.status = garden.getStatus();
+        summary.averageRating = garden.getAverageRating();
+        summary.ratingPercent = garden.getRatingPercent();
+        summary.ratingCount = garden.getRatingCount();
+        summary.ages = agesOf(garden.getClasses());
+        return summary;
+    }
+
+    /**
+     * Returns every age, in years, accepted by at least one of the given classes.
+     *
+     * @param classes The classes of a kindergarten.
+     * @return The sorted list of ages.
+     */
+    public static List<Integer> agesOf(List<GardenClass> classes) {
+        TreeSet<Integer> ages = new TreeSet<>();
+        if (classes != null) {
+            for (GardenClass gardenClass : classes) {
+                for (int age = gardenClass.getMinAge(); age <= gardenClass.getMaxAge(); age++) {
+                    ages.add(age);
+                }
+            }
+        }
+        return new ArrayList<>(ages);
+    }
+
+    /**
+     * Creates a Garden holding only the summary fields, for adapters that display Garden objects.
+     * Its children and classes are not loaded.
+     *
+     * @return A partially filled Garden.
+     */
+    public Garden toGarden() {
+        Garden garden = new Garden(id, name);
+        garden.setAddress(address);
+        garden.setCity(city);
+        garden.setImageUrl(imageUrl);
+        garden.setOrganizationalAffiliation(organizationalAffiliation);
+        garden.setRegistered(registered);
+        garden.setRegistrationStartDate(registrationStartDate);
+        garden.setStatus(status);
+        garden.setAverageRating(averageRating);
+        garden.setRatingPercent(ratingPercent);
+        garden.setRatingCount(ratingCount);
+        return garden;
+    }
+
+    // Getters and Setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getOrganizationalAffiliation() {
+        return organizationalAffiliation;
+    }
+
+    public void setOrganizationalAffiliation(String organizationalAffiliation) {
+        this.organizationalAffiliation = organizationalAffiliation;
+    }
+
+    public boolean isRegistered() {
+        return registered;
+    }
+
+    public void setRegistered(boolean registered) {
+        this.registered = registered;
+    }
+
+    public Date getRegistrationStartDate() {
+        return registrationStartDate;
+    }
+
+    public void setRegistrationStartDate(Date registrationStartDate) {
+        this.registrationStartDate = registrationStartDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public double getRatingPercent() {
+        return ratingPercent;
+    }
+
+    public void setRatingPercent(double ratingPercent) {
+        this.ratingPercent = ratingPercent;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public List<Integer> getAges() {
+        return ages;
+    }
+
+    public void setAges(List<Integer> ages) {
+        this.ages = ages;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,74 @@
+package Objects;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.ServerTimestamp;
+
+/**
+ * ParentEvent is an entry in the events feed of a parent, stored in Parents/{parentId}/events.
+ * Staff actions that concern a parent's child append an event, and the parent's app listens to
+ * the events created after the last one it has seen.
+ */
+public class ParentEvent {
+
+    public static final String TYPE_CHILD_APPROVED = "CHILD_APPROVED";
+    public static final String TYPE_NOTE_ADDED = "NOTE_ADDED";
+    public static final String TYPE_PHOTO_ADDED = "PHOTO_ADDED";
+
+    private String type; // סוג האירוע
+    private String childId;
+    private String childName;
+    private String gardenName;
+    @ServerTimestamp
+    private Timestamp createdAt; // נקבע על ידי השרת בזמן הכתיבה, כולל ננו-שניות כדי לשמש כסמן
+
+    public ParentEvent() {
+        // קונסטרוקטור ריק נדרש לפיירבייס
+    }
+
+    public ParentEvent(String type, String childId, String childName, String gardenName) {
+        this.type = type;
+        this.childId = childId;
+        this.childName = childName;
+        this.gardenName = gardenName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getChildId() {
+        return childId;
+    }
+
+    public void setChildId(String childId) {
+        this.childId = childId;
+    }
+
+    public String getChildName() {
+        return childName;
+    }
+
+    public void setChildName(String childName) {
+        this.childName = childName;
+    }
+
+    public String getGardenName() {
+        return gardenName;
+    }
+
+    public void setGardenName(String gardenName) {
+        this.gardenName = gardenName;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -3,7 +3,9 @@ package Objects;
 import java.util.Date;
 
 public class Review {
+    private String id;  // מזהה קבוע, זהה למזהה המסמך בגן ובהורה
     private String parentEmail;
+    private String parentId;  // מזהה המסמך של ההורה, לכתיבה ישירה לעותק של ההורה
     private int rating;  // דירוג בין 1 ל-10
     private String comment;  // ביקורת שההורה כתב
     private String managerResponse;  // תגובה מהמנהל
@@ -23,6 +25,14 @@ public class Review {
 
     // Getters and Setters
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public String getParentEmail() {
         return parentEmail;
     }
@@ -31,6 +41,14 @@ public class Review {
         this.parentEmail = parentId;
     }
 
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
     public int getRating() {
         return rating;
     }
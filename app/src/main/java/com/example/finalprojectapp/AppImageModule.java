@@ -0,0 +1,59 @@
+package com.example.finalprojectapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * AppImageModule configures Glide for the app's image lists.
+ * The memory cache holds three screens of images instead of two, so a list scrolled back and forth and
+ * the items the RecyclerView preloaders fetch ahead stay decoded. Cover images and photos are immutable
+ * once uploaded, so the disk cache is sized to keep a long scroll history of them.
+ * Every load is counted by ImageLoadStats, which logs decode counts and cache hit ratios.
+ */
+@GlideModule
+public class AppImageModule extends AppGlideModule {
+
+    private static final float MEMORY_CACHE_SCREENS = 3;
+    private static final float BITMAP_POOL_SCREENS = 3;
+    private static final long DISK_CACHE_BYTES = 150L * 1024 * 1024;
+    private static final String DISK_CACHE_NAME = "image_cache";
+
+    /**
+     * Sets the cache budgets and registers the load statistics listener.
+     *
+     * @param context The application context.
+     * @param builder The builder used to create Glide.
+     */
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_BYTES));
+        builder.addGlobalRequestListener(ImageLoadStats.getInstance());
+        builder.setLogLevel(Log.ERROR);
+    }
+
+    /**
+     * The app declares no Glide modules in its manifest, so skip parsing it.
+     *
+     * @return False.
+     */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
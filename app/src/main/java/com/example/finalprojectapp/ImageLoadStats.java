@@ -0,0 +1,113 @@
+package com.example.finalprojectapp;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ImageLoadStats counts the images Glide loads by where they came from, so scrolling a list can be measured.
+ * A load from the memory cache needs no decode; every other load decodes a bitmap, either from Glide's disk
+ * cache or from a downloaded file. The counters are logged every LOG_INTERVAL loads and can be read and reset,
+ * e.g. around a scroll of a list.
+ */
+public class ImageLoadStats implements RequestListener<Object> {
+
+    private static final int LOG_INTERVAL = 50;
+    private static final ImageLoadStats instance = new ImageLoadStats();
+
+    private final AtomicInteger memoryHits = new AtomicInteger();
+    private final AtomicInteger diskHits = new AtomicInteger();
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private ImageLoadStats() {
+    }
+
+    /**
+     * Returns the statistics shared by every Glide request.
+     *
+     * @return The shared ImageLoadStats.
+     */
+    public static ImageLoadStats getInstance() {
+        return instance;
+    }
+
+    @Override
+    public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Object> target, boolean isFirstResource) {
+        failures.incrementAndGet();
+        return false;
+    }
+
+    @Override
+    public boolean onResourceReady(Object resource, Object model, Target<Object> target, DataSource dataSource, boolean isFirstResource) {
+        switch (dataSource) {
+            case MEMORY_CACHE:
+                memoryHits.incrementAndGet();
+                break;
+            case RESOURCE_DISK_CACHE:
+            case DATA_DISK_CACHE:
+                diskHits.incrementAndGet();
+                break;
+            default:
+                downloads.incrementAndGet();
+                break;
+        }
+        if (getLoadCount() % LOG_INTERVAL == 0) {
+            Log.d("ImageLoadStats", toString());
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of images loaded successfully.
+     *
+     * @return The load count.
+     */
+    public int getLoadCount() {
+        return memoryHits.get() + diskHits.get() + downloads.get();
+    }
+
+    /**
+     * Returns the number of loads that had to decode a bitmap, i.e. every load not served from the memory cache.
+     *
+     * @return The decode count.
+     */
+    public int getDecodeCount() {
+        return diskHits.get() + downloads.get();
+    }
+
+    /**
+     * Returns the share of loads served from the memory or disk cache.
+     *
+     * @return The cache hit ratio, from 0 to 1, or 0 if nothing was loaded.
+     */
+    public float getCacheHitRatio() {
+        int loads = getLoadCount();
+        return loads == 0 ? 0 : (float) (memoryHits.get() + diskHits.get()) / loads;
+    }
+
+    /**
+     * Resets every counter.
+     */
+    public void reset() {
+        memoryHits.set(0);
+        diskHits.set(0);
+        downloads.set(0);
+        failures.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "Image loads: " + getLoadCount() + ", decodes: " + getDecodeCount()
+                + ", memory hits: " + memoryHits.get() + ", disk hits: " + diskHits.get()
+                + ", downloads: " + downloads.get() + ", failures: " + failures.get()
+                + ", cache hit ratio: " + String.format("%.2f", getCacheHitRatio());
+    }
+}
@@ -15,15 +15,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.finalprojectapp.database.FireBaseManager;
 import com.example.finalprojectapp.parents.ParentActivity;
 import com.example.finalprojectapp.staff.StaffActivity;
-import com.google.android.gms.tasks.OnCompleteListener;
-import com.google.android.gms.tasks.Task;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 /**
  * LoginFragment is a fragment that handles user authentication.
@@ -36,7 +33,7 @@ public class LoginFragment extends Fragment {
     private EditText emailField, passwordField;
     private Button loginButton;
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
+    private FireBaseManager fireBaseManager;
 
     private UserSessionManager session;
 
@@ -55,7 +52,7 @@ public class LoginFragment extends Fragment {
         passwordField = view.findViewById(R.id.passwordField);
         loginButton = view.findViewById(R.id.loginButton);
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        fireBaseManager = new FireBaseManager(getContext());
         session = new UserSessionManager(getContext());
 
         loginButton.setOnClickListener(v -> {
@@ -111,68 +108,28 @@ public class LoginFragment extends Fragment {
     }
 
     /**
-     * Checks which collection the user belongs to (Parents, Directors, Staff, etc.) and navigates accordingly.
+     * Resolves the user's role (Parent, Director, Staff, etc.) and navigates accordingly.
      *
      * @param user  The authenticated FirebaseUser.
      * @param email The user's email address.
      */
     private void checkUserCollection(FirebaseUser user, String email) {
         if (user != null) {
-            checkCollection(user, email, "Parents");
-        }
-    }
-
-    /**
-     * Checks the specified collection to see if the user belongs to it.
-     * If found, it sets the session and navigates to the appropriate activity.
-     *
-     * @param user       The authenticated FirebaseUser.
-     * @param email      The user's email address.
-     * @param collection The collection to check (Parents, Directors, Staff, etc.).
-     */
-    private void checkCollection(FirebaseUser user, String email, String collection) {
-        db.collection(collection)
-                .whereEqualTo("email", email)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                        DocumentSnapshot document = task.getResult().getDocuments().get(0);
-                        String name = document.getString("name");
-                        String role = document.getString("role");
-                        Log.d(TAG, "User found in collection: " + collection + ", role: " + role);
-                        if ("Parents".equals(collection)) {
-                            session.createLoginSession(email, "Parent");
-                            updateUI(user, name);
-                        } else if ("directors".equals(collection)) {
-                            session.createLoginSession(email, "KINDER_GARTEN_DIRECTOR");
-                            navigateToStaffActivity(user, name, "KINDER_GARTEN_DIRECTOR");
-                        } else if ("staff".equals(collection)) {
-                            if ("KINDERGARTEN_TEACHER".equals(role) || "ASSISTANT".equals(role)) {
-                                session.createLoginSession(email, "KINDER_GARTEN_STAFF");
-                                navigateToStaffActivity(user, name, "KINDER_GARTEN_STAFF");
-                            }
-                        } else if ("systemAdministrators".equals(collection)) {
-                            session.createLoginSession(email, "SYSTEM_ADMINISTRATOR");
-                            navigateToStaffActivity(user, name, "SYSTEM_ADMINISTRATOR");
-                        }
-                    } else {
-                        Log.d(TAG, "User not found in collection: " + collection);
-                        if ("Parents".equals(collection)) {
-                            checkCollection(user, email, "directors");
-                        } else if ("directors".equals(collection)) {
-                            checkCollection(user, email, "staff");
-                        } else if ("staff".equals(collection)) {
-                            checkCollection(user, email, "systemAdministrators");
-                        } else if ("systemAdministrators".equals(collection)) {
-                            checkCollection(user, email, "Parents");
-                            Toast.makeText(getActivity(), "User details not found", Toast.LENGTH_SHORT).show();
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.d(TAG, "get failed with ", e);
+            fireBaseManager.resolveUserRole(user.getUid(), email, (role, name, error) -> {
+                Log.d(TAG, "Resolved user role: " + role);
+                if (error != null) {
                     Toast.makeText(getActivity(), "Failed to fetch user details", Toast.LENGTH_SHORT).show();
-                });
+                } else if ("Parent".equals(role)) {
+                    session.createLoginSession(email, "Parent");
+                    updateUI(user, name);
+                } else if (role != null) {
+                    session.createLoginSession(email, role);
+                    navigateToStaffActivity(user, name, role);
+                } else {
+                    Toast.makeText(getActivity(), "User details not found", Toast.LENGTH_SHORT).show();
+                }
+            });
+        }
     }
 
     /**
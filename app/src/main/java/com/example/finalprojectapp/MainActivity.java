@@ -2,19 +2,17 @@ package com.example.finalprojectapp;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.util.Log;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.finalprojectapp.parents.ParentActivity;
 import com.example.finalprojectapp.staff.StaffActivity;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
 
-import java.util.Calendar;
-import java.util.Date;
-
-import Objects.Garden;
+import com.example.finalprojectapp.database.DataMigrationWorker;
 import com.example.finalprojectapp.database.FireBaseManager;
+import com.example.finalprojectapp.database.RegistrationCloseWorker;
 
 /**
  * MainActivity is the primary activity of the application, serving as the entry point and checking the logged-in user's type.
@@ -40,83 +38,35 @@ public class MainActivity extends AppCompatActivity {
         session = new UserSessionManager(getApplicationContext());
         fireBaseManager = new FireBaseManager(getApplicationContext());
 
-        // Check and update garden registration status if necessary
-        checkAndCloseRegistrations();
+        // Close expired garden registrations in a background job instead of on every launch
+        RegistrationCloseWorker.schedule(getApplicationContext());
+        // Apply any one-time migration of the Firestore data that has not run yet
+        DataMigrationWorker.schedule(getApplicationContext());
 
         if (session.isLoggedIn()) {
             String email = session.getUserEmail();
-            FirebaseFirestore db = FirebaseFirestore.getInstance();
-            checkUserCollection(db, email);
+            checkUserCollection(email);
         } else {
             loadChooseFragment(); // If the user is not logged in, load the choice screen
         }
     }
 
     /**
-     * Checks if the user is a parent and navigates accordingly.
-     * If not found as a parent, continues to check other collections in Firebase.
+     * Resolves the logged-in user's role and navigates accordingly.
+     * If the user cannot be identified, loads the choice screen.
      *
-     * @param db    FirebaseFirestore object for database access.
      * @param email The user's email address.
      */
-    private void checkUserCollection(FirebaseFirestore db, String email) {
-        db.collection("Parents").whereEqualTo("email", email).get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && !task.getResult().isEmpty()) {
+    private void checkUserCollection(String email) {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String uid = user != null ? user.getUid() : null;
+
+        fireBaseManager.resolveUserRole(uid, email, (role, name, error) -> {
+            if ("Parent".equals(role)) {
                 session.createLoginSession(email, "Parent");
                 navigateToParentActivity();
-            } else {
-                checkDirectorsCollection(db, email);
-            }
-        });
-    }
-
-    /**
-     * Checks if the user is a kindergarten director and navigates accordingly.
-     * If not found as a director, continues to check other collections in Firebase.
-     *
-     * @param db    FirebaseFirestore object for database access.
-     * @param email The user's email address.
-     */
-    private void checkDirectorsCollection(FirebaseFirestore db, String email) {
-        db.collection("directors").whereEqualTo("email", email).get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                session.createLoginSession(email, "KINDER_GARTEN_DIRECTOR");
-                navigateToStaffActivity();
-            } else {
-                checkStaffCollection(db, email);
-            }
-        });
-    }
-
-    /**
-     * Checks if the user is a kindergarten staff member and navigates accordingly.
-     * If not found as staff, continues to check other collections in Firebase.
-     *
-     * @param db    FirebaseFirestore object for database access.
-     * @param email The user's email address.
-     */
-    private void checkStaffCollection(FirebaseFirestore db, String email) {
-        db.collection("staff").whereEqualTo("email", email).get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                session.createLoginSession(email, "KINDER_GARTEN_STAFF");
-                navigateToStaffActivity();
-            } else {
-                checkSystemAdminsCollection(db, email);
-            }
-        });
-    }
-
-    /**
-     * Checks if the user is a system administrator and navigates accordingly.
-     * If not found as a system administrator, loads the choice screen.
-     *
-     * @param db    FirebaseFirestore object for database access.
-     * @param email The user's email address.
-     */
-    private void checkSystemAdminsCollection(FirebaseFirestore db, String email) {
-        db.collection("systemAdministrators").whereEqualTo("email", email).get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                session.createLoginSession(email, "SYSTEM_ADMINISTRATOR");
+            } else if (role != null) {
+                session.createLoginSession(email, role);
                 navigateToStaffActivity();
             } else {
                 loadChooseFragment();
@@ -151,33 +101,4 @@ public class MainActivity extends AppCompatActivity {
                 .replace(R.id.fragment_container, chooseFragment)
                 .commit();
     }
-
-    /**
-     * Checks the registration status of all kindergartens and updates if necessary.
-     * Checks if three days have passed since the registration start date, and if so, closes the registration.
-     */
-    public void checkAndCloseRegistrations() {
-        fireBaseManager.getAllGardens(gardens -> {
-            if (gardens != null) {
-                for (Garden garden : gardens) {
-                    if (garden.isRegistered()) {
-                        Date registrationDate = garden.getRegistrationStartDate();
-                        Calendar cal = Calendar.getInstance();
-                        cal.setTime(registrationDate);
-                        cal.add(Calendar.DAY_OF_YEAR, 3);
-
-                        if (new Date().after(cal.getTime())) {
-                            fireBaseManager.updateGardenRegistrationStatusByName(garden.getName(), false, success -> {
-                                if (success) {
-                                    Log.d("Firebase", "Registration closed for garden: " + garden.getName());
-                                } else {
-                                    Log.d("Firebase", "Failed to close registration for garden: " + garden.getName());
-                                }
-                            });
-                        }
-                    }
-                }
-            }
-        });
-    }
 }
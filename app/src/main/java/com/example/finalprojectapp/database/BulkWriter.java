@@ -0,0 +1,201 @@
+package com.example.finalprojectapp.database;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BulkWriter collects Firestore writes and commits them in WriteBatches that stay under the
+ * Firestore limit of 500 operations per batch, running a bounded number of batches in parallel.
+ * A batch is applied atomically, so when a batch fails all of its documents are reported as failed.
+ */
+public class BulkWriter {
+
+    // Firestore rejects batches with more than 500 operations
+    static final int MAX_WRITES_PER_BATCH = 500;
+    static final int MAX_PARALLEL_BATCHES = 3;
+
+    private final BatchCommitter committer;
+    private final List<Write> writes = new ArrayList<>();
+
+    private List<List<Write>> chunks;
+    private int nextChunk;
+    private int pendingChunks;
+    private int succeeded;
+    private List<String> failedIds;
+    private FireBaseManager.BulkWriteCallback callback;
+
+    /**
+     * Constructor for BulkWriter.
+     *
+     * @param db The Firestore instance the writes are committed to.
+     */
+    public BulkWriter(FirebaseFirestore db) {
+        this((operations, batchCallback) -> {
+            WriteBatch batch = db.batch();
+            for (BatchOperation operation : operations) {
+                operation.apply(batch);
+            }
+            batch.commit().addOnCompleteListener(task ->
+                    batchCallback.onComplete(task.isSuccessful() ? null : task.getException()));
+        });
+    }
+
+    /**
+     * Constructor for a BulkWriter that commits its batches with the given committer, e.g. a fake in tests.
+     *
+     * @param committer Commits one batch of writes.
+     */
+    BulkWriter(BatchCommitter committer) {
+        this.committer = committer;
+    }
+
+    /**
+     * Queues a field update for a document.
+     *
+     * @param reference The document to update.
+     * @param updates   The fields to update.
+     * @return This writer, for chaining.
+     */
+    public BulkWriter update(DocumentReference reference, Map<String, Object> updates) {
+        return add(reference.getId(), batch -> batch.update(reference, updates));
+    }
+
+    /**
+     * Queues a merged set for a document, creating it if it does not exist.
+     *
+     * @param reference The document to write.
+     * @param data      The fields to merge into the document.
+     * @return This writer, for chaining.
+     */
+    public BulkWriter set(DocumentReference reference, Object data) {
+        return add(reference.getId(), batch -> batch.set(reference, data, SetOptions.merge()));
+    }
+
+    /**
+     * Queues the deletion of a document.
+     *
+     * @param reference The document to delete.
+     * @return This writer, for chaining.
+     */
+    public BulkWriter delete(DocumentReference reference) {
+        return add(reference.getId(), batch -> batch.delete(reference));
+    }
+
+    /**
+     * Returns the number of writes queued so far.
+     *
+     * @return The number of queued writes.
+     */
+    public int size() {
+        return writes.size();
+    }
+
+    /**
+     * Commits all queued writes and reports one aggregate result once every batch has finished.
+     *
+     * @param callback The callback to handle the number of successful writes and the IDs of failed documents.
+     */
+    public void commit(FireBaseManager.BulkWriteCallback callback) {
+        this.callback = callback;
+        this.failedIds = new ArrayList<>();
+        this.succeeded = 0;
+        this.nextChunk = 0;
+        this.chunks = FireBaseManager.partition(writes, MAX_WRITES_PER_BATCH);
+
+        if (chunks.isEmpty()) {
+            callback.onCallback(0, failedIds);
+            return;
+        }
+
+        pendingChunks = chunks.size();
+        for (int i = 0; i < Math.min(MAX_PARALLEL_BATCHES, chunks.size()); i++) {
+            commitNextChunk();
+        }
+    }
+
+    /**
+     * Commits the next chunk of writes as a single batch, and starts the following chunk when it completes.
+     */
+    private void commitNextChunk() {
+        if (nextChunk >= chunks.size()) {
+            return;
+        }
+        List<Write> chunk = chunks.get(nextChunk++);
+
+        List<BatchOperation> operations = new ArrayList<>();
+        for (Write write : chunk) {
+            operations.add(write.operation);
+        }
+        committer.commit(operations, error -> {
+            if (error == null) {
+                succeeded += chunk.size();
+            } else {
+                Log.e("BulkWriter", "Failed to commit batch of " + chunk.size() + " writes", error);
+                for (Write write : chunk) {
+                    failedIds.add(write.documentId);
+                }
+            }
+
+            pendingChunks--;
+            if (pendingChunks == 0) {
+                callback.onCallback(succeeded, failedIds);
+            } else {
+                commitNextChunk();
+            }
+        });
+    }
+
+    /**
+     * Queues a write for a document.
+     *
+     * @param documentId The ID of the document the write applies to.
+     * @param operation  The write to apply to the batch.
+     * @return This writer, for chaining.
+     */
+    BulkWriter add(String documentId, BatchOperation operation) {
+        writes.add(new Write(documentId, operation));
+        return this;
+    }
+
+    /**
+     * A single write applied to a WriteBatch.
+     */
+    interface BatchOperation {
+        void apply(WriteBatch batch);
+    }
+
+    /**
+     * Commits one batch of writes and reports when it has completed.
+     */
+    interface BatchCommitter {
+        void commit(List<BatchOperation> operations, BatchCallback callback);
+    }
+
+    /**
+     * Callback for the completion of one batch.
+     */
+    interface BatchCallback {
+        void onComplete(Exception error);
+    }
+
+    /**
+     * A queued write and the ID of the document it applies to.
+     */
+    private static class Write {
+        final String documentId;
+        final BatchOperation operation;
+
+        Write(String documentId, BatchOperation operation) {
+            this.documentId = documentId;
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.finalprojectapp.database;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import Objects.ChildPhoto;
+
+/**
+ * ChildPhotoTimelinePager loads the photos of a parent's children page by page, newest first.
+ * The child IDs are split into whereIn chunks, each read as its own stream ordered by time with Firestore cursors,
+ * and the streams are merged into one timeline. Before a page is merged, every stream holds at least a page of
+ * photos or has no more, so no unread photo can be newer than the photos of the page.
+ */
+public class ChildPhotoTimelinePager {
+
+    public static final int PAGE_SIZE = 30;
+    // How many items before the end of the list the next page is requested
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private final FireBaseManager fireBaseManager;
+    private final Date from;
+    private final Date to;
+    private final String className;
+    private final PageListener listener;
+    private final List<Stream> streams = new ArrayList<>();
+
+    private boolean isLoading;
+
+    private final RecyclerView.OnScrollListener scrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+            if (layoutManager == null) {
+                return;
+            }
+            if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= layoutManager.getItemCount() - PREFETCH_DISTANCE) {
+                loadNext();
+            }
+        }
+    };
+
+    /**
+     * Constructor for a ChildPhotoTimelinePager over every photo of the children.
+     *
+     * @param fireBaseManager The FireBaseManager used to load the pages.
+     * @param childIds        The IDs of the children whose photos are loaded.
+     * @param listener        The listener that will receive each merged page.
+     */
+    public ChildPhotoTimelinePager(FireBaseManager fireBaseManager, List<String> childIds, PageListener listener) {
+        this(fireBaseManager, childIds, null, null, null, listener);
+    }
+
+    /**
+     * Constructor for a ChildPhotoTimelinePager over the photos matching a filter, which Firestore applies to each query.
+     *
+     * @param fireBaseManager The FireBaseManager used to load the pages.
+     * @param childIds        The IDs of the children whose photos are loaded.
+     * @param from            The earliest time of the photos, inclusive, or null.
+     * @param to              The latest time of the photos, exclusive, or null.
+     * @param className       The class of the photos, or null for every class.
+     * @param listener        The listener that will receive each merged page.
+     */
+    public ChildPhotoTimelinePager(FireBaseManager fireBaseManager, List<String> childIds, Date from, Date to,
+                                   String className, PageListener listener) {
+        this.fireBaseManager = fireBaseManager;
+        this.from = from;
+        this.to = to;
+        this.className = className;
+        this.listener = listener;
+        for (List<String> chunk : FireBaseManager.partition(childIds, FireBaseManager.WHERE_IN_LIMIT)) {
+            streams.add(new Stream(chunk));
+        }
+    }
+
+    /**
+     * Loads pages as the user scrolls the given RecyclerView, which must use a LinearLayoutManager.
+     *
+     * @param recyclerView The RecyclerView displaying the photos.
+     */
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(scrollListener);
+    }
+
+    /**
+     * Stops loading pages as the user scrolls the given RecyclerView, e.g. when another filter replaces this pager.
+     *
+     * @param recyclerView The RecyclerView the pager was attached to.
+     */
+    public void detach(RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(scrollListener);
+    }
+
+    /**
+     * Returns whether older photos remain to be loaded.
+     *
+     * @return True if any stream has buffered or unread photos.
+     */
+    public boolean hasMore() {
+        for (Stream stream : streams) {
+            if (!stream.buffer.isEmpty() || !stream.exhausted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the next page of the timeline. The streams that hold less than a page are refilled in parallel first.
+     */
+    public void loadNext() {
+        if (isLoading || !hasMore()) {
+            return;
+        }
+        isLoading = true;
+
+        List<Stream> refills = new ArrayList<>();
+        for (Stream stream : streams) {
+            if (!stream.exhausted && stream.buffer.size() < PAGE_SIZE) {
+                refills.add(stream);
+            }
+        }
+        if (refills.isEmpty()) {
+            mergePage();
+            return;
+        }
+
+        int[] pending = {refills.size()};
+        boolean[] failed = new boolean[1];
+        for (Stream stream : refills) {
+            int wanted = PAGE_SIZE - stream.buffer.size();
+            fireBaseManager.getChildPhotoPage(stream.childIds, from, to, className, stream.last, wanted, (photos, last) -> {
+                if (photos == null) {
+                    failed[0] = true;
+                } else {
+                    stream.buffer.addAll(photos);
+                    if (last != null) {
+                        stream.last = last;
+                    }
+                    stream.exhausted = photos.size() < wanted;
+                }
+                if (--pending[0] == 0) {
+                    if (failed[0]) {
+                        // The refilled photos stay buffered, and the next scroll retries the failed streams
+                        isLoading = false;
+                        return;
+                    }
+                    mergePage();
+                }
+            });
+        }
+    }
+
+    /**
+     * Takes up to a page of the newest buffered photos across the streams and hands them to the listener.
+     */
+    private void mergePage() {
+        List<ArrayDeque<ChildPhoto>> buffers = new ArrayList<>();
+        for (Stream stream : streams) {
+            buffers.add(stream.buffer);
+        }
+        List<ChildPhoto> page = mergeNewest(buffers, PAGE_SIZE);
+        isLoading = false;
+        listener.onPage(page);
+    }
+
+    /**
+     * Merges buffers that are each ordered newest first, taking the newest head photo until the limit is reached
+     * or every buffer is empty. The taken photos are removed from their buffers.
+     *
+     * @param buffers The buffered photos of each stream, newest first.
+     * @param limit   The maximum number of photos to take.
+     * @return The taken photos, newest first.
+     */
+    static List<ChildPhoto> mergeNewest(List<ArrayDeque<ChildPhoto>> buffers, int limit) {
+        List<ChildPhoto> page = new ArrayList<>();
+        while (page.size() < limit) {
+            ArrayDeque<ChildPhoto> newest = null;
+            for (ArrayDeque<ChildPhoto> buffer : buffers) {
+                if (!buffer.isEmpty() && (newest == null || isNewer(buffer.peekFirst(), newest.peekFirst()))) {
+                    newest = buffer;
+                }
+            }
+            if (newest == null) {
+                break;
+            }
+            page.add(newest.pollFirst());
+        }
+        return page;
+    }
+
+    private static boolean isNewer(ChildPhoto photo, ChildPhoto other) {
+        return other.getTime() == null || (photo.getTime() != null && photo.getTime().after(other.getTime()));
+    }
+
+    /**
+     * The photos of one whereIn chunk of children, read in time order.
+     */
+    private static class Stream {
+        final List<String> childIds;
+        final ArrayDeque<ChildPhoto> buffer = new ArrayDeque<>();
+        DocumentSnapshot last;
+        boolean exhausted;
+
+        Stream(List<String> childIds) {
+            this.childIds = childIds;
+        }
+    }
+
+    /**
+     * Listener for the merged pages of the timeline.
+     */
+    public interface PageListener {
+        void onPage(List<ChildPhoto> photos);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.finalprojectapp.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataMigrationWorker runs the one-time migrations of the Firestore data layout.
+ * Like the upgrades of the local database, each migration has a version: the last version reached is stored
+ * in Firestore, and a run applies only the migrations above it, in order, recording each one as it completes.
+ * A lease document makes sure only one client migrates at a time. Until the version a reader needs is reached,
+ * the reader keeps using the old layout.
+ */
+public class DataMigrationWorker extends Worker {
+
+    private static final String WORK_NAME = "migrateData";
+    private static final long LEASE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long MIGRATION_TIMEOUT_MINUTES = 10;
+
+    /**
+     * Constructor for DataMigrationWorker.
+     *
+     * @param context      The application context.
+     * @param workerParams Parameters to setup the worker.
+     */
+    public DataMigrationWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    /**
+     * Starts the migration job once the device is online, unless it is already pending or running.
+     * A job that finds the data up to date completes after reading the version.
+     *
+     * @param context The context used to access WorkManager.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(DataMigrationWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 1, TimeUnit.MINUTES)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Applies the migrations above the stored data version while holding the migration lease.
+     *
+     * @return The result of the work.
+     */
+    @NonNull
+    @Override
+    public Result doWork() {
+        FireBaseManager fireBaseManager = new FireBaseManager(getApplicationContext());
+
+        AtomicInteger version = new AtomicInteger(-1);
+        CountDownLatch versionLatch = new CountDownLatch(1);
+        fireBaseManager.getDataVersion(dataVersion -> {
+            version.set(dataVersion);
+            versionLatch.countDown();
+        });
+        if (!await(versionLatch, 1) || version.get() < 0) {
+            return Result.retry();
+        }
+        if (version.get() >= FireBaseManager.LATEST_DATA_VERSION) {
+            return Result.success();
+        }
+
+        String owner = getId().toString();
+        AtomicBoolean leaseAcquired = new AtomicBoolean(false);
+        CountDownLatch leaseLatch = new CountDownLatch(1);
+        fireBaseManager.acquireJobLease(WORK_NAME, owner, LEASE_MILLIS, success -> {
+            leaseAcquired.set(success);
+            leaseLatch.countDown();
+        });
+        if (!await(leaseLatch, 1)) {
+            return Result.retry();
+        }
+        if (!leaseAcquired.get()) {
+            Log.d("DataMigrationWorker", "Another client is migrating the data, skipping this run");
+            return Result.success();
+        }
+
+        boolean migrated = migrateFrom(fireBaseManager, version.get());
+
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        fireBaseManager.releaseJobLease(WORK_NAME, owner, success -> releaseLatch.countDown());
+        await(releaseLatch, 1);
+        return migrated ? Result.success() : Result.retry();
+    }
+
+    /**
+     * Applies each migration above a data version in order, and records the version it reaches.
+     *
+     * @param fireBaseManager The FireBaseManager running the migrations.
+     * @param version         The current data version.
+     * @return True if the data reached the latest version, false if a migration failed.
+     */
+    private boolean migrateFrom(FireBaseManager fireBaseManager, int version) {
+        for (int nextVersion = version + 1; nextVersion <= FireBaseManager.LATEST_DATA_VERSION; nextVersion++) {
+            AtomicBoolean migrated = new AtomicBoolean(false);
+            CountDownLatch migrationLatch = new CountDownLatch(1);
+            FireBaseManager.UpdateCallback callback = success -> {
+                migrated.set(success);
+                migrationLatch.countDown();
+            };
+
+            switch (nextVersion) {
+                case FireBaseManager.DATA_VERSION_REVIEW_SUBCOLLECTIONS:
+                    fireBaseManager.migrateReviewsToSubcollections(callback);
+                    break;
+                case FireBaseManager.DATA_VERSION_RATING_AGGREGATES:
+                    // Counts the reviews the previous migration moved into the subcollections
+                    fireBaseManager.backfillRatingAggregates(callback);
+                    break;
+                case FireBaseManager.DATA_VERSION_GARDEN_SUMMARIES:
+                    // Copies the rating aggregates the previous migration backfilled
+                    fireBaseManager.backfillGardenSummaries(callback);
+                    break;
+                case FireBaseManager.DATA_VERSION_CHILD_INDEX:
+                    fireBaseManager.backfillChildIndex(callback);
+                    break;
+            }
+            if (!await(migrationLatch, MIGRATION_TIMEOUT_MINUTES) || !migrated.get()) {
+                Log.e("DataMigrationWorker", "Migration to data version " + nextVersion + " failed");
+                return false;
+            }
+
+            AtomicBoolean recorded = new AtomicBoolean(false);
+            CountDownLatch versionLatch = new CountDownLatch(1);
+            fireBaseManager.setDataVersion(nextVersion, success -> {
+                recorded.set(success);
+                versionLatch.countDown();
+            });
+            if (!await(versionLatch, 1) || !recorded.get()) {
+                return false;
+            }
+            Log.d("DataMigrationWorker", "Migrated data to version " + nextVersion);
+        }
+        return true;
+    }
+
+    /**
+     * Waits for a Firestore callback to complete.
+     *
+     * @param latch   The latch released by the callback.
+     * @param minutes How long to wait, in minutes.
+     * @return True if the callback completed in time, false otherwise.
+     */
+    private boolean await(CountDownLatch latch, long minutes) {
+        try {
+            return latch.await(minutes, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,37 +1,73 @@
 package com.example.finalprojectapp.database;
 
-import android.annotation.SuppressLint;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
 import android.text.TextUtils;
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
+import Objects.Child;
+import Objects.ChildPhoto;
 import Objects.Garden;
 import Objects.GardenClass;
+import Objects.GardenSummary;
+import Objects.GardenStaff;
+import Objects.Note;
 
 /**
  * DatabaseHelper class handles all the database operations related to users, kindergartens, and classes.
  * It extends SQLiteOpenHelper to manage the creation and version management of the database.
+ * Besides the users table, it is a read-through cache of Firestore: FireBaseManager renders kindergartens,
+ * classes, staff, children and notes from it first and then replaces them with the data read from Firestore.
+ * Cached objects only hold the fields needed to display them, so they must not be written back to Firestore.
+ * Cached child photos are bucketed by day, so the photo gallery can filter them without scanning.
+ * It also holds the queue of child photos waiting to be uploaded, which survives app restarts,
+ * and the garden search index with the cursor it was synced up to, so a search screen only downloads the changes.
+ * A single instance is shared by the whole app and its connection stays open, in write-ahead logging mode,
+ * for the app's lifetime. List writes run in one transaction with statements compiled once per call.
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     // Database Information
     private static final String DATABASE_NAME = "users.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 6;
+
+    private static DatabaseHelper instance;
 
     // Table Names
     private static final String TABLE_USERS = "users";
     private static final String TABLE_KINDERGARTENS = "kindergartens";
     private static final String TABLE_CLASSES = "classes";
+    private static final String TABLE_DIRECTOR_GARDENS = "director_gardens";
+    private static final String TABLE_STAFF = "staff";
+    private static final String TABLE_STAFF_CLASSES = "staff_classes";
+    private static final String TABLE_CHILDREN = "children";
+    private static final String TABLE_NOTES = "notes";
+    private static final String TABLE_PHOTO_UPLOADS = "photo_uploads";
+    private static final String TABLE_CHILD_PHOTOS = "child_photos";
+    private static final String TABLE_GARDEN_SEARCH = "garden_search";
+    private static final String TABLE_SYNC_CURSORS = "sync_cursors";
 
     // Common Column Names
     private static final String COLUMN_ID = "id";
+    private static final String COLUMN_GARTEN_ID = "garten_id";
+    private static final String COLUMN_GARTEN_NAME = "garten_name";
+    private static final String COLUMN_POSITION = "position";
 
     // Users Table - Column Names
     private static final String COLUMN_UID = "uid";
@@ -47,6 +83,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COLUMN_CLOSE_TIME = "close_time";
     private static final String COLUMN_ORG_AFFILIATION = "organizational_affiliation";
     private static final String COLUMN_IMAGE_URL = "image_url";
+    private static final String COLUMN_STATUS = "status";
+    private static final String COLUMN_REGISTERED = "registered";
+    private static final String COLUMN_REGISTRATION_START_DATE = "registration_start_date";
+    private static final String COLUMN_AVERAGE_RATING = "average_rating";
+    private static final String COLUMN_RATING_PERCENT = "rating_percent";
+    private static final String COLUMN_RATING_COUNT = "rating_count";
 
     // Classes Table - Column Names
     private static final String COLUMN_COURSE_NUMBER = "courseNumber";
@@ -54,8 +96,57 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COLUMN_MAX_CHILDREN = "maxChildren";
     private static final String COLUMN_MIN_AGE = "minAge";
     private static final String COLUMN_MAX_AGE = "maxAge";
+    private static final String COLUMN_CLASS_ID = "class_id";
+
+    // Director Gardens Table - Column Names
+    private static final String COLUMN_DIRECTOR_UID = "director_uid";
+
+    // Staff Tables - Column Names
+    private static final String COLUMN_ROLE = "role";
+    private static final String COLUMN_START_TO_WORK = "start_to_work";
+    private static final String COLUMN_STAFF_EMAIL = "staff_email";
+
+    // Children Table - Column Names
+    private static final String COLUMN_CHILD_ID = "child_id";
+    private static final String COLUMN_AGE = "age";
+    private static final String COLUMN_HOBBY = "hobby";
+    private static final String COLUMN_HOBBIES = "hobbies";
+    private static final String COLUMN_APPROVED = "approved";
+
+    // Notes Table - Column Names
+    private static final String COLUMN_PARENT_EMAIL = "parent_email";
+    private static final String COLUMN_NOTE = "note";
+    private static final String COLUMN_DATE = "date";
+    private static final String COLUMN_AUTHOR_NAME = "author_name";
+    private static final String COLUMN_AUTHOR_ROLE = "author_role";
+    private static final String COLUMN_NOTE_COURSE_TYPE = "course_type";
+    private static final String COLUMN_RATING = "rating";
 
+    // Photo Uploads Table - Column Names
+    private static final String COLUMN_UPLOAD_KEY = "upload_key";
+    private static final String COLUMN_CLASS_NAME = "class_name";
+    private static final String COLUMN_TIME = "time";
+    private static final String COLUMN_PHOTO_PATH = "photo_path";
+    private static final String COLUMN_THUMBNAIL_PATH = "thumbnail_path";
+    private static final String COLUMN_SESSION_URI = "session_uri";
+    private static final String COLUMN_PHOTO_URL = "photo_url";
+    private static final String COLUMN_THUMBNAIL_URL = "thumbnail_url";
+    private static final String COLUMN_UPLOAD_STATE = "state";
+    private static final String COLUMN_ATTEMPTS = "attempts";
+    private static final String COLUMN_RUN_ID = "run_id";
 
+    // Child Photos Table - Column Names
+    private static final String COLUMN_THUMBNAIL_IMAGE_URL = "thumbnail_image_url";
+    private static final String COLUMN_DAY = "day";
+    private static final String COLUMN_IMAGE_BYTES = "image_bytes";
+    private static final String COLUMN_THUMBNAIL_BYTES = "thumbnail_bytes";
+
+    // Garden Search Table - Column Names
+    private static final String COLUMN_AGES = "ages";
+
+    // Sync Cursors Table - Column Names
+    private static final String COLUMN_CURSOR_SECONDS = "cursor_seconds";
+    private static final String COLUMN_CURSOR_NANOS = "cursor_nanos";
 
     /**
      * SQL statement to create the users table.
@@ -120,28 +211,56 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 
     /**
-     * Constructor for DatabaseHelper.
+     * Returns the shared DatabaseHelper, creating it on first use.
+     *
+     * @param context Any context; the application context is kept.
+     * @return The shared DatabaseHelper.
+     */
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Constructor for DatabaseHelper. Use getInstance so the app shares one connection.
      *
      * @param context The context in which the database is created.
      */
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private DatabaseHelper(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    /**
+     * Constructor for a DatabaseHelper over its own database file, e.g. a throwaway database in tests.
+     *
+     * @param context The context in which the database is created.
+     * @param name    The name of the database file.
+     */
+    DatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+        // Lets screens read the cache while a sync is writing to it
+        setWriteAheadLoggingEnabled(true);
     }
 
     /**
      * Called when the database is created for the first time.
-     * This is where the creation of tables and the initial population of the tables should happen.
+     * The version 1 tables are created and then brought up to date by the same migrations
+     * that upgrade existing installs, so both paths always end with the same schema.
      */
     @Override
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(TABLE_CREATE_USERS);
         db.execSQL(TABLE_CREATE_KINDERGARTENS);
         db.execSQL(TABLE_CREATE_CLASSES);
+        onUpgrade(db, 1, DATABASE_VERSION);
     }
 
     /**
      * Called when the database needs to be upgraded.
-     * This method will drop the existing tables and create them again.
+     * Each version step runs its own migration in order, keeping the existing data.
+     * SQLiteOpenHelper runs the whole upgrade in a single transaction.
      *
      * @param db         The SQLiteDatabase object.
      * @param oldVersion The old database version.
@@ -149,10 +268,179 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_KINDERGARTENS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CLASSES);
-        onCreate(db);
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            switch (version) {
+                case 2:
+                    migrateToVersion2(db);
+                    break;
+                case 3:
+                    migrateToVersion3(db);
+                    break;
+                case 4:
+                    migrateToVersion4(db);
+                    break;
+                case 5:
+                    migrateToVersion5(db);
+                    break;
+                case 6:
+                    migrateToVersion6(db);
+                    break;
+                default:
+                    throw new IllegalStateException("No migration to database version " + version);
+            }
+        }
+    }
+
+    /**
+     * Version 2 keys the kindergartens and classes by their Firestore IDs and adds the cache tables
+     * for director gardens, staff, children and notes.
+     * Version 1 rows were written without a Firestore ID and can't be matched to any document,
+     * so they are dropped; the cache refills the next time the screens load.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private void migrateToVersion2(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_KINDERGARTENS + " ADD COLUMN " + COLUMN_GARTEN_ID + " TEXT");
+        db.execSQL("ALTER TABLE " + TABLE_KINDERGARTENS + " ADD COLUMN " + COLUMN_STATUS + " TEXT");
+        db.execSQL("ALTER TABLE " + TABLE_KINDERGARTENS + " ADD COLUMN " + COLUMN_REGISTERED + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_KINDERGARTENS + " ADD COLUMN " + COLUMN_REGISTRATION_START_DATE + " INTEGER");
+        db.execSQL("ALTER TABLE " + TABLE_KINDERGARTENS + " ADD COLUMN " + COLUMN_AVERAGE_RATING + " REAL NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_KINDERGARTENS + " ADD COLUMN " + COLUMN_RATING_PERCENT + " REAL NOT NULL DEFAULT 0");
+        db.execSQL("ALTER TABLE " + TABLE_KINDERGARTENS + " ADD COLUMN " + COLUMN_RATING_COUNT + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("DELETE FROM " + TABLE_KINDERGARTENS + " WHERE " + COLUMN_GARTEN_ID + " IS NULL");
+        db.execSQL("CREATE UNIQUE INDEX index_kindergartens_garten_id ON " + TABLE_KINDERGARTENS + " (" + COLUMN_GARTEN_ID + ")");
+
+        db.execSQL("ALTER TABLE " + TABLE_CLASSES + " ADD COLUMN " + COLUMN_GARTEN_ID + " TEXT");
+        db.execSQL("ALTER TABLE " + TABLE_CLASSES + " ADD COLUMN " + COLUMN_CLASS_ID + " TEXT");
+        db.execSQL("ALTER TABLE " + TABLE_CLASSES + " ADD COLUMN " + COLUMN_POSITION + " INTEGER NOT NULL DEFAULT 0");
+        db.execSQL("DELETE FROM " + TABLE_CLASSES + " WHERE " + COLUMN_GARTEN_ID + " IS NULL");
+        db.execSQL("CREATE INDEX index_classes_garten_id ON " + TABLE_CLASSES + " (" + COLUMN_GARTEN_ID + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_DIRECTOR_GARDENS + " (" +
+                COLUMN_DIRECTOR_UID + " TEXT NOT NULL, " +
+                COLUMN_GARTEN_ID + " TEXT NOT NULL, " +
+                COLUMN_POSITION + " INTEGER NOT NULL, " +
+                "PRIMARY KEY (" + COLUMN_DIRECTOR_UID + ", " + COLUMN_GARTEN_ID + "));");
+
+        db.execSQL("CREATE TABLE " + TABLE_STAFF + " (" +
+                COLUMN_EMAIL + " TEXT PRIMARY KEY, " +
+                COLUMN_NAME + " TEXT, " +
+                COLUMN_ROLE + " TEXT, " +
+                COLUMN_START_TO_WORK + " INTEGER, " +
+                COLUMN_GARTEN_ID + " TEXT, " +
+                COLUMN_GARTEN_NAME + " TEXT);");
+        db.execSQL("CREATE INDEX index_staff_garten_name ON " + TABLE_STAFF + " (" + COLUMN_GARTEN_NAME + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_STAFF_CLASSES + " (" +
+                COLUMN_STAFF_EMAIL + " TEXT NOT NULL, " +
+                COLUMN_POSITION + " INTEGER NOT NULL, " +
+                COLUMN_CLASS_ID + " TEXT, " +
+                COLUMN_COURSE_NUMBER + " TEXT, " +
+                COLUMN_COURSE_TYPE + " TEXT, " +
+                COLUMN_MAX_CHILDREN + " INTEGER, " +
+                COLUMN_MIN_AGE + " INTEGER, " +
+                COLUMN_MAX_AGE + " INTEGER, " +
+                "PRIMARY KEY (" + COLUMN_STAFF_EMAIL + ", " + COLUMN_POSITION + "));");
+
+        db.execSQL("CREATE TABLE " + TABLE_CHILDREN + " (" +
+                COLUMN_CHILD_ID + " TEXT PRIMARY KEY, " +
+                COLUMN_NAME + " TEXT, " +
+                COLUMN_AGE + " INTEGER, " +
+                COLUMN_HOBBY + " TEXT, " +
+                COLUMN_HOBBIES + " TEXT, " +
+                COLUMN_GARTEN_NAME + " TEXT, " +
+                COLUMN_APPROVED + " INTEGER NOT NULL DEFAULT 0);");
+        db.execSQL("CREATE INDEX index_children_garten_name ON " + TABLE_CHILDREN + " (" + COLUMN_GARTEN_NAME + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_NOTES + " (" +
+                COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COLUMN_PARENT_EMAIL + " TEXT NOT NULL, " +
+                COLUMN_NOTE + " TEXT, " +
+                COLUMN_DATE + " INTEGER, " +
+                COLUMN_AUTHOR_NAME + " TEXT, " +
+                COLUMN_AUTHOR_ROLE + " TEXT, " +
+                COLUMN_NOTE_COURSE_TYPE + " TEXT, " +
+                COLUMN_RATING + " INTEGER);");
+        db.execSQL("CREATE INDEX index_notes_parent_email ON " + TABLE_NOTES + " (" + COLUMN_PARENT_EMAIL + ")");
+    }
+
+    /**
+     * Version 3 adds the queue of child photos waiting to be uploaded by PhotoUploadWorker.
+     * Unlike the cache tables, its rows are the only copy of the work until the upload completes.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private void migrateToVersion3(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_PHOTO_UPLOADS + " (" +
+                COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COLUMN_UPLOAD_KEY + " TEXT NOT NULL UNIQUE, " +
+                COLUMN_CHILD_ID + " TEXT NOT NULL, " +
+                COLUMN_CLASS_NAME + " TEXT, " +
+                COLUMN_TIME + " INTEGER, " +
+                COLUMN_PHOTO_PATH + " TEXT NOT NULL, " +
+                COLUMN_THUMBNAIL_PATH + " TEXT NOT NULL, " +
+                COLUMN_SESSION_URI + " TEXT, " +
+                COLUMN_PHOTO_URL + " TEXT, " +
+                COLUMN_THUMBNAIL_URL + " TEXT, " +
+                COLUMN_UPLOAD_STATE + " INTEGER NOT NULL DEFAULT " + PhotoUpload.STATE_PENDING + ", " +
+                COLUMN_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0);");
+    }
+
+    /**
+     * Version 4 caches the child photos loaded from Firestore, bucketed by the local day they were taken,
+     * so the photo gallery can filter by day and class with an index lookup.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private void migrateToVersion4(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_CHILD_PHOTOS + " (" +
+                COLUMN_IMAGE_URL + " TEXT PRIMARY KEY, " +
+                COLUMN_THUMBNAIL_IMAGE_URL + " TEXT, " +
+                COLUMN_CHILD_ID + " TEXT NOT NULL, " +
+                COLUMN_CLASS_NAME + " TEXT, " +
+                COLUMN_TIME + " INTEGER NOT NULL, " +
+                COLUMN_DAY + " INTEGER NOT NULL, " +
+                COLUMN_IMAGE_BYTES + " INTEGER NOT NULL DEFAULT 0, " +
+                COLUMN_THUMBNAIL_BYTES + " INTEGER NOT NULL DEFAULT 0);");
+        db.execSQL("CREATE INDEX index_child_photos_day ON " + TABLE_CHILD_PHOTOS + " (" + COLUMN_DAY + ", " + COLUMN_CLASS_NAME + ")");
+        db.execSQL("CREATE INDEX index_child_photos_class_name ON " + TABLE_CHILD_PHOTOS + " (" + COLUMN_CLASS_NAME + ", " + COLUMN_TIME + ")");
+    }
+
+    /**
+     * Version 5 persists the garden search index, so it is not downloaded again on every launch,
+     * and the Firestore timestamps each synced collection was read up to.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private void migrateToVersion5(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_GARDEN_SEARCH + " (" +
+                COLUMN_GARTEN_ID + " TEXT PRIMARY KEY, " +
+                COLUMN_NAME + " TEXT, " +
+                COLUMN_ADDRESS + " TEXT, " +
+                COLUMN_CITY + " TEXT, " +
+                COLUMN_IMAGE_URL + " TEXT, " +
+                COLUMN_ORG_AFFILIATION + " TEXT, " +
+                COLUMN_REGISTERED + " INTEGER NOT NULL DEFAULT 0, " +
+                COLUMN_REGISTRATION_START_DATE + " INTEGER, " +
+                COLUMN_STATUS + " TEXT, " +
+                COLUMN_AVERAGE_RATING + " REAL NOT NULL DEFAULT 0, " +
+                COLUMN_RATING_PERCENT + " REAL NOT NULL DEFAULT 0, " +
+                COLUMN_RATING_COUNT + " INTEGER NOT NULL DEFAULT 0, " +
+                COLUMN_AGES + " TEXT);");
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_CURSORS + " (" +
+                COLUMN_NAME + " TEXT PRIMARY KEY, " +
+                COLUMN_CURSOR_SECONDS + " INTEGER NOT NULL, " +
+                COLUMN_CURSOR_NANOS + " INTEGER NOT NULL);");
+    }
+
+    /**
+     * Version 6 records which upload run claimed each queued photo, so a new run never releases
+     * the photos that a stopped run is still uploading.
+     *
+     * @param db The SQLiteDatabase object.
+     */
+    private void migrateToVersion6(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_PHOTO_UPLOADS + " ADD COLUMN " + COLUMN_RUN_ID + " TEXT");
     }
 
     /**
@@ -171,7 +459,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_EMAIL, email);
         values.put(COLUMN_PASSWORD, password);
         db.insert(TABLE_USERS, null, values);
-        db.close();
     }
 
     /**
@@ -189,14 +476,53 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     /**
-     * Deletes a kindergarten from the database.
+     * Saves a kindergarten in the cache, replacing the cached copy if there is one.
+     *
+     * @param garden The Garden object containing the details of the kindergarten, with its ID set.
+     */
+    public void saveKinderGarten(Garden garden) {
+        List<Garden> gardens = new ArrayList<>();
+        gardens.add(garden);
+        upsertKinderGartens(gardens, false);
+    }
+
+    /**
+     * Inserts or updates many kindergartens in a single transaction.
+     *
+     * @param gardens     The kindergartens, with their IDs set.
+     * @param summaryOnly True if the gardens were read from their summaries, so the columns
+     *                    that summaries don't hold are left untouched.
+     */
+    public void upsertKinderGartens(List<Garden> gardens, boolean summaryOnly) {
+        long start = SystemClock.elapsedRealtime();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            upsertGardens(db, gardens, summaryOnly);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        logBulkWrite(TABLE_KINDERGARTENS, gardens.size(), start);
+    }
+
+    /**
+     * Deletes a kindergarten, its classes and its links to directors from the cache.
      *
      * @param gartenId The ID of the kindergarten to be deleted.
      */
     public void deleteKinderGarten(String gartenId) {
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_KINDERGARTENS, "id=?", new String[]{gartenId});
-        db.close();
+        String[] args = {gartenId};
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_KINDERGARTENS, COLUMN_GARTEN_ID + "=?", args);
+            db.delete(TABLE_CLASSES, COLUMN_GARTEN_ID + "=?", args);
+            db.delete(TABLE_DIRECTOR_GARDENS, COLUMN_GARTEN_ID + "=?", args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
     }
 
     /**
@@ -207,78 +533,1063 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     public void removeGardenFromDirector(String directorUid, String gartenId) {
         SQLiteDatabase db = this.getWritableDatabase();
+        db.delete(TABLE_DIRECTOR_GARDENS, COLUMN_DIRECTOR_UID + "=? AND " + COLUMN_GARTEN_ID + "=?",
+                new String[]{directorUid, gartenId});
+    }
+
+    /**
+     * Caches the kindergartens of a director, replacing the director's previous list.
+     *
+     * @param directorUid The unique ID of the director.
+     * @param gartenIds   The IDs of all the director's kindergartens, in display order.
+     * @param gardens     The kindergartens that were loaded, which may be fewer than the IDs.
+     * @param withClasses True if the gardens are full documents whose classes should be cached too,
+     *                    false if they are summaries.
+     */
+    public void cacheDirectorGardens(String directorUid, List<String> gartenIds, List<Garden> gardens, boolean withClasses) {
+        long start = SystemClock.elapsedRealtime();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_DIRECTOR_GARDENS, COLUMN_DIRECTOR_UID + "=?", new String[]{directorUid});
+            SQLiteStatement insertLink = db.compileStatement("INSERT OR IGNORE INTO " + TABLE_DIRECTOR_GARDENS + " (" +
+                    COLUMN_DIRECTOR_UID + ", " + COLUMN_GARTEN_ID + ", " + COLUMN_POSITION + ") VALUES (?, ?, ?)");
+            try {
+                for (int i = 0; i < gartenIds.size(); i++) {
+                    bindText(insertLink, 1, directorUid);
+                    bindText(insertLink, 2, gartenIds.get(i));
+                    insertLink.bindLong(3, i);
+                    insertLink.executeInsert();
+                }
+            } finally {
+                insertLink.close();
+            }
+
+            upsertGardens(db, gardens, !withClasses);
+            if (withClasses) {
+                SQLiteStatement insertClass = compileClassInsert(db, TABLE_CLASSES, COLUMN_GARTEN_ID);
+                try {
+                    for (Garden garden : gardens) {
+                        db.delete(TABLE_CLASSES, COLUMN_GARTEN_ID + "=?", new String[]{garden.getId()});
+                        insertClasses(insertClass, garden.getId(), garden.getClasses());
+                    }
+                } finally {
+                    insertClass.close();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        logBulkWrite(TABLE_DIRECTOR_GARDENS, gartenIds.size() + gardens.size(), start);
+    }
+
+    /**
+     * Returns the cached kindergartens of a director, in the order of the director's list.
+     *
+     * @param directorUid The unique ID of the director.
+     * @param withClasses True to also read the cached classes of each kindergarten.
+     * @return The cached kindergartens, or an empty list if none are cached.
+     */
+    public List<Garden> getDirectorGardens(String directorUid, boolean withClasses) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<Garden> gardens = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT k.* FROM " + TABLE_KINDERGARTENS + " k JOIN " + TABLE_DIRECTOR_GARDENS + " d" +
+                " ON k." + COLUMN_GARTEN_ID + " = d." + COLUMN_GARTEN_ID +
+                " WHERE d." + COLUMN_DIRECTOR_UID + " = ? ORDER BY d." + COLUMN_POSITION, new String[]{directorUid});
+        try {
+            while (cursor.moveToNext()) {
+                gardens.add(readGarden(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        if (withClasses) {
+            for (Garden garden : gardens) {
+                garden.setClasses(readClasses(db, garden.getId()));
+            }
+        }
+        return gardens;
+    }
+
+    /**
+     * Replaces the cached classes of a kindergarten.
+     *
+     * @param gartenId The ID of the kindergarten.
+     * @param classes  The full list of classes of the kindergarten.
+     */
+    public void replaceClasses(String gartenId, List<GardenClass> classes) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_CLASSES, COLUMN_GARTEN_ID + "=?", new String[]{gartenId});
+            SQLiteStatement insertClass = compileClassInsert(db, TABLE_CLASSES, COLUMN_GARTEN_ID);
+            try {
+                insertClasses(insertClass, gartenId, classes);
+            } finally {
+                insertClass.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Returns the cached classes of a kindergarten, without the children registered to them.
+     *
+     * @param gartenId The ID of the kindergarten.
+     * @return The cached classes, or an empty list if none are cached.
+     */
+    public List<GardenClass> getClasses(String gartenId) {
+        return readClasses(this.getReadableDatabase(), gartenId);
+    }
+
+    /**
+     * Replaces the cached staff of the given kindergartens.
+     *
+     * @param gartenNames The names of the kindergartens whose staff was loaded.
+     * @param staffList   The staff members of those kindergartens.
+     */
+    public void replaceStaff(List<String> gartenNames, List<GardenStaff> staffList) {
+        long start = SystemClock.elapsedRealtime();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String gartenName : gartenNames) {
+                String[] args = {gartenName};
+                db.delete(TABLE_STAFF_CLASSES, COLUMN_STAFF_EMAIL + " IN (SELECT " + COLUMN_EMAIL + " FROM " + TABLE_STAFF +
+                        " WHERE " + COLUMN_GARTEN_NAME + " = ?)", args);
+                db.delete(TABLE_STAFF, COLUMN_GARTEN_NAME + "=?", args);
+            }
+
+            SQLiteStatement insertStaff = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_STAFF + " (" +
+                    COLUMN_EMAIL + ", " + COLUMN_NAME + ", " + COLUMN_ROLE + ", " + COLUMN_START_TO_WORK + ", " +
+                    COLUMN_GARTEN_ID + ", " + COLUMN_GARTEN_NAME + ") VALUES (?, ?, ?, ?, ?, ?)");
+            SQLiteStatement deleteStaffClasses = db.compileStatement("DELETE FROM " + TABLE_STAFF_CLASSES +
+                    " WHERE " + COLUMN_STAFF_EMAIL + " = ?");
+            SQLiteStatement insertClass = compileClassInsert(db, TABLE_STAFF_CLASSES, COLUMN_STAFF_EMAIL);
+            try {
+                for (GardenStaff staff : staffList) {
+                    if (staff.getEmail() == null) {
+                        continue;
+                    }
+                    bindText(insertStaff, 1, staff.getEmail());
+                    bindText(insertStaff, 2, staff.getName());
+                    bindText(insertStaff, 3, staff.getRole());
+                    bindLong(insertStaff, 4, toMillis(staff.getStartToWork()));
+                    bindText(insertStaff, 5, staff.getGarten() != null ? staff.getGarten().getId() : null);
+                    bindText(insertStaff, 6, staff.getGarten() != null ? staff.getGarten().getName() : null);
+                    insertStaff.executeInsert();
+
+                    bindText(deleteStaffClasses, 1, staff.getEmail());
+                    deleteStaffClasses.executeUpdateDelete();
+                    insertClasses(insertClass, staff.getEmail(), staff.getClasses());
+                }
+            } finally {
+                insertStaff.close();
+                deleteStaffClasses.close();
+                insertClass.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        logBulkWrite(TABLE_STAFF, staffList.size(), start);
+    }
+
+    /**
+     * Returns the cached staff of the given kindergartens.
+     * The garden of each staff member only holds its ID and name.
+     *
+     * @param gartenNames The names of the kindergartens.
+     * @return The cached staff members, or an empty list if none are cached.
+     */
+    public List<GardenStaff> getStaff(List<String> gartenNames) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<GardenStaff> staffList = new ArrayList<>();
+        for (String gartenName : gartenNames) {
+            Cursor cursor = db.query(TABLE_STAFF, null, COLUMN_GARTEN_NAME + "=?", new String[]{gartenName},
+                    null, null, COLUMN_NAME);
+            try {
+                while (cursor.moveToNext()) {
+                    GardenStaff staff = new GardenStaff();
+                    staff.setEmail(getString(cursor, COLUMN_EMAIL));
+                    staff.setName(getString(cursor, COLUMN_NAME));
+                    staff.setRole(getString(cursor, COLUMN_ROLE));
+                    staff.setStartToWork(getDate(cursor, COLUMN_START_TO_WORK));
+                    staff.setGarten(new Garden(getString(cursor, COLUMN_GARTEN_ID), getString(cursor, COLUMN_GARTEN_NAME)));
+                    staffList.add(staff);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        for (GardenStaff staff : staffList) {
+            List<GardenClass> classes = new ArrayList<>();
+            Cursor cursor = db.query(TABLE_STAFF_CLASSES, null, COLUMN_STAFF_EMAIL + "=?", new String[]{staff.getEmail()},
+                    null, null, COLUMN_POSITION);
+            try {
+                while (cursor.moveToNext()) {
+                    classes.add(readClass(cursor));
+                }
+            } finally {
+                cursor.close();
+            }
+            staff.setClasses(classes);
+        }
+        return staffList;
+    }
+
+    /**
+     * Replaces the cached children of a kindergarten, keeping the approval status of the children already cached.
+     *
+     * @param gartenName The name of the kindergarten.
+     * @param children   All the children registered to the kindergarten.
+     */
+    public void replaceChildrenInGarden(String gartenName, List<Child> children) {
+        long start = SystemClock.elapsedRealtime();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            List<String> childIds = upsertChildren(db, children, gartenName, null);
+            deleteOtherChildren(db, gartenName, childIds);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        logBulkWrite(TABLE_CHILDREN, children.size(), start);
+    }
+
+    /**
+     * Caches the approved children of a kindergarten. Cached children of the kindergarten
+     * that are not in the list are marked as not approved.
+     *
+     * @param gartenName The name of the kindergarten.
+     * @param children   The approved children of the kindergarten.
+     */
+    public void cacheApprovedChildren(String gartenName, List<Child> children) {
+        long start = SystemClock.elapsedRealtime();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues notApproved = new ContentValues();
+            notApproved.put(COLUMN_APPROVED, 0);
+            db.update(TABLE_CHILDREN, notApproved, COLUMN_GARTEN_NAME + "=?", new String[]{gartenName});
+            upsertChildren(db, children, gartenName, true);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        logBulkWrite(TABLE_CHILDREN, children.size(), start);
+    }
+
+    /**
+     * Returns the cached children of a kindergarten, without their notes.
+     *
+     * @param gartenName   The name of the kindergarten.
+     * @param approvedOnly True to return only the approved children.
+     * @return The cached children, or an empty list if none are cached.
+     */
+    public List<Child> getChildrenInGarden(String gartenName, boolean approvedOnly) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        String selection = COLUMN_GARTEN_NAME + "=?" + (approvedOnly ? " AND " + COLUMN_APPROVED + "=1" : "");
+        List<Child> children = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_CHILDREN, null, selection, new String[]{gartenName}, null, null, COLUMN_NAME);
+        try {
+            while (cursor.moveToNext()) {
+                Child child = new Child();
+                child.setID(getString(cursor, COLUMN_CHILD_ID));
+                child.setFullName(getString(cursor, COLUMN_NAME));
+                child.setAge(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_AGE)));
+                child.setHobby(getString(cursor, COLUMN_HOBBY));
+                child.setHobbies(split(getString(cursor, COLUMN_HOBBIES)));
+                child.setGartenName(gartenName);
+                children.add(child);
+            }
+        } finally {
+            cursor.close();
+        }
+        return children;
+    }
+
+    /**
+     * Replaces the cached notes sent to a parent.
+     *
+     * @param parentEmail The email of the parent.
+     * @param notes       All the notes of the parent's children.
+     */
+    public void replaceNotes(String parentEmail, List<Note> notes) {
+        long start = SystemClock.elapsedRealtime();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_NOTES, COLUMN_PARENT_EMAIL + "=?", new String[]{parentEmail});
+            SQLiteStatement insertNote = db.compileStatement("INSERT INTO " + TABLE_NOTES + " (" +
+                    COLUMN_PARENT_EMAIL + ", " + COLUMN_NOTE + ", " + COLUMN_DATE + ", " + COLUMN_AUTHOR_NAME + ", " +
+                    COLUMN_AUTHOR_ROLE + ", " + COLUMN_NOTE_COURSE_TYPE + ", " + COLUMN_RATING + ") VALUES (?, ?, ?, ?, ?, ?, ?)");
+            try {
+                for (Note note : notes) {
+                    bindText(insertNote, 1, parentEmail);
+                    bindText(insertNote, 2, note.getNote());
+                    bindLong(insertNote, 3, toMillis(note.getDate()));
+                    bindText(insertNote, 4, note.getAuthorName());
+                    bindText(insertNote, 5, note.getAuthorRole());
+                    bindText(insertNote, 6, note.getCourseType());
+                    bindLong(insertNote, 7, note.getRating() != null ? Long.valueOf(note.getRating()) : null);
+                    insertNote.executeInsert();
+                }
+            } finally {
+                insertNote.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        logBulkWrite(TABLE_NOTES, notes.size(), start);
+    }
+
+    /**
+     * Returns the cached notes sent to a parent, in the order they were loaded.
+     *
+     * @param parentEmail The email of the parent.
+     * @return The cached notes, or an empty list if none are cached.
+     */
+    public List<Note> getNotes(String parentEmail) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<Note> notes = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_NOTES, null, COLUMN_PARENT_EMAIL + "=?", new String[]{parentEmail},
+                null, null, COLUMN_ID);
+        try {
+            while (cursor.moveToNext()) {
+                int ratingIndex = cursor.getColumnIndexOrThrow(COLUMN_RATING);
+                notes.add(new Note(
+                        getString(cursor, COLUMN_NOTE),
+                        getDate(cursor, COLUMN_DATE),
+                        getString(cursor, COLUMN_AUTHOR_NAME),
+                        getString(cursor, COLUMN_AUTHOR_ROLE),
+                        getString(cursor, COLUMN_NOTE_COURSE_TYPE),
+                        cursor.isNull(ratingIndex) ? null : cursor.getInt(ratingIndex)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return notes;
+    }
+
+    /**
+     * Inserts or replaces cached child photos, keyed by their image URL.
+     * Photos without a time or image URL can't be bucketed or keyed, so they are not cached.
+     *
+     * @param photos The photos loaded from Firestore.
+     */
+    public void cacheChildPhotos(List<ChildPhoto> photos) {
+        long start = SystemClock.elapsedRealtime();
+        int rows = 0;
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SQLiteStatement insertPhoto = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_CHILD_PHOTOS + " (" +
+                    COLUMN_IMAGE_URL + ", " + COLUMN_THUMBNAIL_IMAGE_URL + ", " + COLUMN_CHILD_ID + ", " + COLUMN_CLASS_NAME + ", " +
+                    COLUMN_TIME + ", " + COLUMN_DAY + ", " + COLUMN_IMAGE_BYTES + ", " + COLUMN_THUMBNAIL_BYTES +
+                    ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+            try {
+                for (ChildPhoto photo : photos) {
+                    if (photo.getImageURL() == null || photo.getTime() == null || photo.getChildId() == null) {
+                        continue;
+                    }
+                    bindText(insertPhoto, 1, photo.getImageURL());
+                    bindText(insertPhoto, 2, photo.getThumbnailURL());
+                    bindText(insertPhoto, 3, photo.getChildId());
+                    bindText(insertPhoto, 4, photo.getClassName());
+                    insertPhoto.bindLong(5, photo.getTime().getTime());
+                    insertPhoto.bindLong(6, dayKey(photo.getTime()));
+                    insertPhoto.bindLong(7, photo.getImageBytes());
+                    insertPhoto.bindLong(8, photo.getThumbnailBytes());
+                    insertPhoto.executeInsert();
+                    rows++;
+                }
+            } finally {
+                insertPhoto.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        logBulkWrite(TABLE_CHILD_PHOTOS, rows, start);
+    }
+
+    /**
+     * Returns the newest cached photos of some children, optionally only those of one day or one class.
+     * A day is looked up in its bucket through the day index rather than by comparing times.
+     *
+     * @param childIds  The IDs of the children.
+     * @param day       Any time on the day to return photos of, or null for every day.
+     * @param className The class to return photos of, or null for every class.
+     * @param limit     The maximum number of photos to return.
+     * @return The cached photos, newest first.
+     */
+    public List<ChildPhoto> getCachedChildPhotos(List<String> childIds, Date day, String className, int limit) {
+        List<ChildPhoto> photos = new ArrayList<>();
+        if (childIds.isEmpty()) {
+            return photos;
+        }
+        StringBuilder selection = new StringBuilder(COLUMN_CHILD_ID + " IN (" +
+                TextUtils.join(", ", Collections.nCopies(childIds.size(), "?")) + ")");
+        List<String> args = new ArrayList<>(childIds);
+        if (day != null) {
+            selection.append(" AND ").append(COLUMN_DAY).append("=?");
+            args.add(String.valueOf(dayKey(day)));
+        }
+        if (className != null) {
+            selection.append(" AND ").append(COLUMN_CLASS_NAME).append("=?");
+            args.add(className);
+        }
 
-        // Retrieve the current list of kindergartens
-        Cursor cursor = db.query("directors", new String[]{"kindergartens"}, "uid=?", new String[]{directorUid}, null, null, null);
-        if (cursor != null && cursor.moveToFirst()) {
-            @SuppressLint("Range") String existingGardens = cursor.getString(cursor.getColumnIndex("kindergartens"));
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_CHILD_PHOTOS, null, selection.toString(), args.toArray(new String[0]),
+                null, null, COLUMN_TIME + " DESC", String.valueOf(limit));
+        try {
+            while (cursor.moveToNext()) {
+                ChildPhoto photo = new ChildPhoto(getString(cursor, COLUMN_IMAGE_URL), getString(cursor, COLUMN_CLASS_NAME),
+                        getDate(cursor, COLUMN_TIME), getString(cursor, COLUMN_CHILD_ID));
+                photo.setThumbnailURL(getString(cursor, COLUMN_THUMBNAIL_IMAGE_URL));
+                photo.setImageBytes(cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_IMAGE_BYTES)));
+                photo.setThumbnailBytes(cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_THUMBNAIL_BYTES)));
+                photos.add(photo);
+            }
+        } finally {
             cursor.close();
+        }
+        return photos;
+    }
 
-            // Update the list by removing the deleted kindergarten
-            if (existingGardens != null && !existingGardens.isEmpty()) {
-                List<String> gardenList = new ArrayList<>(Arrays.asList(existingGardens.split(",")));
-                gardenList.remove(gartenId);
-                String updatedGardens = TextUtils.join(",", gardenList);
+    /**
+     * Returns every kindergarten summary of the persisted garden search index.
+     *
+     * @return The summaries, with their IDs and ages set.
+     */
+    public List<GardenSummary> getGardenSearchEntries() {
+        List<GardenSummary> summaries = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_GARDEN_SEARCH, null, null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                GardenSummary summary = new GardenSummary();
+                summary.setId(getString(cursor, COLUMN_GARTEN_ID));
+                summary.setName(getString(cursor, COLUMN_NAME));
+                summary.setAddress(getString(cursor, COLUMN_ADDRESS));
+                summary.setCity(getString(cursor, COLUMN_CITY));
+                summary.setImageUrl(getString(cursor, COLUMN_IMAGE_URL));
+                summary.setOrganizationalAffiliation(getString(cursor, COLUMN_ORG_AFFILIATION));
+                summary.setRegistered(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_REGISTERED)) == 1);
+                summary.setRegistrationStartDate(getDate(cursor, COLUMN_REGISTRATION_START_DATE));
+                summary.setStatus(getString(cursor, COLUMN_STATUS));
+                summary.setAverageRating(cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_AVERAGE_RATING)));
+                summary.setRatingPercent(cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_RATING_PERCENT)));
+                summary.setRatingCount(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_RATING_COUNT)));
+                List<Integer> ages = new ArrayList<>();
+                List<String> storedAges = split(getString(cursor, COLUMN_AGES));
+                if (storedAges != null) {
+                    for (String age : storedAges) {
+                        ages.add(Integer.valueOf(age));
+                    }
+                }
+                summary.setAges(ages);
+                summaries.add(summary);
+            }
+        } finally {
+            cursor.close();
+        }
+        return summaries;
+    }
 
-                ContentValues values = new ContentValues();
-                values.put("kindergartens", updatedGardens);
-                db.update("directors", values, "uid=?", new String[]{directorUid});
+    /**
+     * Applies synced changes to the persisted garden search index and advances the sync cursor
+     * of their collection, in one transaction, so the cursor never gets ahead of the stored entries.
+     *
+     * @param upserts    The added or modified summaries, with their IDs set.
+     * @param removedIds The IDs of the removed kindergartens.
+     * @param replaceAll True if the upserts are the whole collection and replace every stored entry.
+     * @param cursorName The name of the synced collection, or null if it is not synced with a cursor.
+     * @param cursor     The newest update time among the changes, or null to keep the stored cursor.
+     */
+    public void saveGardenSearchChanges(List<GardenSummary> upserts, List<String> removedIds, boolean replaceAll,
+                                        String cursorName, Timestamp cursor) {
+        long start = SystemClock.elapsedRealtime();
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (replaceAll) {
+                db.delete(TABLE_GARDEN_SEARCH, null, null);
             }
+            SQLiteStatement delete = db.compileStatement("DELETE FROM " + TABLE_GARDEN_SEARCH + " WHERE " + COLUMN_GARTEN_ID + " = ?");
+            SQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_GARDEN_SEARCH + " (" +
+                    COLUMN_GARTEN_ID + ", " + COLUMN_NAME + ", " + COLUMN_ADDRESS + ", " + COLUMN_CITY + ", " +
+                    COLUMN_IMAGE_URL + ", " + COLUMN_ORG_AFFILIATION + ", " + COLUMN_REGISTERED + ", " +
+                    COLUMN_REGISTRATION_START_DATE + ", " + COLUMN_STATUS + ", " + COLUMN_AVERAGE_RATING + ", " +
+                    COLUMN_RATING_PERCENT + ", " + COLUMN_RATING_COUNT + ", " + COLUMN_AGES +
+                    ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            try {
+                for (String gartenId : removedIds) {
+                    delete.bindString(1, gartenId);
+                    delete.executeUpdateDelete();
+                }
+                for (GardenSummary summary : upserts) {
+                    bindText(insert, 1, summary.getId());
+                    bindText(insert, 2, summary.getName());
+                    bindText(insert, 3, summary.getAddress());
+                    bindText(insert, 4, summary.getCity());
+                    bindText(insert, 5, summary.getImageUrl());
+                    bindText(insert, 6, summary.getOrganizationalAffiliation());
+                    insert.bindLong(7, summary.isRegistered() ? 1 : 0);
+                    bindLong(insert, 8, toMillis(summary.getRegistrationStartDate()));
+                    bindText(insert, 9, summary.getStatus());
+                    insert.bindDouble(10, summary.getAverageRating());
+                    insert.bindDouble(11, summary.getRatingPercent());
+                    insert.bindLong(12, summary.getRatingCount());
+                    bindText(insert, 13, summary.getAges() != null ? TextUtils.join(",", summary.getAges()) : null);
+                    insert.executeInsert();
+                }
+            } finally {
+                delete.close();
+                insert.close();
+            }
+            if (cursorName != null && cursor != null) {
+                Timestamp stored = getSyncCursor(db, cursorName);
+                if (stored == null || cursor.compareTo(stored) > 0) {
+                    ContentValues values = new ContentValues();
+                    values.put(COLUMN_NAME, cursorName);
+                    values.put(COLUMN_CURSOR_SECONDS, cursor.getSeconds());
+                    values.put(COLUMN_CURSOR_NANOS, cursor.getNanoseconds());
+                    db.insertWithOnConflict(TABLE_SYNC_CURSORS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
+        logBulkWrite(TABLE_GARDEN_SEARCH, upserts.size() + removedIds.size(), start);
+    }
 
-        db.close();
+    /**
+     * Returns the Firestore timestamp a synced collection was read up to.
+     *
+     * @param cursorName The name of the synced collection.
+     * @return The timestamp, with its nanoseconds, or null if the collection was never synced.
+     */
+    public Timestamp getSyncCursor(String cursorName) {
+        return getSyncCursor(this.getReadableDatabase(), cursorName);
     }
 
     /**
-     * Deletes a class from a specific kindergarten.
+     * Adds a photo to the upload queue. Its files must already be written.
      *
-     * @param gartenId     The ID of the kindergarten.
-     * @param courseNumber The number of the course to be deleted.
+     * @param upload The queued upload; its row ID is set once it is inserted.
      */
-    public void deleteClassFromGarten(String gartenId, String courseNumber) {
+    public void addPhotoUpload(PhotoUpload upload) {
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_CLASSES, COLUMN_COURSE_NUMBER + "=? AND gartenId=?", new String[]{courseNumber, gartenId});
-        db.close();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_UPLOAD_KEY, upload.key);
+        values.put(COLUMN_CHILD_ID, upload.childId);
+        values.put(COLUMN_CLASS_NAME, upload.className);
+        values.put(COLUMN_TIME, toMillis(upload.time));
+        values.put(COLUMN_PHOTO_PATH, upload.photoPath);
+        values.put(COLUMN_THUMBNAIL_PATH, upload.thumbnailPath);
+        upload.id = db.insertOrThrow(TABLE_PHOTO_UPLOADS, null, values);
+    }
+
+    /**
+     * Claims the oldest pending upload by marking it as uploading, so concurrent uploaders never take the same photo.
+     *
+     * @param runId The ID of the upload run claiming the photo.
+     * @return The claimed upload, or null if no upload is pending.
+     */
+    public synchronized PhotoUpload claimNextPhotoUpload(String runId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            PhotoUpload upload = null;
+            Cursor cursor = db.query(TABLE_PHOTO_UPLOADS, null, COLUMN_UPLOAD_STATE + "=?",
+                    new String[]{String.valueOf(PhotoUpload.STATE_PENDING)}, null, null, COLUMN_ID, "1");
+            try {
+                if (cursor.moveToFirst()) {
+                    upload = readPhotoUpload(cursor);
+                }
+            } finally {
+                cursor.close();
+            }
+            if (upload != null) {
+                upload.state = PhotoUpload.STATE_UPLOADING;
+                upload.runId = runId;
+                upload.attempts++;
+                updatePhotoUpload(upload);
+            }
+            db.setTransactionSuccessful();
+            return upload;
+        } finally {
+            db.endTransaction();
+        }
     }
 
     /**
-     * Adds a new kindergarten to the database.
+     * Saves the progress of an upload: its state, resumable session, uploaded URLs and attempt count.
      *
-     * @param garden The Garden object containing the details of the kindergarten.
+     * @param upload The upload.
      */
-    public void addKinderGarten(Garden garden) {
+    public void updatePhotoUpload(PhotoUpload upload) {
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
-        values.put(COLUMN_NAME, garden.getName());
-        values.put(COLUMN_ADDRESS, garden.getAddress());
-        values.put(COLUMN_CITY, garden.getCity());
-        values.put(COLUMN_PHONE_NUMBER, garden.getPhoneNumber());
-        values.put(COLUMN_OPEN_TIME, garden.getOpenTime());
-        values.put(COLUMN_CLOSE_TIME, garden.getCloseTime());
-        values.put(COLUMN_ORG_AFFILIATION, garden.getOrganizationalAffiliation());
-        values.put(COLUMN_IMAGE_URL, garden.getImageUrl());
-        db.insert(TABLE_KINDERGARTENS, null, values);
-        db.close();
+        values.put(COLUMN_SESSION_URI, upload.sessionUri);
+        values.put(COLUMN_PHOTO_URL, upload.photoUrl);
+        values.put(COLUMN_THUMBNAIL_URL, upload.thumbnailUrl);
+        values.put(COLUMN_UPLOAD_STATE, upload.state);
+        values.put(COLUMN_ATTEMPTS, upload.attempts);
+        values.put(COLUMN_RUN_ID, upload.runId);
+        db.update(TABLE_PHOTO_UPLOADS, values, COLUMN_ID + "=?", new String[]{String.valueOf(upload.id)});
     }
 
     /**
-     * Adds a new class to the database.
+     * Returns the uploads that were claimed or failed in an earlier run to the pending state,
+     * except those of the runs still active, whose uploaders may still be sending them.
      *
-     * @param courseNumber The course number of the class.
-     * @param courseType   The type of the course.
-     * @param maxChildren  The maximum number of children allowed in the class.
-     * @param minAge       The minimum age required for the class.
-     * @param maxAge       The maximum age allowed for the class.
+     * @param activeRunIds The IDs of the upload runs whose uploaders have not finished.
      */
-    public void addKinderGartenClass(String courseNumber, String courseType, int maxChildren, int minAge, int maxAge) {
+    public void resetPhotoUploads(Collection<String> activeRunIds) {
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
-        values.put(COLUMN_COURSE_NUMBER, courseNumber);
-        values.put(COLUMN_COURSE_TYPE, courseType);
-        values.put(COLUMN_MAX_CHILDREN, maxChildren);
-        values.put(COLUMN_MIN_AGE, minAge);
-        values.put(COLUMN_MAX_AGE, maxAge);
-        db.insert(TABLE_CLASSES, null, values);
-        db.close();
+        values.put(COLUMN_UPLOAD_STATE, PhotoUpload.STATE_PENDING);
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(PhotoUpload.STATE_PENDING));
+        String selection = COLUMN_UPLOAD_STATE + "!=?";
+        if (!activeRunIds.isEmpty()) {
+            selection += " AND (" + COLUMN_RUN_ID + " IS NULL OR " + COLUMN_RUN_ID + " NOT IN (" +
+                    TextUtils.join(", ", Collections.nCopies(activeRunIds.size(), "?")) + "))";
+            args.addAll(activeRunIds);
+        }
+        db.update(TABLE_PHOTO_UPLOADS, values, selection, args.toArray(new String[0]));
+    }
+
+    /**
+     * Removes a completed upload from the queue.
+     *
+     * @param id The row ID of the upload.
+     */
+    public void deletePhotoUpload(long id) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.delete(TABLE_PHOTO_UPLOADS, COLUMN_ID + "=?", new String[]{String.valueOf(id)});
+    }
+
+    /**
+     * Returns the number of photos in the upload queue, whether pending, uploading or waiting to be retried.
+     *
+     * @return The queue depth.
+     */
+    public int getPhotoUploadCount() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return (int) DatabaseUtils.queryNumEntries(db, TABLE_PHOTO_UPLOADS);
+    }
+
+    /**
+     * Inserts or updates cached kindergartens with one compiled UPDATE and INSERT statement,
+     * inserting a row only when the UPDATE matched none. Callers must hold a transaction.
+     *
+     * @param db          The SQLiteDatabase object.
+     * @param gardens     The kindergartens, with their IDs set.
+     * @param summaryOnly True if the gardens were read from their summaries.
+     */
+    private void upsertGardens(SQLiteDatabase db, List<Garden> gardens, boolean summaryOnly) {
+        List<String> columns = new ArrayList<>(Arrays.asList(COLUMN_NAME, COLUMN_ADDRESS, COLUMN_CITY,
+                COLUMN_ORG_AFFILIATION, COLUMN_IMAGE_URL, COLUMN_STATUS, COLUMN_REGISTERED,
+                COLUMN_REGISTRATION_START_DATE, COLUMN_AVERAGE_RATING, COLUMN_RATING_PERCENT, COLUMN_RATING_COUNT));
+        if (!summaryOnly) {
+            columns.addAll(Arrays.asList(COLUMN_PHONE_NUMBER, COLUMN_OPEN_TIME, COLUMN_CLOSE_TIME));
+        }
+
+        // Both statements bind the columns first and the ID last, so one binding serves both
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_KINDERGARTENS + " SET " +
+                TextUtils.join(" = ?, ", columns) + " = ? WHERE " + COLUMN_GARTEN_ID + " = ?");
+        SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE_KINDERGARTENS + " (" +
+                TextUtils.join(", ", columns) + ", " + COLUMN_GARTEN_ID + ") VALUES (" +
+                TextUtils.join(", ", Collections.nCopies(columns.size() + 1, "?")) + ")");
+        try {
+            for (Garden garden : gardens) {
+                bindGarden(update, garden, summaryOnly);
+                if (update.executeUpdateDelete() == 0) {
+                    bindGarden(insert, garden, summaryOnly);
+                    insert.executeInsert();
+                }
+            }
+        } finally {
+            update.close();
+            insert.close();
+        }
+    }
+
+    /**
+     * Binds a kindergarten to an upsert statement, in the column order used by upsertGardens.
+     *
+     * @param statement   The UPDATE or INSERT statement.
+     * @param garden      The kindergarten.
+     * @param summaryOnly True if only the summary columns are bound.
+     */
+    private static void bindGarden(SQLiteStatement statement, Garden garden, boolean summaryOnly) {
+        int index = 1;
+        bindText(statement, index++, garden.getName());
+        bindText(statement, index++, garden.getAddress());
+        bindText(statement, index++, garden.getCity());
+        bindText(statement, index++, garden.getOrganizationalAffiliation());
+        bindText(statement, index++, garden.getImageUrl());
+        bindText(statement, index++, garden.getStatus());
+        statement.bindLong(index++, garden.isRegistered() ? 1 : 0);
+        bindLong(statement, index++, toMillis(garden.getRegistrationStartDate()));
+        statement.bindDouble(index++, garden.getAverageRating());
+        statement.bindDouble(index++, garden.getRatingPercent());
+        statement.bindLong(index++, garden.getRatingCount());
+        if (!summaryOnly) {
+            bindText(statement, index++, garden.getPhoneNumber());
+            bindText(statement, index++, garden.getOpenTime());
+            bindText(statement, index++, garden.getCloseTime());
+        }
+        bindText(statement, index, garden.getId());
+    }
+
+    /**
+     * Compiles the INSERT statement for a table with the class columns,
+     * i.e. the classes or staff_classes table.
+     *
+     * @param db          The SQLiteDatabase object.
+     * @param table       The table name.
+     * @param ownerColumn The column holding the owner of the class: the kindergarten ID or the staff email.
+     * @return The compiled statement, which the caller must close.
+     */
+    private SQLiteStatement compileClassInsert(SQLiteDatabase db, String table, String ownerColumn) {
+        return db.compileStatement("INSERT INTO " + table + " (" + ownerColumn + ", " + COLUMN_POSITION + ", " +
+                COLUMN_CLASS_ID + ", " + COLUMN_COURSE_NUMBER + ", " + COLUMN_COURSE_TYPE + ", " +
+                COLUMN_MAX_CHILDREN + ", " + COLUMN_MIN_AGE + ", " + COLUMN_MAX_AGE + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+    }
+
+    /**
+     * Inserts a list of classes with a statement from compileClassInsert.
+     *
+     * @param insert  The compiled INSERT statement.
+     * @param owner   The kindergarten ID or staff email that owns the classes.
+     * @param classes The classes, or null for none.
+     */
+    private static void insertClasses(SQLiteStatement insert, String owner, List<GardenClass> classes) {
+        if (classes == null) {
+            return;
+        }
+        for (int i = 0; i < classes.size(); i++) {
+            GardenClass gardenClass = classes.get(i);
+            bindText(insert, 1, owner);
+            insert.bindLong(2, i);
+            bindText(insert, 3, gardenClass.getId());
+            bindText(insert, 4, gardenClass.getCourseNumber());
+            bindText(insert, 5, gardenClass.getCourseType());
+            insert.bindLong(6, gardenClass.getMaxChildren());
+            insert.bindLong(7, gardenClass.getMinAge());
+            insert.bindLong(8, gardenClass.getMaxAge());
+            insert.executeInsert();
+        }
+    }
+
+    /**
+     * Reads the cached classes of a kindergarten.
+     *
+     * @param db       The SQLiteDatabase object.
+     * @param gartenId The ID of the kindergarten.
+     * @return The cached classes, in their original order.
+     */
+    private List<GardenClass> readClasses(SQLiteDatabase db, String gartenId) {
+        List<GardenClass> classes = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_CLASSES, null, COLUMN_GARTEN_ID + "=?", new String[]{gartenId},
+                null, null, COLUMN_POSITION);
+        try {
+            while (cursor.moveToNext()) {
+                classes.add(readClass(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return classes;
+    }
+
+    /**
+     * Reads a class from the current row of a classes or staff_classes cursor.
+     *
+     * @param cursor The cursor.
+     * @return The class.
+     */
+    private GardenClass readClass(Cursor cursor) {
+        return new GardenClass(
+                getString(cursor, COLUMN_CLASS_ID),
+                getString(cursor, COLUMN_COURSE_NUMBER),
+                getString(cursor, COLUMN_COURSE_TYPE),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_MAX_CHILDREN)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_MIN_AGE)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_MAX_AGE)));
+    }
+
+    /**
+     * Reads a kindergarten from the current row of a kindergartens cursor.
+     *
+     * @param cursor The cursor.
+     * @return The kindergarten, without classes or children.
+     */
+    private Garden readGarden(Cursor cursor) {
+        Garden garden = new Garden(getString(cursor, COLUMN_GARTEN_ID), getString(cursor, COLUMN_NAME));
+        garden.setAddress(getString(cursor, COLUMN_ADDRESS));
+        garden.setCity(getString(cursor, COLUMN_CITY));
+        garden.setPhoneNumber(getString(cursor, COLUMN_PHONE_NUMBER));
+        garden.setOpenTime(getString(cursor, COLUMN_OPEN_TIME));
+        garden.setCloseTime(getString(cursor, COLUMN_CLOSE_TIME));
+        garden.setOrganizationalAffiliation(getString(cursor, COLUMN_ORG_AFFILIATION));
+        garden.setImageUrl(getString(cursor, COLUMN_IMAGE_URL));
+        garden.setStatus(getString(cursor, COLUMN_STATUS));
+        garden.setRegistered(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_REGISTERED)) == 1);
+        garden.setRegistrationStartDate(getDate(cursor, COLUMN_REGISTRATION_START_DATE));
+        garden.setAverageRating(cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_AVERAGE_RATING)));
+        garden.setRatingPercent(cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_RATING_PERCENT)));
+        garden.setRatingCount(cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_RATING_COUNT)));
+        return garden;
+    }
+
+    /**
+     * Inserts or updates cached children with compiled statements. Callers must hold a transaction.
+     *
+     * @param db         The SQLiteDatabase object.
+     * @param children   The children.
+     * @param gartenName The name of the kindergarten the children are registered to.
+     * @param approved   The approval status to store, or null to keep the cached status.
+     * @return The IDs of the children that were written.
+     */
+    private List<String> upsertChildren(SQLiteDatabase db, List<Child> children, String gartenName, Boolean approved) {
+        String approvedColumn = approved != null ? ", " + COLUMN_APPROVED : "";
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_CHILDREN + " SET " +
+                COLUMN_NAME + " = ?, " + COLUMN_AGE + " = ?, " + COLUMN_HOBBY + " = ?, " + COLUMN_HOBBIES + " = ?, " +
+                COLUMN_GARTEN_NAME + " = ?" + (approved != null ? ", " + COLUMN_APPROVED + " = ?" : "") +
+                " WHERE " + COLUMN_CHILD_ID + " = ?");
+        SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE_CHILDREN + " (" +
+                COLUMN_NAME + ", " + COLUMN_AGE + ", " + COLUMN_HOBBY + ", " + COLUMN_HOBBIES + ", " +
+                COLUMN_GARTEN_NAME + approvedColumn + ", " + COLUMN_CHILD_ID + ") VALUES (?, ?, ?, ?, ?, " +
+                (approved != null ? "?, " : "") + "?)");
+
+        List<String> childIds = new ArrayList<>();
+        try {
+            for (Child child : children) {
+                if (child.getID() == null) {
+                    continue;
+                }
+                bindChild(update, child, gartenName, approved);
+                if (update.executeUpdateDelete() == 0) {
+                    bindChild(insert, child, gartenName, approved);
+                    insert.executeInsert();
+                }
+                childIds.add(child.getID());
+            }
+        } finally {
+            update.close();
+            insert.close();
+        }
+        return childIds;
+    }
+
+    /**
+     * Binds a child to an upsert statement, in the column order used by upsertChildren.
+     *
+     * @param statement  The UPDATE or INSERT statement.
+     * @param child      The child.
+     * @param gartenName The name of the kindergarten.
+     * @param approved   The approval status, or null if the statement doesn't write it.
+     */
+    private static void bindChild(SQLiteStatement statement, Child child, String gartenName, Boolean approved) {
+        int index = 1;
+        bindText(statement, index++, child.getFullName());
+        bindLong(statement, index++, child.getAge() != null ? Long.valueOf(child.getAge()) : null);
+        bindText(statement, index++, child.getHobby());
+        bindText(statement, index++, child.getHobbies() != null ? TextUtils.join(",", child.getHobbies()) : null);
+        bindText(statement, index++, gartenName);
+        if (approved != null) {
+            statement.bindLong(index++, approved ? 1 : 0);
+        }
+        bindText(statement, index, child.getID());
+    }
+
+    /**
+     * Deletes the cached children of a kindergarten that are not in the given list.
+     *
+     * @param db         The SQLiteDatabase object.
+     * @param gartenName The name of the kindergarten.
+     * @param keepIds    The IDs of the children to keep.
+     */
+    private void deleteOtherChildren(SQLiteDatabase db, String gartenName, List<String> keepIds) {
+        List<String> staleIds = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_CHILDREN, new String[]{COLUMN_CHILD_ID}, COLUMN_GARTEN_NAME + "=?",
+                new String[]{gartenName}, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                if (!keepIds.contains(cursor.getString(0))) {
+                    staleIds.add(cursor.getString(0));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        SQLiteStatement delete = db.compileStatement("DELETE FROM " + TABLE_CHILDREN + " WHERE " + COLUMN_CHILD_ID + " = ?");
+        try {
+            for (String childId : staleIds) {
+                delete.bindString(1, childId);
+                delete.executeUpdateDelete();
+            }
+        } finally {
+            delete.close();
+        }
+    }
+
+    /**
+     * Reads the queued upload at the cursor's current row.
+     *
+     * @param cursor The cursor.
+     * @return The upload.
+     */
+    private PhotoUpload readPhotoUpload(Cursor cursor) {
+        PhotoUpload upload = new PhotoUpload(
+                getString(cursor, COLUMN_UPLOAD_KEY),
+                getString(cursor, COLUMN_CHILD_ID),
+                getString(cursor, COLUMN_CLASS_NAME),
+                getDate(cursor, COLUMN_TIME),
+                getString(cursor, COLUMN_PHOTO_PATH),
+                getString(cursor, COLUMN_THUMBNAIL_PATH));
+        upload.id = cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_ID));
+        upload.sessionUri = getString(cursor, COLUMN_SESSION_URI);
+        upload.photoUrl = getString(cursor, COLUMN_PHOTO_URL);
+        upload.thumbnailUrl = getString(cursor, COLUMN_THUMBNAIL_URL);
+        upload.state = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_UPLOAD_STATE));
+        upload.attempts = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_ATTEMPTS));
+        upload.runId = getString(cursor, COLUMN_RUN_ID);
+        return upload;
+    }
+
+    /**
+     * Reads the cursor of a synced collection.
+     *
+     * @param db         The SQLiteDatabase object.
+     * @param cursorName The name of the synced collection.
+     * @return The timestamp, or null if the collection was never synced.
+     */
+    private static Timestamp getSyncCursor(SQLiteDatabase db, String cursorName) {
+        Cursor cursor = db.query(TABLE_SYNC_CURSORS, new String[]{COLUMN_CURSOR_SECONDS, COLUMN_CURSOR_NANOS},
+                COLUMN_NAME + "=?", new String[]{cursorName}, null, null, null);
+        try {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new Timestamp(cursor.getLong(0), cursor.getInt(1));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Logs the duration of a bulk write.
+     *
+     * @param table The main table that was written.
+     * @param rows  The number of rows written.
+     * @param start The SystemClock.elapsedRealtime() value when the write started.
+     */
+    private static void logBulkWrite(String table, int rows, long start) {
+        Log.d("DatabaseHelper", "Wrote " + rows + " rows to " + table + " in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+
+    /**
+     * Binds a text value, or NULL if the value is null.
+     *
+     * @param statement The statement.
+     * @param index     The 1-based parameter index.
+     * @param value     The value.
+     */
+    private static void bindText(SQLiteStatement statement, int index, String value) {
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    /**
+     * Binds an integer value, or NULL if the value is null.
+     *
+     * @param statement The statement.
+     * @param index     The 1-based parameter index.
+     * @param value     The value.
+     */
+    private static void bindLong(SQLiteStatement statement, int index, Long value) {
+        if (value != null) {
+            statement.bindLong(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
+    /**
+     * Reads a text column of the current row.
+     *
+     * @param cursor The cursor.
+     * @param column The column name.
+     * @return The value, or null.
+     */
+    private static String getString(Cursor cursor, String column) {
+        return cursor.getString(cursor.getColumnIndexOrThrow(column));
+    }
+
+    /**
+     * Reads a date stored as milliseconds since the epoch.
+     *
+     * @param cursor The cursor.
+     * @param column The column name.
+     * @return The date, or null if the column is null.
+     */
+    private static Date getDate(Cursor cursor, String column) {
+        int index = cursor.getColumnIndexOrThrow(column);
+        return cursor.isNull(index) ? null : new Date(cursor.getLong(index));
+    }
+
+    /**
+     * Returns the local day of a date as a sortable number, e.g. 20240521 for May 21, 2024.
+     *
+     * @param date The date.
+     * @return The day bucket of the date.
+     */
+    private static int dayKey(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return calendar.get(Calendar.YEAR) * 10000 + (calendar.get(Calendar.MONTH) + 1) * 100 + calendar.get(Calendar.DAY_OF_MONTH);
+    }
+
+    /**
+     * Converts a date to milliseconds since the epoch for storage.
+     *
+     * @param date The date, or null.
+     * @return The milliseconds, or null if the date is null.
+     */
+    private static Long toMillis(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    /**
+     * Splits a comma separated column value.
+     *
+     * @param value The stored value, or null.
+     * @return The list of values, or null if the value is null.
+     */
+    private static List<String> split(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.isEmpty() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(value.split(",")));
     }
 }
@@ -2,6 +2,8 @@ package com.example.finalprojectapp.database;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import android.widget.ArrayAdapter;
@@ -9,34 +11,47 @@ import android.widget.Spinner;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.OnProgressListener;
+import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
 import com.google.firebase.firestore.FieldValue;
 
+import java.io.File;
 import java.util.Date;
-import java.util.concurrent.CountDownLatch;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import Objects.Child;
 import Objects.ChildPhoto;
@@ -44,8 +59,10 @@ import Objects.ChildStatus;
 import Objects.Garden;
 import Objects.GardenClass;
 import Objects.GardenStaff;
+import Objects.GardenSummary;
 import Objects.Note;
 import Objects.Parent;
+import Objects.ParentEvent;
 import Objects.Review;
 
 /**
@@ -53,6 +70,33 @@ import Objects.Review;
  */
 public class FireBaseManager {
 
+    // Maximum number of values Firestore accepts in a single whereIn filter
+    static final int WHERE_IN_LIMIT = 30;
+
+    // Versions of the Firestore data layout, each reached when DataMigrationWorker completes its one-time migration
+    public static final int DATA_VERSION_REVIEW_SUBCOLLECTIONS = 1;
+    public static final int DATA_VERSION_RATING_AGGREGATES = 2;
+    public static final int DATA_VERSION_GARDEN_SUMMARIES = 3;
+    public static final int DATA_VERSION_CHILD_INDEX = 4;
+    public static final int LATEST_DATA_VERSION = DATA_VERSION_CHILD_INDEX;
+
+    // Highest data version read so far; migrations are never undone, so it only rises
+    private static volatile int knownDataVersion;
+
+    // Shared across FireBaseManager instances, which are created per screen
+    private static final GardenNameCache gardenNameCache = new GardenNameCache(256);
+
+    // Local search index over gardenSummaries, persisted in SQLite and synced while a search screen is started
+    private static final GardenSearchIndex gardenSearchIndex =
+            new GardenSearchIndex(message -> Log.d("GardenSearchIndex", message));
+    // One thread loads, syncs, persists and searches the index, so its changes apply in order off the main thread
+    private static final ExecutorService gardenSearchExecutor = Executors.newSingleThreadExecutor();
+    private static final List<Runnable> pendingSearches = new ArrayList<>();
+    private static final List<ListenerRegistration> gardenSearchListeners = new ArrayList<>();
+    private static int gardenSearchScreens;
+    private static boolean gardenSearchLoaded;
+    private static volatile boolean gardenSearchReady;
+
     private static FirebaseFirestore db;
     private FirebaseAuth mAuth;
     private static FirebaseStorage storage;
@@ -60,6 +104,7 @@ public class FireBaseManager {
     private DatabaseHelper databaseHelper;
     private Context context;
     private Map<String, String> gardenIdToNameMap;
+    private Handler mainHandler;
 
     /**
      * Constructor for initializing the FireBaseManager.
@@ -71,10 +116,14 @@ public class FireBaseManager {
         db = FirebaseFirestore.getInstance();
         mAuth = FirebaseAuth.getInstance();
         storageReference = FirebaseStorage.getInstance().getReference("kindergarten_images");
-        databaseHelper = new DatabaseHelper(context);
+        databaseHelper = DatabaseHelper.getInstance(context);
         gardenIdToNameMap = new HashMap<>();
+        mainHandler = new Handler(Looper.getMainLooper());
         this.storage = FirebaseStorage.getInstance();
-        DatabaseHelper databaseHelper = new DatabaseHelper(context);
+        if (knownDataVersion < LATEST_DATA_VERSION) {
+            // Lets the listeners started on this screen use the migrated layout as soon as it is available
+            getDataVersion(version -> { });
+        }
     }
 
     /**
@@ -133,16 +182,8 @@ public class FireBaseManager {
                     Garden garden = document.toObject(Garden.class);
                     List<GardenClass> classes = garden.getClasses();
                     classes.add(kinderGardenClass);
-                    docRef.update("classes", classes)
+                    updateGardenClasses(gartenId, classes)
                             .addOnSuccessListener(aVoid -> {
-                                // Save data to SQLite as well
-                                databaseHelper.addKinderGartenClass(
-                                        kinderGardenClass.getCourseNumber(),
-                                        kinderGardenClass.getCourseType(),
-                                        kinderGardenClass.getMaxChildren(),
-                                        kinderGardenClass.getMinAge(),
-                                        kinderGardenClass.getMaxAge()
-                                );
                                 showSnackbar(view, "Class added successfully");
                                 callback.onCallback(gartenId);
                             })
@@ -194,105 +235,175 @@ public class FireBaseManager {
      * @param gartenSpinner The spinner to populate.
      */
     private void loadGartenNames(List<String> gartenIds, Spinner gartenSpinner) {
-        List<String> gartenNames = new ArrayList<>();
-        for (String gartenId : gartenIds) {
-            db.collection("kindergartens").document(gartenId).get().addOnCompleteListener(task -> {
-                if (task.isSuccessful()) {
-                    DocumentSnapshot document = task.getResult();
-                    if (document.exists()) {
-                        String gartenName = document.getString("name");
-                        gardenIdToNameMap.put(gartenId, gartenName);
-                        gartenNames.add(gartenName);
-                        ArrayAdapter<String> adapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item, gartenNames);
-                        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                        gartenSpinner.setAdapter(adapter);
-                    } else {
-                        showSnackbar(gartenSpinner, "Garden not found");
-                    }
-                } else {
-                    showSnackbar(gartenSpinner, "Failed to load garden names");
-                }
-            });
-        }
+        fetchGardensByIds(gartenIds, true, (gardens, failedIds) -> {
+            List<String> gartenNames = new ArrayList<>();
+            for (Garden garden : gardens) {
+                gardenIdToNameMap.put(garden.getId(), garden.getName());
+                gartenNames.add(garden.getName());
+            }
+            ArrayAdapter<String> adapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item, gartenNames);
+            adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+            gartenSpinner.setAdapter(adapter);
+
+            if (!failedIds.isEmpty()) {
+                showSnackbar(gartenSpinner, "Failed to load garden names");
+            } else if (gardens.size() < new LinkedHashSet<>(gartenIds).size()) {
+                showSnackbar(gartenSpinner, "Garden not found");
+            }
+        });
     }
 
     /**
-     * Loads all kindergartens associated with the current director and updates the provided garden list and adapter.
+     * Listens to the kindergartens managed by the current director.
+     * The cached kindergartens are reported first, then the list is reported again whenever the director's
+     * list of kindergartens or the summary of one of them changes. Every reported list is also cached.
      *
-     * @param gardenList   The list of kindergartens to be updated.
-     * @param gardenAdapter The adapter for the RecyclerView displaying the kindergartens.
-     * @param view         The view to attach the snackbar to.
+     * @param callback A callback to handle the list of kindergartens, in the director's order.
+     * @return The registration to remove when the list is no longer displayed, or null if no user is signed in.
      */
-    public void loadGardens(List<Garden> gardenList, RecyclerView.Adapter gardenAdapter, View view) {
+    public ListenerRegistration listenToDirectorGardens(GartenListCallback callback) {
         FirebaseUser user = mAuth.getCurrentUser();
-        if (user != null) {
-            db.collection("directors").document(user.getUid()).get().addOnCompleteListener(task -> {
-                if (task.isSuccessful()) {
-                    DocumentSnapshot document = task.getResult();
-                    if (document.exists()) {
-                        List<String> gardenIds = (List<String>) document.get("kindergartens");
-                        if (gardenIds != null && !gardenIds.isEmpty()) {
-                            gardenList.clear(); // Clear the list before adding new items
-                            List<Garden> newGardens = new ArrayList<>();
-                            for (String gardenId : gardenIds) {
-                                db.collection("kindergartens").document(gardenId).get().addOnCompleteListener(gardenTask -> {
-                                    if (gardenTask.isSuccessful()) {
-                                        DocumentSnapshot gardenDocument = gardenTask.getResult();
-                                        if (gardenDocument.exists()) {
-                                            Garden garden = gardenDocument.toObject(Garden.class);
-                                            garden.setId(gardenDocument.getId()); // Set the document ID
-                                            newGardens.add(garden);
-                                        }
-                                        if (newGardens.size() == gardenIds.size()) {
-                                            gardenList.clear();
-                                            gardenList.addAll(newGardens);
-                                            if (gardenAdapter != null) {
-                                                gardenAdapter.notifyDataSetChanged();
-                                            }
-                                        }
-                                    } else {
-                                        showSnackbar(view, "Failed to load garden");
-                                    }
-                                });
-                            }
-                        } else {
-                            showSnackbar(view, "No gardens found for this director");
-                        }
-                    } else {
-                        showSnackbar(view, "Director not found");
-                    }
-                } else {
-                    showSnackbar(view, "Failed to retrieve director");
-                }
-            });
+        if (user == null) {
+            return null;
+        }
+        List<Garden> cachedGardens = databaseHelper.getDirectorGardens(user.getUid(), false);
+        if (!cachedGardens.isEmpty()) {
+            callback.onCallback(cachedGardens);
         }
+
+        return listenToDirectorGardenIds(user.getUid(), gartenIds -> {
+            if (gartenIds.isEmpty()) {
+                databaseHelper.cacheDirectorGardens(user.getUid(), gartenIds, new ArrayList<>(), false);
+                callback.onCallback(new ArrayList<>());
+                return null;
+            }
+            return new SnapshotListSource<Garden>(gardenSummaryQueries(gartenIds), FireBaseManager::summaryToGarden, gardens -> {
+                List<Garden> orderedGardens = orderByIds(gardens, gartenIds);
+                databaseHelper.cacheDirectorGardens(user.getUid(), gartenIds, orderedGardens, false);
+                callback.onCallback(orderedGardens);
+            }).start();
+        });
     }
 
     /**
-     * Loads all classes for a specific kindergarten and updates the provided class list and adapter.
+     * Listens to the list of kindergarten IDs of a director, and keeps a listener that depends on it.
+     * The dependent listener is created for the first list and recreated only when the list changes.
      *
-     * @param gartenId    The ID of the kindergarten.
-     * @param classList   The list of classes to be updated.
-     * @param classAdapter The adapter for the RecyclerView displaying the classes.
-     * @param view        The view to attach the snackbar to.
+     * @param uid      The UID of the director.
+     * @param listener Creates the dependent listener for a list of IDs.
+     * @return The registration removing both the director listener and the dependent listener.
      */
-    public void loadClassesForGarten(String gartenId, List<GardenClass> classList, RecyclerView.Adapter classAdapter, View view) {
-        db.collection("kindergartens").document(gartenId).get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                DocumentSnapshot document = task.getResult();
-                if (document.exists()) {
-                    Garden garden = document.toObject(Garden.class);
-                    if (garden != null && garden.getClasses() != null) {
-                        classList.clear();
-                        classList.addAll(garden.getClasses());
-                        classAdapter.notifyDataSetChanged();
-                    }
-                } else {
-                    showSnackbar(view, "Garden not found");
+    private ListenerRegistration listenToDirectorGardenIds(String uid, GardenIdsListener listener) {
+        KeyedListenerRegistration gardensListener = new KeyedListenerRegistration();
+        ListenerRegistration directorListener = db.collection("directors").document(uid).addSnapshotListener((document, e) -> {
+            if (e != null) {
+                Log.e("Firebase", "Director listener failed", e);
+                return;
+            }
+            List<String> gartenIds = document != null && document.exists() ? (List<String>) document.get("kindergartens") : null;
+            List<String> uniqueIds = gartenIds != null ? new ArrayList<>(new LinkedHashSet<>(gartenIds)) : new ArrayList<>();
+            // Other fields of the director may change without touching the kindergartens
+            gardensListener.restartIfChanged(uniqueIds, () -> listener.onGardenIds(uniqueIds));
+        });
+        return () -> {
+            directorListener.remove();
+            gardensListener.remove();
+        };
+    }
+
+    /**
+     * Creates the whereIn queries reading the summaries of the given kindergartens.
+     *
+     * @param gartenIds The IDs of the kindergartens.
+     * @return One query per whereIn chunk.
+     */
+    private List<Query> gardenSummaryQueries(List<String> gartenIds) {
+        List<Query> queries = new ArrayList<>();
+        for (List<String> chunk : partition(gartenIds, WHERE_IN_LIMIT)) {
+            queries.add(db.collection(gardenListCollection()).whereIn(FieldPath.documentId(), chunk));
+        }
+        return queries;
+    }
+
+    /**
+     * Returns the collection list screens read kindergartens from: gardenSummaries once its backfill completed,
+     * and the kindergartens themselves until then, so kindergartens created before the summaries are still listed.
+     * Used by listeners, which must pick their queries at once; the data version is refreshed when a
+     * FireBaseManager is created, so listeners started later switch to the summaries.
+     *
+     * @return The name of the collection.
+     */
+    private static String gardenListCollection() {
+        return knownDataVersion >= DATA_VERSION_GARDEN_SUMMARIES ? "gardenSummaries" : "kindergartens";
+    }
+
+    /**
+     * Retrieves the collection list screens read kindergartens from, checking the data version first.
+     *
+     * @param callback A callback that receives the name of the collection.
+     */
+    private void getGardenListCollection(CollectionNameCallback callback) {
+        isDataMigrated(DATA_VERSION_GARDEN_SUMMARIES, migrated -> callback.onCallback(migrated ? "gardenSummaries" : "kindergartens"));
+    }
+
+    /**
+     * Orders kindergartens by a list of IDs, dropping those that are not in it.
+     *
+     * @param gardens   The kindergartens, with their IDs set.
+     * @param gartenIds The IDs in the wanted order.
+     * @return A new list in the order of the IDs.
+     */
+    private static List<Garden> orderByIds(List<Garden> gardens, List<String> gartenIds) {
+        Map<String, Garden> gardensById = new HashMap<>();
+        for (Garden garden : gardens) {
+            gardensById.put(garden.getId(), garden);
+        }
+        List<Garden> orderedGardens = new ArrayList<>();
+        for (String gartenId : gartenIds) {
+            Garden garden = gardensById.get(gartenId);
+            if (garden != null) {
+                orderedGardens.add(garden);
+            }
+        }
+        return orderedGardens;
+    }
+
+    /**
+     * Listens to the classes of a kindergarten.
+     * The cached classes are reported first, then the classes are reported again, and cached,
+     * whenever the kindergarten document changes.
+     *
+     * @param gartenId The ID of the kindergarten.
+     * @param callback A callback to handle the list of classes, or null once the server reports that
+     *                 the kindergarten does not exist.
+     * @return The registration to remove when the classes are no longer displayed.
+     */
+    public ListenerRegistration listenToClassesForGarten(String gartenId, CourseListCallback callback) {
+        List<GardenClass> cachedClasses = databaseHelper.getClasses(gartenId);
+        if (!cachedClasses.isEmpty()) {
+            callback.onCallback(cachedClasses);
+        }
+
+        return db.collection("kindergartens").document(gartenId).addSnapshotListener((document, e) -> {
+            if (e != null) {
+                Log.e("Firebase", "Classes listener failed", e);
+                return;
+            }
+            if (document == null) {
+                return;
+            }
+            if (!document.exists()) {
+                // A cache miss, e.g. on a cold offline start, says nothing about the server; keep the cached classes
+                if (!document.getMetadata().isFromCache()) {
+                    databaseHelper.deleteKinderGarten(gartenId);
+                    callback.onCallback(null);
                 }
-            } else {
-                showSnackbar(view, "Failed to load classes");
+                return;
             }
+            Garden garden = document.toObject(Garden.class);
+            List<GardenClass> classes = garden != null && garden.getClasses() != null ? garden.getClasses() : new ArrayList<>();
+            databaseHelper.replaceClasses(gartenId, classes);
+            callback.onCallback(classes);
         });
     }
 
@@ -313,14 +424,18 @@ public class FireBaseManager {
                         showSnackbar(view, "A kindergarten with this name already exists.");
                         callback.onCallback(null);
                     } else {
-                        // If the name does not exist, add the kindergarten
-                        db.collection("kindergartens")
-                                .add(garden)
-                                .addOnSuccessListener(documentReference -> {
-                                    garden.setId(documentReference.getId());
+                        // If the name does not exist, add the kindergarten together with its summary
+                        DocumentReference gartenRef = db.collection("kindergartens").document();
+                        garden.setId(gartenRef.getId());
+                        WriteBatch batch = db.batch();
+                        batch.set(gartenRef, garden);
+                        batch.set(summaryRef(garden.getId()), GardenSummary.from(garden));
+                        batch.commit()
+                                .addOnSuccessListener(aVoid -> {
+                                    gardenNameCache.put(garden.getName(), garden.getId());
 
                                     // Also update SQLite
-                                    databaseHelper.addKinderGarten(garden);
+                                    databaseHelper.saveKinderGarten(garden);
 
                                     updateDirectorGardens(garden.getId(), callback, view);
                                 })
@@ -357,19 +472,27 @@ public class FireBaseManager {
 
     /**
      * Retrieves the ID of a kindergarten by its name.
+     * The ID is served from the name cache when possible, without checking that the kindergarten still has
+     * that name, so writes look the kindergarten up with getGardenDocumentByName instead.
      *
      * @param gartenName The name of the kindergarten.
      * @param callback   A callback to handle the result.
      */
     public void getGartenIdByName(String gartenName, GartenIdCallback callback) {
+        String cachedId = gardenNameCache.get(gartenName);
+        if (cachedId != null) {
+            callback.onCallback(cachedId);
+            return;
+        }
+
         db.collection("kindergartens")
                 .whereEqualTo("name", gartenName)
                 .get()
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         for (DocumentSnapshot document : task.getResult()) {
-                            String gartenId = document.getId();
-                            callback.onCallback(gartenId);
+                            rememberGarden(document);
+                            callback.onCallback(document.getId());
                             return;
                         }
                         callback.onCallback(null); // No document found
@@ -379,6 +502,192 @@ public class FireBaseManager {
                 });
     }
 
+    /**
+     * Retrieves the document of a kindergarten by its name.
+     * When the ID is cached the document is read directly; if it was renamed or deleted since,
+     * the stale entry is dropped and the name is looked up again.
+     *
+     * @param gartenName The name of the kindergarten.
+     * @param callback   A callback to handle the document, or null if it was not found.
+     */
+    private void getGardenDocumentByName(String gartenName, GardenDocumentCallback callback) {
+        String cachedId = gardenNameCache.get(gartenName);
+        if (cachedId == null) {
+            queryGardenDocumentByName(gartenName, callback);
+            return;
+        }
+
+        db.collection("kindergartens").document(cachedId).get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && task.getResult().exists() && gartenName.equals(task.getResult().getString("name"))) {
+                callback.onCallback(task.getResult());
+            } else {
+                gardenNameCache.invalidateName(gartenName);
+                queryGardenDocumentByName(gartenName, callback);
+            }
+        });
+    }
+
+    /**
+     * Queries the document of a kindergarten by its name and caches its ID.
+     *
+     * @param gartenName The name of the kindergarten.
+     * @param callback   A callback to handle the document, or null if it was not found.
+     */
+    private void queryGardenDocumentByName(String gartenName, GardenDocumentCallback callback) {
+        db.collection("kindergartens")
+                .whereEqualTo("name", gartenName)
+                .get()
+                .addOnCompleteListener(task -> {
+                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
+                        DocumentSnapshot document = task.getResult().getDocuments().get(0);
+                        rememberGarden(document);
+                        callback.onCallback(document);
+                    } else {
+                        callback.onCallback(null);
+                    }
+                });
+    }
+
+    /**
+     * Adds the name and ID of a kindergarten document that was read to the name cache.
+     *
+     * @param document The kindergarten document.
+     */
+    private void rememberGarden(DocumentSnapshot document) {
+        gardenNameCache.put(document.getString("name"), document.getId());
+    }
+
+    /**
+     * Returns the shared kindergarten name cache, e.g. to inspect its hit and miss counters.
+     *
+     * @return The name cache.
+     */
+    public static GardenNameCache getGardenNameCache() {
+        return gardenNameCache;
+    }
+
+    /**
+     * Returns the summary document of a kindergarten, which has the same ID as the kindergarten.
+     *
+     * @param gartenId The ID of the kindergarten.
+     * @return The reference to the summary document.
+     */
+    private DocumentReference summaryRef(String gartenId) {
+        return db.collection("gardenSummaries").document(gartenId);
+    }
+
+    /**
+     * Writes the classes of a kindergarten together with the ages stored in its summary,
+     * and replaces the cached classes once the write succeeds.
+     *
+     * @param gartenId The ID of the kindergarten.
+     * @param classes  The full list of classes of the kindergarten.
+     * @return The task of the batched write.
+     */
+    private Task<Void> updateGardenClasses(String gartenId, List<GardenClass> classes) {
+        Map<String, Object> summaryUpdates = new HashMap<>();
+        summaryUpdates.put("ages", GardenSummary.agesOf(classes));
+        summaryUpdates.put("updatedAt", FieldValue.serverTimestamp());
+
+        WriteBatch batch = db.batch();
+        batch.update(db.collection("kindergartens").document(gartenId), "classes", classes);
+        batch.set(summaryRef(gartenId), summaryUpdates, SetOptions.merge());
+        return batch.commit()
+                .addOnSuccessListener(aVoid -> databaseHelper.replaceClasses(gartenId, classes));
+    }
+
+    /**
+     * Returns the entries of a kindergarten update that are also stored in its summary,
+     * with the summary's update time that the garden search sync reads from.
+     *
+     * @param updates The field updates applied to the kindergarten.
+     * @return The field updates to apply to the summary.
+     */
+    private static Map<String, Object> summaryUpdates(Map<String, Object> updates) {
+        Map<String, Object> summaryUpdates = new HashMap<>();
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            if (GardenSummary.FIELDS.contains(entry.getKey())) {
+                summaryUpdates.put(entry.getKey(), entry.getValue());
+            }
+        }
+        summaryUpdates.put("updatedAt", FieldValue.serverTimestamp());
+        return summaryUpdates;
+    }
+
+    /**
+     * Returns the editable details of a kindergarten as field updates. The rating aggregates are left out,
+     * since only the review transactions may write them.
+     *
+     * @param garden The kindergarten holding the edited details.
+     * @return The field updates of the details.
+     */
+    private static Map<String, Object> detailUpdates(Garden garden) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("name", garden.getName());
+        updates.put("address", garden.getAddress());
+        updates.put("city", garden.getCity());
+        updates.put("phoneNumber", garden.getPhoneNumber());
+        updates.put("openTime", garden.getOpenTime());
+        updates.put("closeTime", garden.getCloseTime());
+        updates.put("organizationalAffiliation", garden.getOrganizationalAffiliation());
+        updates.put("imageUrl", garden.getImageUrl());
+        return updates;
+    }
+
+    /**
+     * Converts a summary document into a Garden holding only the summary fields.
+     *
+     * @param document The summary document, or the kindergarten document while the summaries are not backfilled.
+     * @return A partially filled Garden with its ID set.
+     */
+    private static Garden summaryToGarden(DocumentSnapshot document) {
+        return toSummary(document).toGarden();
+    }
+
+    /**
+     * Reads the summary of a kindergarten from a list query.
+     *
+     * @param document The summary document, or the kindergarten document while the summaries are not backfilled.
+     * @return The summary with its ID set.
+     */
+    private static GardenSummary toSummary(DocumentSnapshot document) {
+        GardenSummary summary;
+        if ("kindergartens".equals(document.getReference().getParent().getId())) {
+            Garden garden = document.toObject(Garden.class);
+            garden.setId(document.getId());
+            summary = GardenSummary.from(garden);
+        } else {
+            summary = document.toObject(GardenSummary.class);
+        }
+        summary.setId(document.getId());
+        return summary;
+    }
+
+    /**
+     * One-time backfill of the gardenSummaries collection from the existing kindergartens.
+     * DataMigrationWorker runs it after backfillRatingAggregates, so the summaries include the rating fields,
+     * to reach DATA_VERSION_GARDEN_SUMMARIES. Until then, list screens read the kindergartens themselves.
+     *
+     * @param callback The callback to handle the success or failure of the backfill.
+     */
+    public void backfillGardenSummaries(UpdateCallback callback) {
+        db.collection("kindergartens")
+                .get()
+                .addOnCompleteListener(task -> {
+                    if (!task.isSuccessful()) {
+                        callback.onCallback(false);
+                        return;
+                    }
+                    BulkWriter writer = new BulkWriter(db);
+                    for (QueryDocumentSnapshot document : task.getResult()) {
+                        Garden garden = document.toObject(Garden.class);
+                        garden.setId(document.getId());
+                        writer.set(summaryRef(document.getId()), GardenSummary.from(garden));
+                    }
+                    writer.commit((succeeded, failedIds) -> callback.onCallback(failedIds.isEmpty()));
+                });
+    }
+
     /**
      * Deletes a kindergarten from Firestore and SQLite, and updates related records.
      *
@@ -392,9 +701,17 @@ public class FireBaseManager {
                     if (task.isSuccessful() && task.getResult().exists()) {
                         String gartenName = task.getResult().getString("name");
 
-                        db.collection("kindergartens").document(gartenId)
-                                .delete()
+                        // The tombstone lets garden search indexes synced before the deletion drop the kindergarten
+                        Map<String, Object> deletion = new HashMap<>();
+                        deletion.put("deletedAt", FieldValue.serverTimestamp());
+
+                        WriteBatch batch = db.batch();
+                        batch.delete(db.collection("kindergartens").document(gartenId));
+                        batch.delete(summaryRef(gartenId));
+                        batch.set(db.collection("gardenDeletions").document(gartenId), deletion);
+                        batch.commit()
                                 .addOnSuccessListener(aVoid -> {
+                                    gardenNameCache.invalidateId(gartenId);
                                     databaseHelper.deleteKinderGarten(gartenId); // Delete kindergarten from SQLite
 
                                     removeGardenFromDirector(gartenId, view, success -> {
@@ -452,16 +769,22 @@ public class FireBaseManager {
     }
 
     /**
-     * Updates a kindergarten in Firestore and shows a snackbar upon success or failure.
+     * Updates the details of a kindergarten in Firestore and shows a snackbar upon success or failure.
+     * Only the editable details are written, so reviews committed since the garden was loaded keep their ratings.
      *
      * @param garden   The Garden object containing updated information.
      * @param callback A callback to handle the result.
      * @param view     The view to attach the snackbar to.
      */
     public void updateKinderGarten(@NonNull Garden garden, GartenIdCallback callback, View view) {
-        db.collection("kindergartens").document(garden.getId())
-                .set(garden)
+        Map<String, Object> updates = detailUpdates(garden);
+        WriteBatch batch = db.batch();
+        batch.update(db.collection("kindergartens").document(garden.getId()), updates);
+        batch.set(summaryRef(garden.getId()), summaryUpdates(updates), SetOptions.merge());
+        batch.commit()
                 .addOnSuccessListener(aVoid -> {
+                    gardenNameCache.put(garden.getName(), garden.getId()); // Replaces the old name if the garden was renamed
+                    databaseHelper.saveKinderGarten(garden);
                     showSnackbar(view, "Garden updated successfully");
                     callback.onCallback(garden.getId());
                 })
@@ -491,13 +814,8 @@ public class FireBaseManager {
                     boolean classRemoved = classes.removeIf(c -> c.getCourseNumber().equals(gardenClass.getCourseNumber()));
 
                     if (classRemoved) {
-                        docRef.update("classes", classes)
-                                .addOnSuccessListener(aVoid -> {
-                                    // Delete the class from SQLite
-                                    databaseHelper.deleteClassFromGarten(gartenId, gardenClass.getCourseNumber());
-
-                                    callback.onCallback(gartenId);
-                                })
+                        updateGardenClasses(gartenId, classes)
+                                .addOnSuccessListener(aVoid -> callback.onCallback(gartenId))
                                 .addOnFailureListener(e -> callback.onCallback(null));
                     } else {
                         callback.onCallback(null); // If the class was not found
@@ -537,7 +855,7 @@ public class FireBaseManager {
                         }
                     }
                     if (classFound) {
-                        docRef.update("classes", classes)
+                        updateGardenClasses(gartenId, classes)
                                 .addOnSuccessListener(aVoid -> {
                                     Log.d("Firebase", "Class updated successfully");
                                     callback.onCallback(gartenId);
@@ -623,7 +941,8 @@ public class FireBaseManager {
 
 
     /**
-     * Updates a specific staff member's information in Firestore by their email.
+     * Updates a specific staff member's garden assignment (garden and classes) in Firestore by their email.
+     * Only those fields are written, so a staff member shown from the local cache can't overwrite the others.
      *
      * @param staff    The GardenStaff object containing updated information.
      * @param callback A callback to handle the result.
@@ -637,7 +956,7 @@ public class FireBaseManager {
                         DocumentSnapshot document = task.getResult().getDocuments().get(0);
                         String documentId = document.getId();
                         db.collection("staff").document(documentId)
-                                .set(staff)
+                                .update("garten", staff.getGarten(), "classes", staff.getClasses())
                                 .addOnSuccessListener(aVoid -> {
                                     callback.onCallback(documentId);
                                 })
@@ -660,6 +979,7 @@ public class FireBaseManager {
         db.collection("kindergartens").document(gartenId).get().addOnCompleteListener(task -> {
             if (task.isSuccessful() && task.getResult().exists()) {
                 Garden garden = task.getResult().toObject(Garden.class);
+                garden.setId(gartenId);
                 callback.onCallback(garden);
             } else {
                 callback.onCallback(null);
@@ -668,78 +988,61 @@ public class FireBaseManager {
     }
 
     /**
-     * Retrieves all staff members assigned to the kindergartens managed by the current director.
+     * Listens to the staff members assigned to the kindergartens managed by the current director.
+     * The cached staff members are reported first, then the list is reported again, and cached, whenever
+     * a staff member of these kindergartens changes, or the director's kindergartens or their names change.
      *
      * @param callback A callback to handle the list of staff members.
+     * @return The registration to remove when the list is no longer displayed, or null if no user is signed in.
      */
-    public void getStaffInGarten(StaffListCallback callback) {
+    public ListenerRegistration listenToStaffInGarten(StaffListCallback callback) {
         FirebaseUser user = mAuth.getCurrentUser();
-        if (user != null) {
-            db.collection("directors").document(user.getUid()).get().addOnCompleteListener(task -> {
-                if (task.isSuccessful()) {
-                    DocumentSnapshot document = task.getResult();
-                    if (document.exists()) {
-                        List<String> gartenIds = (List<String>) document.get("kindergartens");
-                        if (gartenIds != null && !gartenIds.isEmpty()) {
-                            List<GardenStaff> allStaff = new ArrayList<>();
-                            CountDownLatch latch = new CountDownLatch(gartenIds.size());
-                            for (String gartenId : gartenIds) {
-                                db.collection("kindergartens").document(gartenId).get().addOnCompleteListener(gartenTask -> {
-                                    if (gartenTask.isSuccessful()) {
-                                        DocumentSnapshot gartenDoc = gartenTask.getResult();
-                                        if (gartenDoc.exists()) {
-                                            String gartenName = gartenDoc.getString("name");
-                                            fetchStaffByGartenName(gartenName, allStaff, latch, callback);
-                                        } else {
-                                            latch.countDown();
-                                        }
-                                    } else {
-                                        latch.countDown();
-                                    }
-                                });
-                            }
-                        } else {
-                            callback.onCallback(null);
-                        }
-                    } else {
-                        callback.onCallback(null);
-                    }
-                } else {
-                    callback.onCallback(null);
-                }
-            });
+        if (user == null) {
+            return null;
+        }
+        List<String> cachedGardenNames = new ArrayList<>();
+        for (Garden garden : databaseHelper.getDirectorGardens(user.getUid(), false)) {
+            cachedGardenNames.add(garden.getName());
+        }
+        List<GardenStaff> cachedStaff = databaseHelper.getStaff(cachedGardenNames);
+        if (!cachedStaff.isEmpty()) {
+            callback.onCallback(cachedStaff);
         }
-    }
 
-    /**
-     * Fetches staff members by the name of the kindergarten they are associated with.
-     *
-     * @param gartenName The name of the kindergarten.
-     * @param allStaff   A list to accumulate the staff members.
-     * @param latch      A CountDownLatch to synchronize the callback.
-     * @param callback   A callback to handle the final list of staff members.
-     */
-    private void fetchStaffByGartenName(String gartenName, List<GardenStaff> allStaff, CountDownLatch latch, StaffListCallback callback) {
-        db.collection("staff")
-                .whereEqualTo("garten.name", gartenName)
-                .get()
-                .addOnCompleteListener(staffTask -> {
-                    if (staffTask.isSuccessful()) {
-                        List<DocumentSnapshot> documents = staffTask.getResult().getDocuments();
-                        for (DocumentSnapshot doc : documents) {
-                            GardenStaff staff = doc.toObject(GardenStaff.class);
-                            allStaff.add(staff);
-                        }
+        return listenToDirectorGardenIds(user.getUid(), gartenIds -> {
+            // Staff documents refer to their kindergarten by name, so follow the names of the kindergartens too
+            KeyedListenerRegistration staffListener = new KeyedListenerRegistration();
+            SnapshotListSource<Garden> gardensSource = new SnapshotListSource<>(gardenSummaryQueries(gartenIds), FireBaseManager::summaryToGarden, gardens -> {
+                List<String> gardenNames = new ArrayList<>();
+                for (Garden garden : gardens) {
+                    gardenNames.add(garden.getName());
+                }
+                staffListener.restartIfChanged(gardenNames, () -> {
+                    if (gardenNames.isEmpty()) {
+                        callback.onCallback(new ArrayList<>());
+                        return null;
                     }
-                    latch.countDown();
-                    if (latch.getCount() == 0) {
-                        callback.onCallback(allStaff);
+                    List<Query> queries = new ArrayList<>();
+                    for (List<String> chunk : partition(gardenNames, WHERE_IN_LIMIT)) {
+                        queries.add(db.collection("staff").whereIn("garten.name", chunk));
                     }
+                    return new SnapshotListSource<GardenStaff>(queries, document -> document.toObject(GardenStaff.class), staffList -> {
+                        databaseHelper.replaceStaff(gardenNames, staffList);
+                        callback.onCallback(staffList);
+                    }).start();
                 });
+            }).start();
+            return () -> {
+                gardensSource.remove();
+                staffListener.remove();
+            };
+        });
     }
 
     /**
-     * Retrieves all kindergartens managed by the current director.
+     * Retrieves all kindergartens managed by the current director from Firestore, and caches them.
+     * The callback is called once. Screens that list the gardens use listenToDirectorGardens,
+     * which renders the cached kindergartens first.
      *
      * @param callback A callback to handle the list of kindergartens.
      */
@@ -752,23 +1055,15 @@ public class FireBaseManager {
                     if (document.exists()) {
                         List<String> gartenIds = (List<String>) document.get("kindergartens");
                         if (gartenIds != null && !gartenIds.isEmpty()) {
-                            List<Garden> gardens = new ArrayList<>();
-                            for (String gartenId : gartenIds) {
-                                db.collection("kindergartens").document(gartenId).get().addOnCompleteListener(gartenTask -> {
-                                    if (gartenTask.isSuccessful()) {
-                                        DocumentSnapshot gartenDocument = gartenTask.getResult();
-                                        if (gartenDocument.exists()) {
-                                            Garden garden = gartenDocument.toObject(Garden.class);
-                                            garden.setId(gartenDocument.getId()); // Set the document ID
-                                            gardens.add(garden);
-                                        }
-                                        if (gardens.size() == gartenIds.size()) {
-                                            callback.onCallback(gardens);
-                                        }
-                                    }
-                                });
-                            }
+                            fetchGardensByIds(gartenIds, false, (gardens, failedIds) -> {
+                                databaseHelper.cacheDirectorGardens(user.getUid(), gartenIds, gardens, true);
+                                if (!failedIds.isEmpty()) {
+                                    Log.w("Firebase", "Failed to load director gardens: " + failedIds);
+                                }
+                                callback.onCallback(gardens);
+                            });
                         } else {
+                            databaseHelper.cacheDirectorGardens(user.getUid(), new ArrayList<>(), new ArrayList<>(), true);
                             callback.onCallback(null);
                         }
                     } else {
@@ -783,6 +1078,88 @@ public class FireBaseManager {
         }
     }
 
+    /**
+     * Fetches kindergartens by their IDs using chunked whereIn queries that run in parallel.
+     * The gardens are returned in the order of the given ID list, and the IDs of any chunk
+     * that failed to load are reported separately so callers can still show partial results.
+     *
+     * @param gartenIds     The list of kindergarten IDs to fetch.
+     * @param summariesOnly True to read only the summaries of the kindergartens, for list screens.
+     * @param callback      A callback to handle the loaded kindergartens and the IDs that failed.
+     */
+    private void fetchGardensByIds(List<String> gartenIds, boolean summariesOnly, GardenBatchCallback callback) {
+        if (summariesOnly) {
+            getGardenListCollection(collection -> fetchGardensByIds(gartenIds, collection, callback));
+        } else {
+            fetchGardensByIds(gartenIds, "kindergartens", callback);
+        }
+    }
+
+    /**
+     * Fetches kindergartens by their IDs from the kindergartens or gardenSummaries collection.
+     *
+     * @param gartenIds  The list of kindergarten IDs to fetch.
+     * @param collection The collection to read.
+     * @param callback   A callback to handle the loaded kindergartens and the IDs that failed.
+     */
+    private void fetchGardensByIds(List<String> gartenIds, String collection, GardenBatchCallback callback) {
+        boolean summariesOnly = "gardenSummaries".equals(collection);
+        List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(gartenIds));
+        List<List<String>> chunks = partition(uniqueIds, WHERE_IN_LIMIT);
+
+        List<Task<QuerySnapshot>> chunkTasks = new ArrayList<>();
+        for (List<String> chunk : chunks) {
+            chunkTasks.add(db.collection(collection)
+                    .whereIn(FieldPath.documentId(), chunk)
+                    .get());
+        }
+
+        Tasks.whenAllComplete(chunkTasks).addOnCompleteListener(allTask -> {
+            Map<String, Garden> gardensById = new HashMap<>();
+            List<String> failedIds = new ArrayList<>();
+            for (int i = 0; i < chunkTasks.size(); i++) {
+                Task<QuerySnapshot> chunkTask = chunkTasks.get(i);
+                if (chunkTask.isSuccessful()) {
+                    for (QueryDocumentSnapshot document : chunkTask.getResult()) {
+                        Garden garden = summariesOnly ? summaryToGarden(document) : document.toObject(Garden.class);
+                        garden.setId(document.getId()); // Set the document ID
+                        gardensById.put(document.getId(), garden);
+                        rememberGarden(document);
+                    }
+                } else {
+                    Log.e("Firebase", "Failed to load gardens chunk", chunkTask.getException());
+                    failedIds.addAll(chunks.get(i));
+                }
+            }
+
+            // Merge the chunks back in the order of the requested IDs
+            List<Garden> gardens = new ArrayList<>();
+            for (String gartenId : uniqueIds) {
+                Garden garden = gardensById.get(gartenId);
+                if (garden != null) {
+                    gardens.add(garden);
+                }
+            }
+            callback.onCallback(gardens, failedIds);
+        });
+    }
+
+    /**
+     * Splits a list into consecutive chunks of at most the given size,
+     * e.g. values small enough for a single whereIn filter or writes small enough for a single batch.
+     *
+     * @param values The values to split.
+     * @param size   The maximum size of a chunk.
+     * @return The list of chunks, in the original order.
+     */
+    static <T> List<List<T>> partition(List<T> values, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += size) {
+            chunks.add(values.subList(i, Math.min(i + size, values.size())));
+        }
+        return chunks;
+    }
+
     /**
      * Adds a course to a staff member's list of courses in Firestore.
      *
@@ -805,7 +1182,7 @@ public class FireBaseManager {
                         courses.add(course);
                         staff.setClasses(courses);
                         db.collection("staff").document(documentId)
-                                .set(staff)
+                                .update("classes", courses)
                                 .addOnSuccessListener(aVoid -> {
                                     callback.onCallback(documentId);
                                 })
@@ -819,7 +1196,9 @@ public class FireBaseManager {
     }
 
     /**
-     * Retrieves the list of classes for a specific kindergarten by its ID.
+     * Retrieves the list of classes for a specific kindergarten by its ID from Firestore, and caches them.
+     * The callback is called once. Screens that list the classes use listenToClassesForGarten,
+     * which renders the cached classes first.
      *
      * @param gartenId The ID of the kindergarten.
      * @param callback A callback to handle the list of classes.
@@ -831,11 +1210,14 @@ public class FireBaseManager {
                 if (document.exists()) {
                     Garden garden = document.toObject(Garden.class);
                     if (garden != null && garden.getClasses() != null) {
+                        databaseHelper.replaceClasses(gartenId, garden.getClasses());
                         callback.onCallback(garden.getClasses());
                     } else {
+                        databaseHelper.replaceClasses(gartenId, new ArrayList<>());
                         callback.onCallback(new ArrayList<>()); // Return empty list if no classes found
                     }
                 } else {
+                    databaseHelper.deleteKinderGarten(gartenId);
                     callback.onCallback(null); // Document not found
                 }
             } else {
@@ -845,42 +1227,256 @@ public class FireBaseManager {
     }
 
     /**
-     * Searches for kindergartens based on city, organization, and age.
-     *
-     * @param city         The city where the kindergarten is located.
-     * @param organization The organization affiliation of the kindergarten.
-     * @param age          The age to filter by, within the range of the kindergarten's age limits.
-     * @param callback     A callback to handle the list of matching kindergartens.
+     * Starts keeping the local garden search index in sync while a search screen is started.
+     * The index persisted in SQLite is loaded on the first call, so searches are answered without the network,
+     * and snapshot listeners download only the summaries updated, and the kindergartens deleted,
+     * after the stored cursors. The loading and syncing run on the search executor, off the main thread.
+     * Every call must be matched by a call to stopGardenSearchSync.
      */
-    public void searchGardens(String city, String organization, String age, FireBaseManager.GartenListCallback callback) {
-        CollectionReference gardensRef = db.collection("kindergartens");
+    public void startGardenSearchSync() {
+        synchronized (pendingSearches) {
+            gardenSearchScreens++;
+            if (!gardenSearchLoaded) {
+                gardenSearchLoaded = true;
+                gardenSearchExecutor.execute(this::loadGardenSearchIndex);
+            }
+            if (gardenSearchListeners.isEmpty()) {
+                gardenSearchExecutor.execute(this::attachGardenSearchListeners);
+            }
+        }
+    }
+
+    /**
+     * Loads the garden search index persisted in SQLite, and runs the searches waiting for it.
+     * Runs on the search executor, before any snapshot is applied.
+     */
+    private void loadGardenSearchIndex() {
+        for (GardenSummary summary : databaseHelper.getGardenSearchEntries()) {
+            gardenSearchIndex.put(summary);
+        }
+        Log.d("Firebase", "Loaded " + gardenSearchIndex.size() + " gardens into the search index");
+        if (gardenSearchIndex.size() > 0) {
+            onGardenSearchReady();
+        }
+    }
 
-        Query query = gardensRef.whereEqualTo("city", city);
+    /**
+     * Marks the garden search index as ready and runs the searches waiting for it.
+     * Runs on the search executor.
+     */
+    private void onGardenSearchReady() {
+        List<Runnable> waiting;
+        synchronized (pendingSearches) {
+            gardenSearchReady = true;
+            waiting = new ArrayList<>(pendingSearches);
+            pendingSearches.clear();
+        }
+        for (Runnable search : waiting) {
+            search.run();
+        }
+    }
 
-        // If an organization is specified, add it to the query
-        if (organization != null && !organization.isEmpty()) {
-            query = query.whereEqualTo("organizationalAffiliation", organization);
+    /**
+     * Stops syncing the garden search index once no search screen is started.
+     * Searches still waiting for the first snapshot get a null result.
+     */
+    public void stopGardenSearchSync() {
+        List<Runnable> waiting;
+        synchronized (pendingSearches) {
+            if (gardenSearchScreens == 0 || --gardenSearchScreens > 0) {
+                return;
+            }
+            detachGardenSearchListeners();
+            waiting = new ArrayList<>(pendingSearches);
+            pendingSearches.clear();
+        }
+        for (Runnable search : waiting) {
+            gardenSearchExecutor.execute(search);
         }
+    }
 
-        // If an age is specified, add it to the query
-        if (age != null && !age.isEmpty()) {
-            int ageInt = Integer.parseInt(age);
-            query = query.whereLessThanOrEqualTo("minAge", ageInt)
-                    .whereGreaterThanOrEqualTo("maxAge", ageInt);
+    /**
+     * Attaches the listeners that sync the garden search index. Once the summaries are backfilled,
+     * the summaries are read from the update time of the newest synced one, and the deletion tombstones
+     * from the time of the newest synced deletion. Without a cursor, or while the kindergartens are read
+     * instead of their summaries, the whole collection is read and its first snapshot replaces the index.
+     * Runs on the search executor, which also receives the snapshots; nothing is attached once no search screen
+     * is started, or if the listeners were attached meanwhile.
+     */
+    private void attachGardenSearchListeners() {
+        synchronized (pendingSearches) {
+            if (gardenSearchScreens > 0 && gardenSearchListeners.isEmpty()) {
+                addGardenSearchListeners();
+            }
         }
+    }
 
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && task.getResult() != null) {
-                List<Garden> gardenList = new ArrayList<>();
-                for (QueryDocumentSnapshot document : task.getResult()) {
-                    Garden garden = document.toObject(Garden.class);
-                    gardenList.add(garden);
+    /**
+     * Adds the snapshot listeners of the garden search sync. Callers must hold the pendingSearches lock.
+     */
+    private void addGardenSearchListeners() {
+        String collection = gardenListCollection();
+        boolean summaries = "gardenSummaries".equals(collection);
+        Timestamp summaryCursor = summaries ? databaseHelper.getSyncCursor("gardenSummaries") : null;
+
+        Query summaryQuery = db.collection(collection);
+        if (summaryCursor != null) {
+            summaryQuery = summaryQuery.whereGreaterThan("updatedAt", summaryCursor);
+        }
+        boolean[] replaceAll = {summaryCursor == null};
+        gardenSearchListeners.add(summaryQuery.addSnapshotListener(gardenSearchExecutor, (snapshots, e) -> {
+            if (e != null) {
+                onGardenSearchSyncFailed(e);
+                return;
+            }
+            if (snapshots == null) {
+                return;
+            }
+
+            List<GardenSummary> upserts = new ArrayList<>();
+            List<String> removedIds = new ArrayList<>();
+            Timestamp cursor = null;
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                DocumentSnapshot document = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    removedIds.add(document.getId());
+                    continue;
+                }
+                upserts.add(toSummary(document));
+                // Null while a local write waits for its server timestamp, which a later snapshot delivers
+                Timestamp updatedAt = summaries ? document.getTimestamp("updatedAt") : null;
+                if (updatedAt != null && (cursor == null || updatedAt.compareTo(cursor) > 0)) {
+                    cursor = updatedAt;
                 }
-                callback.onCallback(gardenList);
-            } else {
-                callback.onCallback(null); // Return null in case of failure
             }
-        });
+            applyGardenSearchChanges(upserts, removedIds, replaceAll[0], summaries ? "gardenSummaries" : null, cursor);
+            replaceAll[0] = false;
+            onGardenSearchReady();
+        }));
+
+        if (!summaries) {
+            return; // Deletions remove the kindergartens from the snapshots of the whole collection
+        }
+        // Deletions older than the newest synced summary are already reflected in the index
+        Timestamp deletionCursor = databaseHelper.getSyncCursor("gardenDeletions");
+        if (deletionCursor == null || (summaryCursor != null && summaryCursor.compareTo(deletionCursor) > 0)) {
+            deletionCursor = summaryCursor;
+        }
+        Query deletionQuery = db.collection("gardenDeletions");
+        if (deletionCursor != null) {
+            deletionQuery = deletionQuery.whereGreaterThan("deletedAt", deletionCursor);
+        }
+        gardenSearchListeners.add(deletionQuery.addSnapshotListener(gardenSearchExecutor, (snapshots, e) -> {
+            if (e != null) {
+                onGardenSearchSyncFailed(e);
+                return;
+            }
+            if (snapshots == null) {
+                return;
+            }
+
+            List<String> removedIds = new ArrayList<>();
+            Timestamp cursor = null;
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    continue;
+                }
+                removedIds.add(change.getDocument().getId());
+                Timestamp deletedAt = change.getDocument().getTimestamp("deletedAt");
+                if (deletedAt != null && (cursor == null || deletedAt.compareTo(cursor) > 0)) {
+                    cursor = deletedAt;
+                }
+            }
+            applyGardenSearchChanges(new ArrayList<>(), removedIds, false, "gardenDeletions", cursor);
+        }));
+    }
+
+    /**
+     * Applies synced changes to the in-memory garden search index and persists them with their cursor.
+     * Runs on the search executor.
+     *
+     * @param upserts    The added or modified summaries.
+     * @param removedIds The IDs of the removed kindergartens.
+     * @param replaceAll True if the upserts are the whole collection.
+     * @param cursorName The name of the synced collection, or null if it is not synced with a cursor.
+     * @param cursor     The newest timestamp among the changes, or null.
+     */
+    private void applyGardenSearchChanges(List<GardenSummary> upserts, List<String> removedIds, boolean replaceAll,
+                                          String cursorName, Timestamp cursor) {
+        if (replaceAll) {
+            gardenSearchIndex.clear();
+        }
+        for (String gartenId : removedIds) {
+            gardenSearchIndex.remove(gartenId);
+        }
+        for (GardenSummary summary : upserts) {
+            gardenSearchIndex.put(summary);
+        }
+        if (replaceAll || !upserts.isEmpty() || !removedIds.isEmpty()) {
+            databaseHelper.saveGardenSearchChanges(upserts, removedIds, replaceAll, cursorName, cursor);
+        }
+        Log.d("Firebase", "Garden search index holds " + gardenSearchIndex.size() + " gardens");
+    }
+
+    /**
+     * Detaches the garden search listeners after a listener failed, and answers the waiting searches
+     * from the index loaded so far. The next search or started search screen attaches them again.
+     * Runs on the search executor.
+     *
+     * @param e The listener's error.
+     */
+    private void onGardenSearchSyncFailed(FirebaseFirestoreException e) {
+        Log.e("Firebase", "Garden search sync failed", e);
+        List<Runnable> waiting;
+        synchronized (pendingSearches) {
+            detachGardenSearchListeners();
+            waiting = new ArrayList<>(pendingSearches);
+            pendingSearches.clear();
+        }
+        for (Runnable search : waiting) {
+            search.run();
+        }
+    }
+
+    /**
+     * Removes the garden search listeners. Callers must hold the pendingSearches lock.
+     */
+    private static void detachGardenSearchListeners() {
+        for (ListenerRegistration listener : gardenSearchListeners) {
+            listener.remove();
+        }
+        gardenSearchListeners.clear();
+    }
+
+    /**
+     * Searches for kindergartens based on city, organization, and age.
+     * The search is answered from the local search index on the search executor; if the index was never filled,
+     * the search runs as soon as the first snapshot arrives. The callback is called on the main thread.
+     * The calling screen must have started the sync.
+     *
+     * @param city         The city where the kindergarten is located, or a prefix of it.
+     * @param organization The organization affiliation of the kindergarten.
+     * @param age          The age to filter by, within the age range of one of the kindergarten's classes.
+     * @param callback     A callback to handle the list of matching kindergartens, or null if the index could not be loaded.
+     */
+    public void searchGardens(String city, String organization, String age, FireBaseManager.GartenListCallback callback) {
+        Integer ageInt = age != null && !age.isEmpty() ? Integer.valueOf(age) : null;
+        Runnable search = () -> {
+            // Null if the index could not be loaded
+            List<Garden> gardens = gardenSearchReady ? gardenSearchIndex.search(city, organization, ageInt) : null;
+            mainHandler.post(() -> callback.onCallback(gardens));
+        };
+
+        synchronized (pendingSearches) {
+            if (!gardenSearchReady && gardenSearchScreens > 0) {
+                if (gardenSearchListeners.isEmpty()) {
+                    gardenSearchExecutor.execute(this::attachGardenSearchListeners); // Retries a sync that failed
+                }
+                pendingSearches.add(search);
+                return;
+            }
+        }
+        gardenSearchExecutor.execute(search);
     }
 
     /**
@@ -891,27 +1487,15 @@ public class FireBaseManager {
     public void getUserType(UserTypeCallback callback) {
         FirebaseUser user = mAuth.getCurrentUser();
         if (user != null) {
-            String userId = user.getUid();
-            // Check if user is a parent
-            db.collection("Parents").document(userId).get().addOnCompleteListener(task -> {
-                if (task.isSuccessful() && task.getResult().exists()) {
+            resolveUserRole(user.getUid(), user.getEmail(), (role, name, error) -> {
+                if ("Parent".equals(role)) {
                     callback.onCallback("parent");
+                } else if ("KINDER_GARTEN_DIRECTOR".equals(role)) {
+                    callback.onCallback("director");
+                } else if ("KINDER_GARTEN_STAFF".equals(role)) {
+                    callback.onCallback("staff");
                 } else {
-                    // Check if user is a director
-                    db.collection("directors").document(userId).get().addOnCompleteListener(task1 -> {
-                        if (task1.isSuccessful() && task1.getResult().exists()) {
-                            callback.onCallback("director");
-                        } else {
-                            // Check if user is a staff member
-                            db.collection("staff").document(userId).get().addOnCompleteListener(task2 -> {
-                                if (task2.isSuccessful() && task2.getResult().exists()) {
-                                    callback.onCallback("staff");
-                                } else {
-                                    callback.onCallback(null);
-                                }
-                            });
-                        }
-                    });
+                    callback.onCallback(null);
                 }
             });
         } else {
@@ -919,6 +1503,126 @@ public class FireBaseManager {
         }
     }
 
+    /**
+     * Resolves the session role of a user ("Parent", "KINDER_GARTEN_DIRECTOR", "KINDER_GARTEN_STAFF"
+     * or "SYSTEM_ADMINISTRATOR") with a single read of the uid-keyed role index.
+     * Accounts created before the index existed are found by probing the user collections in parallel,
+     * and are then added to the index so later lookups take the fast path.
+     *
+     * @param uid      The user's UID, or null if it is not known.
+     * @param email    The user's email address.
+     * @param callback A callback to handle the role and name, or nulls if the user was not found or the lookup failed.
+     */
+    public void resolveUserRole(String uid, String email, UserRoleCallback callback) {
+        if (uid == null) {
+            probeUserCollections(null, email, callback);
+            return;
+        }
+
+        db.collection("userRoles").document(uid).get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && task.getResult().exists() && task.getResult().getString("role") != null) {
+                callback.onCallback(task.getResult().getString("role"), task.getResult().getString("name"), null);
+            } else {
+                probeUserCollections(uid, email, callback);
+            }
+        });
+    }
+
+    /**
+     * Looks the user up by email in the Parents, directors, staff and systemAdministrators collections in parallel.
+     * A role is only chosen, and backfilled, once every lookup succeeded, since a failed lookup of a collection
+     * with a higher priority could hide the user's actual role.
+     *
+     * @param uid      The user's UID, used to backfill the role index, or null.
+     * @param email    The user's email address.
+     * @param callback A callback to handle the role and name, or nulls if the user was not found or a lookup failed.
+     */
+    private void probeUserCollections(String uid, String email, UserRoleCallback callback) {
+        Task<QuerySnapshot> parentsTask = db.collection("Parents").whereEqualTo("email", email).get();
+        Task<QuerySnapshot> directorsTask = db.collection("directors").whereEqualTo("email", email).get();
+        Task<QuerySnapshot> staffTask = db.collection("staff").whereEqualTo("email", email).get();
+        Task<QuerySnapshot> adminsTask = db.collection("systemAdministrators").whereEqualTo("email", email).get();
+
+        Tasks.whenAllComplete(parentsTask, directorsTask, staffTask, adminsTask).addOnCompleteListener(task -> {
+            for (Task<QuerySnapshot> lookup : Arrays.asList(parentsTask, directorsTask, staffTask, adminsTask)) {
+                if (!lookup.isSuccessful()) {
+                    Log.e("Firebase", "Failed to look up the user's role", lookup.getException());
+                    callback.onCallback(null, null, lookup.getException());
+                    return;
+                }
+            }
+
+            String role = null;
+            DocumentSnapshot document = null;
+
+            if (hasResults(parentsTask)) {
+                role = "Parent";
+                document = parentsTask.getResult().getDocuments().get(0);
+            } else if (hasResults(directorsTask)) {
+                role = "KINDER_GARTEN_DIRECTOR";
+                document = directorsTask.getResult().getDocuments().get(0);
+            } else if (hasResults(staffTask)) {
+                DocumentSnapshot staffDoc = staffTask.getResult().getDocuments().get(0);
+                String staffRole = staffDoc.getString("role");
+                if ("KINDERGARTEN_TEACHER".equals(staffRole) || "ASSISTANT".equals(staffRole)) {
+                    role = "KINDER_GARTEN_STAFF";
+                    document = staffDoc;
+                }
+            } else if (hasResults(adminsTask)) {
+                role = "SYSTEM_ADMINISTRATOR";
+                document = adminsTask.getResult().getDocuments().get(0);
+            }
+
+            if (role == null) {
+                callback.onCallback(null, null, null);
+                return;
+            }
+
+            String name = document.getString("name");
+            if (uid != null) {
+                saveUserRole(uid, role, name);
+            }
+            callback.onCallback(role, name, null);
+        });
+    }
+
+    /**
+     * Checks whether a finished query task returned at least one document.
+     *
+     * @param task The query task.
+     * @return True if the query succeeded and is not empty.
+     */
+    private boolean hasResults(Task<QuerySnapshot> task) {
+        return task.isSuccessful() && !task.getResult().isEmpty();
+    }
+
+    /**
+     * Writes a user's entry in the uid-keyed role index.
+     *
+     * @param uid  The user's UID.
+     * @param role The session role of the user.
+     * @param name The user's name.
+     */
+    public void saveUserRole(String uid, String role, String name) {
+        db.collection("userRoles").document(uid)
+                .set(userRoleEntry(role, name))
+                .addOnFailureListener(e -> Log.e("Firebase", "Failed to save role for user " + uid, e));
+    }
+
+    /**
+     * Builds the role index entry for a user, for use in registration batches.
+     *
+     * @param role The session role of the user.
+     * @param name The user's name.
+     * @return The fields of the role index document.
+     */
+    public static Map<String, Object> userRoleEntry(String role, String name) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("role", role);
+        entry.put("name", name);
+        return entry;
+    }
+
     /**
      * Updates the "garten" field for all staff members associated with a specific kindergarten.
      *
@@ -952,41 +1656,75 @@ public class FireBaseManager {
      * @param callback A callback to handle the update result.
      */
     private void updateStaffRecords(List<String> staffIds, UpdateCallback callback) {
+        BulkWriter writer = new BulkWriter(db);
         for (String staffId : staffIds) {
-            DocumentReference staffRef = db.collection("staff").document(staffId);
-            staffRef.update("garten", null)
-                    .addOnSuccessListener(aVoid -> {
-                        // Check if all staff members have been updated
-                        if (staffIds.indexOf(staffId) == staffIds.size() - 1) {
-                            callback.onCallback(true);
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        callback.onCallback(false);
-                    });
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("garten", null);
+            writer.update(db.collection("staff").document(staffId), updates);
         }
+        writer.commit((succeeded, failedIds) -> {
+            if (!failedIds.isEmpty()) {
+                Log.e("Firebase", "Failed to update staff members: " + failedIds);
+            }
+            callback.onCallback(failedIds.isEmpty());
+        });
     }
 
     /**
-     * Retrieves all kindergartens from Firestore.
+     * Retrieves one page of kindergarten summaries ordered by document ID, which is stable across pages.
+     * Pass startAfter to page forward, endBefore to page backward, or neither for the first page.
      *
-     * @param callback A callback to handle the list of kindergartens.
+     * @param startAfter The last document of the previous page, or null.
+     * @param endBefore  The first document of the following page, or null.
+     * @param pageSize   The maximum number of kindergartens to retrieve.
+     * @param callback   A callback to handle the page and its first and last documents.
      */
-    public void getAllGardens(GartenListCallback callback) {
-        db.collection("kindergartens")
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        List<Garden> gardenList = new ArrayList<>();
-                        for (QueryDocumentSnapshot document : task.getResult()) {
-                            Garden garden = document.toObject(Garden.class);
-                            gardenList.add(garden);
-                        }
-                        callback.onCallback(gardenList);
-                    } else {
-                        callback.onCallback(null);
-                    }
-                });
+    public void getGardenSummaryPage(DocumentSnapshot startAfter, DocumentSnapshot endBefore, int pageSize, GardenPageCallback callback) {
+        DocumentSnapshot cursor = startAfter != null ? startAfter : endBefore;
+        if (cursor != null) {
+            // Keep paging the collection the cursor came from
+            loadGardenSummaryPage(cursor.getReference().getParent().getId(), startAfter, endBefore, pageSize, callback);
+        } else {
+            getGardenListCollection(collection -> loadGardenSummaryPage(collection, null, null, pageSize, callback));
+        }
+    }
+
+    /**
+     * Reads one page of kindergartens ordered by document ID from the given collection.
+     *
+     * @param collection The collection to read, gardenSummaries or kindergartens.
+     * @param startAfter The last document of the previous page, or null.
+     * @param endBefore  The first document of the following page, or null.
+     * @param pageSize   The maximum number of kindergartens to retrieve.
+     * @param callback   A callback to handle the page and its first and last documents.
+     */
+    private void loadGardenSummaryPage(String collection, DocumentSnapshot startAfter, DocumentSnapshot endBefore, int pageSize,
+                                       GardenPageCallback callback) {
+        Query query = db.collection(collection).orderBy(FieldPath.documentId());
+        if (startAfter != null) {
+            query = query.startAfter(startAfter).limit(pageSize);
+        } else if (endBefore != null) {
+            query = query.endBefore(endBefore).limitToLast(pageSize);
+        } else {
+            query = query.limit(pageSize);
+        }
+
+        query.get().addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                List<DocumentSnapshot> documents = task.getResult().getDocuments();
+                List<Garden> gardenList = new ArrayList<>();
+                for (DocumentSnapshot document : documents) {
+                    gardenList.add(summaryToGarden(document));
+                    rememberGarden(document);
+                }
+                DocumentSnapshot first = documents.isEmpty() ? null : documents.get(0);
+                DocumentSnapshot last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+                callback.onCallback(gardenList, first, last);
+            } else {
+                Log.e("Firebase", "Failed to load gardens page", task.getException());
+                callback.onCallback(null, null, null);
+            }
+        });
     }
 
     /**
@@ -997,23 +1735,61 @@ public class FireBaseManager {
      * @param callback   A callback to handle the result of the update.
      */
     public void updateGardenRegistrationStatusByName(String gardenName, boolean status, UpdateCallback callback) {
+        // Read the kindergarten, so a cached ID of a renamed kindergarten is never written to
+        getGardenDocumentByName(gardenName, document -> {
+            if (document != null) {
+                String gartenId = document.getId();
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("registered", status);
+
+                if (status) {
+                    updates.put("registrationStartDate", new Date()); // Update the registration start date and time
+                }
+
+                WriteBatch batch = db.batch();
+                batch.update(db.collection("kindergartens").document(gartenId), updates);
+                batch.set(summaryRef(gartenId), summaryUpdates(updates), SetOptions.merge());
+                batch.commit()
+                        .addOnSuccessListener(aVoid -> callback.onCallback(true))
+                        .addOnFailureListener(e -> {
+                            gardenNameCache.invalidateName(gardenName);
+                            callback.onCallback(false);
+                        });
+            } else {
+                callback.onCallback(false);
+            }
+        });
+    }
+
+    /**
+     * Updates the registration status for all kindergartens in the collection.
+     *
+     * @param status   The new registration status (true or false) for all kindergartens.
+     * @param callback A callback to handle the result of the update.
+     */
+    public void updateAllGardensRegistrationStatus(boolean status, UpdateCallback callback) {
         db.collection("kindergartens")
-                .whereEqualTo("name", gardenName)
                 .get()
                 .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
+                    if (task.isSuccessful()) {
+                        BulkWriter writer = new BulkWriter(db);
                         for (QueryDocumentSnapshot document : task.getResult()) {
                             Map<String, Object> updates = new HashMap<>();
                             updates.put("registered", status);
 
                             if (status) {
-                                updates.put("registrationStartDate", new Date()); // Update the registration start date and time
+                                updates.put("registrationStartDate", new Date()); // Update the registration start date and time for all kindergartens
                             }
 
-                            document.getReference().update(updates)
-                                    .addOnSuccessListener(aVoid -> callback.onCallback(true))
-                                    .addOnFailureListener(e -> callback.onCallback(false));
+                            writer.update(document.getReference(), updates);
+                            writer.set(summaryRef(document.getId()), summaryUpdates(updates));
                         }
+                        writer.commit((succeeded, failedIds) -> {
+                            if (!failedIds.isEmpty()) {
+                                Log.e("Firebase", "Failed to update registration status for gardens: " + failedIds);
+                            }
+                            callback.onCallback(failedIds.isEmpty());
+                        });
                     } else {
                         callback.onCallback(false);
                     }
@@ -1021,171 +1797,233 @@ public class FireBaseManager {
     }
 
     /**
-     * Updates the registration status for all kindergartens in the collection.
+     * Closes the registration of every kindergarten whose registration started before the given cutoff.
+     * Only open registrations past the cutoff are read, and they are all closed in one bulk write.
      *
-     * @param status   The new registration status (true or false) for all kindergartens.
-     * @param callback A callback to handle the result of the update.
+     * @param cutoff   The registration start date before which registrations are closed.
+     * @param callback A callback to handle the aggregate result of the update.
      */
-    public void updateAllGardensRegistrationStatus(boolean status, UpdateCallback callback) {
+    public void closeExpiredRegistrations(Date cutoff, BulkWriteCallback callback) {
         db.collection("kindergartens")
+                .whereEqualTo("registered", true)
+                .whereLessThan("registrationStartDate", cutoff)
                 .get()
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
+                        BulkWriter writer = new BulkWriter(db);
                         for (QueryDocumentSnapshot document : task.getResult()) {
                             Map<String, Object> updates = new HashMap<>();
-                            updates.put("registered", status);
-
-                            if (status) {
-                                updates.put("registrationStartDate", new Date()); // Update the registration start date and time for all kindergartens
-                            }
-
-                            document.getReference().update(updates);
+                            updates.put("registered", false);
+                            writer.update(document.getReference(), updates);
+                            writer.set(summaryRef(document.getId()), summaryUpdates(updates));
                         }
-                        callback.onCallback(true);
+                        writer.commit(callback);
                     } else {
-                        callback.onCallback(false);
+                        Log.e("Firebase", "Failed to query expired registrations", task.getException());
+                        List<String> failedIds = new ArrayList<>();
+                        failedIds.add("kindergartens");
+                        callback.onCallback(0, failedIds);
                     }
                 });
     }
 
     /**
-     * Registers a child under a parent in the Firestore and updates the relevant kindergarten and classes.
+     * Tries to acquire a time-limited lease for a background job, so only one client runs it at a time.
+     * A lease that is still held by the same owner is renewed, so a retried run can take it again.
      *
-     * @param child     The child to be registered.
-     * @param parentId  The ID of the parent under whom the child will be registered.
-     * @param view      The view for displaying messages.
-     * @param callback  A callback to handle the result of the registration.
+     * @param jobName     The name of the job.
+     * @param owner       An ID of the run taking the lease, e.g. the ID of its work request.
+     * @param leaseMillis How long the lease is held, in milliseconds.
+     * @param callback    A callback that receives true if the lease was acquired.
      */
-    public void registerChildWithParent(Child child, String parentId, View view, GartenIdCallback callback) {
-        db.collection("Parents").document(parentId).get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && task.getResult().exists()) {
-                Parent parent = task.getResult().toObject(Parent.class);
+    public void acquireJobLease(String jobName, String owner, long leaseMillis, UpdateCallback callback) {
+        DocumentReference leaseRef = db.collection("jobLeases").document(jobName);
+        db.runTransaction(transaction -> {
+                    DocumentSnapshot lease = transaction.get(leaseRef);
+                    Date now = new Date();
+                    Date leaseUntil = lease.exists() ? lease.getDate("leaseUntil") : null;
+                    if (leaseUntil != null && leaseUntil.after(now) && !owner.equals(lease.getString("owner"))) {
+                        return false;
+                    }
 
-                if (parent != null) {
-                    // Add the child to the parent's list of children
-                    parent.addChild(child);
+                    Map<String, Object> entry = new HashMap<>();
+                    entry.put("owner", owner);
+                    entry.put("leaseUntil", new Date(now.getTime() + leaseMillis));
+                    transaction.set(leaseRef, entry);
+                    return true;
+                })
+                .addOnSuccessListener(callback::onCallback)
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to acquire lease for " + jobName, e);
+                    callback.onCallback(false);
+                });
+    }
 
-                    // Update the parent's document in Firestore
-                    db.collection("Parents").document(parentId).set(parent)
-                            .addOnSuccessListener(aVoid -> {
-                                // Save the child object in a separate Firestore document
-                                db.collection("Children").add(child)
-                                        .addOnSuccessListener(documentReference -> {
-                                            // Update the children's map in the kindergarten
-                                            updateGardenAndClassesWithChild(child, view, callback);
-                                        })
-                                        .addOnFailureListener(e -> {
-                                            showSnackbar(view, "Failed to register child");
-                                            callback.onCallback(null);
-                                        });
-                            })
-                            .addOnFailureListener(e -> {
-                                showSnackbar(view, "Failed to update parent details");
-                                callback.onCallback(null);
-                            });
-                } else {
-                    showSnackbar(view, "Failed to load parent details");
-                    callback.onCallback(null);
-                }
-            } else {
-                showSnackbar(view, "Failed to load parent details");
-                callback.onCallback(null);
-            }
-        });
+    /**
+     * Releases a lease acquired with acquireJobLease, so the next run of the job, on any client, does not wait
+     * for it to expire. A lease that has since been taken by another owner is left in place.
+     *
+     * @param jobName  The name of the job.
+     * @param owner    The owner the lease was acquired with.
+     * @param callback A callback that receives true if the lease is no longer held by the owner.
+     */
+    public void releaseJobLease(String jobName, String owner, UpdateCallback callback) {
+        DocumentReference leaseRef = db.collection("jobLeases").document(jobName);
+        db.runTransaction(transaction -> {
+                    DocumentSnapshot lease = transaction.get(leaseRef);
+                    if (lease.exists() && owner.equals(lease.getString("owner"))) {
+                        transaction.delete(leaseRef);
+                    }
+                    return null;
+                })
+                .addOnSuccessListener(aVoid -> callback.onCallback(true))
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to release lease for " + jobName, e);
+                    callback.onCallback(false);
+                });
     }
 
     /**
-     * Updates the relevant kindergarten and classes with the registered child.
+     * Retrieves the version of the Firestore data layout, i.e. the last one-time migration that completed.
      *
-     * @param child     The child to be added to the kindergarten and classes.
-     * @param view      The view for displaying messages.
-     * @param callback  A callback to handle the result of the update.
+     * @param callback A callback that receives the version, 0 if no migration completed yet, or -1 if it could not be read.
      */
-    private void updateGardenAndClassesWithChild(Child child, View view, GartenIdCallback callback) {
-        // Retrieve kindergarten details by the child's kindergarten name
-        db.collection("kindergartens")
-                .whereEqualTo("name", child.getGartenName())
+    public void getDataVersion(DataVersionCallback callback) {
+        db.collection("migrations").document("data")
                 .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                        DocumentSnapshot gartenDoc = task.getResult().getDocuments().get(0);
-                        Garden garden = gartenDoc.toObject(Garden.class);
-
-                        if (garden != null && gartenDoc.getId() != null) {
-                            // Add the child with approval status "false"
-                            garden.getChildren().put(child.getID(), new ChildStatus(child, false));
-
-                            // Update the kindergarten document in Firestore
-                            db.collection("kindergartens").document(gartenDoc.getId()).set(garden)
-                                    .addOnSuccessListener(aVoid -> {
-                                        // Update the children's map in the selected classes
-                                        updateClassesWithChild(gartenDoc.getId(), garden, child, view, callback);
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        showSnackbar(view, "Failed to update garden details");
-                                        callback.onCallback(null);
-                                    });
-                        } else {
-                            showSnackbar(view, "Failed to load garden details or garden ID is null");
-                            callback.onCallback(null);
-                        }
-                    } else {
-                        showSnackbar(view, "Failed to find garden with name: " + child.getGartenName());
-                        callback.onCallback(null);
-                    }
+                .addOnSuccessListener(document -> {
+                    Long version = document.getLong("version");
+                    int dataVersion = version != null ? version.intValue() : 0;
+                    knownDataVersion = Math.max(knownDataVersion, dataVersion);
+                    callback.onCallback(dataVersion);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to read the data version", e);
+                    callback.onCallback(-1);
                 });
     }
 
     /**
-     * Updates the selected classes within a kindergarten with the registered child.
+     * Records that the one-time migration to a data version completed.
      *
-     * @param gartenDocumentId The ID of the kindergarten document in Firestore.
-     * @param garden           The kindergarten object to be updated.
-     * @param child            The child to be added to the classes.
-     * @param view             The view for displaying messages.
-     * @param callback         A callback to handle the result of the update.
+     * @param version  The data version reached.
+     * @param callback A callback to handle the success or failure of the write.
      */
-    private void updateClassesWithChild(String gartenDocumentId, Garden garden, Child child, View view, GartenIdCallback callback) {
-        List<String> selectedClasses = child.getHobbies();
+    public void setDataVersion(int version, UpdateCallback callback) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("version", version);
+        entry.put("migratedAt", new Date());
+        db.collection("migrations").document("data")
+                .set(entry)
+                .addOnSuccessListener(aVoid -> {
+                    knownDataVersion = Math.max(knownDataVersion, version);
+                    callback.onCallback(true);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to write data version " + version, e);
+                    callback.onCallback(false);
+                });
+    }
 
-        if (garden.getClasses() == null || garden.getClasses().isEmpty()) {
-            showSnackbar(view, "No classes available in the garden");
-            callback.onCallback(null);
+    /**
+     * Checks whether the Firestore data has been migrated to a version, so readers can keep using the
+     * old layout until then. Once a version was seen it is answered without reading.
+     *
+     * @param version  The data version the new layout needs.
+     * @param callback A callback that receives true if the data has reached the version.
+     */
+    private void isDataMigrated(int version, UpdateCallback callback) {
+        if (knownDataVersion >= version) {
+            callback.onCallback(true);
             return;
         }
+        getDataVersion(dataVersion -> callback.onCallback(dataVersion >= version));
+    }
 
-        for (String selectedClass : selectedClasses) {
-            for (GardenClass gardenClass : garden.getClasses()) {
-                if (gardenClass.getCourseNumber().equals(selectedClass)) {
-                    // Ensure the children map is not null
-                    if (gardenClass.getChildren() == null) {
-                        gardenClass.setChildren(new HashMap<>());
+    /**
+     * Registers a child under a parent in the Firestore and updates the relevant kindergarten and classes.
+     * The parent, child, kindergarten, class membership and child index writes are committed in a single
+     * transaction, so the registration either fully succeeds or leaves no partial data behind.
+     *
+     * @param child     The child to be registered.
+     * @param parentId  The ID of the parent under whom the child will be registered.
+     * @param view      The view for displaying messages.
+     * @param callback  A callback to handle the result of the registration.
+     */
+    public void registerChildWithParent(Child child, String parentId, View view, GartenIdCallback callback) {
+        // Retrieve the kindergarten ID by the child's kindergarten name
+        getGartenIdByName(child.getGartenName(), gartenId -> {
+                    if (gartenId == null) {
+                        showSnackbar(view, "Failed to find garden with name: " + child.getGartenName());
+                        callback.onCallback(null);
+                        return;
                     }
 
-                    // Add the child to the class's children map with approval status "false"
-                    gardenClass.getChildren().put(child.getID(), new ChildStatus(child, false));
+                    DocumentReference gartenRef = db.collection("kindergartens").document(gartenId);
+                    DocumentReference parentRef = db.collection("Parents").document(parentId);
+                    DocumentReference childRef = db.collection("Children").document();
+                    DocumentReference indexRef = db.collection("ChildIndex").document(child.getID());
 
-                    if (gartenDocumentId != null) {
-                        // Update the kindergarten document in Firestore including the updated classes
-                        db.collection("kindergartens").document(gartenDocumentId).set(garden)
-                                .addOnFailureListener(e -> {
-                                    showSnackbar(view, "Failed to update class details");
-                                });
-                    } else {
-                        showSnackbar(view, "Failed to update class because Garden ID is null.");
-                    }
-                }
-            }
-        }
+                    db.runTransaction(transaction -> {
+                                DocumentSnapshot parentSnapshot = transaction.get(parentRef);
+                                DocumentSnapshot gartenSnapshot = transaction.get(gartenRef);
+
+                                if (!parentSnapshot.exists()) {
+                                    throw new FirebaseFirestoreException("Failed to load parent details", FirebaseFirestoreException.Code.CANCELLED);
+                                }
+                                Garden garden = gartenSnapshot.toObject(Garden.class);
+                                if (garden == null || !child.getGartenName().equals(garden.getName())) {
+                                    throw new FirebaseFirestoreException("Failed to load garden details", FirebaseFirestoreException.Code.CANCELLED);
+                                }
+                                if (garden.getClasses() == null || garden.getClasses().isEmpty()) {
+                                    throw new FirebaseFirestoreException("No classes available in the garden", FirebaseFirestoreException.Code.CANCELLED);
+                                }
+
+                                // Add the child with approval status "false" to each selected class
+                                List<String> selectedClasses = child.getHobbies();
+                                for (GardenClass gardenClass : garden.getClasses()) {
+                                    if (selectedClasses != null && selectedClasses.contains(gardenClass.getCourseNumber())) {
+                                        if (gardenClass.getChildren() == null) {
+                                            gardenClass.setChildren(new HashMap<>());
+                                        }
+                                        gardenClass.getChildren().put(child.getID(), new ChildStatus(child, false));
+                                    }
+                                }
 
-        showSnackbar(view, "Child registered successfully and added to garden and classes");
-        callback.onCallback(child.getID());
-    }
+                                Map<String, Object> gardenUpdates = new HashMap<>();
+                                gardenUpdates.put("children." + child.getID(), new ChildStatus(child, false));
+                                gardenUpdates.put("classes", garden.getClasses());
 
+                                Map<String, Object> indexEntry = new HashMap<>();
+                                indexEntry.put("gardenIds", FieldValue.arrayUnion(gartenId));
+                                indexEntry.put("parentId", parentId);
 
+                                transaction.update(parentRef, "children", FieldValue.arrayUnion(child));
+                                transaction.set(childRef, child);
+                                transaction.update(gartenRef, gardenUpdates);
+                                transaction.set(indexRef, indexEntry, SetOptions.merge());
+                                return null;
+                            })
+                            .addOnSuccessListener(aVoid -> {
+                                showSnackbar(view, "Child registered successfully and added to garden and classes");
+                                callback.onCallback(child.getID());
+                            })
+                            .addOnFailureListener(e -> {
+                                Log.e("Firebase", "Failed to register child " + child.getID(), e);
+                                gardenNameCache.invalidateName(child.getGartenName());
+                                boolean cancelled = e instanceof FirebaseFirestoreException
+                                        && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.CANCELLED
+                                        && e.getMessage() != null;
+                                showSnackbar(view, cancelled ? e.getMessage() : "Failed to register child");
+                                callback.onCallback(null);
+                            });
+                });
+    }
 
     /**
      * Retrieves the list of kindergartens associated with a parent's children.
+     * The gardens are resolved through the child-to-garden index, so the cost depends on
+     * the number of children and not on the size of the kindergartens collection.
      *
      * @param callback The callback to handle the list of kindergartens.
      */
@@ -1204,23 +2042,18 @@ public class FireBaseManager {
                             childIds.add(child.getID());
                         }
 
-                        db.collection("kindergartens").get().addOnCompleteListener(task1 -> {
-                            if (task1.isSuccessful()) {
-                                List<Garden> gardens = new ArrayList<>();
-                                for (DocumentSnapshot document : task1.getResult()) {
-                                    Garden garden = document.toObject(Garden.class);
-                                    if (garden != null && garden.getChildren() != null) {
-                                        for (String childId : childIds) {
-                                            if (garden.getChildren().containsKey(childId)) {
-                                                gardens.add(garden);
-                                                break; // No need to check other children for this garden
-                                            }
-                                        }
-                                    }
-                                }
-                                callback.onCallback(gardens);
-                            } else {
+                        getGardenIdsForChildren(childIds, gardenIds -> {
+                            if (gardenIds == null) {
                                 callback.onCallback(null);
+                            } else if (gardenIds.isEmpty()) {
+                                callback.onCallback(new ArrayList<>());
+                            } else {
+                                fetchGardensByIds(gardenIds, true, (gardens, failedIds) -> {
+                                    if (!failedIds.isEmpty()) {
+                                        Log.w("Firebase", "Failed to load parent gardens: " + failedIds);
+                                    }
+                                    callback.onCallback(gardens);
+                                });
                             }
                         });
                     } else {
@@ -1233,6 +2066,176 @@ public class FireBaseManager {
         }
     }
 
+    /**
+     * Resolves the kindergarten IDs of a list of children from the child-to-garden index.
+     * Until the index backfill completed, children registered before the index are found by
+     * scanning the children of every kindergarten instead.
+     *
+     * @param childIds The IDs of the children.
+     * @param callback A callback to handle the garden IDs, or null if the index could not be read.
+     */
+    private void getGardenIdsForChildren(List<String> childIds, IdListCallback callback) {
+        List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(childIds));
+        uniqueIds.remove(null);
+        if (uniqueIds.isEmpty()) {
+            callback.onCallback(new ArrayList<>());
+            return;
+        }
+
+        isDataMigrated(DATA_VERSION_CHILD_INDEX, migrated -> {
+            if (migrated) {
+                readGardenIdsFromIndex(uniqueIds, callback);
+            } else {
+                scanGardenIdsForChildren(uniqueIds, callback);
+            }
+        });
+    }
+
+    /**
+     * Finds the kindergartens of a list of children by scanning the children of every kindergarten.
+     *
+     * @param childIds The IDs of the children, without duplicates.
+     * @param callback A callback to handle the garden IDs, or null if the kindergartens could not be read.
+     */
+    private void scanGardenIdsForChildren(List<String> childIds, IdListCallback callback) {
+        db.collection("kindergartens")
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    List<String> gardenIds = new ArrayList<>();
+                    for (DocumentSnapshot document : queryDocumentSnapshots) {
+                        Map<String, Object> children = (Map<String, Object>) document.get("children");
+                        if (children == null) {
+                            continue;
+                        }
+                        for (String childId : childIds) {
+                            if (children.containsKey(childId)) {
+                                gardenIds.add(document.getId());
+                                break;
+                            }
+                        }
+                    }
+                    callback.onCallback(gardenIds);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to scan kindergartens for children", e);
+                    callback.onCallback(null);
+                });
+    }
+
+    /**
+     * Reads the kindergarten IDs of a list of children from the child-to-garden index.
+     *
+     * @param uniqueIds The IDs of the children, without duplicates.
+     * @param callback  A callback to handle the garden IDs, or null if the index could not be read.
+     */
+    private void readGardenIdsFromIndex(List<String> uniqueIds, IdListCallback callback) {
+        List<Task<QuerySnapshot>> chunkTasks = new ArrayList<>();
+        for (List<String> chunk : partition(uniqueIds, WHERE_IN_LIMIT)) {
+            chunkTasks.add(db.collection("ChildIndex")
+                    .whereIn(FieldPath.documentId(), chunk)
+                    .get());
+        }
+
+        Tasks.whenAllSuccess(chunkTasks)
+                .addOnSuccessListener(results -> {
+                    LinkedHashSet<String> gardenIds = new LinkedHashSet<>();
+                    for (Object result : results) {
+                        for (DocumentSnapshot indexDoc : ((QuerySnapshot) result).getDocuments()) {
+                            List<String> ids = (List<String>) indexDoc.get("gardenIds");
+                            if (ids != null) {
+                                gardenIds.addAll(ids);
+                            }
+                        }
+                    }
+                    callback.onCallback(new ArrayList<>(gardenIds));
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to read child index", e);
+                    callback.onCallback(null);
+                });
+    }
+
+    /**
+     * Removes a child from the child-to-garden index.
+     *
+     * @param childId The ID of the child.
+     */
+    private void removeChildFromGardenIndex(String childId) {
+        db.collection("ChildIndex").document(childId)
+                .delete()
+                .addOnFailureListener(e -> Log.e("Firebase", "Failed to remove child " + childId + " from index", e));
+    }
+
+    /**
+     * One-time backfill of the child index from the children maps of all kindergartens
+     * and the children lists of all parents. Each child gets one merged index entry, and the entries
+     * are written with BulkWriter, so the result reports whether every entry was committed.
+     * DataMigrationWorker runs it to reach DATA_VERSION_CHILD_INDEX; until then the gardens of a
+     * parent are found by scanning the kindergartens.
+     *
+     * @param callback The callback to handle the success or failure of the backfill.
+     */
+    public void backfillChildIndex(UpdateCallback callback) {
+        Task<QuerySnapshot> gardensTask = db.collection("kindergartens").get();
+        Task<QuerySnapshot> parentsTask = db.collection("Parents").get();
+
+        Tasks.whenAllComplete(gardensTask, parentsTask).addOnCompleteListener(task -> {
+            if (!gardensTask.isSuccessful() || !parentsTask.isSuccessful()) {
+                callback.onCallback(false);
+                return;
+            }
+
+            Map<String, List<String>> gardenIdsByChild = new HashMap<>();
+            Map<String, String> parentIdByChild = new HashMap<>();
+            for (QueryDocumentSnapshot document : gardensTask.getResult()) {
+                Map<String, Object> children = (Map<String, Object>) document.get("children");
+                if (children != null) {
+                    for (String childId : children.keySet()) {
+                        List<String> gardenIds = gardenIdsByChild.get(childId);
+                        if (gardenIds == null) {
+                            gardenIds = new ArrayList<>();
+                            gardenIdsByChild.put(childId, gardenIds);
+                        }
+                        gardenIds.add(document.getId());
+                    }
+                }
+            }
+            for (QueryDocumentSnapshot parentDoc : parentsTask.getResult()) {
+                List<Map<String, Object>> children = (List<Map<String, Object>>) parentDoc.get("children");
+                if (children != null) {
+                    for (Map<String, Object> childMap : children) {
+                        String childId = (String) childMap.get("id");
+                        if (childId != null) {
+                            parentIdByChild.put(childId, parentDoc.getId());
+                        }
+                    }
+                }
+            }
+
+            LinkedHashSet<String> childIds = new LinkedHashSet<>(gardenIdsByChild.keySet());
+            childIds.addAll(parentIdByChild.keySet());
+            BulkWriter writer = new BulkWriter(db);
+            for (String childId : childIds) {
+                Map<String, Object> entry = new HashMap<>();
+                List<String> gardenIds = gardenIdsByChild.get(childId);
+                if (gardenIds != null) {
+                    entry.put("gardenIds", FieldValue.arrayUnion(gardenIds.toArray()));
+                }
+                String parentId = parentIdByChild.get(childId);
+                if (parentId != null) {
+                    entry.put("parentId", parentId);
+                }
+                writer.set(db.collection("ChildIndex").document(childId), entry);
+            }
+            writer.commit((succeeded, failedIds) -> {
+                if (!failedIds.isEmpty()) {
+                    Log.e("Firebase", "Failed to index children: " + failedIds);
+                }
+                callback.onCallback(failedIds.isEmpty());
+            });
+        });
+    }
+
     /**
      * Retrieves the list of classes a child is enrolled in within a specific kindergarten.
      *
@@ -1262,15 +2265,30 @@ public class FireBaseManager {
     }
 
     /**
-     * Updates a kindergarten's details in Firestore.
+     * Updates a kindergarten's details, children and classes in Firestore.
+     * The rating fields are never written, so reviews committed since the garden was loaded are kept.
      *
      * @param gartenId The ID of the kindergarten to update.
      * @param garden   The updated Garden object.
      * @param callback The callback to handle the success or failure of the update.
      */
     public void updateKinderGarten(String gartenId, Garden garden, UpdateCallback callback) {
-        db.collection("kindergartens").document(gartenId).set(garden)
-                .addOnSuccessListener(aVoid -> callback.onCallback(true))
+        Map<String, Object> updates = detailUpdates(garden);
+        updates.put("children", garden.getChildren());
+        updates.put("classes", garden.getClasses());
+        Map<String, Object> summaryUpdates = summaryUpdates(updates);
+        summaryUpdates.put("ages", GardenSummary.agesOf(garden.getClasses()));
+
+        WriteBatch batch = db.batch();
+        batch.update(db.collection("kindergartens").document(gartenId), updates);
+        batch.set(summaryRef(gartenId), summaryUpdates, SetOptions.merge());
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    gardenNameCache.put(garden.getName(), gartenId); // Replaces the old name if the garden was renamed
+                    garden.setId(gartenId);
+                    databaseHelper.saveKinderGarten(garden);
+                    callback.onCallback(true);
+                })
                 .addOnFailureListener(e -> callback.onCallback(false));
     }
 
@@ -1302,23 +2320,19 @@ public class FireBaseManager {
      * @param callback   The callback to handle the retrieved kindergarten object.
      */
     public void getGardenByName(String gardenName, FireBaseManager.GartenCallback callback) {
-        db.collection("kindergartens")
-                .whereEqualTo("name", gardenName)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                        DocumentSnapshot document = task.getResult().getDocuments().get(0);
-                        Garden garden = document.toObject(Garden.class);
-                        if (garden != null) {
-                            garden.setId(document.getId()); // Set the document ID in the Garden object
-                            callback.onCallback(garden);
-                        } else {
-                            callback.onCallback(null);
-                        }
-                    } else {
-                        callback.onCallback(null);
-                    }
-                });
+        getGardenDocumentByName(gardenName, document -> {
+            if (document != null) {
+                Garden garden = document.toObject(Garden.class);
+                if (garden != null) {
+                    garden.setId(document.getId()); // Set the document ID in the Garden object
+                    callback.onCallback(garden);
+                } else {
+                    callback.onCallback(null);
+                }
+            } else {
+                callback.onCallback(null);
+            }
+        });
     }
 
     /**
@@ -1337,6 +2351,7 @@ public class FireBaseManager {
 
     /**
      * Deletes a child document from Firestore by the child's ID.
+     * The child's index entry is removed only once the delete succeeded.
      *
      * @param childId  The ID of the child to delete.
      * @param callback The callback to handle the success or failure of the deletion.
@@ -1347,12 +2362,18 @@ public class FireBaseManager {
                 .get()
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && !task.getResult().isEmpty()) {
+                        // Delete the found documents together
+                        WriteBatch batch = db.batch();
                         for (QueryDocumentSnapshot document : task.getResult()) {
-                            // Delete the found document
-                            document.getReference().delete()
-                                    .addOnSuccessListener(aVoid -> callback.onCallback(true))
-                                    .addOnFailureListener(e -> callback.onCallback(false));
+                            batch.delete(document.getReference());
                         }
+                        batch.commit()
+                                .addOnSuccessListener(aVoid -> {
+                                    // The child is indexed until it is actually deleted
+                                    removeChildFromGardenIndex(childId);
+                                    callback.onCallback(true);
+                                })
+                                .addOnFailureListener(e -> callback.onCallback(false));
                     } else {
                         // If no documents were found or there was an error
                         callback.onCallback(false);
@@ -1396,9 +2417,10 @@ public class FireBaseManager {
     }
 
     /**
-     * Retrieves all children in a specified kindergarten.
+     * Retrieves all children in a specified kindergarten from Firestore, and caches them.
+     * The callback is called once, so callers may open a dialog from it.
      *
-     * @param gartenId The ID of the kindergarten.
+     * @param gartenId The name of the kindergarten.
      * @param callback The callback to handle the list of children.
      */
     public void getAllChildrenInGarden(String gartenId, ChildrenListCallback callback) {
@@ -1412,6 +2434,7 @@ public class FireBaseManager {
                             Child child = document.toObject(Child.class);
                             childrenList.add(child);
                         }
+                        databaseHelper.replaceChildrenInGarden(gartenId, childrenList);
                         callback.onCallback(childrenList);
                     } else {
                         callback.onCallback(null);
@@ -1421,6 +2444,8 @@ public class FireBaseManager {
 
     /**
      * Updates the approval status of a child within a specified kindergarten by its name.
+     * An approval is written in one batch with the CHILD_APPROVED event of the child's parent,
+     * so the parent is notified exactly when the approval is stored.
      *
      * @param gardenName The name of the kindergarten.
      * @param childId    The ID of the child.
@@ -1428,24 +2453,34 @@ public class FireBaseManager {
      * @param callback   The callback to handle the success or failure of the update.
      */
     public void updateChildApprovedStatusInGardenByName(String gardenName, String childId, boolean isApproved, UpdateCallback callback) {
-        db.collection("kindergartens")  // Access the kindergarten collection
-                .whereEqualTo("name", gardenName)  // Search for the kindergarten by name
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                            // Update the 'approved' field for the specific child in the document
-                            document.getReference()
-                                    .update("children." + childId + ".approved", isApproved)
-                                    .addOnSuccessListener(aVoid -> callback.onCallback(true))
-                                    .addOnFailureListener(e -> callback.onCallback(false));
-                        }
-                    } else {
-                        // No matching documents found
-                        callback.onCallback(false);
-                    }
-                })
-                .addOnFailureListener(e -> callback.onCallback(false));
+        // Read the kindergarten, so a cached ID of a renamed kindergarten is never written to
+        getGardenDocumentByName(gardenName, document -> {
+            if (document == null) {
+                // No matching documents found
+                callback.onCallback(false);
+                return;
+            }
+            ParentRefCallback commit = parentRef -> {
+                // Update the 'approved' field for the specific child in the document
+                WriteBatch batch = db.batch();
+                batch.update(document.getReference(), "children." + childId + ".approved", isApproved);
+                if (parentRef != null) {
+                    batch.set(parentRef.collection("events").document(),
+                            new ParentEvent(ParentEvent.TYPE_CHILD_APPROVED, childId, null, gardenName));
+                }
+                batch.commit()
+                        .addOnSuccessListener(aVoid -> callback.onCallback(true))
+                        .addOnFailureListener(e -> {
+                            gardenNameCache.invalidateName(gardenName);
+                            callback.onCallback(false);
+                        });
+            };
+            if (isApproved) {
+                getIndexedParentRef(childId, commit);
+            } else {
+                commit.onCallback(null);
+            }
+        });
     }
 
     /**
@@ -1471,260 +2506,520 @@ public class FireBaseManager {
 
     /**
      * Adds a review to both the specified kindergarten and the parent who submitted it.
+     * The review is stored as a document in the reviews subcollection of the kindergarten and,
+     * under the same ID, in the reviews subcollection of the parent. Both copies and the rating
+     * aggregates of the kindergarten are written in one transaction. The review stores the parent's
+     * document ID, and is not saved if the parent cannot be found.
      *
      * @param gartenName  The name of the kindergarten to add the review to.
      * @param parentEmail The email of the parent who submitted the review.
      * @param review      The review object to add.
      */
     public void addReviewToGartenAndParent(String gartenName, String parentEmail, Review review) {
-        // Find the document for the kindergarten by name
-        db.collection("kindergartens")
-                .whereEqualTo("name", gartenName)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the ID of the first matching document
-                        String gartenId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Save the review in the kindergarten
-                        db.collection("kindergartens").document(gartenId)
-                                .update("reviews", FieldValue.arrayUnion(review))
-                                .addOnSuccessListener(aVoid -> Log.d("Firebase", "Review added to garden successfully."))
-                                .addOnFailureListener(e -> Log.w("Firebase", "Error adding review to garden", e));
-                    } else {
-                        Log.w("Firebase", "Garden not found");
+        // Find the ID of the kindergarten by name
+        getGartenIdByName(gartenName, gartenId -> {
+            if (gartenId == null) {
+                Log.w("Firebase", "Garden not found");
+                return;
+            }
+
+            // Find the document for the parent by email
+            db.collection("Parents")
+                    .whereEqualTo("email", parentEmail)
+                    .get()
+                    .addOnCompleteListener(parentTask -> {
+                        if (!parentTask.isSuccessful() || parentTask.getResult().isEmpty()) {
+                            Log.w("Firebase", "Parent not found");
+                            return;
+                        }
+                        DocumentReference parentRef = parentTask.getResult().getDocuments().get(0).getReference();
+
+                        DocumentReference gartenRef = db.collection("kindergartens").document(gartenId);
+                        DocumentReference gartenReviewRef = gartenRef.collection("reviews").document();
+                        DocumentReference parentReviewRef = parentRef.collection("reviews").document(gartenReviewRef.getId());
+                        review.setId(gartenReviewRef.getId());
+                        // Lets a manager's response address the parent's copy directly
+                        review.setParentId(parentRef.getId());
+
+                        // Save the review and update the rating aggregates of the kindergarten together
+                        db.runTransaction(transaction -> {
+                                    DocumentSnapshot gartenSnapshot = transaction.get(gartenRef);
+                                    // The ID may come from the name cache, so make sure it is still this kindergarten
+                                    if (!gartenName.equals(gartenSnapshot.getString("name"))) {
+                                        throw new FirebaseFirestoreException("Garden " + gartenName + " was renamed or deleted",
+                                                FirebaseFirestoreException.Code.CANCELLED);
+                                    }
+                                    Long currentSum = gartenSnapshot.getLong("ratingSum");
+                                    Long currentCount = gartenSnapshot.getLong("ratingCount");
+                                    long ratingSum = (currentSum != null ? currentSum : 0) + review.getRating();
+                                    long ratingCount = (currentCount != null ? currentCount : 0) + 1;
+
+                                    Map<String, Object> updates = new HashMap<>();
+                                    updates.put("ratingSum", ratingSum);
+                                    updates.put("ratingCount", ratingCount);
+                                    updates.put("averageRating", (double) ratingSum / ratingCount);
+                                    updates.put("ratingPercent", (double) ratingSum / ratingCount * 10);
+                                    updates.put("ratingHistogram." + review.getRating(), FieldValue.increment(1));
+                                    transaction.update(gartenRef, updates);
+                                    transaction.set(summaryRef(gartenId), summaryUpdates(updates), SetOptions.merge());
+                                    transaction.set(gartenReviewRef, review);
+                                    transaction.set(parentReviewRef, review);
+                                    return null;
+                                })
+                                .addOnSuccessListener(aVoid -> Log.d("Firebase", "Review added successfully."))
+                                .addOnFailureListener(e -> {
+                                    gardenNameCache.invalidateName(gartenName);
+                                    Log.w("Firebase", "Error adding review", e);
+                                });
+                    });
+        });
+    }
+
+    /**
+     * Retrieves one page of the unanswered reviews of a specific kindergarten, newest first.
+     *
+     * @param gartenName The name of the kindergarten to retrieve reviews for.
+     * @param startAfter The last document of the previous page, or null for the first page.
+     * @param pageSize   The maximum number of reviews to retrieve.
+     * @param callback   The callback to handle the page of reviews.
+     */
+    public void getReviewsForGarten(String gartenName, DocumentSnapshot startAfter, int pageSize, ReviewPageCallback callback) {
+        isDataMigrated(DATA_VERSION_REVIEW_SUBCOLLECTIONS, migrated -> {
+            if (!migrated) {
+                // Until the migration completes, older reviews are still in the array on the kindergarten
+                getGardenDocumentByName(gartenName, document -> {
+                    if (document == null) {
+                        callback.onCallback(new ArrayList<>(), null);
+                        return;
                     }
-                })
-                .addOnFailureListener(e -> Log.w("Firebase", "Error finding garden", e));
+                    loadLegacyReviews(document, document.getReference().collection("reviews")
+                            .whereEqualTo("managerResponse", null), true, callback);
+                });
+                return;
+            }
+
+            getGartenIdByName(gartenName, gartenId -> {
+                if (gartenId == null) {
+                    Log.d("Firebase", "No document found for garden: " + gartenName);
+                    callback.onCallback(new ArrayList<>(), null);
+                    return;
+                }
+
+                // Show only the reviews the manager has not responded to yet
+                Query query = db.collection("kindergartens").document(gartenId).collection("reviews")
+                        .whereEqualTo("managerResponse", null)
+                        .orderBy("reviewDate", Query.Direction.DESCENDING);
+                loadReviewPage(query, startAfter, pageSize, callback);
+            });
+        });
+    }
 
-        // Find the document for the parent by email
+    /**
+     * Retrieves one page of the reviews written by a specific parent, newest first.
+     *
+     * @param parentEmail The email of the parent to retrieve reviews for.
+     * @param startAfter  The last document of the previous page, or null for the first page.
+     * @param pageSize    The maximum number of reviews to retrieve.
+     * @param callback    The callback to handle the page of reviews.
+     */
+    public void getReviewsForParent(String parentEmail, DocumentSnapshot startAfter, int pageSize, ReviewPageCallback callback) {
         db.collection("Parents")
                 .whereEqualTo("email", parentEmail)
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the ID of the first matching document
-                        String parentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Save the review for the parent
-                        db.collection("Parents").document(parentId)
-                                .update("reviews", FieldValue.arrayUnion(review))
-                                .addOnSuccessListener(aVoid -> Log.d("Firebase", "Review added to parent successfully."))
-                                .addOnFailureListener(e -> Log.w("Firebase", "Error adding review to parent", e));
+                        DocumentSnapshot parentDocument = queryDocumentSnapshots.getDocuments().get(0);
+                        isDataMigrated(DATA_VERSION_REVIEW_SUBCOLLECTIONS, migrated -> {
+                            if (!migrated) {
+                                // Until the migration completes, older reviews are still in the array on the parent
+                                loadLegacyReviews(parentDocument, parentDocument.getReference().collection("reviews"), false, callback);
+                                return;
+                            }
+                            Query query = parentDocument.getReference().collection("reviews")
+                                    .orderBy("reviewDate", Query.Direction.DESCENDING);
+                            loadReviewPage(query, startAfter, pageSize, callback);
+                        });
                     } else {
-                        Log.w("Firebase", "Parent not found");
+                        Log.d("Firebase", "No document found for parent: " + parentEmail);
+                        callback.onCallback(new ArrayList<>(), null);
                     }
                 })
-                .addOnFailureListener(e -> Log.w("Firebase", "Error finding parent", e));
+                .addOnFailureListener(e -> callback.onCallback(null, null));
     }
 
     /**
-     * Retrieves the reviews for a specific kindergarten by its name.
+     * Reads one page of a reviews query, continuing after the given cursor.
      *
-     * @param gartenName The name of the kindergarten to retrieve reviews for.
-     * @param callback   The callback to handle the list of reviews.
+     * @param query      The ordered reviews query.
+     * @param startAfter The last document of the previous page, or null for the first page.
+     * @param pageSize   The maximum number of reviews to retrieve.
+     * @param callback   The callback to handle the page of reviews and the cursor for the next page.
      */
-    public void getReviewsForGarten(String gartenName, ReviewListCallback callback) {
-        db.collection("kindergartens").whereEqualTo("name", gartenName)
+    private void loadReviewPage(Query query, DocumentSnapshot startAfter, int pageSize, ReviewPageCallback callback) {
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        query.limit(pageSize)
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        DocumentSnapshot documentSnapshot = queryDocumentSnapshots.getDocuments().get(0);
-                        Log.d("Firebase", "Document ID: " + documentSnapshot.getId());
-
-                        // Retrieve the list of reviews as a List of HashMaps
-                        List<Map<String, Object>> reviewMaps = (List<Map<String, Object>>) documentSnapshot.get("reviews");
-
-                        List<Review> reviews = new ArrayList<>();
-                        if (reviewMaps != null) {
-                            for (Map<String, Object> reviewMap : reviewMaps) {
-                                try {
-                                    Review review = new Review();
-                                    review.setParentEmail((String) reviewMap.get("parentEmail"));
-                                    review.setRating(((Long) reviewMap.get("rating")).intValue());
-                                    review.setComment((String) reviewMap.get("comment"));
-                                    review.setManagerResponse((String) reviewMap.get("managerResponse"));
-                                    review.setReviewDate(((Timestamp) reviewMap.get("reviewDate")).toDate());
-
-                                    // Filter the reviews to show only those where managerResponse is NULL
-                                    if (review.getManagerResponse() == null) {
-                                        reviews.add(review);
-                                    }
-                                } catch (ClassCastException e) {
-                                    Log.e("Firebase", "Failed to cast reviewMap to Review", e);
-                                }
-                            }
+                    List<Review> reviews = new ArrayList<>();
+                    for (DocumentSnapshot document : queryDocumentSnapshots.getDocuments()) {
+                        Review review = document.toObject(Review.class);
+                        if (review != null) {
+                            review.setId(document.getId()); // Migrated reviews do not store their ID
+                            reviews.add(review);
                         }
-                        callback.onCallback(reviews);
-                    } else {
-                        Log.d("Firebase", "No document found for garden: " + gartenName);
-                        callback.onCallback(new ArrayList<>());
                     }
+
+                    // A short page means there is nothing left to load
+                    DocumentSnapshot lastVisible = queryDocumentSnapshots.size() < pageSize
+                            ? null
+                            : queryDocumentSnapshots.getDocuments().get(queryDocumentSnapshots.size() - 1);
+                    callback.onCallback(reviews, lastVisible);
                 })
-                .addOnFailureListener(e -> callback.onCallback(null));
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to load reviews", e);
+                    callback.onCallback(null, null);
+                });
     }
 
     /**
-     * Retrieves the reviews for a specific parent by their email.
+     * Reads every review of a document that has not been migrated yet: those in its legacy reviews array,
+     * and those already added to its reviews subcollection. They are returned as a single page, newest first.
      *
-     * @param parentEmail The email of the parent to retrieve reviews for.
-     * @param callback    The callback to handle the list of reviews.
+     * @param document        The kindergarten or parent document.
+     * @param query           The query reading the document's reviews subcollection.
+     * @param unansweredOnly  True to keep only the reviews the manager has not responded to.
+     * @param callback        The callback to handle the reviews, with no cursor for a next page.
      */
-    public void getReviewsForParent(String parentEmail, ReviewListCallback callback) {
-        db.collection("Parents")
-                .whereEqualTo("email", parentEmail)
-                .get()
+    private void loadLegacyReviews(DocumentSnapshot document, Query query, boolean unansweredOnly, ReviewPageCallback callback) {
+        Map<String, Review> reviewsById = new HashMap<>();
+        List<Map<String, Object>> reviewMaps = (List<Map<String, Object>>) document.get("reviews");
+        if (reviewMaps != null) {
+            for (Map<String, Object> reviewMap : reviewMaps) {
+                Review review = legacyReview(reviewMap);
+                if (review != null && (!unansweredOnly || review.getManagerResponse() == null)) {
+                    reviewsById.put(review.getId(), review);
+                }
+            }
+        }
+
+        query.get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        DocumentSnapshot documentSnapshot = queryDocumentSnapshots.getDocuments().get(0);
-                        Log.d("Firebase", "Document ID: " + documentSnapshot.getId());
-
-                        // Retrieve the list of reviews as a List of HashMaps
-                        List<Map<String, Object>> reviewMaps = (List<Map<String, Object>>) documentSnapshot.get("reviews");
-
-                        List<Review> reviews = new ArrayList<>();
-                        if (reviewMaps != null) {
-                            for (Map<String, Object> reviewMap : reviewMaps) {
-                                try {
-                                    Review review = new Review();
-                                    review.setParentEmail((String) reviewMap.get("parentEmail"));
-                                    review.setRating(((Long) reviewMap.get("rating")).intValue());
-                                    review.setComment((String) reviewMap.get("comment"));
-                                    review.setManagerResponse((String) reviewMap.get("managerResponse"));
-                                    review.setReviewDate(((Timestamp) reviewMap.get("reviewDate")).toDate());
-
-                                    reviews.add(review);
-                                } catch (ClassCastException e) {
-                                    Log.e("Firebase", "Failed to cast reviewMap to Review", e);
-                                }
-                            }
+                    // A review copied by a migration that is still running replaces its array entry
+                    for (DocumentSnapshot reviewDocument : queryDocumentSnapshots.getDocuments()) {
+                        Review review = reviewDocument.toObject(Review.class);
+                        if (review != null) {
+                            review.setId(reviewDocument.getId());
+                            reviewsById.put(review.getId(), review);
                         }
-                        callback.onCallback(reviews);
-                    } else {
-                        Log.d("Firebase", "No document found for parent: " + parentEmail);
-                        callback.onCallback(new ArrayList<>());
                     }
+                    List<Review> reviews = new ArrayList<>(reviewsById.values());
+                    reviews.sort((first, second) -> {
+                        if (first.getReviewDate() == null || second.getReviewDate() == null) {
+                            return first.getReviewDate() == null ? (second.getReviewDate() == null ? 0 : 1) : -1;
+                        }
+                        return second.getReviewDate().compareTo(first.getReviewDate());
+                    });
+                    callback.onCallback(reviews, null);
                 })
-                .addOnFailureListener(e -> callback.onCallback(null));
+                .addOnFailureListener(e -> {
+                    Log.e("Firebase", "Failed to load reviews", e);
+                    callback.onCallback(null, null);
+                });
     }
 
     /**
-     * Updates a specific review within a kindergarten by its name.
+     * Converts a review stored in a legacy reviews array, giving it the ID the migration will store it under.
      *
-     * @param gardenName    The name of the kindergarten to update the review in.
-     * @param updatedReview The updated review object containing the new data.
+     * @param reviewMap The review as stored in the array.
+     * @return The review, or null if the entry is malformed.
      */
-    public void updateReviewInGardenByName(String gardenName, Review updatedReview) {
-        db.collection("kindergartens")
-                .whereEqualTo("name", gardenName)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        String gartenId = queryDocumentSnapshots.getDocuments().get(0).getId();
-                        DocumentReference gartenDocRef = db.collection("kindergartens").document(gartenId);
-
-                        gartenDocRef.get().addOnSuccessListener(documentSnapshot -> {
-                            List<Map<String, Object>> reviews = (List<Map<String, Object>>) documentSnapshot.get("reviews");
-                            if (reviews != null) {
-                                for (Map<String, Object> reviewMap : reviews) {
-                                    if (reviewMap.get("parentEmail").equals(updatedReview.getParentEmail())
-                                            && ((Timestamp) reviewMap.get("reviewDate")).toDate().equals(updatedReview.getReviewDate())) {
-                                        reviewMap.put("managerResponse", updatedReview.getManagerResponse());
-                                        break;
-                                    }
-                                }
-                                gartenDocRef.update("reviews", reviews)
-                                        .addOnSuccessListener(aVoid -> Log.d("Firebase", "Review updated in garden successfully"))
-                                        .addOnFailureListener(e -> Log.w("Firebase", "Error updating review in garden", e));
-                            }
+    private static Review legacyReview(Map<String, Object> reviewMap) {
+        try {
+            Review review = new Review();
+            review.setId(legacyReviewId(reviewMap));
+            review.setParentEmail((String) reviewMap.get("parentEmail"));
+            review.setRating(((Number) reviewMap.get("rating")).intValue());
+            review.setComment((String) reviewMap.get("comment"));
+            review.setManagerResponse((String) reviewMap.get("managerResponse"));
+            Object reviewDate = reviewMap.get("reviewDate");
+            review.setReviewDate(reviewDate instanceof Timestamp ? ((Timestamp) reviewDate).toDate() : null);
+            return review;
+        } catch (ClassCastException | NullPointerException e) {
+            Log.e("Firebase", "Failed to read legacy review", e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves a manager's response to a review. The response is written to the kindergarten's and the
+     * parent's copy of the review by ID, in one transaction, so the two copies cannot diverge.
+     * If the parent's copy cannot be found, nothing is written and the update fails.
+     * A review that has not been migrated yet is answered in the legacy array as well as in its subcollection.
+     *
+     * @param gardenName      The name of the kindergarten the review belongs to.
+     * @param review          The review being answered.
+     * @param managerResponse The response text from the manager.
+     * @param callback        The callback to handle the success or failure of the update.
+     */
+    public void updateManagerResponse(String gardenName, Review review, String managerResponse, UpdateCallback callback) {
+        if (review.getId() == null) {
+            callback.onCallback(false);
+            return;
+        }
+
+        // Read the kindergarten, so a cached ID of a renamed kindergarten is never written to
+        getGardenDocumentByName(gardenName, document -> {
+            if (document == null) {
+                Log.w("Firebase", "Garden not found for name: " + gardenName);
+                callback.onCallback(false);
+                return;
+            }
+            DocumentReference gartenRef = document.getReference();
+
+            getReviewParentRef(review, parentRef -> {
+                if (parentRef == null) {
+                    // Answering only the kindergarten's copy would leave the parent's copy unanswered
+                    Log.w("Firebase", "Parent not found for review " + review.getId());
+                    callback.onCallback(false);
+                    return;
+                }
+
+                db.runTransaction(transaction -> {
+                            DocumentSnapshot gartenSnapshot = transaction.get(gartenRef);
+                            DocumentSnapshot parentSnapshot = transaction.get(parentRef);
+                            writeManagerResponse(transaction, gartenSnapshot, review.getId(), managerResponse);
+                            writeManagerResponse(transaction, parentSnapshot, review.getId(), managerResponse);
+                            return null;
+                        })
+                        .addOnSuccessListener(aVoid -> {
+                            review.setManagerResponse(managerResponse);
+                            callback.onCallback(true);
+                        })
+                        .addOnFailureListener(e -> {
+                            Log.w("Firebase", "Error updating review " + review.getId(), e);
+                            gardenNameCache.invalidateName(gardenName);
+                            callback.onCallback(false);
                         });
+            });
+        });
+    }
+
+    /**
+     * Resolves the parent document holding the parent's copy of a review: directly from the parent ID
+     * stored on the review, or, for reviews stored before the ID was, by the parent's email.
+     *
+     * @param review   The review.
+     * @param callback A callback to handle the parent document reference, or null if it could not be resolved.
+     */
+    private void getReviewParentRef(Review review, ParentRefCallback callback) {
+        if (review.getParentId() != null) {
+            callback.onCallback(db.collection("Parents").document(review.getParentId()));
+            return;
+        }
+        db.collection("Parents")
+                .whereEqualTo("email", review.getParentEmail())
+                .get()
+                .addOnCompleteListener(task -> {
+                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
+                        callback.onCallback(task.getResult().getDocuments().get(0).getReference());
                     } else {
-                        Log.w("Firebase", "Garden not found for name: " + gardenName);
+                        callback.onCallback(null);
                     }
-                })
-                .addOnFailureListener(e -> Log.w("Firebase", "Error finding garden by name", e));
+                });
+    }
+
+    /**
+     * Writes a manager's response to one copy of a review. A review still in the document's legacy reviews
+     * array is answered there and copied with the response into the subcollection, so the response survives
+     * whether or not the migration has already copied the array.
+     *
+     * @param transaction     The transaction the response is written in.
+     * @param document        The kindergarten or parent document holding the copy, read in the transaction.
+     * @param reviewId        The ID of the review.
+     * @param managerResponse The response text from the manager.
+     */
+    private static void writeManagerResponse(Transaction transaction, DocumentSnapshot document, String reviewId, String managerResponse) {
+        DocumentReference reviewRef = document.getReference().collection("reviews").document(reviewId);
+        List<Map<String, Object>> reviewMaps = (List<Map<String, Object>>) document.get("reviews");
+        if (reviewMaps != null) {
+            for (Map<String, Object> reviewMap : reviewMaps) {
+                if (reviewId.equals(legacyReviewId(reviewMap))) {
+                    reviewMap.put("managerResponse", managerResponse);
+                    transaction.update(document.getReference(), "reviews", reviewMaps);
+                    transaction.set(reviewRef, reviewMap);
+                    return;
+                }
+            }
+        }
+        transaction.update(reviewRef, "managerResponse", managerResponse);
+    }
+
+    /**
+     * One-time migration of the reviews arrays stored on kindergarten and parent documents into
+     * their reviews subcollections. Each copy of a review gets the same ID in both subcollections,
+     * derived from the parent's email and the review date. The arrays are removed only after every
+     * review was copied. backfillRatingAggregates must run after this, since it counts the subcollections.
+     * DataMigrationWorker runs it to reach DATA_VERSION_REVIEW_SUBCOLLECTIONS; until then the review lists
+     * keep reading the arrays.
+     *
+     * @param callback The callback to handle the success or failure of the migration.
+     */
+    public void migrateReviewsToSubcollections(UpdateCallback callback) {
+        Task<QuerySnapshot> gardensTask = db.collection("kindergartens").get();
+        Task<QuerySnapshot> parentsTask = db.collection("Parents").get();
+
+        Tasks.whenAllComplete(gardensTask, parentsTask).addOnCompleteListener(task -> {
+            if (!gardensTask.isSuccessful() || !parentsTask.isSuccessful()) {
+                callback.onCallback(false);
+                return;
+            }
+
+            // Each copy records the document ID of its parent, so responses can address the parent's copy directly
+            Map<String, String> parentIdsByEmail = new HashMap<>();
+            for (DocumentSnapshot parentDocument : parentsTask.getResult().getDocuments()) {
+                parentIdsByEmail.put(parentDocument.getString("email"), parentDocument.getId());
+            }
+
+            BulkWriter copies = new BulkWriter(db);
+            BulkWriter cleanup = new BulkWriter(db);
+            List<DocumentSnapshot> documents = new ArrayList<>(gardensTask.getResult().getDocuments());
+            documents.addAll(parentsTask.getResult().getDocuments());
+            for (DocumentSnapshot document : documents) {
+                List<Map<String, Object>> reviewMaps = (List<Map<String, Object>>) document.get("reviews");
+                if (reviewMaps == null) {
+                    continue;
+                }
+                for (Map<String, Object> reviewMap : reviewMaps) {
+                    String parentId = parentIdsByEmail.get(reviewMap.get("parentEmail"));
+                    if (parentId != null) {
+                        reviewMap.put("parentId", parentId);
+                    }
+                    copies.set(document.getReference().collection("reviews").document(legacyReviewId(reviewMap)), reviewMap);
+                }
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("reviews", FieldValue.delete());
+                cleanup.update(document.getReference(), updates);
+            }
+
+            copies.commit((copied, failedCopies) -> {
+                if (!failedCopies.isEmpty()) {
+                    Log.e("Firebase", "Failed to copy reviews: " + failedCopies);
+                    callback.onCallback(false);
+                    return;
+                }
+                cleanup.commit((cleaned, failedCleanups) -> callback.onCallback(failedCleanups.isEmpty()));
+            });
+        });
     }
 
     /**
-     * Updates a specific review within a parent's document by their email.
+     * Derives the document ID of a review stored in a legacy reviews array, so the kindergarten
+     * and parent copies of the same review get the same ID and the migration can be re-run.
      *
-     * @param parentEmail   The email of the parent whose review needs to be updated.
-     * @param updatedReview The updated review object containing the new data.
+     * @param reviewMap The review as stored in the array.
+     * @return The document ID for the review.
      */
-    public void updateReviewInParentByEmail(String parentEmail, Review updatedReview) {
-        db.collection("Parents")
-                .whereEqualTo("email", parentEmail)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        String parentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-                        DocumentReference parentDocRef = db.collection("Parents").document(parentId);
-
-                        parentDocRef.get().addOnSuccessListener(documentSnapshot -> {
-                            List<Map<String, Object>> reviews = (List<Map<String, Object>>) documentSnapshot.get("reviews");
-                            if (reviews != null) {
-                                for (Map<String, Object> reviewMap : reviews) {
-                                    if (reviewMap.get("parentEmail").equals(updatedReview.getParentEmail())
-                                            && ((Timestamp) reviewMap.get("reviewDate")).toDate().equals(updatedReview.getReviewDate())) {
-                                        reviewMap.put("managerResponse", updatedReview.getManagerResponse());
-                                        break;
-                                    }
-                                }
-                                parentDocRef.update("reviews", reviews)
-                                        .addOnSuccessListener(aVoid -> Log.d("Firebase", "Review updated in parent successfully"))
-                                        .addOnFailureListener(e -> Log.w("Firebase", "Error updating review in parent", e));
-                            }
-                        });
-                    } else {
-                        Log.w("Firebase", "Parent not found for email: " + parentEmail);
-                    }
-                })
-                .addOnFailureListener(e -> Log.w("Firebase", "Error finding parent by email", e));
+    private static String legacyReviewId(Map<String, Object> reviewMap) {
+        String parentEmail = String.valueOf(reviewMap.get("parentEmail")).replaceAll("[^A-Za-z0-9]", "_");
+        Object reviewDate = reviewMap.get("reviewDate");
+        long millis = reviewDate instanceof Timestamp ? ((Timestamp) reviewDate).toDate().getTime() : 0;
+        return parentEmail + "_" + millis;
     }
 
     /**
-     * Retrieves the top-rated kindergartens based on the average review rating.
+     * Retrieves the top-rated kindergartens based on the stored average review rating.
      *
      * @param topN     The number of top-rated kindergartens to retrieve.
      * @param callback The callback to handle the list of top-rated kindergartens.
      */
     public void getTopRatedGardens(int topN, FireBaseManager.GartenListCallback callback) {
-        db.collection("kindergartens")
+        getGardenListCollection(collection -> db.collection(collection)
+                .orderBy("averageRating", Query.Direction.DESCENDING)
+                .limit(topN)
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     List<Garden> gardens = new ArrayList<>();
                     for (DocumentSnapshot documentSnapshot : queryDocumentSnapshots) {
-                        Garden garden = documentSnapshot.toObject(Garden.class);
-                        List<Map<String, Object>> reviewMaps = (List<Map<String, Object>>) documentSnapshot.get("reviews");
+                        gardens.add(summaryToGarden(documentSnapshot));
+                        rememberGarden(documentSnapshot);
+                    }
+                    callback.onCallback(gardens);
+                })
+                .addOnFailureListener(e -> callback.onCallback(null)));
+    }
 
-                        if (reviewMaps != null && !reviewMaps.isEmpty()) {
-                            int totalRating = 0;
-                            int reviewCount = 0;
+    /**
+     * One-time backfill of the rating aggregates (ratingSum, ratingCount, averageRating,
+     * ratingPercent and ratingHistogram) of every kindergarten and its summary, counted from the
+     * reviews subcollections. It must run after migrateReviewsToSubcollections, which moves the
+     * older reviews into the subcollections; DataMigrationWorker runs it next, to reach
+     * DATA_VERSION_RATING_AGGREGATES. Until then, top-rated and rating range queries skip the
+     * kindergartens that have no aggregates yet. The counts replace any stored aggregates,
+     * so the backfill can be re-run.
+     *
+     * @param callback The callback to handle the success or failure of the backfill.
+     */
+    public void backfillRatingAggregates(UpdateCallback callback) {
+        Task<QuerySnapshot> gardensTask = db.collection("kindergartens").get();
+        // The parents' copies are in subcollections named reviews as well, and are skipped below
+        Task<QuerySnapshot> reviewsTask = db.collectionGroup("reviews").get();
 
-                            for (Map<String, Object> reviewMap : reviewMaps) {
-                                int rating = ((Long) reviewMap.get("rating")).intValue();
-                                totalRating += rating;
-                                reviewCount++;
-                            }
+        Tasks.whenAllComplete(gardensTask, reviewsTask).addOnCompleteListener(task -> {
+            if (!gardensTask.isSuccessful() || !reviewsTask.isSuccessful()) {
+                callback.onCallback(false);
+                return;
+            }
 
-                            if (reviewCount > 0) {
-                                double averageRating = ((double) totalRating / reviewCount) * 10; // Calculate average and scale to 10
-                                garden.setAverageRating(averageRating);
-                            }
-                        } else {
-                            garden.setAverageRating(0); // No reviews available
-                        }
+            Map<String, List<Long>> ratingsByGarden = new HashMap<>();
+            for (DocumentSnapshot reviewDocument : reviewsTask.getResult().getDocuments()) {
+                DocumentReference owner = reviewDocument.getReference().getParent().getParent();
+                Long rating = reviewDocument.getLong("rating");
+                if (owner == null || rating == null || !"kindergartens".equals(owner.getParent().getId())) {
+                    continue;
+                }
+                List<Long> ratings = ratingsByGarden.get(owner.getId());
+                if (ratings == null) {
+                    ratings = new ArrayList<>();
+                    ratingsByGarden.put(owner.getId(), ratings);
+                }
+                ratings.add(rating);
+            }
 
-                        gardens.add(garden);
+            BulkWriter writer = new BulkWriter(db);
+            for (DocumentSnapshot documentSnapshot : gardensTask.getResult().getDocuments()) {
+                List<Long> ratings = ratingsByGarden.get(documentSnapshot.getId());
+
+                long ratingSum = 0;
+                long ratingCount = 0;
+                Map<String, Long> histogram = new HashMap<>();
+                if (ratings != null) {
+                    for (long rating : ratings) {
+                        ratingSum += rating;
+                        ratingCount++;
+                        String bucket = String.valueOf(rating);
+                        histogram.put(bucket, histogram.containsKey(bucket) ? histogram.get(bucket) + 1 : 1);
                     }
+                }
 
-                    // Sort the kindergartens by their average rating
-                    gardens.sort((g1, g2) -> Double.compare(g2.getAverageRating(), g1.getAverageRating()));
-
-                    // Return the top N kindergartens
-                    callback.onCallback(gardens.subList(0, Math.min(topN, gardens.size())));
-                })
-                .addOnFailureListener(e -> callback.onCallback(null));
+                double averageRating = ratingCount > 0 ? (double) ratingSum / ratingCount : 0;
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("ratingSum", ratingSum);
+                updates.put("ratingCount", ratingCount);
+                updates.put("averageRating", averageRating);
+                updates.put("ratingPercent", averageRating * 10);
+                updates.put("ratingHistogram", histogram);
+                writer.update(documentSnapshot.getReference(), updates);
+                writer.set(summaryRef(documentSnapshot.getId()), summaryUpdates(updates));
+            }
+            writer.commit((succeeded, failedIds) -> {
+                if (!failedIds.isEmpty()) {
+                    Log.e("Firebase", "Failed to backfill rating aggregates: " + failedIds);
+                }
+                callback.onCallback(failedIds.isEmpty());
+            });
+        });
     }
 
     /**
@@ -1750,18 +3045,44 @@ public class FireBaseManager {
 
 
     /**
-     * Retrieves the list of approved children for a specific garden by its name.
+     * Retrieves the list of approved children for a specific garden by its name from Firestore, and caches them.
+     * The callback is called once.
      *
      * @param gardenName The name of the garden to retrieve approved children from.
      * @param callback   The callback to handle the list of approved children.
      */
     public void getApprovedChildrenByGarden(String gardenName, ChildrenListCallback callback) {
-        db.collection("kindergartens")
-                .whereEqualTo("name", gardenName)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        DocumentSnapshot gardenDoc = queryDocumentSnapshots.getDocuments().get(0);
+        loadApprovedChildren(gardenName, false, callback);
+    }
+
+    /**
+     * Retrieves the list of approved children for a specific garden by its name, for screens that render
+     * the cache first. If approved children are cached, the callback is first called with the cached children
+     * and then again with the children read from Firestore; if that read fails, the cached children stay.
+     *
+     * @param gardenName The name of the garden to retrieve approved children from.
+     * @param callback   The callback to handle the list of approved children, called once or twice.
+     */
+    public void getApprovedChildrenByGardenWithCache(String gardenName, ChildrenListCallback callback) {
+        List<Child> cachedChildren = databaseHelper.getChildrenInGarden(gardenName, true);
+        boolean servedFromCache = !cachedChildren.isEmpty();
+        if (servedFromCache) {
+            callback.onCallback(cachedChildren);
+        }
+        loadApprovedChildren(gardenName, servedFromCache, callback);
+    }
+
+    /**
+     * Reads the approved children of a garden from Firestore and caches them.
+     *
+     * @param gardenName      The name of the garden.
+     * @param servedFromCache True if the callback was already called with cached children,
+     *                        in which case a failed read does not call it again.
+     * @param callback        The callback to handle the list of approved children.
+     */
+    private void loadApprovedChildren(String gardenName, boolean servedFromCache, ChildrenListCallback callback) {
+        getGardenDocumentByName(gardenName, gardenDoc -> {
+                    if (gardenDoc != null) {
                         List<Child> childrenList = new ArrayList<>();
 
                         if (gardenDoc.exists() && gardenDoc.contains("children")) {
@@ -1792,111 +3113,125 @@ public class FireBaseManager {
                                 }
                             }
                         }
+                        databaseHelper.cacheApprovedChildren(gardenName, childrenList);
                         callback.onCallback(childrenList);
-                    } else {
+                    } else if (!servedFromCache) {
                         callback.onCallback(null);
                     }
-                })
-                .addOnFailureListener(e -> callback.onCallback(null));
+                });
     }
 
     /**
      * Updates a child document in Firebase Firestore. If the child has existing notes, it merges them with new ones.
+     * The owning parent is resolved through the child index, and both copies of the notes are written in one batch.
      *
      * @param child The child object to update.
      */
     public void updateChild(Child child) {
-        db.collection("Children")
+        Task<QuerySnapshot> childTask = db.collection("Children")
                 .whereEqualTo("id", child.getID())
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                        DocumentSnapshot document = task.getResult().getDocuments().get(0);
+                .get();
+        Task<DocumentSnapshot> indexTask = db.collection("ChildIndex").document(child.getID()).get();
 
-                        // Retrieve existing notes
-                        List<Note> existingNotes = (List<Note>) document.get("notes");
+        Tasks.whenAllComplete(childTask, indexTask).addOnCompleteListener(task -> {
+            if (!childTask.isSuccessful() || childTask.getResult().isEmpty()) {
+                Log.e("Firebase", "No child document found with ID: " + child.getID());
+                return;
+            }
 
-                        if (existingNotes == null) {
-                            existingNotes = new ArrayList<>();
-                        }
+            DocumentSnapshot document = childTask.getResult().getDocuments().get(0);
 
-                        // Merge existing notes with new ones
-                        if (child.getNotes() != null) {
-                            for (Note newNote : child.getNotes()) {
-                                boolean noteExists = false;
-                                for (Note existingNote : existingNotes) {
-                                    if (existingNote.getNote().equals(newNote.getNote())) {
-                                        existingNote.setCourseType(newNote.getCourseType());
-                                        existingNote.setRating(newNote.getRating());
-                                        noteExists = true;
-                                        break;
-                                    }
-                                }
-                                if (!noteExists) {
-                                    existingNotes.add(newNote);
-                                }
+            // Merge existing notes with new ones
+            List<Note> existingNotes = readNotes(document.get("notes"));
+            List<Note> mergedNotes = mergeNotes(existingNotes, child.getNotes());
+            boolean noteAdded = mergedNotes.size() > existingNotes.size();
+
+            String parentId = null;
+            if (indexTask.isSuccessful() && indexTask.getResult().exists()) {
+                parentId = indexTask.getResult().getString("parentId");
+            }
+
+            if (parentId == null) {
+                Log.w("Firebase", "No parent indexed for child ID: " + child.getID());
+                document.getReference().update("notes", mergedNotes)
+                        .addOnSuccessListener(aVoid -> Log.d("Firebase", "Child updated successfully with ID: " + child.getID()))
+                        .addOnFailureListener(e -> Log.e("Firebase", "Failed to update child: " + e.getMessage()));
+                return;
+            }
+
+            DocumentReference parentRef = db.collection("Parents").document(parentId);
+            parentRef.get().addOnCompleteListener(parentTask -> {
+                WriteBatch batch = db.batch();
+                batch.update(document.getReference(), "notes", mergedNotes);
+
+                if (parentTask.isSuccessful() && parentTask.getResult().exists()) {
+                    List<Map<String, Object>> children = (List<Map<String, Object>>) parentTask.getResult().get("children");
+                    if (children != null) {
+                        for (Map<String, Object> childMap : children) {
+                            if (child.getID().equals(childMap.get("id"))) {
+                                childMap.put("notes", mergeNotes(readNotes(childMap.get("notes")), mergedNotes));
                             }
                         }
+                        batch.update(parentRef, "children", children);
+                    }
+                } else {
+                    Log.e("Firebase", "Error finding parent document for child ID: " + child.getID(), parentTask.getException());
+                }
+                if (noteAdded) {
+                    batch.set(parentRef.collection("events").document(),
+                            new ParentEvent(ParentEvent.TYPE_NOTE_ADDED, child.getID(), child.getFullName(), child.getGartenName()));
+                }
 
-                        // Prepare data for update
-                        Map<String, Object> updates = new HashMap<>();
-                        updates.put("notes", existingNotes);
-
-                        // Update child document in Firestore
-                        document.getReference().update(updates)
-                                .addOnSuccessListener(aVoid -> Log.d("Firebase", "Child updated successfully with ID: " + child.getID()))
-                                .addOnFailureListener(e -> Log.e("Firebase", "Failed to update child: " + e.getMessage()));
-
-                        // Update parent documents with merged notes
-                        List<Note> finalExistingNotes = existingNotes;
-                        db.collection("Parents")
-                                .get()
-                                .addOnCompleteListener(parentTask -> {
-                                    if (parentTask.isSuccessful()) {
-                                        for (DocumentSnapshot parentDoc : parentTask.getResult()) {
-                                            List<Map<String, Object>> children = (List<Map<String, Object>>) parentDoc.get("children");
-                                            if (children != null) {
-                                                for (Map<String, Object> childMap : children) {
-                                                    if (childMap.get("id").equals(child.getID())) {
-                                                        List<Note> parentNotes = (List<Note>) childMap.get("notes");
-
-                                                        if (parentNotes == null) {
-                                                            parentNotes = new ArrayList<>();
-                                                        }
-
-                                                        for (Note newNote : finalExistingNotes) {
-                                                            boolean noteExists = false;
-                                                            for (Note existingNote : parentNotes) {
-                                                                if (existingNote.getNote().equals(newNote.getNote())) {
-                                                                    existingNote.setCourseType(newNote.getCourseType());
-                                                                    existingNote.setRating(newNote.getRating());
-                                                                    noteExists = true;
-                                                                    break;
-                                                                }
-                                                            }
-                                                            if (!noteExists) {
-                                                                parentNotes.add(newNote);
-                                                            }
-                                                        }
-
-                                                        childMap.put("notes", parentNotes);
-                                                    }
-                                                }
-                                                parentDoc.getReference().update("children", children)
-                                                        .addOnSuccessListener(aVoid -> Log.d("Firebase", "Parent updated successfully with child ID: " + child.getID()))
-                                                        .addOnFailureListener(e -> Log.e("Firebase", "Failed to update parent with child ID: " + child.getID() + ", error: " + e.getMessage()));
-                                            }
-                                        }
-                                    } else {
-                                        Log.e("Firebase", "Error finding parent documents: " + parentTask.getException().getMessage());
-                                    }
-                                })
-                                .addOnFailureListener(e -> Log.e("Firebase", "Error finding parent documents: " + e.getMessage()));
-                    } else {
-                        Log.e("Firebase", "No child document found with ID: " + child.getID());
+                batch.commit()
+                        .addOnSuccessListener(aVoid -> Log.d("Firebase", "Child and parent updated successfully with ID: " + child.getID()))
+                        .addOnFailureListener(e -> Log.e("Firebase", "Failed to update child: " + e.getMessage()));
+            });
+        });
+    }
+
+    /**
+     * Converts a notes field read from Firestore into a list of Note objects.
+     *
+     * @param notesField The raw notes field, as stored in the document.
+     * @return The list of notes, never null.
+     */
+    private List<Note> readNotes(Object notesField) {
+        List<Note> notes = new ArrayList<>();
+        if (notesField instanceof List) {
+            for (Object noteMap : (List<?>) notesField) {
+                if (noteMap instanceof Map) {
+                    notes.add(convertMapToNote((Map<String, Object>) noteMap));
+                }
+            }
+        }
+        return notes;
+    }
+
+    /**
+     * Merges new notes into a list of existing notes, updating notes with the same text.
+     *
+     * @param existingNotes The notes that are already stored.
+     * @param newNotes      The notes to merge in.
+     * @return The merged list of notes.
+     */
+    private List<Note> mergeNotes(List<Note> existingNotes, List<Note> newNotes) {
+        if (newNotes != null) {
+            for (Note newNote : newNotes) {
+                boolean noteExists = false;
+                for (Note existingNote : existingNotes) {
+                    if (existingNote.getNote().equals(newNote.getNote())) {
+                        existingNote.setCourseType(newNote.getCourseType());
+                        existingNote.setRating(newNote.getRating());
+                        noteExists = true;
+                        break;
                     }
-                })
-                .addOnFailureListener(e -> Log.e("Firebase", "Error finding child document: " + e.getMessage()));
+                }
+                if (!noteExists) {
+                    existingNotes.add(newNote);
+                }
+            }
+        }
+        return existingNotes;
     }
 
     /**
@@ -1907,32 +3242,26 @@ public class FireBaseManager {
      * @param listener   The listener to handle the retrieved course type.
      */
     public void getCourseTypeFromGarden(String gardenName, String courseNumber, OnCourseTypeFetchedListener listener) {
-        db.collection("kindergartens")
-                .whereEqualTo("name", gardenName)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        QuerySnapshot querySnapshot = task.getResult();
-                        if (!querySnapshot.isEmpty()) {
-                            for (QueryDocumentSnapshot document : querySnapshot) {
-                                List<Map<String, Object>> classes = (List<Map<String, Object>>) document.get("classes");
-                                for (Map<String, Object> course : classes) {
-                                    if (course.get("courseNumber").equals(courseNumber)) {
-                                        listener.onCourseTypeFetched((String) course.get("courseType"));
-                                        return;
-                                    }
-                                }
-                            }
+        getGardenDocumentByName(gardenName, document -> {
+            if (document != null) {
+                List<Map<String, Object>> classes = (List<Map<String, Object>>) document.get("classes");
+                if (classes != null) {
+                    for (Map<String, Object> course : classes) {
+                        if (courseNumber.equals(course.get("courseNumber"))) {
+                            listener.onCourseTypeFetched((String) course.get("courseType"));
+                            return;
                         }
-                        listener.onCourseTypeFetched(null); // No result found
-                    } else {
-                        listener.onCourseTypeFetched(null); // Failed to retrieve course type
                     }
-                });
+                }
+            }
+            listener.onCourseTypeFetched(null); // No result found
+        });
     }
 
     /**
      * Loads notes from Firebase Firestore for a specific parent based on their email.
+     * If notes are cached, the listener is first called with the cached notes
+     * and then again with the notes read from Firestore.
      *
      * @param parentEmail The email of the parent to load notes for.
      * @param listener    The listener to handle the loaded notes.
@@ -1940,6 +3269,12 @@ public class FireBaseManager {
     public void loadNotesFromFirebaseByParentEmail(String parentEmail, OnNotesLoadedListener listener) {
         Log.d("FireBaseManager", "Loading notes for parent email: " + parentEmail);
 
+        List<Note> cachedNotes = databaseHelper.getNotes(parentEmail);
+        boolean servedFromCache = !cachedNotes.isEmpty();
+        if (servedFromCache) {
+            listener.onNotesLoaded(cachedNotes, null);
+        }
+
         db.collection("Parents")
                 .whereEqualTo("email", parentEmail)
                 .get()
@@ -1972,6 +3307,7 @@ public class FireBaseManager {
                                 }
                             }
                             Log.d("FireBaseManager", "Loaded notes: " + allNotes);
+                            databaseHelper.replaceNotes(parentEmail, allNotes);
                             listener.onNotesLoaded(allNotes, null); // Passing all notes; ratings are not relevant in this case
                         } else {
                             Log.d("FireBaseManager", "No documents found for email: " + parentEmail);
@@ -1979,7 +3315,9 @@ public class FireBaseManager {
                         }
                     } else {
                         Log.e("FireBaseManager", "Error getting documents.", task.getException());
-                        listener.onNotesLoaded(null, null);
+                        if (!servedFromCache) {
+                            listener.onNotesLoaded(null, null);
+                        }
                     }
                 })
                 .addOnFailureListener(e -> {
@@ -2011,30 +3349,173 @@ public class FireBaseManager {
 
 
     /**
-     * Saves a child photo to Firebase Storage and then stores its metadata in Firestore.
+     * Uploads the photo of a queued upload to Firebase Storage as a resumable upload.
+     * If an earlier attempt already started a session, the upload continues from the bytes the server has received.
      *
-     * @param newPhoto           The new ChildPhoto object containing metadata about the photo.
-     * @param imageUri           The URI of the image to be uploaded.
-     * @param onSuccessListener  The listener that will be triggered upon successful completion.
-     * @param onFailureListener  The listener that will be triggered if an error occurs.
+     * @param upload           The queued upload.
+     * @param progressListener The listener that will be triggered as bytes are sent, with the session URI once it exists.
+     * @return The upload task, which the caller may cancel; its snapshot's reference gives the download URL.
      */
-    public static void saveChildPhoto(ChildPhoto newPhoto, Uri imageUri, OnSuccessListener<Void> onSuccessListener, OnFailureListener onFailureListener) {
-        if (imageUri != null && newPhoto.getChildId() != null) {
-            String imageName = System.currentTimeMillis() + ".jpg";
-            StorageReference storageRef = storage.getReference().child("child_photos/" + newPhoto.getChildId() + "/" + imageName);
+    public UploadTask uploadChildPhoto(PhotoUpload upload, OnProgressListener<UploadTask.TaskSnapshot> progressListener) {
+        StorageReference photoRef = storage.getReference().child("child_photos/" + upload.childId + "/" + upload.key + ".jpg");
+        Uri file = Uri.fromFile(new File(upload.photoPath));
+        UploadTask uploadTask = upload.sessionUri != null
+                ? photoRef.putFile(file, childPhotoMetadata(), Uri.parse(upload.sessionUri))
+                : photoRef.putFile(file, childPhotoMetadata());
+        uploadTask.addOnProgressListener(Runnable::run, progressListener);
+        return uploadTask;
+    }
 
-            storageRef.putFile(imageUri)
-                    .addOnFailureListener(onFailureListener)
-                    .addOnSuccessListener(taskSnapshot -> storageRef.getDownloadUrl().addOnSuccessListener(uri -> {
-                        newPhoto.setImageURL(uri.toString());
+    /**
+     * Uploads the thumbnail of a queued upload to Firebase Storage.
+     * Thumbnails are small enough to be sent again from the start if the upload is interrupted.
+     *
+     * @param upload The queued upload.
+     * @return The upload task, which the caller may cancel; its snapshot's reference gives the download URL.
+     */
+    public UploadTask uploadChildPhotoThumbnail(PhotoUpload upload) {
+        StorageReference thumbnailRef = storage.getReference().child("child_photos/" + upload.childId + "/thumbnails/" + upload.key + ".jpg");
+        return thumbnailRef.putFile(Uri.fromFile(new File(upload.thumbnailPath)), childPhotoMetadata());
+    }
 
-                        db.collection("ChildPhotos").add(newPhoto)
-                                .addOnSuccessListener(documentReference -> onSuccessListener.onSuccess(null))
-                                .addOnFailureListener(onFailureListener);
-                    }).addOnFailureListener(onFailureListener));
-        } else {
-            onFailureListener.onFailure(new IllegalArgumentException("Image URI or Child ID is null"));
-        }
+    /**
+     * Stores the metadata of an uploaded photo in Firestore together with the PHOTO_ADDED event of the child's parent,
+     * in one batch, so the parent is notified exactly when the photo is stored.
+     * Both documents are keyed by the upload key, so committing an upload again does not add a duplicate.
+     *
+     * @param upload The queued upload, with both its photo and thumbnail uploaded.
+     * @return A task that completes when the metadata is stored, and fails if the child index could not be read.
+     */
+    public Task<Void> addChildPhoto(PhotoUpload upload) {
+        ChildPhoto photo = new ChildPhoto(upload.photoUrl, upload.className, upload.time, upload.childId);
+        photo.setThumbnailURL(upload.thumbnailUrl);
+        photo.setImageBytes(new File(upload.photoPath).length());
+        photo.setThumbnailBytes(new File(upload.thumbnailPath).length());
+        return db.collection("ChildIndex").document(upload.childId).get()
+                .continueWithTask(indexTask -> {
+                    if (!indexTask.isSuccessful()) {
+                        throw indexTask.getException(); // The worker retries the commit
+                    }
+                    WriteBatch batch = db.batch();
+                    batch.set(db.collection("ChildPhotos").document(upload.key), photo);
+                    String parentId = indexTask.getResult().exists() ? indexTask.getResult().getString("parentId") : null;
+                    if (parentId != null) {
+                        batch.set(db.collection("Parents").document(parentId).collection("events").document(upload.key),
+                                new ParentEvent(ParentEvent.TYPE_PHOTO_ADDED, upload.childId, null, null));
+                    } else {
+                        Log.w("Firebase", "No parent indexed for child ID: " + upload.childId);
+                    }
+                    return batch.commit();
+                })
+                .addOnSuccessListener(unused -> Log.d("Firebase", "Uploaded photo " + upload.key + ": "
+                        + photo.getImageBytes() + " bytes, thumbnail " + photo.getThumbnailBytes() + " bytes"));
+    }
+
+    /**
+     * Returns the metadata of uploaded child photos and thumbnails.
+     * Uploaded files are never overwritten with other content, so clients may cache them for good.
+     *
+     * @return The storage metadata.
+     */
+    private static StorageMetadata childPhotoMetadata() {
+        return new StorageMetadata.Builder()
+                .setContentType("image/jpeg")
+                .setCacheControl("public, max-age=31536000")
+                .build();
+    }
+
+    /**
+     * Finds the parent document of a child through the child index, to write the parent's events
+     * in the same batch as the change they report.
+     *
+     * @param childId  The ID of the child.
+     * @param callback The callback to handle the parent document, or null if no parent is indexed for the child.
+     */
+    private void getIndexedParentRef(String childId, ParentRefCallback callback) {
+        db.collection("ChildIndex").document(childId).get().addOnCompleteListener(task -> {
+            String parentId = task.isSuccessful() && task.getResult().exists() ? task.getResult().getString("parentId") : null;
+            if (parentId == null) {
+                Log.w("Firebase", "No parent indexed for child ID: " + childId);
+                callback.onCallback(null);
+                return;
+            }
+            callback.onCallback(db.collection("Parents").document(parentId));
+        });
+    }
+
+    /**
+     * Listens to the events feed of a parent with a single snapshot listener.
+     * Only the events created after the given cursor are read, and afterwards only newly added events are delivered.
+     * The cursor is the full server timestamp of the last event seen, so that event is not delivered again.
+     * Events without a child name get the name of the child from the parent's document.
+     *
+     * @param parentEmail The email of the parent.
+     * @param after       The creation time of the last event already seen, with its nanoseconds, or null to read the whole feed.
+     * @param callback    A callback to handle each batch of new events, oldest first.
+     * @return The registration to remove when the events are no longer needed.
+     */
+    public ListenerRegistration listenToParentEvents(String parentEmail, Timestamp after, ParentEventsCallback callback) {
+        KeyedListenerRegistration eventsListener = new KeyedListenerRegistration();
+        boolean[] removed = new boolean[1];
+
+        db.collection("Parents")
+                .whereEqualTo("email", parentEmail)
+                .limit(1)
+                .get()
+                .addOnCompleteListener(task -> {
+                    if (removed[0]) {
+                        return;
+                    }
+                    if (!task.isSuccessful() || task.getResult().isEmpty()) {
+                        Log.w("Firebase", "Parent not found for email: " + parentEmail);
+                        return;
+                    }
+                    DocumentSnapshot parentDoc = task.getResult().getDocuments().get(0);
+                    Map<String, String> childNames = new HashMap<>();
+                    List<Map<String, Object>> children = (List<Map<String, Object>>) parentDoc.get("children");
+                    if (children != null) {
+                        for (Map<String, Object> child : children) {
+                            childNames.put((String) child.get("id"), (String) child.get("fullName"));
+                        }
+                    }
+
+                    Query query = parentDoc.getReference().collection("events").orderBy("createdAt");
+                    if (after != null) {
+                        query = query.whereGreaterThan("createdAt", after);
+                    }
+                    Query eventsQuery = query;
+                    eventsListener.restartIfChanged(parentDoc.getId(), () -> eventsQuery.addSnapshotListener((snapshots, e) -> {
+                        if (e != null) {
+                            Log.w("Firebase", "Listen failed.", e);
+                            return;
+                        }
+                        if (snapshots == null) {
+                            return;
+                        }
+                        List<ParentEvent> events = new ArrayList<>();
+                        for (DocumentChange change : snapshots.getDocumentChanges()) {
+                            if (change.getType() != DocumentChange.Type.ADDED) {
+                                continue;
+                            }
+                            ParentEvent event = change.getDocument().toObject(ParentEvent.class);
+                            if (event.getCreatedAt() == null) {
+                                continue; // Not committed yet
+                            }
+                            if (event.getChildName() == null) {
+                                event.setChildName(childNames.get(event.getChildId()));
+                            }
+                            events.add(event);
+                        }
+                        if (!events.isEmpty()) {
+                            callback.onEvents(events);
+                        }
+                    }));
+                });
+
+        return () -> {
+            removed[0] = true;
+            eventsListener.remove();
+        };
     }
 
     /**
@@ -2075,32 +3556,64 @@ public class FireBaseManager {
     }
 
     /**
-     * Loads photos from Firestore for a list of child IDs.
+     * Retrieves one page of the photos of up to WHERE_IN_LIMIT children, newest first,
+     * optionally only the photos taken in a time range or in one class. Loaded photos are cached by day.
+     * The queries filter on childId (and className) and order by time, which needs two composite indexes
+     * on ChildPhotos: (childId ascending, time descending) and (childId ascending, className ascending, time descending).
      *
-     * @param childIds  The list of child IDs to fetch photos for.
-     * @param listener  The listener that will handle the list of ChildPhoto objects.
+     * @param childIds   The IDs of the children, at most WHERE_IN_LIMIT of them.
+     * @param from       The earliest time of the photos, inclusive, or null.
+     * @param to         The latest time of the photos, exclusive, or null.
+     * @param className  The class of the photos, or null for every class.
+     * @param startAfter The last document of the previous page, or null for the first page.
+     * @param pageSize   The maximum number of photos to retrieve.
+     * @param callback   A callback to handle the page and its last document, or null photos if the query failed.
      */
-    public void loadPhotosFromFirestore(List<String> childIds, OnPhotosLoadedListener listener) {
-        CollectionReference photosRef = db.collection("ChildPhotos");
-
-        if (childIds != null && !childIds.isEmpty()) {
-            photosRef.whereIn("childId", childIds)
-                    .get()
-                    .addOnCompleteListener(task -> {
-                        if (task.isSuccessful()) {
-                            List<ChildPhoto> photosList = new ArrayList<>();
-                            for (QueryDocumentSnapshot document : task.getResult()) {
-                                ChildPhoto photo = document.toObject(ChildPhoto.class);
-                                photosList.add(photo);
-                            }
-                            listener.onPhotosLoaded(photosList);
-                        } else {
-                            listener.onPhotosLoaded(new ArrayList<>()); // במקרה של כישלון, מחזיר רשימה ריקה
-                        }
-                    });
-        } else {
-            listener.onPhotosLoaded(new ArrayList<>()); // במקרה של רשימת ילדים ריקה, מחזיר רשימה ריקה
+    public void getChildPhotoPage(List<String> childIds, Date from, Date to, String className,
+                                  DocumentSnapshot startAfter, int pageSize, ChildPhotoPageCallback callback) {
+        Query query = db.collection("ChildPhotos").whereIn("childId", childIds);
+        if (className != null) {
+            query = query.whereEqualTo("className", className);
+        }
+        if (from != null) {
+            query = query.whereGreaterThanOrEqualTo("time", from);
+        }
+        if (to != null) {
+            query = query.whereLessThan("time", to);
+        }
+        query = query.orderBy("time", Query.Direction.DESCENDING);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
         }
+
+        query.limit(pageSize).get().addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                List<DocumentSnapshot> documents = task.getResult().getDocuments();
+                List<ChildPhoto> photosList = new ArrayList<>();
+                for (DocumentSnapshot document : documents) {
+                    photosList.add(document.toObject(ChildPhoto.class));
+                }
+                databaseHelper.cacheChildPhotos(photosList);
+                callback.onCallback(photosList, documents.isEmpty() ? null : documents.get(documents.size() - 1));
+            } else {
+                Log.e("Firebase", "Failed to load photos page", task.getException());
+                callback.onCallback(null, null);
+            }
+        });
+    }
+
+    /**
+     * Returns the newest cached photos of some children, optionally only those of one day or one class.
+     * This covers every photo loaded on this device before, including photos not loaded yet in the current screen.
+     *
+     * @param childIds  The IDs of the children.
+     * @param day       Any time on the day to return photos of, or null for every day.
+     * @param className The class to return photos of, or null for every class.
+     * @param limit     The maximum number of photos to return.
+     * @return The cached photos, newest first.
+     */
+    public List<ChildPhoto> getCachedChildPhotos(List<String> childIds, Date day, String className, int limit) {
+        return databaseHelper.getCachedChildPhotos(childIds, day, className, limit);
     }
 
     /**
@@ -2111,56 +3624,67 @@ public class FireBaseManager {
      * @param onCompleteListener  The listener that will be triggered upon completion.
      */
     public void updateGardenStatusByName(String gardenName, String status, OnCompleteListener<Void> onCompleteListener) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("kindergartens")
-                .whereEqualTo("name", gardenName)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                        DocumentSnapshot document = task.getResult().getDocuments().get(0);
-                        document.getReference().update("status", status)
-                                .addOnCompleteListener(onCompleteListener);
-                    } else {
-                        onCompleteListener.onComplete(Tasks.forException(new Exception("Garden not found")));
-                    }
-                });
+        // Read the kindergarten, so a cached ID of a renamed kindergarten is never written to
+        getGardenDocumentByName(gardenName, document -> {
+            if (document != null) {
+                String gartenId = document.getId();
+                WriteBatch batch = db.batch();
+                batch.update(db.collection("kindergartens").document(gartenId), "status", status);
+                Map<String, Object> summaryStatus = new HashMap<>();
+                summaryStatus.put("status", status);
+                summaryStatus.put("updatedAt", FieldValue.serverTimestamp());
+                batch.set(summaryRef(gartenId), summaryStatus, SetOptions.merge());
+                batch.commit()
+                        .addOnCompleteListener(task -> {
+                            if (!task.isSuccessful()) {
+                                gardenNameCache.invalidateName(gardenName);
+                            }
+                            onCompleteListener.onComplete(task);
+                        });
+            } else {
+                onCompleteListener.onComplete(Tasks.forException(new Exception("Garden not found")));
+            }
+        });
     }
 
     /**
      * Retrieves kindergartens with average ratings within a specified percentage range.
+     * The range is applied on the stored ratingPercent field, so only matching gardens are read.
      *
      * @param minPercent  The minimum percentage rating.
      * @param maxPercent  The maximum percentage rating.
      * @param callback    The callback to handle the list of kindergartens.
      */
     public void getGardensWithRatingsInRange(int minPercent, int maxPercent, GardenListCallback callback) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("kindergartens").get()
+        getGardenListCollection(collection -> db.collection(collection)
+                .whereGreaterThanOrEqualTo("ratingPercent", minPercent)
+                .whereLessThanOrEqualTo("ratingPercent", maxPercent)
+                .get()
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         List<Garden> filteredGardens = new ArrayList<>();
                         for (QueryDocumentSnapshot document : task.getResult()) {
-                            List<Map<String, Object>> reviews = (List<Map<String, Object>>) document.get("reviews");
-                            if (reviews != null && !reviews.isEmpty()) {
-                                double sumRatings = 0;
-                                for (Map<String, Object> review : reviews) {
-                                    sumRatings += ((Number) review.get("rating")).doubleValue();
-                                }
-                                double averageRating = (sumRatings / reviews.size()) * 10; // Convert to percentage
-                                if (averageRating >= minPercent && averageRating <= maxPercent) {
-                                    Garden garden = document.toObject(Garden.class);
-                                    filteredGardens.add(garden);
-                                }
+                            Garden garden = summaryToGarden(document);
+                            // Gardens without reviews have no score and are not part of any range
+                            rememberGarden(document);
+                            if (garden.getRatingCount() > 0) {
+                                garden.setId(document.getId());
+                                filteredGardens.add(garden);
                             }
                         }
                         callback.onGardensRetrieved(filteredGardens);
                     } else {
                         callback.onError(task.getException().getMessage());
                     }
-                });
+                }));
     }
 
-
+    /**
+     * Callback for new events in a parent's events feed.
+     */
+    public interface ParentEventsCallback {
+        void onEvents(List<ParentEvent> events);
+    }
 
     /**
      * Listener for fetching a list of child IDs.
@@ -2170,10 +3694,10 @@ public class FireBaseManager {
     }
 
     /**
-     * Listener for loading a list of child photos.
+     * Callback for retrieving a page of child photos, along with the last document used as the cursor of the next page.
      */
-    public interface OnPhotosLoadedListener {
-        void onPhotosLoaded(List<ChildPhoto> photosList);
+    public interface ChildPhotoPageCallback {
+        void onCallback(List<ChildPhoto> photos, DocumentSnapshot last);
     }
 
     /**
@@ -2200,10 +3724,10 @@ public class FireBaseManager {
     }
 
     /**
-     * Callback for handling a list of reviews.
+     * Callback for handling a page of reviews.
      */
-    public interface ReviewListCallback {
-        void onCallback(List<Review> reviews);
+    public interface ReviewPageCallback {
+        void onCallback(List<Review> reviews, DocumentSnapshot lastVisible);
     }
 
     /**
@@ -2227,6 +3751,27 @@ public class FireBaseManager {
         void onCallback(String documentId, GardenStaff staff);
     }
 
+    /**
+     * Callback for the version of the Firestore data layout.
+     */
+    public interface DataVersionCallback {
+        void onCallback(int version);
+    }
+
+    /**
+     * Callback for the name of the collection a query should read.
+     */
+    private interface CollectionNameCallback {
+        void onCallback(String collection);
+    }
+
+    /**
+     * Callback for a reference to a parent document.
+     */
+    private interface ParentRefCallback {
+        void onCallback(DocumentReference parentRef);
+    }
+
     /**
      * Callback for indicating the success of an update operation.
      */
@@ -2241,6 +3786,14 @@ public class FireBaseManager {
         void onCallback(String userType);
     }
 
+    /**
+     * Callback for resolving the session role and name of a user.
+     * The error is set, and the role and name are null, if the user could not be looked up.
+     */
+    public interface UserRoleCallback {
+        void onCallback(String role, String name, Exception error);
+    }
+
     /**
      * Callback for retrieving a garden ID.
      */
@@ -2248,6 +3801,13 @@ public class FireBaseManager {
         void onCallback(String gartenId);
     }
 
+    /**
+     * Callback for retrieving a kindergarten document.
+     */
+    private interface GardenDocumentCallback {
+        void onCallback(DocumentSnapshot document);
+    }
+
     /**
      * Callback for retrieving a list of roles.
      */
@@ -2255,6 +3815,20 @@ public class FireBaseManager {
         void onCallback(List<String> roles);
     }
 
+    /**
+     * Callback for the aggregate result of a bulk write.
+     */
+    public interface BulkWriteCallback {
+        void onCallback(int succeeded, List<String> failedIds);
+    }
+
+    /**
+     * Callback for retrieving a list of document IDs.
+     */
+    public interface IdListCallback {
+        void onCallback(List<String> ids);
+    }
+
     /**
      * Callback for retrieving a list of courses.
      */
@@ -2276,6 +3850,27 @@ public class FireBaseManager {
         void onCallback(List<Garden> gardenList);
     }
 
+    /**
+     * Creates a listener that depends on a director's list of kindergarten IDs.
+     */
+    private interface GardenIdsListener {
+        ListenerRegistration onGardenIds(List<String> gartenIds);
+    }
+
+    /**
+     * Callback for retrieving a batch of gardens by ID, along with the IDs that failed to load.
+     */
+    public interface GardenBatchCallback {
+        void onCallback(List<Garden> gardens, List<String> failedIds);
+    }
+
+    /**
+     * Callback for retrieving a page of gardens, along with the first and last documents used as cursors.
+     */
+    public interface GardenPageCallback {
+        void onCallback(List<Garden> gardens, DocumentSnapshot first, DocumentSnapshot last);
+    }
+
     /**
      * Callback for retrieving a specific garden object.
      */
@@ -0,0 +1,175 @@
+package com.example.finalprojectapp.database;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import Objects.Garden;
+
+/**
+ * GardenCatalogPager loads the kindergarten catalog into a RecyclerView page by page, using Firestore cursors.
+ * The next page is requested before the user reaches the end of the list, and only a bounded window of pages
+ * is kept in memory: when the window is full the page farthest from the user is dropped, and it is loaded again
+ * if the user scrolls back to it.
+ */
+public class GardenCatalogPager {
+
+    private static final int PAGE_SIZE = 30;
+    private static final int MAX_PAGES = 5;
+    // How many items before either end of the list the adjacent page is requested
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private final FireBaseManager fireBaseManager;
+    private final List<Garden> gardens;
+    private final RecyclerView.Adapter<?> adapter;
+    private final ArrayDeque<Page> pages = new ArrayDeque<>();
+
+    private boolean isLoading;
+    private boolean hasMoreAfter = true;
+    private boolean hasMoreBefore;
+
+    /**
+     * Constructor for GardenCatalogPager.
+     *
+     * @param fireBaseManager The FireBaseManager used to load the pages.
+     * @param gardens         The list backing the adapter, which the pager fills.
+     * @param adapter         The adapter displaying the list.
+     */
+    public GardenCatalogPager(FireBaseManager fireBaseManager, List<Garden> gardens, RecyclerView.Adapter<?> adapter) {
+        this.fireBaseManager = fireBaseManager;
+        this.gardens = gardens;
+        this.adapter = adapter;
+    }
+
+    /**
+     * Loads pages as the user scrolls the given RecyclerView, which must use a LinearLayoutManager.
+     *
+     * @param recyclerView The RecyclerView displaying the catalog.
+     */
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null) {
+                    return;
+                }
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= gardens.size() - PREFETCH_DISTANCE) {
+                    loadNext();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                    loadPrevious();
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the page after the last loaded page, or the first page if nothing was loaded yet.
+     */
+    public void loadNext() {
+        if (isLoading || !hasMoreAfter) {
+            return;
+        }
+        isLoading = true;
+
+        DocumentSnapshot cursor = pages.isEmpty() ? null : pages.peekLast().last;
+        fireBaseManager.getGardenSummaryPage(cursor, null, PAGE_SIZE, (page, first, last) -> {
+            isLoading = false;
+            if (page == null) {
+                return;
+            }
+            hasMoreAfter = page.size() == PAGE_SIZE;
+            if (page.isEmpty()) {
+                return;
+            }
+
+            int start = gardens.size();
+            gardens.addAll(page);
+            pages.addLast(new Page(page, first, last));
+            adapter.notifyItemRangeInserted(start, page.size());
+
+            if (pages.size() > MAX_PAGES) {
+                dropFirstPage();
+            }
+        });
+    }
+
+    /**
+     * Loads the page before the first loaded page, after it was dropped from the window.
+     */
+    public void loadPrevious() {
+        if (isLoading || !hasMoreBefore || pages.isEmpty()) {
+            return;
+        }
+        isLoading = true;
+
+        fireBaseManager.getGardenSummaryPage(null, pages.peekFirst().first, PAGE_SIZE, (page, first, last) -> {
+            isLoading = false;
+            if (page == null) {
+                return;
+            }
+            hasMoreBefore = page.size() == PAGE_SIZE;
+            if (page.isEmpty()) {
+                return;
+            }
+
+            gardens.addAll(0, page);
+            pages.addFirst(new Page(page, first, last));
+            adapter.notifyItemRangeInserted(0, page.size());
+
+            if (pages.size() > MAX_PAGES) {
+                dropLastPage();
+            }
+        });
+    }
+
+    /**
+     * Removes the first page of the window from the list.
+     */
+    private void dropFirstPage() {
+        Page dropped = pages.removeFirst();
+        // Items may have been removed from the list by the adapter, e.g. when a garden was deleted
+        int count = 0;
+        while (count < gardens.size() && dropped.items.contains(gardens.get(count))) {
+            count++;
+        }
+        gardens.subList(0, count).clear();
+        adapter.notifyItemRangeRemoved(0, count);
+        hasMoreBefore = true;
+    }
+
+    /**
+     * Removes the last page of the window from the list.
+     */
+    private void dropLastPage() {
+        Page dropped = pages.removeLast();
+        int start = gardens.size();
+        while (start > 0 && dropped.items.contains(gardens.get(start - 1))) {
+            start--;
+        }
+        int count = gardens.size() - start;
+        gardens.subList(start, gardens.size()).clear();
+        adapter.notifyItemRangeRemoved(start, count);
+        hasMoreAfter = true;
+    }
+
+    /**
+     * A loaded page, with the documents used as cursors for the adjacent pages.
+     */
+    private static class Page {
+        final List<Garden> items;
+        final DocumentSnapshot first;
+        final DocumentSnapshot last;
+
+        Page(List<Garden> items, DocumentSnapshot first, DocumentSnapshot last) {
+            this.items = items;
+            this.first = first;
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.finalprojectapp.database;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GardenNameCache is a bounded, thread-safe map from kindergarten names to Firestore document IDs.
+ * It lets FireBaseManager skip the whereEqualTo("name", ...) lookup that precedes most garden operations.
+ * The least recently used entries are evicted once the cache is full.
+ */
+public class GardenNameCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, String> idsByName;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructor for GardenNameCache.
+     *
+     * @param maxEntries The maximum number of names kept in the cache.
+     */
+    public GardenNameCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.idsByName = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > GardenNameCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached document ID of a kindergarten and records a hit or a miss.
+     *
+     * @param name The name of the kindergarten.
+     * @return The document ID, or null if the name is not cached.
+     */
+    public synchronized String get(String name) {
+        String gartenId = name != null ? idsByName.get(name) : null;
+        if (gartenId != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return gartenId;
+    }
+
+    /**
+     * Caches the document ID of a kindergarten, replacing any previous name for the same ID.
+     *
+     * @param name     The name of the kindergarten.
+     * @param gartenId The document ID of the kindergarten.
+     */
+    public synchronized void put(String name, String gartenId) {
+        if (name == null || gartenId == null) {
+            return;
+        }
+        removeId(gartenId);
+        idsByName.put(name, gartenId);
+    }
+
+    /**
+     * Removes a kindergarten name from the cache.
+     *
+     * @param name The name of the kindergarten.
+     */
+    public synchronized void invalidateName(String name) {
+        if (name != null) {
+            idsByName.remove(name);
+        }
+    }
+
+    /**
+     * Removes every name that maps to a kindergarten ID, e.g. after the kindergarten was renamed or deleted.
+     *
+     * @param gartenId The document ID of the kindergarten.
+     */
+    public synchronized void invalidateId(String gartenId) {
+        removeId(gartenId);
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public synchronized void clear() {
+        idsByName.clear();
+    }
+
+    /**
+     * Returns the number of lookups that were answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that had to go to Firestore.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Removes the entries that map to a kindergarten ID. Callers must hold the lock.
+     *
+     * @param gartenId The document ID of the kindergarten.
+     */
+    private void removeId(String gartenId) {
+        Iterator<Map.Entry<String, String>> iterator = idsByName.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().equals(gartenId)) {
+                iterator.remove();
+            }
+        }
+    }
+}
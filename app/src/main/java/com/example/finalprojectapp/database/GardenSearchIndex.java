@@ -0,0 +1,264 @@
+package com.example.finalprojectapp.database;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import Objects.Garden;
+import Objects.GardenSummary;
+
+/**
+ * GardenSearchIndex is an in-memory inverted index over the kindergarten summaries, used to answer
+ * garden searches on the device. It maps normalized cities, organizational affiliations and accepted
+ * ages to kindergarten IDs. Cities match by prefix, and when no city has the given prefix, cities
+ * within a small edit distance are used instead so that typos still find results.
+ * The index is filled and updated incrementally by FireBaseManager from the gardenSummaries collection.
+ * It has no Android dependencies, so it can be tested and benchmarked on the JVM.
+ */
+public class GardenSearchIndex {
+
+    private final SearchLogger logger;
+    private final Map<String, Garden> gardensById = new HashMap<>();
+    private final Map<String, GardenSummary> summariesById = new HashMap<>();
+    // Sorted so that all cities starting with a prefix form one contiguous range
+    private final TreeMap<String, Set<String>> idsByCity = new TreeMap<>();
+    private final Map<String, Set<String>> idsByAffiliation = new HashMap<>();
+    private final Map<Integer, Set<String>> idsByAge = new HashMap<>();
+
+    /**
+     * Constructor for a GardenSearchIndex that does not log its searches.
+     */
+    public GardenSearchIndex() {
+        this(message -> { });
+    }
+
+    /**
+     * Constructor for a GardenSearchIndex.
+     *
+     * @param logger The logger receiving the match count and duration of each search.
+     */
+    public GardenSearchIndex(SearchLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Adds a kindergarten to the index, replacing its previous entry.
+     *
+     * @param summary The summary of the kindergarten, with its ID set.
+     */
+    public synchronized void put(GardenSummary summary) {
+        remove(summary.getId());
+
+        summariesById.put(summary.getId(), summary);
+        gardensById.put(summary.getId(), summary.toGarden());
+        addPosting(idsByCity, normalize(summary.getCity()), summary.getId());
+        addPosting(idsByAffiliation, normalize(summary.getOrganizationalAffiliation()), summary.getId());
+        if (summary.getAges() != null) {
+            for (Integer age : summary.getAges()) {
+                addPosting(idsByAge, age, summary.getId());
+            }
+        }
+    }
+
+    /**
+     * Removes a kindergarten from the index.
+     *
+     * @param gartenId The ID of the kindergarten.
+     */
+    public synchronized void remove(String gartenId) {
+        GardenSummary summary = summariesById.remove(gartenId);
+        if (summary == null) {
+            return;
+        }
+        gardensById.remove(gartenId);
+        removePosting(idsByCity, normalize(summary.getCity()), gartenId);
+        removePosting(idsByAffiliation, normalize(summary.getOrganizationalAffiliation()), gartenId);
+        if (summary.getAges() != null) {
+            for (Integer age : summary.getAges()) {
+                removePosting(idsByAge, age, gartenId);
+            }
+        }
+    }
+
+    /**
+     * Removes every kindergarten from the index.
+     */
+    public synchronized void clear() {
+        gardensById.clear();
+        summariesById.clear();
+        idsByCity.clear();
+        idsByAffiliation.clear();
+        idsByAge.clear();
+    }
+
+    /**
+     * Returns the number of kindergartens in the index.
+     *
+     * @return The number of indexed kindergartens.
+     */
+    public synchronized int size() {
+        return gardensById.size();
+    }
+
+    /**
+     * Finds the kindergartens matching the search criteria.
+     *
+     * @param city         The city, or a prefix of it. Required.
+     * @param organization The organizational affiliation, or null or empty for any.
+     * @param age          The child's age in years, or null for any.
+     * @return The matching kindergartens, sorted by name.
+     */
+    public synchronized List<Garden> search(String city, String organization, Integer age) {
+        long start = System.nanoTime();
+
+        Set<String> matches = idsForCity(normalize(city));
+        if (organization != null && !organization.isEmpty()) {
+            matches.retainAll(postings(idsByAffiliation, normalize(organization)));
+        }
+        if (age != null) {
+            matches.retainAll(postings(idsByAge, age));
+        }
+
+        List<Garden> results = new ArrayList<>();
+        for (String gartenId : matches) {
+            results.add(gardensById.get(gartenId));
+        }
+        Collections.sort(results, (first, second) -> String.valueOf(first.getName()).compareTo(String.valueOf(second.getName())));
+
+        logger.log("Search matched " + results.size() + " of " + gardensById.size()
+                + " gardens in " + (System.nanoTime() - start) / 1000 + " us");
+        return results;
+    }
+
+    /**
+     * Returns the IDs of the kindergartens in every city starting with the given prefix,
+     * or in the cities closest to it if no city starts with it.
+     *
+     * @param prefix The normalized city prefix.
+     * @return A new set of kindergarten IDs.
+     */
+    private Set<String> idsForCity(String prefix) {
+        Set<String> ids = new HashSet<>();
+        if (prefix.isEmpty()) {
+            return ids;
+        }
+
+        for (Set<String> cityIds : idsByCity.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            ids.addAll(cityIds);
+        }
+        if (!ids.isEmpty()) {
+            return ids;
+        }
+
+        // No city starts with the prefix, so treat it as a misspelled city name
+        int maxDistance = prefix.length() <= 4 ? 1 : 2;
+        for (Map.Entry<String, Set<String>> entry : idsByCity.entrySet()) {
+            String cityPrefix = entry.getKey().substring(0, Math.min(entry.getKey().length(), prefix.length()));
+            if (editDistance(prefix, entry.getKey()) <= maxDistance || editDistance(prefix, cityPrefix) <= maxDistance) {
+                ids.addAll(entry.getValue());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Normalizes a search term: lower case, without diacritics or punctuation, and with single spaces.
+     *
+     * @param value The value to normalize.
+     * @return The normalized value, or an empty string if the value is null.
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim()
+                .toLowerCase();
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings.
+     *
+     * @param first  The first string.
+     * @param second The second string.
+     * @return The minimum number of single-character edits turning one string into the other.
+     */
+    private static int editDistance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+
+    /**
+     * Adds a kindergarten ID to the posting list of a key.
+     *
+     * @param index    The inverted index.
+     * @param key      The indexed value.
+     * @param gartenId The ID of the kindergarten.
+     */
+    private static <K> void addPosting(Map<K, Set<String>> index, K key, String gartenId) {
+        Set<String> ids = index.get(key);
+        if (ids == null) {
+            ids = new HashSet<>();
+            index.put(key, ids);
+        }
+        ids.add(gartenId);
+    }
+
+    /**
+     * Removes a kindergarten ID from the posting list of a key, dropping the key when its list becomes empty.
+     *
+     * @param index    The inverted index.
+     * @param key      The indexed value.
+     * @param gartenId The ID of the kindergarten.
+     */
+    private static <K> void removePosting(Map<K, Set<String>> index, K key, String gartenId) {
+        Set<String> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(gartenId);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the posting list of a key, or an empty set if the key is not indexed.
+     *
+     * @param index The inverted index.
+     * @param key   The indexed value.
+     * @return The IDs of the kindergartens indexed under the key.
+     */
+    private static <K> Set<String> postings(Map<K, Set<String>> index, K key) {
+        Set<String> ids = index.get(key);
+        return ids != null ? ids : Collections.emptySet();
+    }
+
+    /**
+     * Receives the log messages of the index, e.g. to forward them to Logcat.
+     */
+    public interface SearchLogger {
+        void log(String message);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.finalprojectapp.database;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+/**
+ * KeyedListenerRegistration holds a listener that depends on a value read by another listener,
+ * such as the snapshot listeners on a director's kindergartens, which depend on the director's list of IDs.
+ * The dependent listener is replaced only when the value it was created for changes.
+ */
+class KeyedListenerRegistration implements ListenerRegistration {
+
+    private Object key;
+    private boolean started;
+    private ListenerRegistration current;
+
+    /**
+     * Replaces the held listener with a new one, unless it was already created for an equal key.
+     *
+     * @param key     The value the listener depends on.
+     * @param factory Creates the listener for the key; it may return null if nothing needs to be listened to.
+     */
+    void restartIfChanged(Object key, Factory factory) {
+        if (started && key.equals(this.key)) {
+            return;
+        }
+        remove();
+        this.key = key;
+        started = true;
+        current = factory.create();
+    }
+
+    /**
+     * Removes the held listener.
+     */
+    @Override
+    public void remove() {
+        if (current != null) {
+            current.remove();
+            current = null;
+        }
+        started = false;
+    }
+
+    /**
+     * Creates the dependent listener.
+     */
+    interface Factory {
+        ListenerRegistration create();
+    }
+}
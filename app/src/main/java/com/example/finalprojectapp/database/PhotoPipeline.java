@@ -0,0 +1,302 @@
+package com.example.finalprojectapp.database;
+
+import android.content.ContentResolver;
+import android.content.res.AssetFileDescriptor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PhotoPipeline prepares a camera or gallery image for upload.
+ * The image is decoded with subsampling, so a 12 MP original is never fully loaded into memory,
+ * rotated according to its EXIF orientation, scaled down to a maximum dimension and re-encoded as JPEG.
+ * A small thumbnail is encoded from the same decoded bitmap for list screens.
+ */
+public class PhotoPipeline {
+
+    public static final int DEFAULT_MAX_DIMENSION = 1600;
+    public static final int DEFAULT_QUALITY = 85;
+    public static final int DEFAULT_THUMBNAIL_MAX_DIMENSION = 320;
+    public static final int DEFAULT_THUMBNAIL_QUALITY = 75;
+
+    // Images are decoded one at a time, off the main thread, to bound the memory used by bitmaps
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final int maxDimension;
+    private final int quality;
+    private final int thumbnailMaxDimension;
+    private final int thumbnailQuality;
+
+    /**
+     * Creates a pipeline with the default sizes and qualities.
+     */
+    public PhotoPipeline() {
+        this(DEFAULT_MAX_DIMENSION, DEFAULT_QUALITY, DEFAULT_THUMBNAIL_MAX_DIMENSION, DEFAULT_THUMBNAIL_QUALITY);
+    }
+
+    /**
+     * Creates a pipeline for images uploaded without a thumbnail.
+     *
+     * @param maxDimension The maximum width or height of the uploaded image, in pixels.
+     * @param quality      The JPEG quality of the uploaded image, from 0 to 100.
+     */
+    public PhotoPipeline(int maxDimension, int quality) {
+        this(maxDimension, quality, DEFAULT_THUMBNAIL_MAX_DIMENSION, DEFAULT_THUMBNAIL_QUALITY);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param maxDimension          The maximum width or height of the uploaded photo, in pixels.
+     * @param quality               The JPEG quality of the uploaded photo, from 0 to 100.
+     * @param thumbnailMaxDimension The maximum width or height of the thumbnail, in pixels.
+     * @param thumbnailQuality      The JPEG quality of the thumbnail, from 0 to 100.
+     */
+    public PhotoPipeline(int maxDimension, int quality, int thumbnailMaxDimension, int thumbnailQuality) {
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.thumbnailMaxDimension = thumbnailMaxDimension;
+        this.thumbnailQuality = thumbnailQuality;
+    }
+
+    /**
+     * Encodes an image and its thumbnail into files on the pipeline's background thread,
+     * so they can be uploaded later without reading the original image again.
+     *
+     * @param resolver      The content resolver used to read the image.
+     * @param imageUri      The URI of the image, from the camera or the gallery.
+     * @param photoFile     The file to write the photo to.
+     * @param thumbnailFile The file to write the thumbnail to.
+     * @return A task with the encoded photo and thumbnail.
+     */
+    public Task<EncodedPhoto> encodeToFilesAsync(ContentResolver resolver, Uri imageUri, File photoFile, File thumbnailFile) {
+        return Tasks.call(executor, () -> {
+            EncodedPhoto encoded = encode(resolver, imageUri);
+            write(encoded.photo, photoFile);
+            write(encoded.thumbnail, thumbnailFile);
+            return encoded;
+        });
+    }
+
+    /**
+     * Encodes an image into a file on the pipeline's background thread, so it can be uploaded as a stream.
+     *
+     * @param resolver   The content resolver used to read the image.
+     * @param imageUri   The URI of the image, from the camera or the gallery.
+     * @param outputFile The file to write the JPEG to.
+     * @return A task with the written file.
+     */
+    public Task<File> encodeToFileAsync(ContentResolver resolver, Uri imageUri, File outputFile) {
+        return Tasks.call(executor, () -> {
+            Bitmap image = decode(resolver, imageUri);
+            try (OutputStream output = new FileOutputStream(outputFile)) {
+                image.compress(Bitmap.CompressFormat.JPEG, quality, output);
+            } finally {
+                image.recycle();
+            }
+            return outputFile;
+        });
+    }
+
+    /**
+     * Encodes an image and its thumbnail. This reads and decodes the image, so call it off the main thread.
+     *
+     * @param resolver The content resolver used to read the image.
+     * @param imageUri The URI of the image, from the camera or the gallery.
+     * @return The encoded photo and thumbnail.
+     * @throws IOException If the image cannot be read or decoded.
+     */
+    public EncodedPhoto encode(ContentResolver resolver, Uri imageUri) throws IOException {
+        Bitmap photo = decode(resolver, imageUri);
+        Bitmap thumbnail = transform(photo, ExifInterface.ORIENTATION_NORMAL, thumbnailMaxDimension);
+
+        byte[] photoBytes = compress(photo, quality);
+        byte[] thumbnailBytes = compress(thumbnail, thumbnailQuality);
+        if (thumbnail != photo) {
+            thumbnail.recycle();
+        }
+        photo.recycle();
+
+        return new EncodedPhoto(photoBytes, thumbnailBytes, originalSize(resolver, imageUri));
+    }
+
+    /**
+     * Decodes an image subsampled close to the maximum dimension, then rotates it upright and scales it
+     * to the maximum dimension. Only the subsampled bitmap and the result are ever in memory.
+     *
+     * @param resolver The content resolver used to read the image.
+     * @param imageUri The URI of the image.
+     * @return The upright bitmap, no larger than the maximum dimension.
+     * @throws IOException If the image cannot be read or decoded.
+     */
+    private Bitmap decode(ContentResolver resolver, Uri imageUri) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream input = open(resolver, imageUri)) {
+            BitmapFactory.decodeStream(input, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + imageUri);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, maxDimension);
+        Bitmap sampled;
+        try (InputStream input = open(resolver, imageUri)) {
+            sampled = BitmapFactory.decodeStream(input, null, options);
+        }
+        if (sampled == null) {
+            throw new IOException("Failed to decode image: " + imageUri);
+        }
+
+        Bitmap image = transform(sampled, readOrientation(resolver, imageUri), maxDimension);
+        if (image != sampled) {
+            sampled.recycle();
+        }
+        return image;
+    }
+
+    /**
+     * Returns the largest power of two that can subsample the image while keeping its
+     * longest side at least the target size, so the final scaling only shrinks.
+     *
+     * @param width     The width of the image.
+     * @param height    The height of the image.
+     * @param maxLength The target length of the longest side.
+     * @return The sample size for BitmapFactory.
+     */
+    static int sampleSize(int width, int height, int maxLength) {
+        int longestSide = Math.max(width, height);
+        int sampleSize = 1;
+        while (longestSide / (sampleSize * 2) >= maxLength) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Rotates or mirrors a bitmap according to an EXIF orientation and scales it down to a maximum size,
+     * in a single pass.
+     *
+     * @param source      The bitmap to transform.
+     * @param orientation The EXIF orientation of the bitmap.
+     * @param maxLength   The maximum length of the longest side.
+     * @return The transformed bitmap, or the source itself if nothing had to change.
+     */
+    private static Bitmap transform(Bitmap source, int orientation, int maxLength) {
+        Matrix matrix = new Matrix();
+        float scale = Math.min(1f, (float) maxLength / Math.max(source.getWidth(), source.getHeight()));
+        matrix.postScale(scale, scale);
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(270);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(270);
+                break;
+            default:
+                break;
+        }
+        if (matrix.isIdentity()) {
+            return source;
+        }
+        return Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+    }
+
+    /**
+     * Reads the EXIF orientation of an image.
+     *
+     * @param resolver The content resolver used to read the image.
+     * @param imageUri The URI of the image.
+     * @return The EXIF orientation, or ORIENTATION_NORMAL if it cannot be read.
+     */
+    private static int readOrientation(ContentResolver resolver, Uri imageUri) {
+        try (InputStream input = open(resolver, imageUri)) {
+            return new ExifInterface(input).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /**
+     * Returns the size of the original image file.
+     *
+     * @param resolver The content resolver used to read the image.
+     * @param imageUri The URI of the image.
+     * @return The size in bytes, or -1 if it is unknown.
+     */
+    private static long originalSize(ContentResolver resolver, Uri imageUri) {
+        try (AssetFileDescriptor descriptor = resolver.openAssetFileDescriptor(imageUri, "r")) {
+            return descriptor != null ? descriptor.getLength() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri imageUri) throws IOException {
+        InputStream input = resolver.openInputStream(imageUri);
+        if (input == null) {
+            throw new IOException("Cannot open image: " + imageUri);
+        }
+        return input;
+    }
+
+    private static void write(byte[] bytes, File file) throws IOException {
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(bytes);
+        }
+    }
+
+    private static byte[] compress(Bitmap bitmap, int quality) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, quality, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * A photo and its thumbnail, encoded as JPEG.
+     */
+    public static class EncodedPhoto {
+        public final byte[] photo;
+        public final byte[] thumbnail;
+        // The size of the file the photo was encoded from, or -1 if it is unknown
+        public final long originalSize;
+
+        EncodedPhoto(byte[] photo, byte[] thumbnail, long originalSize) {
+            this.photo = photo;
+            this.thumbnail = thumbnail;
+            this.originalSize = originalSize;
+        }
+    }
+}
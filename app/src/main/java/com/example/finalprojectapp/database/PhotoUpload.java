@@ -0,0 +1,52 @@
+package com.example.finalprojectapp.database;
+
+import java.util.Date;
+
+/**
+ * PhotoUpload is a child photo in the upload queue. The photo and its thumbnail are already encoded
+ * into files owned by the app, so the upload no longer depends on the screen or the picked URI.
+ * The upload key names the files in Storage and the ChildPhotos document, so retrying an upload
+ * overwrites its earlier attempt instead of adding a duplicate.
+ */
+public class PhotoUpload {
+
+    public static final int STATE_PENDING = 0;
+    public static final int STATE_UPLOADING = 1;
+    public static final int STATE_FAILED = 2;
+
+    public final String key;
+    public final String childId;
+    public final String className;
+    public final Date time;
+    public final String photoPath;
+    public final String thumbnailPath;
+
+    long id;
+    // The resumable Storage session of the photo, set once its upload has started
+    String sessionUri;
+    String photoUrl;
+    String thumbnailUrl;
+    int state = STATE_PENDING;
+    int attempts;
+    // The upload run that last claimed the photo
+    String runId;
+
+    /**
+     * Constructor for PhotoUpload.
+     *
+     * @param key           The unique key of the upload.
+     * @param childId       The ID of the child in the photo.
+     * @param className     The name of the class the photo was taken in.
+     * @param time          The time the photo was saved.
+     * @param photoPath     The path of the encoded photo.
+     * @param thumbnailPath The path of the encoded thumbnail.
+     */
+    public PhotoUpload(String key, String childId, String className, Date time, String photoPath, String thumbnailPath) {
+        this.key = key;
+        this.childId = childId;
+        this.className = className;
+        this.time = time;
+        this.photoPath = photoPath;
+        this.thumbnailPath = thumbnailPath;
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.finalprojectapp.database;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.UploadTask;
+
+import java.io.File;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PhotoUploadWorker uploads the child photos queued in the local database.
+ * Photos are encoded into app files when they are queued, so an upload survives the screen that started it,
+ * the network dropping and the app being killed. Up to MAX_CONCURRENT_UPLOADS photos are uploaded at a time,
+ * each photo continues its resumable Storage session if an earlier attempt was interrupted,
+ * and its Firestore metadata is written only after both of its files are uploaded.
+ * A photo that fails MAX_ATTEMPTS times is dropped from the queue, so one broken photo never retries forever.
+ * The upload screen shows the queue depth from the database and the throughput published as work progress.
+ */
+public class PhotoUploadWorker extends Worker {
+
+    public static final String WORK_NAME = "uploadChildPhotos";
+    public static final String PROGRESS_UPLOADED = "uploaded";
+    public static final String PROGRESS_BYTES_PER_SECOND = "bytesPerSecond";
+
+    private static final int MAX_CONCURRENT_UPLOADS = 3;
+    private static final long UPLOAD_TIMEOUT_MINUTES = 5;
+    private static final long RUN_TIMEOUT_MINUTES = 9;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final String UPLOAD_DIRECTORY = "photo_uploads";
+
+    // The runs in this process whose uploaders have not finished; their claimed photos are never released
+    private static final Set<String> activeRuns = new HashSet<>();
+
+    private final DatabaseHelper databaseHelper;
+    private final FireBaseManager fireBaseManager;
+    private final AtomicInteger uploaded = new AtomicInteger();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    // The Storage uploads in progress, cancelled if the run times out
+    private final Set<UploadTask> inFlightUploads = ConcurrentHashMap.newKeySet();
+    private final String runId = UUID.randomUUID().toString();
+    private final AtomicInteger liveUploaders = new AtomicInteger();
+    private volatile ExecutorService uploaders;
+    private long startTime;
+
+    /**
+     * Constructor for PhotoUploadWorker.
+     *
+     * @param context      The application context.
+     * @param workerParams Parameters to setup the worker.
+     */
+    public PhotoUploadWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+        databaseHelper = DatabaseHelper.getInstance(context);
+        fireBaseManager = new FireBaseManager(context);
+    }
+
+    /**
+     * Encodes a photo into the app's files and adds it to the upload queue, then starts the upload job.
+     * The picked image is only read here, so the screen may be closed as soon as the task completes.
+     *
+     * @param context   The context used to read the image and to access WorkManager.
+     * @param imageUri  The URI of the image, from the camera or the gallery.
+     * @param childId   The ID of the child in the photo.
+     * @param className The name of the class the photo was taken in.
+     * @param time      The time the photo was saved.
+     * @return A task that completes when the photo is queued.
+     */
+    public static Task<Void> enqueue(Context context, Uri imageUri, String childId, String className, Date time) {
+        Context appContext = context.getApplicationContext();
+        File directory = new File(appContext.getFilesDir(), UPLOAD_DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return Tasks.forException(new IllegalStateException("Cannot create " + directory));
+        }
+        String key = UUID.randomUUID().toString();
+        File photoFile = new File(directory, key + ".jpg");
+        File thumbnailFile = new File(directory, key + "_thumb.jpg");
+
+        return new PhotoPipeline().encodeToFilesAsync(appContext.getContentResolver(), imageUri, photoFile, thumbnailFile)
+                .onSuccessTask(encoded -> {
+                    DatabaseHelper.getInstance(appContext).addPhotoUpload(new PhotoUpload(key, childId, className, time,
+                            photoFile.getPath(), thumbnailFile.getPath()));
+                    start(appContext);
+                    return Tasks.forResult(null);
+                });
+    }
+
+    /**
+     * Starts the upload job once the device is online. A running job keeps claiming new photos,
+     * and a job appended behind it uploads any photo queued after it finished.
+     *
+     * @param context The context used to access WorkManager.
+     */
+    public static void start(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(PhotoUploadWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    /**
+     * Uploads queued photos with a bounded number of uploaders until the queue is empty.
+     * Photos that fail stay queued and are retried when WorkManager runs the job again.
+     *
+     * @return The result of the work.
+     */
+    @NonNull
+    @Override
+    public Result doWork() {
+        // A run that was stopped may still be cancelling its uploads, so only the photos of finished runs are released
+        synchronized (activeRuns) {
+            databaseHelper.resetPhotoUploads(activeRuns);
+            activeRuns.add(runId);
+        }
+        startTime = SystemClock.elapsedRealtime();
+        reportProgress();
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        ExecutorService uploaders = Executors.newFixedThreadPool(MAX_CONCURRENT_UPLOADS);
+        this.uploaders = uploaders;
+        liveUploaders.set(MAX_CONCURRENT_UPLOADS);
+        for (int i = 0; i < MAX_CONCURRENT_UPLOADS; i++) {
+            uploaders.execute(() -> {
+                try {
+                    PhotoUpload upload;
+                    while (!isStopped() && (upload = databaseHelper.claimNextPhotoUpload(runId)) != null) {
+                        if (!upload(upload)) {
+                            failed.set(true);
+                        }
+                    }
+                } finally {
+                    onUploaderFinished();
+                }
+            });
+        }
+        uploaders.shutdown();
+        if (isStopped()) {
+            cancelUploads(uploaders); // Stopped before the uploaders were published to onStopped
+        }
+        try {
+            if (!uploaders.awaitTermination(RUN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                // Stop the uploaders, so they stop sending the photos the next run claims again
+                cancelUploads(uploaders);
+                return Result.retry();
+            }
+        } catch (InterruptedException e) {
+            cancelUploads(uploaders);
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        }
+
+        Log.d("PhotoUploadWorker", "Uploaded " + uploaded.get() + " photos, " + uploadedBytes.get() + " bytes at "
+                + bytesPerSecond() + " bytes/s");
+        return failed.get() || isStopped() ? Result.retry() : Result.success();
+    }
+
+    /**
+     * Cancels the uploads in progress when WorkManager stops the run, e.g. because the network dropped,
+     * so they stop sending before the next run claims their photos again.
+     */
+    @Override
+    public void onStopped() {
+        ExecutorService uploaders = this.uploaders;
+        if (uploaders != null) {
+            cancelUploads(uploaders);
+        }
+    }
+
+    /**
+     * Uploads one photo and its thumbnail, commits its metadata and removes it from the queue.
+     * Each completed step is saved first, so a later attempt continues from the step that failed.
+     *
+     * @param upload The claimed upload.
+     * @return True if the photo was uploaded, false if it stays queued for a later attempt.
+     */
+    private boolean upload(PhotoUpload upload) {
+        File photoFile = new File(upload.photoPath);
+        File thumbnailFile = new File(upload.thumbnailPath);
+        if (!photoFile.exists() || !thumbnailFile.exists()) {
+            Log.e("PhotoUploadWorker", "Files of upload " + upload.key + " are missing, dropping it");
+            databaseHelper.deletePhotoUpload(upload.id);
+            return true;
+        }
+
+        try {
+            if (upload.photoUrl == null) {
+                UploadTask photoTask = fireBaseManager.uploadChildPhoto(upload, snapshot -> {
+                    Uri session = snapshot.getUploadSessionUri();
+                    if (session != null && upload.sessionUri == null) {
+                        upload.sessionUri = session.toString();
+                        databaseHelper.updatePhotoUpload(upload);
+                    }
+                });
+                try {
+                    upload.photoUrl = awaitUpload(photoTask).toString();
+                } catch (TimeoutException | InterruptedException | CancellationException e) {
+                    // A cancelled upload also cancels its session, so the next attempt starts a new one
+                    upload.sessionUri = null;
+                    throw e;
+                } catch (ExecutionException e) {
+                    if (isSessionInvalid(e.getCause())) {
+                        // The server no longer knows the session; resuming it would fail again
+                        upload.sessionUri = null;
+                    }
+                    throw e;
+                }
+                databaseHelper.updatePhotoUpload(upload);
+                uploadedBytes.addAndGet(photoFile.length());
+            }
+            if (upload.thumbnailUrl == null) {
+                upload.thumbnailUrl = awaitUpload(fireBaseManager.uploadChildPhotoThumbnail(upload)).toString();
+                databaseHelper.updatePhotoUpload(upload);
+                uploadedBytes.addAndGet(thumbnailFile.length());
+            }
+            await(fireBaseManager.addChildPhoto(upload));
+        } catch (ExecutionException | TimeoutException | CancellationException e) {
+            Log.e("PhotoUploadWorker", "Upload " + upload.key + " failed on attempt " + upload.attempts, e);
+            return fail(upload);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fail(upload);
+        }
+
+        databaseHelper.deletePhotoUpload(upload.id);
+        photoFile.delete();
+        thumbnailFile.delete();
+        uploaded.incrementAndGet();
+        reportProgress();
+        return true;
+    }
+
+    /**
+     * Marks an upload as failed, so the next run retries it, or drops it once it has failed MAX_ATTEMPTS times.
+     *
+     * @param upload The upload that failed.
+     * @return False if the upload stays queued, true if it was dropped.
+     */
+    private boolean fail(PhotoUpload upload) {
+        if (upload.attempts >= MAX_ATTEMPTS) {
+            Log.e("PhotoUploadWorker", "Upload " + upload.key + " failed " + upload.attempts + " times, dropping it");
+            databaseHelper.deletePhotoUpload(upload.id);
+            new File(upload.photoPath).delete();
+            new File(upload.thumbnailPath).delete();
+            return true;
+        }
+        upload.state = PhotoUpload.STATE_FAILED;
+        databaseHelper.updatePhotoUpload(upload);
+        return false;
+    }
+
+    /**
+     * Returns whether an upload failed because Storage no longer accepts its resumable session,
+     * i.e. the session expired or was cancelled, or the bytes it received are corrupt.
+     * Other failures, such as a dropped connection, leave the session resumable.
+     *
+     * @param error The cause of the failure.
+     * @return True if the next attempt must start a new session.
+     */
+    private static boolean isSessionInvalid(Throwable error) {
+        if (!(error instanceof StorageException)) {
+            return false;
+        }
+        StorageException e = (StorageException) error;
+        return e.getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND
+                || e.getErrorCode() == StorageException.ERROR_INVALID_CHECKSUM
+                || e.getErrorCode() == StorageException.ERROR_CANCELED
+                || e.getHttpResultCode() == 404
+                || e.getHttpResultCode() == 410;
+    }
+
+    /**
+     * Cancels the Storage uploads in progress and interrupts the uploaders.
+     *
+     * @param uploaders The executor running the uploaders.
+     */
+    private void cancelUploads(ExecutorService uploaders) {
+        for (UploadTask task : inFlightUploads) {
+            task.cancel();
+        }
+        for (Runnable notStarted : uploaders.shutdownNow()) {
+            onUploaderFinished();
+        }
+    }
+
+    /**
+     * Records that an uploader of this run has finished, and releases the run's photos to later runs
+     * once the last one has.
+     */
+    private void onUploaderFinished() {
+        if (liveUploaders.decrementAndGet() == 0) {
+            synchronized (activeRuns) {
+                activeRuns.remove(runId);
+            }
+        }
+    }
+
+    /**
+     * Publishes the number of photos uploaded and the throughput of this run as work progress.
+     */
+    private void reportProgress() {
+        setProgressAsync(new Data.Builder()
+                .putInt(PROGRESS_UPLOADED, uploaded.get())
+                .putLong(PROGRESS_BYTES_PER_SECOND, bytesPerSecond())
+                .build());
+    }
+
+    /**
+     * Returns the average number of bytes uploaded per second since this run started.
+     *
+     * @return The throughput in bytes per second.
+     */
+    private long bytesPerSecond() {
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - startTime);
+        return uploadedBytes.get() * 1000 / elapsed;
+    }
+
+    /**
+     * Waits for a Storage upload on the uploader's thread and returns the download URL of the uploaded file.
+     * An upload that does not complete in time is cancelled, so it stops sending bytes.
+     *
+     * @param task The upload task.
+     * @return The download URL.
+     */
+    private Uri awaitUpload(UploadTask task) throws ExecutionException, InterruptedException, TimeoutException {
+        inFlightUploads.add(task);
+        try {
+            UploadTask.TaskSnapshot snapshot = await(task);
+            return await(snapshot.getStorage().getDownloadUrl());
+        } catch (TimeoutException | InterruptedException e) {
+            task.cancel();
+            throw e;
+        } finally {
+            inFlightUploads.remove(task);
+        }
+    }
+
+    /**
+     * Waits for a Firebase task on the uploader's thread.
+     *
+     * @param task The task.
+     * @return The result of the task.
+     */
+    private static <T> T await(Task<T> task) throws ExecutionException, InterruptedException, TimeoutException {
+        return Tasks.await(task, UPLOAD_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.finalprojectapp.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * RegistrationCloseWorker is a periodic background job that closes the registration of kindergartens
+ * once three days have passed since their registration started.
+ * A lease document in Firestore makes sure only one client runs the job per period.
+ * A run that fails releases the lease before asking WorkManager to retry, so the retry is not skipped.
+ */
+public class RegistrationCloseWorker extends Worker {
+
+    private static final String WORK_NAME = "closeExpiredRegistrations";
+    private static final long PERIOD_HOURS = 1;
+    private static final long LEASE_MILLIS = TimeUnit.HOURS.toMillis(PERIOD_HOURS);
+    private static final int REGISTRATION_DAYS = 3;
+
+    /**
+     * Constructor for RegistrationCloseWorker.
+     *
+     * @param context      The application context.
+     * @param workerParams Parameters to setup the worker.
+     */
+    public RegistrationCloseWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    /**
+     * Schedules the periodic job, keeping the existing schedule if it was already enqueued.
+     *
+     * @param context The context used to access WorkManager.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(RegistrationCloseWorker.class, PERIOD_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Acquires the job lease and closes all registrations that started more than three days ago.
+     *
+     * @return The result of the work.
+     */
+    @NonNull
+    @Override
+    public Result doWork() {
+        FireBaseManager fireBaseManager = new FireBaseManager(getApplicationContext());
+        String owner = getId().toString();
+
+        AtomicBoolean leaseAcquired = new AtomicBoolean(false);
+        CountDownLatch leaseLatch = new CountDownLatch(1);
+        fireBaseManager.acquireJobLease(WORK_NAME, owner, LEASE_MILLIS, success -> {
+            leaseAcquired.set(success);
+            leaseLatch.countDown();
+        });
+        if (!await(leaseLatch)) {
+            return Result.retry();
+        }
+        if (!leaseAcquired.get()) {
+            Log.d("RegistrationCloseWorker", "Another client holds the lease, skipping this run");
+            return Result.success();
+        }
+
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_YEAR, -REGISTRATION_DAYS);
+        Date cutoff = cal.getTime();
+
+        AtomicBoolean closed = new AtomicBoolean(false);
+        CountDownLatch closeLatch = new CountDownLatch(1);
+        fireBaseManager.closeExpiredRegistrations(cutoff, (succeeded, failedIds) -> {
+            Log.d("RegistrationCloseWorker", "Closed registration for " + succeeded + " gardens, failed: " + failedIds);
+            closed.set(failedIds.isEmpty());
+            closeLatch.countDown();
+        });
+        if (!await(closeLatch) || !closed.get()) {
+            // Give up the lease, otherwise the retry would find it held and skip the run
+            releaseLease(fireBaseManager, owner);
+            return Result.retry();
+        }
+        return Result.success();
+    }
+
+    /**
+     * Releases the job lease and waits for the release to complete.
+     *
+     * @param fireBaseManager The FireBaseManager used to release the lease.
+     * @param owner           The owner the lease was acquired with.
+     */
+    private void releaseLease(FireBaseManager fireBaseManager, String owner) {
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        fireBaseManager.releaseJobLease(WORK_NAME, owner, success -> releaseLatch.countDown());
+        await(releaseLatch);
+    }
+
+    /**
+     * Waits for a Firestore callback to complete.
+     *
+     * @param latch The latch released by the callback.
+     * @return True if the callback completed in time, false otherwise.
+     */
+    private boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
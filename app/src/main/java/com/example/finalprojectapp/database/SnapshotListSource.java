@@ -0,0 +1,149 @@
+package com.example.finalprojectapp.database;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SnapshotListSource keeps a list in sync with one or more Firestore queries through snapshot listeners.
+ * Each snapshot is applied to the items of its query as DocumentChange deltas (added, modified, removed),
+ * so unchanged documents keep their objects and a changed document costs one list operation.
+ * The items of all queries are concatenated in query order and reported once every query has
+ * delivered its first snapshot, and again after each later snapshot.
+ */
+public class SnapshotListSource<T> implements ListenerRegistration {
+
+    private final List<Query> queries;
+    private final DocumentMapper<T> mapper;
+    private final ListCallback<T> callback;
+    private final List<List<T>> itemsByQuery = new ArrayList<>();
+    private final List<ListenerRegistration> registrations = new ArrayList<>();
+    private int pendingFirstSnapshots;
+
+    /**
+     * Constructor for SnapshotListSource.
+     *
+     * @param queries  The queries to listen to, e.g. the whereIn chunks of one logical query.
+     * @param mapper   Converts a document into a list item.
+     * @param callback A callback to handle the full list after every change.
+     */
+    public SnapshotListSource(List<Query> queries, DocumentMapper<T> mapper, ListCallback<T> callback) {
+        this.queries = queries;
+        this.mapper = mapper;
+        this.callback = callback;
+    }
+
+    /**
+     * Attaches the snapshot listeners. Calling it again while they are attached has no effect.
+     *
+     * @return This source, to be removed when the list is no longer displayed.
+     */
+    public SnapshotListSource<T> start() {
+        if (!registrations.isEmpty()) {
+            return this;
+        }
+        itemsByQuery.clear();
+        pendingFirstSnapshots = queries.size();
+        for (int i = 0; i < queries.size(); i++) {
+            List<T> items = new ArrayList<>();
+            itemsByQuery.add(items);
+            boolean[] received = new boolean[1];
+            registrations.add(queries.get(i).addSnapshotListener((snapshots, e) -> {
+                if (e != null) {
+                    Log.e("Firebase", "Snapshot listener failed", e);
+                    return;
+                }
+                if (snapshots == null) {
+                    return;
+                }
+                applyChanges(items, snapshots);
+                if (!received[0]) {
+                    received[0] = true;
+                    pendingFirstSnapshots--;
+                }
+                if (pendingFirstSnapshots == 0) {
+                    callback.onCallback(merge());
+                }
+            }));
+        }
+        if (queries.isEmpty()) {
+            callback.onCallback(new ArrayList<>());
+        }
+        return this;
+    }
+
+    /**
+     * Detaches the snapshot listeners.
+     */
+    @Override
+    public void remove() {
+        for (ListenerRegistration registration : registrations) {
+            registration.remove();
+        }
+        registrations.clear();
+    }
+
+    /**
+     * Applies the document changes of a snapshot to the items of its query.
+     * Firestore reports the indexes of each change relative to the list with the previous changes applied.
+     *
+     * @param items     The items of the query, in the query's order.
+     * @param snapshots The new snapshot of the query.
+     */
+    private void applyChanges(List<T> items, QuerySnapshot snapshots) {
+        int added = 0, modified = 0, removed = 0;
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            switch (change.getType()) {
+                case ADDED:
+                    items.add(change.getNewIndex(), mapper.map(change.getDocument()));
+                    added++;
+                    break;
+                case MODIFIED:
+                    items.remove(change.getOldIndex());
+                    items.add(change.getNewIndex(), mapper.map(change.getDocument()));
+                    modified++;
+                    break;
+                case REMOVED:
+                    items.remove(change.getOldIndex());
+                    removed++;
+                    break;
+            }
+        }
+        Log.d("Firebase", "Snapshot applied: " + added + " added, " + modified + " modified, " + removed + " removed"
+                + (snapshots.getMetadata().isFromCache() ? " (from cache)" : ""));
+    }
+
+    /**
+     * Concatenates the items of all queries in query order.
+     *
+     * @return A new list with every item.
+     */
+    private List<T> merge() {
+        List<T> merged = new ArrayList<>();
+        for (List<T> items : itemsByQuery) {
+            merged.addAll(items);
+        }
+        return merged;
+    }
+
+    /**
+     * Converts a document into a list item.
+     */
+    public interface DocumentMapper<T> {
+        T map(DocumentSnapshot document);
+    }
+
+    /**
+     * Callback for the full list.
+     */
+    public interface ListCallback<T> {
+        void onCallback(List<T> items);
+    }
+}
@@ -220,7 +220,11 @@ public class GardenDetailsFragment extends Fragment {
                 gartenOpenTimeTextView.append(": "+garten.getOpenTime());
                 gartenCloseTimeTextView.append(": "+garten.getCloseTime());
                 gartenOrgAffiliationTextView.append(": "+garten.getOrganizationalAffiliation());
-                Glide.with(this).load(garten.getImageUrl()).into(gartenView);
+                // The cover image is decoded at the view's size
+                Glide.with(this)
+                        .load(garten.getImageUrl())
+                        .fitCenter()
+                        .into(gartenView);
 
                 availableClasses = garten.getClasses();
                 if (availableClasses != null && !availableClasses.isEmpty()) {
@@ -4,9 +4,9 @@ import android.app.AlertDialog;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
@@ -16,14 +16,17 @@ import com.example.finalprojectapp.MainActivity;
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.TheBestGardensFragment;
 import com.example.finalprojectapp.UserSessionManager;
+import com.example.finalprojectapp.database.FireBaseManager;
 import com.example.finalprojectapp.staff.ViewReviewsFragment;
 import com.google.android.material.tabs.TabLayout;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+
+import Objects.ParentEvent;
 
 /**
  * ParentActivity is the main activity for parents, providing a tabbed interface
@@ -33,7 +36,8 @@ public class ParentActivity extends AppCompatActivity {
     private UserSessionManager session; // Session manager to handle user sessions
     private TabLayout tabLayout; // TabLayout for navigating between different fragments
 
-    private boolean notificationShown; // Flag to track if the approval notification has been shown
+    private FireBaseManager fireBaseManager; // Firebase manager for data operations
+    private ListenerRegistration eventsListener; // Listener on the parent's events feed, attached while the activity is started
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -44,9 +48,7 @@ public class ParentActivity extends AppCompatActivity {
         setSupportActionBar(toolbar);
 
         session = new UserSessionManager(getApplicationContext());
-
-        // Check if the notification has already been shown
-        notificationShown = getSharedPreferences("ParentPrefs", MODE_PRIVATE).getBoolean("notificationShown", false);
+        fireBaseManager = new FireBaseManager(this);
 
         String userName = getIntent().getStringExtra("userName");
 
@@ -89,7 +91,21 @@ public class ParentActivity extends AppCompatActivity {
         FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
         transaction.replace(R.id.fragment_container, fragment);
         transaction.commit();
-        listenForChildApprovalUpdates(session.getUserEmail());
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        listenForParentEvents(session.getUserEmail());
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (eventsListener != null) {
+            eventsListener.remove();
+            eventsListener = null;
+        }
     }
 
     @Override
@@ -147,79 +163,72 @@ public class ParentActivity extends AppCompatActivity {
     }
 
     /**
-     * Listens for updates on child approval status in the specified parent's kindergarten.
+     * Listens to the events feed of the specified parent, starting after the last event already seen.
+     * The full timestamp of the newest event, seconds and nanoseconds, is saved after every batch,
+     * so events are shown once and not transferred again. On the first launch the feed starts now,
+     * so the parent's earlier events are not replayed.
      *
-     * @param parentEmail The email of the parent to listen for updates.
+     * @param parentEmail The email of the parent to listen for events.
      */
-    private void listenForChildApprovalUpdates(String parentEmail) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-        // Find the parent by email
-        db.collection("Parents")
-                .whereEqualTo("email", parentEmail)  // Use the email to find the parent
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                        DocumentSnapshot parentDoc = task.getResult().getDocuments().get(0);
-                        List<Map<String, Object>> childrenList = (List<Map<String, Object>>) parentDoc.get("children");
-
-                        // For each child of the parent, check if they have been approved in a kindergarten
-                        if (childrenList != null) {
-                            for (Map<String, Object> child : childrenList) {
-                                String childId = (String) child.get("id");
-
-                                // Search all kindergartens to see if the child has been approved
-                                db.collection("kindergartens")
-                                        .whereEqualTo("children." + childId + ".approved", true)
-                                        .addSnapshotListener((snapshots, e) -> {
-                                            if (e != null) {
-                                                Log.w("Firebase", "Listen failed.", e);
-                                                return;
-                                            }
-
-                                            if (snapshots != null) {
-                                                for (DocumentSnapshot kindergartenDoc : snapshots.getDocuments()) {
-                                                    Map<String, Object> childrenMap = (Map<String, Object>) kindergartenDoc.get("children");
-                                                    if (childrenMap != null) {
-                                                        Map<String, Object> childMap = (Map<String, Object>) childrenMap.get(childId);
-                                                        if (childMap != null && Boolean.TRUE.equals(childMap.get("approved"))) {
-                                                            String childName = (String) child.get("fullName"); // Retrieve the child's name from the data
-                                                            sendApprovalNotificationToParent(childName);
-                                                        }
-                                                    }
-                                                }
-                                            }
-                                        });
-                            }
-                        }
-                    } else {
-                        Log.w("Firebase", "Parent not found for email: " + parentEmail);
-                    }
-                });
+    private void listenForParentEvents(String parentEmail) {
+        if (eventsListener != null || parentEmail == null) {
+            return;
+        }
+        SharedPreferences prefs = getSharedPreferences("ParentPrefs", MODE_PRIVATE);
+        String secondsKey = "lastEventSeconds_" + parentEmail;
+        String nanosKey = "lastEventNanos_" + parentEmail;
+        Timestamp lastSeen;
+        if (prefs.contains(secondsKey)) {
+            lastSeen = new Timestamp(prefs.getLong(secondsKey, 0), prefs.getInt(nanosKey, 0));
+        } else {
+            lastSeen = Timestamp.now();
+            prefs.edit()
+                    .putLong(secondsKey, lastSeen.getSeconds())
+                    .putInt(nanosKey, lastSeen.getNanoseconds())
+                    .apply();
+        }
+        Timestamp[] cursor = {lastSeen};
+
+        eventsListener = fireBaseManager.listenToParentEvents(parentEmail, lastSeen, events -> {
+            Timestamp newest = events.get(events.size() - 1).getCreatedAt();
+            if (newest.compareTo(cursor[0]) > 0) {
+                cursor[0] = newest;
+                prefs.edit()
+                        .putLong(secondsKey, newest.getSeconds())
+                        .putInt(nanosKey, newest.getNanoseconds())
+                        .apply();
+            }
+            showParentEvents(events);
+        });
     }
 
     /**
-     * Sends an approval notification to the parent if it hasn't already been shown.
+     * Notifies the parent of new events: approvals in a dialog, new notes and photos in a toast.
      *
-     * @param childName The name of the child who has been approved.
+     * @param events The new events, oldest first.
      */
-    private void sendApprovalNotificationToParent(String childName) {
-        if (!notificationShown) {
-            notificationShown = true;  // Update the flag that the notification has been shown
-
-            // Save the information in SharedPreferences that the notification has been shown
-            SharedPreferences.Editor editor = getSharedPreferences("ParentPrefs", MODE_PRIVATE).edit();
-            editor.putBoolean("notificationShown", true);
-            editor.apply();
-
-            runOnUiThread(() -> {
-                // Display a notification to the parent with the child's name
-                new AlertDialog.Builder(ParentActivity.this)
-                        .setTitle("Child Approved")
-                        .setMessage("Your child " + childName + " has been approved for the kindergarten.")
-                        .setPositiveButton("OK", (dialog, which) -> dialog.dismiss())
-                        .show();
-            });
+    private void showParentEvents(List<ParentEvent> events) {
+        List<String> approvedChildren = new ArrayList<>();
+        List<String> updatedChildren = new ArrayList<>();
+        for (ParentEvent event : events) {
+            String childName = event.getChildName() != null ? event.getChildName() : "";
+            if (ParentEvent.TYPE_CHILD_APPROVED.equals(event.getType())) {
+                approvedChildren.add(childName);
+            } else if (!updatedChildren.contains(childName)) {
+                updatedChildren.add(childName);
+            }
+        }
+
+        if (!approvedChildren.isEmpty()) {
+            // Display a notification to the parent with the children's names
+            new AlertDialog.Builder(ParentActivity.this)
+                    .setTitle("Child Approved")
+                    .setMessage("Your child " + String.join(", ", approvedChildren) + " has been approved for the kindergarten.")
+                    .setPositiveButton("OK", (dialog, which) -> dialog.dismiss())
+                    .show();
+        }
+        if (!updatedChildren.isEmpty()) {
+            Toast.makeText(this, "New notes or photos from staff for " + String.join(", ", updatedChildren), Toast.LENGTH_LONG).show();
         }
     }
 }
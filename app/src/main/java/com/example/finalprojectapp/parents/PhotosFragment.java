@@ -15,13 +15,12 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalprojectapp.R;
-import com.example.finalprojectapp.UserSessionManager;
+import com.example.finalprojectapp.database.ChildPhotoTimelinePager;
 import com.example.finalprojectapp.database.FireBaseManager;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import Adapters.PhotosAdapter;
@@ -29,13 +28,17 @@ import Objects.ChildPhoto;
 
 /**
  * A fragment that displays photos of children in a specific kindergarten for a parent.
- * It allows filtering of photos by class and date.
+ * Photos are loaded newest first, a page at a time as the user scrolls.
+ * It allows filtering of photos by class and date. A filter first shows the matching photos cached on the device,
+ * looked up by day and class, and then replaces them with the photos Firestore returns for the filtered query.
  */
 public class PhotosFragment extends Fragment {
     private RecyclerView recyclerView; // RecyclerView to display the list of photos
     private PhotosAdapter adapter; // Adapter for the RecyclerView
     private List<ChildPhoto> photosList; // List of photos to be displayed
-    private List<ChildPhoto> originalPhotosList; // List to store the original set of photos
+    private List<String> childIds; // IDs of the parent's children in the kindergarten, null until loaded
+    private ChildPhotoTimelinePager pager; // Pager of the current filter
+    private int filterGeneration; // Incremented whenever a filter is picked, so pages of earlier filters are ignored
     private String GardenName; // Name of the kindergarten
     private String parentEmail; // Email of the parent
     private FireBaseManager firebaseManager; // Firebase manager for data operations
@@ -47,7 +50,6 @@ public class PhotosFragment extends Fragment {
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
 
         photosList = new ArrayList<>();
-        originalPhotosList = new ArrayList<>(); // Initialize the list to store the original photos
         adapter = new PhotosAdapter(getActivity(), photosList);
         recyclerView.setAdapter(adapter);
 
@@ -61,17 +63,11 @@ public class PhotosFragment extends Fragment {
             Log.d("PhotosFragment", "kindergartenName: " + GardenName);
         }
 
-        // Fetch the list of children for the parent and kindergarten, then load photos
-        firebaseManager.getChildrenForParentAndKindergarten(parentEmail, GardenName, childIds -> {
-            Log.d("PhotosFragment", "childIds: " + childIds);
-            firebaseManager.loadPhotosFromFirestore(childIds, photos -> {
-                Log.d("PhotosFragment", "Photos loaded: " + photos.size());
-                photosList.clear();
-                photosList.addAll(photos);
-                originalPhotosList.clear(); // Save the original list of photos
-                originalPhotosList.addAll(photos);
-                adapter.notifyDataSetChanged();
-            });
+        // Fetch the list of children for the parent and kindergarten, then load their photos a page at a time
+        firebaseManager.getChildrenForParentAndKindergarten(parentEmail, GardenName, ids -> {
+            Log.d("PhotosFragment", "childIds: " + ids);
+            childIds = ids;
+            loadPhotos(null, null);
         });
 
         // Set up the spinner for class filtering
@@ -83,7 +79,6 @@ public class PhotosFragment extends Fragment {
 
         // Set up the button for selecting a date
         Button buttonSelectDate = view.findViewById(R.id.buttonSelectDate);
-        final String[] selectedDate = {""};
         buttonSelectDate.setOnClickListener(v -> {
             Calendar calendar = Calendar.getInstance();
             int year = calendar.get(Calendar.YEAR);
@@ -93,22 +88,11 @@ public class PhotosFragment extends Fragment {
             // Display a date picker dialog
             DatePickerDialog datePickerDialog = new DatePickerDialog(getContext(),
                     (view1, year1, month1, dayOfMonth) -> {
-                        month1 += 1;
-                        selectedDate[0] = year1 + "-" + String.format("%02d", month1) + "-" + String.format("%02d", dayOfMonth);
-
-                        // Filter the photos based on the selected date
-                        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                        List<ChildPhoto> filteredList = new ArrayList<>();
-
-                        for (ChildPhoto photo : originalPhotosList) {
-                            String photoDate = dateFormat.format(photo.getTime());
-                            if (photoDate.equals(selectedDate[0])) {
-                                filteredList.add(photo);
-                            }
-                        }
-
-                        // Update the list displayed in the RecyclerView
-                        adapter.updateList(filteredList);
+                        // Filter the photos taken on the selected day
+                        Calendar selectedDay = Calendar.getInstance();
+                        selectedDay.clear();
+                        selectedDay.set(year1, month1, dayOfMonth);
+                        loadPhotos(selectedDay.getTime(), null);
                     }, year, month, day);
             datePickerDialog.show();
         });
@@ -117,19 +101,64 @@ public class PhotosFragment extends Fragment {
         Button buttonFilterByClass = view.findViewById(R.id.buttonFilterByClass);
         buttonFilterByClass.setOnClickListener(v -> {
             String specificClass = classSpinner.getSelectedItem().toString();
+            loadPhotos(null, specificClass.isEmpty() ? null : specificClass);
+        });
 
-            List<ChildPhoto> filteredList = new ArrayList<>();
-            for (ChildPhoto photo : originalPhotosList) {
-                if (specificClass.isEmpty()) {
-                    filteredList.add(photo);
-                } else if (photo.getClassName().equals(specificClass)) {
-                    filteredList.add(photo);
-                }
-            }
+        return view;
+    }
 
-            adapter.updateList(filteredList);
+    /**
+     * Displays the photos matching a filter. The cached matches are shown at once, and the first page
+     * of the filtered Firestore query replaces them when it arrives; later pages load as the user scrolls.
+     *
+     * @param day       Midnight of the day to show photos of, or null for every day.
+     * @param className The class to show photos of, or null for every class.
+     */
+    private void loadPhotos(Date day, String className) {
+        if (childIds == null) {
+            return;
+        }
+        adapter.updateList(firebaseManager.getCachedChildPhotos(childIds, day, className, ChildPhotoTimelinePager.PAGE_SIZE));
+
+        Date to = null;
+        if (day != null) {
+            Calendar nextDay = Calendar.getInstance();
+            nextDay.setTime(day);
+            nextDay.add(Calendar.DAY_OF_MONTH, 1);
+            to = nextDay.getTime();
+        }
+        int generation = ++filterGeneration;
+        boolean[] firstPage = {true};
+        ChildPhotoTimelinePager filterPager = new ChildPhotoTimelinePager(firebaseManager, childIds, day, to, className, page -> {
+            if (generation != filterGeneration) {
+                return; // Another filter was picked meanwhile
+            }
+            addPage(page, firstPage[0]);
+            firstPage[0] = false;
         });
+        // Only the pager of the current filter loads pages on scroll
+        if (pager != null) {
+            pager.detach(recyclerView);
+        }
+        pager = filterPager;
+        pager.attach(recyclerView);
+        pager.loadNext();
+    }
 
-        return view;
+    /**
+     * Adds a page of photos loaded from Firestore to the displayed list.
+     *
+     * @param page  The photos of the page, newest first.
+     * @param first True if it is the first page of its filter, which replaces the cached photos.
+     */
+    private void addPage(List<ChildPhoto> page, boolean first) {
+        Log.d("PhotosFragment", "Photos loaded: " + page.size());
+        if (first) {
+            adapter.updateList(page);
+        } else {
+            int start = photosList.size();
+            photosList.addAll(page);
+            adapter.notifyItemRangeInserted(start, page.size());
+        }
     }
 }
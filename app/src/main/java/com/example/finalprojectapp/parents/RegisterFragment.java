@@ -19,9 +19,11 @@ import androidx.fragment.app.FragmentTransaction;
 
 import com.example.finalprojectapp.LoginFragment;
 import com.example.finalprojectapp.R;
+import com.example.finalprojectapp.database.FireBaseManager;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 import Objects.Parent;
 
@@ -139,9 +141,11 @@ public class RegisterFragment extends Fragment {
      * @param parent The Parent object containing the user's information.
      */
     private void saveUserToFirestore(FirebaseUser user, Parent parent) {
-        db.collection("Parents")
-                .document(user.getUid())
-                .set(parent)
+        // Save the profile and the role index entry together so login can resolve the role with one read
+        WriteBatch batch = db.batch();
+        batch.set(db.collection("Parents").document(user.getUid()), parent);
+        batch.set(db.collection("userRoles").document(user.getUid()), FireBaseManager.userRoleEntry("Parent", parent.getName()));
+        batch.commit()
                 .addOnSuccessListener(documentReference ->
                         Toast.makeText(getActivity(), "Registration successful", Toast.LENGTH_SHORT).show())
                 .addOnFailureListener(e ->
@@ -26,6 +26,7 @@ public class SearchGardenFragment extends Fragment {
     private Spinner organizationSpinner; // Spinner for selecting organizational affiliation
     private EditText ageEditText; // EditText for inputting the child's age
     private Button searchButton; // Button to trigger the search
+    private FireBaseManager fireBaseManager; // Firebase manager for database operations
 
     public SearchGardenFragment() {
         // Required empty public constructor
@@ -43,7 +44,7 @@ public class SearchGardenFragment extends Fragment {
         searchButton = view.findViewById(R.id.searchButton);
 
         // Initialize FireBaseManager to fetch organizational affiliations
-        FireBaseManager fireBaseManager = new FireBaseManager(getContext());
+        fireBaseManager = new FireBaseManager(getContext());
         fireBaseManager.getOrganizationalAffiliations(affiliations -> {
             if (affiliations != null && !affiliations.isEmpty()) {
                 affiliations.add(0, ""); // Add an empty option at the start of the list
@@ -82,4 +83,17 @@ public class SearchGardenFragment extends Fragment {
 
         return view;
     }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        // Bring the local search index up to date while the user types the search criteria
+        fireBaseManager.startGardenSearchSync();
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        fireBaseManager.stopGardenSearchSync();
+    }
 }
@@ -45,6 +45,20 @@ public class SearchResultsFragment extends Fragment {
             organization = getArguments().getString("organization", ""); // Default to empty string if not provided
             age = getArguments().getString("age", ""); // Default to empty string if not provided
         }
+        fireBaseManager = new FireBaseManager(getContext());
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        // Keep the local search index in sync while the results are shown
+        fireBaseManager.startGardenSearchSync();
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        fireBaseManager.stopGardenSearchSync();
     }
 
     @Nullable
@@ -60,7 +74,6 @@ public class SearchResultsFragment extends Fragment {
         recyclerView.setAdapter(gardenAdapter); // Set the adapter for the RecyclerView
 
         // Fetch user type and update the adapter accordingly
-        fireBaseManager = new FireBaseManager(getContext());
         fireBaseManager.getUserType(userType -> {
             if (userType != null) {
                 gardenAdapter = new GardenAdapter(gardenList, getActivity(), userType); // Update the adapter with the correct userType
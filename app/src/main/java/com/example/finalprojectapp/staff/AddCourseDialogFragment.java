@@ -74,7 +74,7 @@ public class AddCourseDialogFragment extends DialogFragment {
                 public void onCallback(String gartenId) {
                     if (gartenId != null) {
                         dismiss(); // Close the dialog
-                        parentFragment.loadStaffInGarten(); // Reload the staff list in the parent fragment
+                        parentFragment.onStaffChanged(staff); // Redraw the staff member in the parent fragment
                     } else {
                         Snackbar.make(getView(), "Failed to add course", Snackbar.LENGTH_SHORT).show();
                     }
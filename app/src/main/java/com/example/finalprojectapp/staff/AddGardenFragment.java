@@ -3,8 +3,6 @@ package com.example.finalprojectapp.staff;
 import android.app.Activity;
 import android.app.TimePickerDialog;
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.view.LayoutInflater;
@@ -27,19 +25,23 @@ import androidx.fragment.app.Fragment;
 
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.database.FireBaseManager;
+import com.example.finalprojectapp.database.PhotoPipeline;
 import com.google.android.material.snackbar.Snackbar;
+import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.UploadTask;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.File;
 import java.util.Calendar;
 
 import Objects.Garden;
 
 public class AddGardenFragment extends Fragment {
 
+    // Cover images are shown at card size, so they are uploaded at most this large
+    private static final int COVER_MAX_DIMENSION = 1280;
+    private static final int COVER_QUALITY = 85;
+
     private EditText nameField, addressField, cityField, phoneNumberField;
     private Button openTimeButton, closeTimeButton, uploadImageButton, addButton;
     private TextView openTimeTextView, closeTimeTextView;
@@ -47,7 +49,6 @@ public class AddGardenFragment extends Fragment {
     private FireBaseManager fireBaseManager;
     private String openTime, closeTime;
     private Uri imageUri;
-    private Bitmap bitmap;
     private Garden gardenToEdit;
 
     public AddGardenFragment() {
@@ -138,7 +139,7 @@ public class AddGardenFragment extends Fragment {
             String organizationalAffiliation = organizationalAffiliationSpinner.getSelectedItem().toString();
 
             // Validate input fields
-            if (name.isEmpty() || address.isEmpty() || city.isEmpty() || phoneNumber.isEmpty() || openTime == null || closeTime == null || (bitmap == null && gardenToEdit == null)) {
+            if (name.isEmpty() || address.isEmpty() || city.isEmpty() || phoneNumber.isEmpty() || openTime == null || closeTime == null || (imageUri == null && gardenToEdit == null)) {
                 Toast.makeText(getActivity(), "Please fill all fields and upload an image", Toast.LENGTH_SHORT).show();
             } else {
                 if (gardenToEdit != null) {
@@ -235,14 +236,9 @@ public class AddGardenFragment extends Fragment {
                 @Override
                 public void onActivityResult(ActivityResult result) {
                     if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
+                        // The image is decoded and encoded in the background when it is uploaded
                         imageUri = result.getData().getData();
-                        try {
-                            InputStream imageStream = getContext().getContentResolver().openInputStream(imageUri);
-                            bitmap = BitmapFactory.decodeStream(imageStream);
-                            showSnackbar(getActivity().findViewById(android.R.id.content), "Image selected successfully");
-                        } catch (Exception e) {
-                            showSnackbar(getActivity().findViewById(android.R.id.content), "Image selection failed");
-                        }
+                        showSnackbar(getActivity().findViewById(android.R.id.content), "Image selected successfully");
                     } else {
                         showSnackbar(getActivity().findViewById(android.R.id.content), "Image selection failed");
                     }
@@ -261,28 +257,29 @@ public class AddGardenFragment extends Fragment {
      * @param organizationalAffiliation The organizational affiliation of the kindergarten.
      */
     private void uploadImageAndSaveData(String name, String address, String city, String phoneNumber, String openTime, String closeTime, String organizationalAffiliation) {
-        if (bitmap != null) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 100, baos);
-            byte[] data = baos.toByteArray();
-
+        if (imageUri != null) {
             FirebaseStorage storage = FirebaseStorage.getInstance();
             StorageReference storageRef = storage.getReference();
             final String imageName = System.currentTimeMillis() + ".jpg";
             StorageReference imageRef = storageRef.child(imageName);
-
-            UploadTask uploadTask = imageRef.putBytes(data);
-            uploadTask.addOnFailureListener(e -> {
-                e.printStackTrace();
-                Toast.makeText(getActivity(), "Failed to upload image: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-            }).addOnSuccessListener(taskSnapshot -> imageRef.getDownloadUrl().addOnSuccessListener(uri -> {
-                String imageUrl = uri.toString();
-                saveKinderGartenData(name, address, city, phoneNumber, openTime, closeTime, organizationalAffiliation, imageUrl);
-                Toast.makeText(getActivity(), "Image uploaded successfully", Toast.LENGTH_LONG).show();
-            }).addOnFailureListener(e -> {
-                e.printStackTrace();
-                Toast.makeText(getActivity(), "Failed to get download URL: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-            }));
+            StorageMetadata metadata = new StorageMetadata.Builder().setContentType("image/jpeg").build();
+
+            // Decode a subsampled copy off the main thread, encode it to a temporary file and upload that file as a stream
+            File coverFile = new File(requireContext().getCacheDir(), imageName);
+            new PhotoPipeline(COVER_MAX_DIMENSION, COVER_QUALITY)
+                    .encodeToFileAsync(requireContext().getContentResolver(), imageUri, coverFile)
+                    .onSuccessTask(file -> imageRef.putFile(Uri.fromFile(file), metadata))
+                    .onSuccessTask(taskSnapshot -> imageRef.getDownloadUrl())
+                    .addOnCompleteListener(task -> coverFile.delete())
+                    .addOnSuccessListener(uri -> {
+                        String imageUrl = uri.toString();
+                        saveKinderGartenData(name, address, city, phoneNumber, openTime, closeTime, organizationalAffiliation, imageUrl);
+                        Toast.makeText(getActivity(), "Image uploaded successfully", Toast.LENGTH_LONG).show();
+                    })
+                    .addOnFailureListener(e -> {
+                        e.printStackTrace();
+                        Toast.makeText(getActivity(), "Failed to upload image: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    });
         } else {
             Toast.makeText(getActivity(), "No file selected", Toast.LENGTH_SHORT).show();
         }
@@ -14,10 +14,13 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.database.FireBaseManager;
+import com.google.android.material.snackbar.Snackbar;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import Adapters.GardenClassAdapter;
@@ -36,6 +39,8 @@ public class ClasssForGardenFragment extends Fragment {
     private List<GardenClass> classList; // List of classes to be displayed
     private FireBaseManager fireBaseManager; // Firebase manager for data operations
     private boolean isAscending = true; // Tracks the current sorting order
+    private Comparator<GardenClass> childCountOrder; // The chosen sorting order, kept for live updates
+    private ListenerRegistration classesListener; // Live listener on the classes, attached while the fragment is started
 
     // Required empty public constructor
     public ClasssForGardenFragment() {}
@@ -100,31 +105,71 @@ public class ClasssForGardenFragment extends Fragment {
         if (childClasses != null) {
             // Load the provided list of child classes
             loadChildClasses(childClasses);
-        } else {
-            // Load all classes for the kindergarten
+        }
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        if (childClasses == null) {
+            // Listen to all classes of the kindergarten
             loadClasses();
         }
     }
 
+    @Override
+    public void onStop() {
+        super.onStop();
+        if (classesListener != null) {
+            classesListener.remove();
+            classesListener = null;
+        }
+    }
+
     /**
      * Sorts the classes by the number of children.
      * Toggles between ascending and descending order.
      */
     private void sortClassesByChildCount() {
-        Collections.sort(classList, (class1, class2) -> {
+        boolean ascending = isAscending;
+        childCountOrder = (class1, class2) -> {
             int childCount1 = class1.getChildren() != null ? class1.getChildren().size() : 0;
             int childCount2 = class2.getChildren() != null ? class2.getChildren().size() : 0;
-            return isAscending ? Integer.compare(childCount1, childCount2) : Integer.compare(childCount2, childCount1);
-        });
+            return ascending ? Integer.compare(childCount1, childCount2) : Integer.compare(childCount2, childCount1);
+        };
         isAscending = !isAscending; // Toggle the sorting order for the next sort
-        classAdapter.notifyDataSetChanged();
+        showClasses(classList);
     }
 
     /**
-     * Loads all classes for the specified kindergarten from Firebase.
+     * Listens to all classes of the specified kindergarten in Firebase.
+     * Every change is shown by updating only the affected rows.
      */
     private void loadClasses() {
-        fireBaseManager.loadClassesForGarten(gartenId, classList, classAdapter, getView());
+        if (classesListener != null) {
+            return;
+        }
+        classesListener = fireBaseManager.listenToClassesForGarten(gartenId, classes -> {
+            if (classes != null) {
+                showClasses(classes);
+            } else if (getView() != null) {
+                Snackbar.make(getView(), "Garden not found", Snackbar.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Displays the given classes in the chosen sorting order.
+     * The lists are diffed off the main thread, so only the changed rows are updated.
+     *
+     * @param classes The classes to display.
+     */
+    private void showClasses(List<GardenClass> classes) {
+        List<GardenClass> sortedClasses = new ArrayList<>(classes);
+        if (childCountOrder != null) {
+            Collections.sort(sortedClasses, childCountOrder);
+        }
+        classAdapter.submitClasses(sortedClasses);
     }
 
     /**
@@ -133,8 +178,6 @@ public class ClasssForGardenFragment extends Fragment {
      * @param childClasses The list of child classes to load.
      */
     private void loadChildClasses(List<GardenClass> childClasses) {
-        classList.clear();
-        classList.addAll(childClasses);
-        classAdapter.notifyDataSetChanged();
+        showClasses(childClasses);
     }
 }
@@ -8,11 +8,14 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.database.FireBaseManager;
+import com.google.android.material.snackbar.Snackbar;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -38,6 +41,9 @@ public class DirectorGardensFragment extends Fragment {
     // FireBaseManager instance for handling Firebase operations
     private FireBaseManager fireBaseManager;
 
+    // Live listener on the director's gardens, attached while the fragment is started
+    private ListenerRegistration gardensListener;
+
     /**
      * Default constructor for the fragment.
      * Initializes the garden list and FireBaseManager.
@@ -95,57 +101,81 @@ public class DirectorGardensFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
         recyclerView = view.findViewById(R.id.recyclerViewGardens);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        fetchUserTypeAndLoadGardens(view);
+        fetchUserTypeAndLoadGardens();
     }
 
     /**
      * Called when the fragment becomes visible to the user.
-     * Reloads the gardens to ensure the displayed data is up-to-date.
+     * Starts listening to the gardens, so changes made here or elsewhere are shown as they happen.
      */
     @Override
-    public void onResume() {
-        super.onResume();
-        View view = getView();
-        if (view != null) {
-            loadGardens(view);
-        }
+    public void onStart() {
+        super.onStart();
+        startListening();
+    }
+
+    /**
+     * Called when the fragment is no longer visible to the user.
+     * Stops listening to the gardens.
+     */
+    @Override
+    public void onStop() {
+        super.onStop();
+        stopListening();
     }
 
     /**
      * Fetches the user type from Firebase and initializes the garden adapter.
-     * Then, it loads the gardens into the RecyclerView.
-     *
-     * @param view The view from which the gardens should be loaded.
+     * Then, it starts listening to the gardens if the fragment is visible.
      */
-    private void fetchUserTypeAndLoadGardens(View view) {
+    private void fetchUserTypeAndLoadGardens() {
         fireBaseManager.getUserType(new FireBaseManager.UserTypeCallback() {
             @Override
             public void onCallback(String userType) {
                 gardenAdapter = new GardenAdapter(gardenList, getActivity(), userType);
                 recyclerView.setAdapter(gardenAdapter);
-                loadGardens(view);
+                if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+                    startListening();
+                }
             }
         });
     }
 
     /**
      * Updates the list of gardens displayed in the RecyclerView.
+     * The live listener is stopped so that the given list, e.g. a filter result, is not replaced by it;
+     * it is started again when the fragment becomes visible again.
      *
      * @param gardens The updated list of gardens to display.
      */
     public void updateGardenList(List<Garden> gardens) {
-        // Assumes you have a RecyclerView adapter that displays the gardens
-        gardenAdapter.updateGardens(gardens);
+        stopListening();
+        gardenAdapter.submitGardens(gardens);
     }
 
     /**
-     * Loads the gardens into the RecyclerView.
-     *
-     * @param view The view from which the gardens should be loaded.
+     * Starts listening to the director's gardens. Each reported list is diffed against the displayed one,
+     * so only the added, changed, moved or removed rows are updated.
+     */
+    private void startListening() {
+        if (gardenAdapter == null || gardensListener != null) {
+            return;
+        }
+        gardensListener = fireBaseManager.listenToDirectorGardens(gardens -> {
+            gardenAdapter.submitGardens(gardens);
+            if (gardens.isEmpty() && getView() != null) {
+                Snackbar.make(getView(), "No gardens found for this director", Snackbar.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Stops listening to the director's gardens.
      */
-    private void loadGardens(View view) {
-        if (gardenAdapter != null) {
-            fireBaseManager.loadGardens(gardenList, gardenAdapter, view);
+    private void stopListening() {
+        if (gardensListener != null) {
+            gardensListener.remove();
+            gardensListener = null;
         }
     }
 }
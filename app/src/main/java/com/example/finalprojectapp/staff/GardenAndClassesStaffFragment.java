@@ -72,7 +72,7 @@ public class GardenAndClassesStaffFragment extends Fragment {
      * @param staff The GardenStaff object representing the logged-in staff member.
      */
     private void loadApprovedChildren(String gardenName, GardenStaff staff) {
-        fireBaseManager.getApprovedChildrenByGarden(gardenName, children -> {
+        fireBaseManager.getApprovedChildrenByGardenWithCache(gardenName, children -> {
             if (children != null && !children.isEmpty()) {
                 // Initialize the adapter with the list of children and set it on the RecyclerView
                 childrenAdapter = new ChildrenAdapter(children, getContext(), staff);
@@ -19,6 +19,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.database.FireBaseManager;
 import com.google.android.material.snackbar.Snackbar;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,6 +47,7 @@ public class StaffListInGardenFragment extends Fragment implements StaffAdapter.
     private TextView roleLabel;
     private TextView gardenLabel;
     private TextView courseLabel;
+    private ListenerRegistration staffListener; // Live listener on the staff, attached while the fragment is started
 
     /**
      * Default constructor required for fragment subclasses.
@@ -109,7 +111,6 @@ public class StaffListInGardenFragment extends Fragment implements StaffAdapter.
         gardenLabel.setText("Garden");
         courseLabel.setText("Course");
 
-        loadStaffInGarten();
         loadFilters();
 
         // Set listeners to filter staff based on selection
@@ -145,29 +146,54 @@ public class StaffListInGardenFragment extends Fragment implements StaffAdapter.
         });
     }
 
+    @Override
+    public void onStart() {
+        super.onStart();
+        loadStaffInGarten();
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        if (staffListener != null) {
+            staffListener.remove();
+            staffListener = null;
+        }
+    }
+
     /**
-     * Loads the list of staff members in the garden from Firebase.
-     * The staff list is displayed in the RecyclerView.
+     * Listens to the staff members in the director's gardens in Firebase.
+     * Each change is filtered and displayed in the RecyclerView, updating only the affected rows.
      */
-    void loadStaffInGarten() {
-        fireBaseManager.getStaffInGarten(new FireBaseManager.StaffListCallback() {
+    private void loadStaffInGarten() {
+        if (staffListener != null) {
+            return;
+        }
+        staffListener = fireBaseManager.listenToStaffInGarten(new FireBaseManager.StaffListCallback() {
             @Override
             public void onCallback(List<GardenStaff> staffList) {
                 if (staffList != null) {
-                    StaffListInGardenFragment.this.staffList.clear();
-                    StaffListInGardenFragment.this.staffList.addAll(staffList);
                     originalStaffList.clear();
                     originalStaffList.addAll(staffList); // Save the original list
-                    staffAdapter.notifyDataSetChanged();
-                    // Display all staff by default
-                    staffAdapter.updateList(new ArrayList<>(originalStaffList));
-                } else {
+                    // Keep the selected filters applied to the new list
+                    filterStaff();
+                } else if (getView() != null) {
                     Snackbar.make(getView(), "Failed to load staff", Snackbar.LENGTH_SHORT).show();
                 }
             }
         });
     }
 
+    /**
+     * Redraws a staff member changed by a dialog.
+     * The saved change also reaches the list through the live listener.
+     *
+     * @param staff The changed staff member.
+     */
+    void onStaffChanged(GardenStaff staff) {
+        staffAdapter.refresh(staff);
+    }
+
     /**
      * Loads the available filters for role, garden, and course.
      * This method sets up the spinners for filtering staff.
@@ -309,9 +335,9 @@ public class StaffListInGardenFragment extends Fragment implements StaffAdapter.
                         @Override
                         public void onCallback(String gartenId) {
                             if (gartenId != null) {
-                                staffAdapter.notifyDataSetChanged();
+                                // The live listener removes the staff member from the list
+                                staffAdapter.refresh(staff);
                                 Snackbar.make(getView(), "Garden removed successfully", Snackbar.LENGTH_SHORT).show();
-                                loadStaffInGarten(); // Refresh the list after removal
                             } else {
                                 Snackbar.make(getView(), "Failed to remove garden", Snackbar.LENGTH_SHORT).show();
                             }
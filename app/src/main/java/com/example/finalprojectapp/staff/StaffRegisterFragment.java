@@ -21,9 +21,11 @@ import androidx.fragment.app.FragmentTransaction;
 import com.example.finalprojectapp.LoginFragment;
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.database.DatabaseHelper;
+import com.example.finalprojectapp.database.FireBaseManager;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -191,49 +193,41 @@ public class StaffRegisterFragment extends Fragment {
         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
         Date startDate = sdf.parse(date);
 
-        DatabaseHelper databaseHelper = new DatabaseHelper(getActivity());
+        DatabaseHelper databaseHelper = DatabaseHelper.getInstance(getActivity());
 
+        String collection;
+        String sessionRole;
+        Object profile;
         if (roleTeacher.isChecked() || roleAssistant.isChecked()) {
             StaffRole role = roleTeacher.isChecked() ? StaffRole.KINDERGARTEN_TEACHER : StaffRole.ASSISTANT;
-            GardenStaff staff = new GardenStaff(email, password, name, role.toString(), startDate);
-            db.collection("staff")
-                    .document(user.getUid())
-                    .set(staff)
-                    .addOnSuccessListener(aVoid -> {
-                        databaseHelper.addUser(user.getUid(), name, email, password);
-                        Toast.makeText(getActivity(), "Registration successful", Toast.LENGTH_SHORT).show();
-                        if (isAdded()) {
-                            loadLoginFragment();
-                        }
-                    })
-                    .addOnFailureListener(e -> Toast.makeText(getActivity(), "Failed to save user data", Toast.LENGTH_SHORT).show());
+            collection = "staff";
+            sessionRole = "KINDER_GARTEN_STAFF";
+            profile = new GardenStaff(email, password, name, role.toString(), startDate);
         } else if (roleManager.isChecked()) {
-            GardenDirector director = new GardenDirector(email, password, name, StaffRole.KINDER_GARTEN_DIRECTOR.toString(), startDate);
-            db.collection("directors")
-                    .document(user.getUid())
-                    .set(director)
-                    .addOnSuccessListener(aVoid -> {
-                        databaseHelper.addUser(user.getUid(), name, email, password);
-                        Toast.makeText(getActivity(), "Registration successful", Toast.LENGTH_SHORT).show();
-                        if (isAdded()) {
-                            loadLoginFragment();
-                        }
-                    })
-                    .addOnFailureListener(e -> Toast.makeText(getActivity(), "Failed to save user data", Toast.LENGTH_SHORT).show());
+            collection = "directors";
+            sessionRole = "KINDER_GARTEN_DIRECTOR";
+            profile = new GardenDirector(email, password, name, StaffRole.KINDER_GARTEN_DIRECTOR.toString(), startDate);
         } else if (roleSystemAdmin.isChecked()) {
-            SystemAdministrator admin = new SystemAdministrator(email, password, name, StaffRole.SYSTEM_ADMINISTRATOR.toString());
-            db.collection("systemAdministrators")
-                    .document(user.getUid())
-                    .set(admin)
-                    .addOnSuccessListener(aVoid -> {
-                        databaseHelper.addUser(user.getUid(), name, email, password);
-                        Toast.makeText(getActivity(), "Registration successful", Toast.LENGTH_SHORT).show();
-                        if (isAdded()) {
-                            loadLoginFragment();
-                        }
-                    })
-                    .addOnFailureListener(e -> Toast.makeText(getActivity(), "Failed to save user data", Toast.LENGTH_SHORT).show());
+            collection = "systemAdministrators";
+            sessionRole = "SYSTEM_ADMINISTRATOR";
+            profile = new SystemAdministrator(email, password, name, StaffRole.SYSTEM_ADMINISTRATOR.toString());
+        } else {
+            return;
         }
+
+        // Save the profile and the role index entry together so login can resolve the role with one read
+        WriteBatch batch = db.batch();
+        batch.set(db.collection(collection).document(user.getUid()), profile);
+        batch.set(db.collection("userRoles").document(user.getUid()), FireBaseManager.userRoleEntry(sessionRole, name));
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    databaseHelper.addUser(user.getUid(), name, email, password);
+                    Toast.makeText(getActivity(), "Registration successful", Toast.LENGTH_SHORT).show();
+                    if (isAdded()) {
+                        loadLoginFragment();
+                    }
+                })
+                .addOnFailureListener(e -> Toast.makeText(getActivity(), "Failed to save user data", Toast.LENGTH_SHORT).show());
     }
 
     /**
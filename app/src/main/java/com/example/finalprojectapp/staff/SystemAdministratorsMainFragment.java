@@ -12,6 +12,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.UserSessionManager;
 import com.example.finalprojectapp.database.FireBaseManager;
+import com.example.finalprojectapp.database.GardenCatalogPager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,7 +23,7 @@ import Objects.Garden;
 /**
  * SystemAdministratorsMainFragment is a fragment that displays a list of all gardens.
  * This fragment is specifically designed for system administrators who have the role "SYSTEM_ADMINISTRATOR".
- * It uses a RecyclerView to show the gardens and loads the data from Firebase using FireBaseManager.
+ * It uses a RecyclerView to show the gardens and loads them from Firebase page by page using GardenCatalogPager.
  */
 public class SystemAdministratorsMainFragment extends Fragment {
 
@@ -30,6 +31,7 @@ public class SystemAdministratorsMainFragment extends Fragment {
     private GardenAdapter gardenAdapter;
     private FireBaseManager fireBaseManager;
     private List<Garden> gardenList;
+    private GardenCatalogPager gardenPager;
 
     /**
      * Called to create the view hierarchy associated with the fragment.
@@ -58,24 +60,13 @@ public class SystemAdministratorsMainFragment extends Fragment {
         if (userRole != null && userRole.equals("SYSTEM_ADMINISTRATOR")) {
             gardenAdapter = new GardenAdapter(gardenList, getContext(), userRole);
             recyclerView.setAdapter(gardenAdapter);
-            loadGardens();
+
+            gardenPager = new GardenCatalogPager(fireBaseManager, gardenList, gardenAdapter);
+            gardenPager.attach(recyclerView);
+            gardenPager.loadNext();
         } else {
             return null;
         }
         return view;
     }
-
-    /**
-     * Loads the list of all gardens from Firebase and updates the RecyclerView with the data.
-     * This method is only called if the user is a system administrator.
-     */
-    private void loadGardens() {
-        fireBaseManager.getAllGardens(gardens -> {
-            if (gardens != null) {
-                gardenList.clear();
-                gardenList.addAll(gardens);
-                gardenAdapter.notifyDataSetChanged();
-            }
-        });
-    }
 }
@@ -81,7 +81,7 @@ public class UpdateGardenDialogFragment extends DialogFragment {
                             fireBaseManager.updateKinderGartenStaff(staff, updatedGartenId -> {
                                 if (updatedGartenId != null) {
                                     dismiss();
-                                    parentFragment.loadStaffInGarten();  // Refresh the staff list in the parent fragment.
+                                    parentFragment.onStaffChanged(staff); // Redraw the staff member in the parent fragment
                                 } else {
                                     Snackbar.make(getView(), "Failed to update staff with garden", Snackbar.LENGTH_SHORT).show();
                                 }
@@ -3,13 +3,14 @@ package com.example.finalprojectapp.staff;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.app.AlertDialog;
+import android.content.ClipData;
+import android.content.Context;
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Environment;
 import android.provider.MediaStore;
+import android.text.format.Formatter;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -27,34 +28,39 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.Nullable;
 import androidx.core.content.FileProvider;
 import androidx.fragment.app.Fragment;
+import androidx.work.Data;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 
 import com.example.finalprojectapp.R;
+import com.example.finalprojectapp.database.DatabaseHelper;
 import com.example.finalprojectapp.database.FireBaseManager;
+import com.example.finalprojectapp.database.PhotoUploadWorker;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.database.collection.BuildConfig;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 import Objects.Child;
-import Objects.ChildPhoto;
 
 /**
- * UploadImageFragment is a fragment that allows users to upload an image for a specific child.
- * Users can select the image from either the camera or the gallery, and then save the image to Firebase Storage.
+ * UploadImageFragment is a fragment that allows users to upload images for a specific child.
+ * Users can take a photo with the camera or select several images from the gallery, and then queue them
+ * for upload to Firebase Storage. The upload queue keeps going after the fragment is closed,
+ * and the fragment shows how many photos are waiting and how fast they are being uploaded.
  */
 public class UploadImageFragment extends Fragment {
 
     private static final String ARG_CHILD = "child";
     private Child selectedChild;
-    private Uri imageUri;
-    private Bitmap bitmap;
+    private final List<Uri> imageUris = new ArrayList<>();
+    private Uri cameraImageUri;
 
     /**
      * Creates a new instance of UploadImageFragment with the specified child.
@@ -140,6 +146,11 @@ public class UploadImageFragment extends Fragment {
         Button saveButton = view.findViewById(R.id.buttonSaveImage);
         saveButton.setOnClickListener(v -> saveImageToCollection());
 
+        TextView textViewUploadQueue = view.findViewById(R.id.textViewUploadQueue);
+        WorkManager.getInstance(requireContext())
+                .getWorkInfosForUniqueWorkLiveData(PhotoUploadWorker.WORK_NAME)
+                .observe(getViewLifecycleOwner(), workInfos -> showUploadQueue(textViewUploadQueue, workInfos));
+
         return view;
     }
 
@@ -165,8 +176,9 @@ public class UploadImageFragment extends Fragment {
             new ActivityResultContracts.StartActivityForResult(),
             result -> {
                 if (result.getResultCode() == getActivity().RESULT_OK) {
-                    if (imageUri != null) {
-                        Log.d("CameraResult", "Image saved at: " + imageUri.toString());
+                    if (cameraImageUri != null) {
+                        imageUris.add(cameraImageUri);
+                        Log.d("CameraResult", "Image saved at: " + cameraImageUri.toString());
                     } else {
                         Log.e("CameraError", "Image URI is null");
                     }
@@ -181,14 +193,16 @@ public class UploadImageFragment extends Fragment {
                 @Override
                 public void onActivityResult(ActivityResult result) {
                     if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
-                        imageUri = result.getData().getData();
-                        try {
-                            InputStream imageStream = getContext().getContentResolver().openInputStream(imageUri);
-                            bitmap = BitmapFactory.decodeStream(imageStream);
-                            showSnackbar(getActivity().findViewById(android.R.id.content), "Image selected successfully");
-                        } catch (Exception e) {
-                            showSnackbar(getActivity().findViewById(android.R.id.content), "Image selection failed");
+                        // The images are decoded, scaled down and re-encoded off the main thread when they are saved
+                        ClipData clipData = result.getData().getClipData();
+                        if (clipData != null) {
+                            for (int i = 0; i < clipData.getItemCount(); i++) {
+                                imageUris.add(clipData.getItemAt(i).getUri());
+                            }
+                        } else if (result.getData().getData() != null) {
+                            imageUris.add(result.getData().getData());
                         }
+                        showSnackbar(getActivity().findViewById(android.R.id.content), imageUris.size() + " images selected");
                     } else {
                         showSnackbar(getActivity().findViewById(android.R.id.content), "Image selection failed");
                     }
@@ -207,8 +221,8 @@ public class UploadImageFragment extends Fragment {
             }
 
             if (photoFile != null) {
-                imageUri = FileProvider.getUriForFile(getContext(), BuildConfig.APPLICATION_ID + ".fileprovider", photoFile);
-                cameraIntent.putExtra(MediaStore.EXTRA_OUTPUT, imageUri);
+                cameraImageUri = FileProvider.getUriForFile(getContext(), BuildConfig.APPLICATION_ID + ".fileprovider", photoFile);
+                cameraIntent.putExtra(MediaStore.EXTRA_OUTPUT, cameraImageUri);
                 cameraLauncher.launch(cameraIntent);
             } else {
                 Log.e("CameraError", "Photo file is null");
@@ -232,29 +246,59 @@ public class UploadImageFragment extends Fragment {
     private void openGallery() {
         Intent intent = new Intent();
         intent.setType("image/*");
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
         intent.setAction(Intent.ACTION_GET_CONTENT);
         galleryLauncher.launch(intent);
     }
 
     /**
-     * Saves the selected image to Firebase Storage and associates it with the selected child.
-     * The image is saved with the details of the child and class in the Firebase Firestore.
+     * Queues the selected images for upload to Firebase Storage, associated with the selected child.
+     * Each image is saved with the details of the child and class in the Firebase Firestore once its upload completes.
      */
     private void saveImageToCollection() {
-        if (imageUri != null && selectedChild != null) {
+        if (!imageUris.isEmpty() && selectedChild != null) {
             String selectedClass = ((Spinner) getView().findViewById(R.id.spinnerClasses)).getSelectedItem().toString();
             Date currentTime = new Date();
-
-            // Create a ChildPhoto object with the image URL, class name, current time, and child ID
-            ChildPhoto newPhoto = new ChildPhoto(null, selectedClass, currentTime, selectedChild.getID());
-
-            FireBaseManager.saveChildPhoto(newPhoto, imageUri,
-                    unused -> Toast.makeText(getActivity(), "ChildPhoto saved successfully", Toast.LENGTH_SHORT).show(),
-                    e -> Toast.makeText(getActivity(), "Failed to save ChildPhoto: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+            // Queuing continues after the fragment is closed, so failures are reported with the application context
+            Context appContext = requireContext().getApplicationContext();
+
+            for (Uri imageUri : imageUris) {
+                PhotoUploadWorker.enqueue(appContext, imageUri, selectedChild.getID(), selectedClass, currentTime)
+                        .addOnFailureListener(e -> {
+                            Log.e("SaveImage", "Failed to queue image " + imageUri, e);
+                            Toast.makeText(appContext, "Failed to save ChildPhoto: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                        });
+            }
+            Toast.makeText(getActivity(), imageUris.size() + " photos queued for upload", Toast.LENGTH_SHORT).show();
+            imageUris.clear();
 
         } else {
             Log.e("SaveImage", "Image URI or selectedChild is null");
             Toast.makeText(getActivity(), "No image or child selected", Toast.LENGTH_SHORT).show();
         }
     }
+
+    /**
+     * Shows how many photos are waiting in the upload queue and, while the upload job runs, its throughput.
+     *
+     * @param textView  The text view to show the queue in.
+     * @param workInfos The state of the upload jobs.
+     */
+    private void showUploadQueue(TextView textView, List<WorkInfo> workInfos) {
+        int queued = DatabaseHelper.getInstance(requireContext()).getPhotoUploadCount();
+        if (queued == 0) {
+            textView.setText("All photos uploaded");
+            return;
+        }
+        for (WorkInfo workInfo : workInfos) {
+            if (workInfo.getState() == WorkInfo.State.RUNNING) {
+                Data progress = workInfo.getProgress();
+                long bytesPerSecond = progress.getLong(PhotoUploadWorker.PROGRESS_BYTES_PER_SECOND, 0);
+                textView.setText(queued + " photos uploading, " + progress.getInt(PhotoUploadWorker.PROGRESS_UPLOADED, 0)
+                        + " done (" + Formatter.formatShortFileSize(requireContext(), bytesPerSecond) + "/s)");
+                return;
+            }
+        }
+        textView.setText(queued + " photos waiting for a connection");
+    }
 }
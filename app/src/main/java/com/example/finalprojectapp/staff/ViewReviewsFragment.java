@@ -6,6 +6,7 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -16,6 +17,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.finalprojectapp.R;
 import com.example.finalprojectapp.UserSessionManager;
 import com.example.finalprojectapp.database.FireBaseManager;
+import com.google.firebase.firestore.DocumentSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,11 +31,22 @@ import Objects.Review;
  */
 public class ViewReviewsFragment extends Fragment {
 
+    // Number of reviews loaded per page, and how close to the end of the list the next page is requested
+    private static final int PAGE_SIZE = 20;
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     // UI components
     private RecyclerView recyclerView;
+    private TextView ratingDistributionTextView;
     private ReviewsAdapter reviewsAdapter;
     private FireBaseManager fireBaseManager;
     private String gartenName;
+    private String parentEmail;
+
+    // Paging state
+    private DocumentSnapshot lastVisible;
+    private boolean isLoading;
+    private boolean hasMore = true;
 
     /**
      * Called to create the view hierarchy associated with the fragment.
@@ -52,6 +65,17 @@ public class ViewReviewsFragment extends Fragment {
         // Initialize RecyclerView and set its layout manager
         recyclerView = view.findViewById(R.id.recyclerViewReviews);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        ratingDistributionTextView = view.findViewById(R.id.textViewRatingDistribution);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (dy > 0 && layoutManager != null
+                        && layoutManager.findLastVisibleItemPosition() >= reviewsAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadNextPage();
+                }
+            }
+        });
 
         // Initialize FireBaseManager
         fireBaseManager = new FireBaseManager(getContext());
@@ -62,8 +86,11 @@ public class ViewReviewsFragment extends Fragment {
 
         // Load reviews based on the user's role
         if (userRole.equals("Parent")) {
-            String parentEmail = sessionManager.getUserEmail(); // Assuming there's a method to get the user's email
-            loadParentReviews(parentEmail);
+            parentEmail = sessionManager.getUserEmail(); // Assuming there's a method to get the user's email
+            reviewsAdapter = new ReviewsAdapter(new ArrayList<>(), fireBaseManager, null);
+            recyclerView.setAdapter(reviewsAdapter);
+
+            loadNextPage();
         } else {
             if (getArguments() != null) {
                 gartenName = getArguments().getString("gartenName");
@@ -72,43 +99,67 @@ public class ViewReviewsFragment extends Fragment {
             reviewsAdapter = new ReviewsAdapter(new ArrayList<>(), fireBaseManager, gartenName);
             recyclerView.setAdapter(reviewsAdapter);
 
-            loadReviews();
+            loadNextPage();
+            loadRatingDistribution();
         }
 
         return view;
     }
 
     /**
-     * Loads reviews for the specified kindergarten and updates the RecyclerView adapter with the data.
+     * Loads the next page of reviews, for the parent or for the specified kindergarten, and appends it to the RecyclerView adapter.
      */
-    private void loadReviews() {
-        fireBaseManager.getReviewsForGarten(gartenName, reviews -> {
-            if (reviews != null && !reviews.isEmpty()) {
-                reviewsAdapter.setReviews(reviews);
-            } else {
-                Log.d("ViewReviewsFragment", "No reviews found or failed to load reviews.");
-                reviewsAdapter.setReviews(new ArrayList<>());
+    private void loadNextPage() {
+        if (isLoading || !hasMore) {
+            return;
+        }
+        isLoading = true;
+
+        FireBaseManager.ReviewPageCallback callback = (reviews, nextCursor) -> {
+            isLoading = false;
+            if (reviews == null) {
+                Log.d("ViewReviewsFragment", "Failed to load reviews.");
+                return;
             }
-            reviewsAdapter.notifyDataSetChanged();
-        });
+            lastVisible = nextCursor;
+            hasMore = nextCursor != null;
+            reviewsAdapter.addReviews(reviews);
+        };
+
+        if (parentEmail != null) {
+            fireBaseManager.getReviewsForParent(parentEmail, lastVisible, PAGE_SIZE, callback);
+        } else {
+            fireBaseManager.getReviewsForGarten(gartenName, lastVisible, PAGE_SIZE, callback);
+        }
     }
 
     /**
-     * Loads reviews associated with the specified parent's email and updates the RecyclerView adapter with the data.
-     *
-     * @param parentEmail The email of the parent whose reviews are to be loaded.
+     * Loads the stored rating histogram of the kindergarten and shows its percentiles and distribution.
      */
-    private void loadParentReviews(String parentEmail) {
-        reviewsAdapter = new ReviewsAdapter(new ArrayList<>(), fireBaseManager, null);
-        recyclerView.setAdapter(reviewsAdapter);
-        fireBaseManager.getReviewsForParent(parentEmail, reviews -> {
-            if (reviews != null && !reviews.isEmpty()) {
-                reviewsAdapter.setReviews(reviews);
-            } else {
-                Log.d("ViewReviewsFragment", "No reviews found for parent or failed to load reviews.");
-                reviewsAdapter.setReviews(new ArrayList<>());
+    private void loadRatingDistribution() {
+        fireBaseManager.getGardenByName(gartenName, garden -> {
+            if (garden == null || garden.getRatingCount() == 0) {
+                ratingDistributionTextView.setVisibility(View.GONE);
+                return;
+            }
+
+            StringBuilder distribution = new StringBuilder();
+            for (int rating = 1; rating <= 10; rating++) {
+                Integer count = garden.getRatingHistogram() != null ? garden.getRatingHistogram().get(String.valueOf(rating)) : null;
+                distribution.append(rating).append(": ").append(count != null ? count : 0);
+                if (rating < 10) {
+                    distribution.append("  ");
+                }
             }
-            reviewsAdapter.notifyDataSetChanged();
+
+            String summary = String.format("Reviews: %d, Score: %.0f%%, Median: %d, 90th percentile: %d\n%s",
+                    garden.getRatingCount(),
+                    garden.getRatingPercent(),
+                    garden.ratingAtPercentile(50),
+                    garden.ratingAtPercentile(90),
+                    distribution);
+            ratingDistributionTextView.setText(summary);
+            ratingDistributionTextView.setVisibility(View.VISIBLE);
         });
     }
 }
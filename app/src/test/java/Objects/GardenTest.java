@@ -0,0 +1,67 @@
+package Objects;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the rating percentiles of a garden.
+ */
+public class GardenTest {
+
+    @Test
+    public void ratingAtPercentile_walksTheHistogramInRatingOrder() {
+        // Two 3s, five 7s and three 10s
+        Garden garden = garden(3, 2, 7, 5, 10, 3);
+
+        assertEquals(3, garden.ratingAtPercentile(10));
+        assertEquals(3, garden.ratingAtPercentile(20));
+        assertEquals(7, garden.ratingAtPercentile(21));
+        assertEquals(7, garden.ratingAtPercentile(50));
+        assertEquals(7, garden.ratingAtPercentile(70));
+        assertEquals(10, garden.ratingAtPercentile(71));
+        assertEquals(10, garden.ratingAtPercentile(100));
+    }
+
+    @Test
+    public void ratingAtPercentile_returnsTheLowestRatingAtZero() {
+        assertEquals(4, garden(4, 1, 9, 1).ratingAtPercentile(0));
+    }
+
+    @Test
+    public void ratingAtPercentile_returnsZeroWithoutRatings() {
+        assertEquals(0, new Garden().ratingAtPercentile(50));
+        assertEquals(0, garden().ratingAtPercentile(50));
+    }
+
+    @Test
+    public void ratingAtPercentile_capsAtTenWhenTheHistogramIsShort() {
+        Garden garden = garden(5, 1);
+        garden.setRatingCount(3); // The histogram is missing two ratings
+
+        assertEquals(5, garden.ratingAtPercentile(30));
+        assertEquals(10, garden.ratingAtPercentile(90));
+    }
+
+    /**
+     * Creates a garden with a rating histogram.
+     *
+     * @param ratingsAndCounts Pairs of a rating and the number of reviews with that rating.
+     * @return The garden.
+     */
+    private static Garden garden(int... ratingsAndCounts) {
+        Map<String, Integer> histogram = new HashMap<>();
+        int count = 0;
+        for (int i = 0; i < ratingsAndCounts.length; i += 2) {
+            histogram.put(String.valueOf(ratingsAndCounts[i]), ratingsAndCounts[i + 1]);
+            count += ratingsAndCounts[i + 1];
+        }
+        Garden garden = new Garden();
+        garden.setRatingHistogram(histogram);
+        garden.setRatingCount(count);
+        return garden;
+    }
+}
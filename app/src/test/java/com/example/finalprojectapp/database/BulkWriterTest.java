@@ -0,0 +1,106 @@
+package com.example.finalprojectapp.database;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the way BulkWriter commits its batches and aggregates their results,
+ * with a fake committer standing in for Firestore.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BulkWriterTest {
+
+    @Test
+    public void commit_reportsEveryWriteOfTheSuccessfulBatches() {
+        List<Integer> batchSizes = new ArrayList<>();
+        BulkWriter writer = writer(1201, (operations, callback) -> {
+            batchSizes.add(operations.size());
+            callback.onComplete(null);
+        });
+
+        Result result = commit(writer);
+
+        assertEquals(Arrays.asList(500, 500, 201), batchSizes);
+        assertEquals(1201, result.succeeded);
+        assertTrue(result.failedIds.isEmpty());
+    }
+
+    @Test
+    public void commit_reportsTheDocumentsOfAFailedBatch() {
+        int[] batch = {0};
+        BulkWriter writer = writer(1201, (operations, callback) ->
+                callback.onComplete(batch[0]++ == 1 ? new Exception("Batch rejected") : null));
+
+        Result result = commit(writer);
+
+        assertEquals(701, result.succeeded);
+        assertEquals(500, result.failedIds.size());
+        assertEquals("doc500", result.failedIds.get(0));
+        assertEquals("doc999", result.failedIds.get(499));
+    }
+
+    @Test
+    public void commit_runsAtMostThreeBatchesInParallel() {
+        List<BulkWriter.BatchCallback> inFlight = new ArrayList<>();
+        BulkWriter writer = writer(BulkWriter.MAX_WRITES_PER_BATCH * 5,
+                (operations, callback) -> inFlight.add(callback));
+
+        Result result = commit(writer);
+        assertEquals(BulkWriter.MAX_PARALLEL_BATCHES, inFlight.size());
+
+        // Each completed batch starts the next one, until all five were started
+        inFlight.remove(0).onComplete(null);
+        assertEquals(BulkWriter.MAX_PARALLEL_BATCHES, inFlight.size());
+        inFlight.remove(0).onComplete(null);
+        assertEquals(BulkWriter.MAX_PARALLEL_BATCHES, inFlight.size());
+        assertNull("Reported before every batch completed", result.failedIds);
+
+        while (!inFlight.isEmpty()) {
+            inFlight.remove(0).onComplete(null);
+        }
+        assertEquals(BulkWriter.MAX_WRITES_PER_BATCH * 5, result.succeeded);
+    }
+
+    @Test
+    public void commit_reportsAtOnceWithoutWrites() {
+        Result result = commit(writer(0, (operations, callback) -> fail("Committed an empty batch")));
+
+        assertEquals(0, result.succeeded);
+        assertEquals(Collections.emptyList(), result.failedIds);
+    }
+
+    private static BulkWriter writer(int writes, BulkWriter.BatchCommitter committer) {
+        BulkWriter writer = new BulkWriter(committer);
+        for (int i = 0; i < writes; i++) {
+            writer.add("doc" + i, batch -> {
+            });
+        }
+        return writer;
+    }
+
+    private static Result commit(BulkWriter writer) {
+        Result result = new Result();
+        writer.commit((succeeded, failedIds) -> {
+            assertNull("Reported twice", result.failedIds);
+            result.succeeded = succeeded;
+            result.failedIds = failedIds;
+        });
+        return result;
+    }
+
+    /**
+     * The aggregate result reported by a commit; failedIds stays null until it is reported.
+     */
+    private static class Result {
+        int succeeded;
+        List<String> failedIds;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.finalprojectapp.database;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import Objects.ChildPhoto;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the merge of the photo streams into one timeline.
+ */
+public class ChildPhotoTimelinePagerTest {
+
+    @Test
+    public void mergeNewest_interleavesTheStreamsNewestFirst() {
+        List<ArrayDeque<ChildPhoto>> buffers = Arrays.asList(
+                buffer(photo("a", 90), photo("a", 50), photo("a", 10)),
+                buffer(photo("b", 80), photo("b", 60)),
+                buffer(photo("c", 70), photo("c", 20)));
+
+        List<ChildPhoto> page = ChildPhotoTimelinePager.mergeNewest(buffers, 10);
+
+        assertEquals(Arrays.asList(90L, 80L, 70L, 60L, 50L, 20L, 10L), times(page));
+        for (ArrayDeque<ChildPhoto> buffer : buffers) {
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void mergeNewest_stopsAtTheLimitAndKeepsTheRestBuffered() {
+        List<ArrayDeque<ChildPhoto>> buffers = Arrays.asList(
+                buffer(photo("a", 90), photo("a", 50)),
+                buffer(photo("b", 80), photo("b", 60)));
+
+        assertEquals(Arrays.asList(90L, 80L, 60L), times(ChildPhotoTimelinePager.mergeNewest(buffers, 3)));
+        assertEquals(1, buffers.get(0).size());
+        assertTrue(buffers.get(1).isEmpty());
+        assertEquals(Arrays.asList(50L), times(ChildPhotoTimelinePager.mergeNewest(buffers, 3)));
+    }
+
+    @Test
+    public void mergeNewest_takesPhotosWithoutATimeLast() {
+        List<ArrayDeque<ChildPhoto>> buffers = Arrays.asList(
+                buffer(photo("a", -1)),
+                buffer(photo("b", 40)));
+
+        List<ChildPhoto> page = ChildPhotoTimelinePager.mergeNewest(buffers, 10);
+
+        assertEquals("b", page.get(0).getChildId());
+        assertEquals("a", page.get(1).getChildId());
+    }
+
+    @Test
+    public void mergeNewest_returnsAnEmptyPageForEmptyStreams() {
+        List<ArrayDeque<ChildPhoto>> buffers = Arrays.asList(new ArrayDeque<>(), new ArrayDeque<>());
+
+        assertTrue(ChildPhotoTimelinePager.mergeNewest(buffers, 10).isEmpty());
+    }
+
+    private static ArrayDeque<ChildPhoto> buffer(ChildPhoto... photos) {
+        return new ArrayDeque<>(Arrays.asList(photos));
+    }
+
+    /**
+     * Creates a photo of a child.
+     *
+     * @param childId The ID of the child.
+     * @param time    The time of the photo in milliseconds, or -1 for a photo without a time.
+     * @return The photo.
+     */
+    private static ChildPhoto photo(String childId, long time) {
+        return new ChildPhoto("url", "Class", time >= 0 ? new Date(time) : null, childId);
+    }
+
+    private static List<Long> times(List<ChildPhoto> photos) {
+        List<Long> times = new ArrayList<>();
+        for (ChildPhoto photo : photos) {
+            times.add(photo.getTime().getTime());
+        }
+        return times;
+    }
+}
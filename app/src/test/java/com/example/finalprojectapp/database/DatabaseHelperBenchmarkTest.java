@@ -0,0 +1,121 @@
+package com.example.finalprojectapp.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import Objects.Garden;
+
+import static org.junit.Assert.*;
+
+/**
+ * Robolectric benchmark of the kindergarten cache writes against a throwaway database. It reports the rows
+ * per second of the old path, which opened the database, wrote one row with ContentValues and closed it
+ * for every kindergarten, and of the bulk upsert with compiled statements in one transaction.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseHelperBenchmarkTest {
+
+    private static final int ROWS = 1000;
+    private static final String DATABASE_NAME = "benchmark.db";
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+    private final List<Garden> gardens = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        databaseHelper = new DatabaseHelper(context, DATABASE_NAME);
+        for (int i = 0; i < ROWS; i++) {
+            Garden garden = new Garden("Garden " + i, "Street " + i, "Haifa", "04-0000000",
+                    "07:30", "16:00", "Municipal", null);
+            garden.setId("garden" + i);
+            gardens.add(garden);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void benchmark_bulkUpsertAgainstPerCallWrites() {
+        long perCallStart = System.nanoTime();
+        for (Garden garden : gardens) {
+            writeWithOwnConnection(garden);
+        }
+        double perCallRate = rowsPerSecond(perCallStart);
+        assertEquals(ROWS, countGardens());
+
+        databaseHelper.getWritableDatabase().delete("kindergartens", null, null);
+        long bulkStart = System.nanoTime();
+        databaseHelper.upsertKinderGartens(gardens, false);
+        double bulkRate = rowsPerSecond(bulkStart);
+
+        // The second bulk write updates the rows the first one inserted
+        long updateStart = System.nanoTime();
+        databaseHelper.upsertKinderGartens(gardens, false);
+        double updateRate = rowsPerSecond(updateStart);
+
+        Log.d("DatabaseHelperBenchmark", String.format("Wrote %d kindergartens: %.0f rows/s opening the database per row, "
+                + "%.0f rows/s inserting in bulk, %.0f rows/s updating in bulk", ROWS, perCallRate, bulkRate, updateRate));
+        assertEquals(ROWS, countGardens());
+    }
+
+    /**
+     * Writes a kindergarten the way saveKinderGarten did before the bulk upsert: on a connection opened
+     * for the call, with ContentValues in a transaction of its own, and closed afterwards.
+     *
+     * @param garden The kindergarten.
+     */
+    private void writeWithOwnConnection(Garden garden) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            values.put("garten_id", garden.getId());
+            values.put("name", garden.getName());
+            values.put("address", garden.getAddress());
+            values.put("city", garden.getCity());
+            values.put("phone_number", garden.getPhoneNumber());
+            values.put("open_time", garden.getOpenTime());
+            values.put("close_time", garden.getCloseTime());
+            values.put("organizational_affiliation", garden.getOrganizationalAffiliation());
+            values.put("image_url", garden.getImageUrl());
+            if (db.update("kindergartens", values, "garten_id=?", new String[]{garden.getId()}) == 0) {
+                db.insert("kindergartens", null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        db.close();
+    }
+
+    private double rowsPerSecond(long start) {
+        return ROWS * 1e9 / (System.nanoTime() - start);
+    }
+
+    private int countGardens() {
+        try (Cursor cursor = databaseHelper.getReadableDatabase().rawQuery("SELECT COUNT(*) FROM kindergartens", null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
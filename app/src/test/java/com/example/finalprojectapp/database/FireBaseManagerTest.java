@@ -0,0 +1,30 @@
+package com.example.finalprojectapp.database;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the FireBaseManager helpers that don't touch Firestore.
+ */
+public class FireBaseManagerTest {
+
+    @Test
+    public void partition_splitsIntoConsecutiveChunksOfAtMostTheSize() {
+        List<Integer> values = Arrays.asList(0, 1, 2, 3, 4, 5, 6);
+
+        assertEquals(Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5), Collections.singletonList(6)),
+                FireBaseManager.partition(values, 3));
+        assertEquals(Collections.singletonList(values), FireBaseManager.partition(values, 7));
+    }
+
+    @Test
+    public void partition_returnsNoChunksForNoValues() {
+        assertTrue(FireBaseManager.partition(new ArrayList<String>(), FireBaseManager.WHERE_IN_LIMIT).isEmpty());
+    }
+}
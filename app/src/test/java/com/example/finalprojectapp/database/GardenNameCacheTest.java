@@ -0,0 +1,79 @@
+package com.example.finalprojectapp.database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the bounded kindergarten name cache.
+ */
+public class GardenNameCacheTest {
+
+    @Test
+    public void get_returnsCachedIdAndCountsHitsAndMisses() {
+        GardenNameCache cache = new GardenNameCache(4);
+        cache.put("Rainbow", "id1");
+
+        assertEquals("id1", cache.get("Rainbow"));
+        assertNull(cache.get("Sunflower"));
+        assertNull(cache.get(null));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsedNameWhenFull() {
+        GardenNameCache cache = new GardenNameCache(2);
+        cache.put("Rainbow", "id1");
+        cache.put("Sunflower", "id2");
+        cache.get("Rainbow"); // Rainbow is now more recently used than Sunflower
+        cache.put("Olive", "id3");
+
+        assertEquals("id1", cache.get("Rainbow"));
+        assertNull(cache.get("Sunflower"));
+        assertEquals("id3", cache.get("Olive"));
+    }
+
+    @Test
+    public void put_replacesOldNameOfRenamedGarden() {
+        GardenNameCache cache = new GardenNameCache(4);
+        cache.put("Rainbow", "id1");
+        cache.put("Rainbow Hills", "id1");
+
+        assertNull(cache.get("Rainbow"));
+        assertEquals("id1", cache.get("Rainbow Hills"));
+    }
+
+    @Test
+    public void put_ignoresNullNameOrId() {
+        GardenNameCache cache = new GardenNameCache(4);
+        cache.put(null, "id1");
+        cache.put("Rainbow", null);
+
+        assertNull(cache.get("Rainbow"));
+    }
+
+    @Test
+    public void invalidate_removesByNameAndById() {
+        GardenNameCache cache = new GardenNameCache(4);
+        cache.put("Rainbow", "id1");
+        cache.put("Sunflower", "id2");
+
+        cache.invalidateName("Rainbow");
+        cache.invalidateId("id2");
+
+        assertNull(cache.get("Rainbow"));
+        assertNull(cache.get("Sunflower"));
+    }
+
+    @Test
+    public void clear_removesEveryEntry() {
+        GardenNameCache cache = new GardenNameCache(4);
+        cache.put("Rainbow", "id1");
+        cache.put("Sunflower", "id2");
+        cache.clear();
+
+        assertNull(cache.get("Rainbow"));
+        assertNull(cache.get("Sunflower"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.finalprojectapp.database;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import Objects.Garden;
+import Objects.GardenSummary;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests and a benchmark for the garden search index.
+ */
+public class GardenSearchIndexTest {
+
+    private static final String[] CITIES = {"Tel Aviv", "Haifa", "Jerusalem", "Beersheba", "Netanya",
+            "Ashdod", "Herzliya", "Holon", "Rehovot", "Modiin"};
+    private static final String[] AFFILIATIONS = {"Municipal", "Private", "WIZO", "Naamat"};
+
+    @Test
+    public void search_filtersByCityOrganizationAndAge() {
+        GardenSearchIndex index = new GardenSearchIndex();
+        index.put(summary("1", "Rainbow", "Haifa", "Municipal", 3, 4));
+        index.put(summary("2", "Olive", "Haifa", "Private", 3, 4));
+        index.put(summary("3", "Sunflower", "Haifa", "Municipal", 5, 6));
+        index.put(summary("4", "Cedar", "Holon", "Municipal", 3, 4));
+
+        assertEquals(Arrays.asList("Olive", "Rainbow", "Sunflower"), names(index.search("Haifa", null, null)));
+        assertEquals(Arrays.asList("Rainbow", "Sunflower"), names(index.search("Haifa", "Municipal", null)));
+        assertEquals(Arrays.asList("Rainbow"), names(index.search("haifa", "municipal", 4)));
+        assertTrue(index.search("Haifa", "WIZO", null).isEmpty());
+        assertTrue(index.search("", null, null).isEmpty());
+    }
+
+    @Test
+    public void search_matchesCityPrefixes() {
+        GardenSearchIndex index = new GardenSearchIndex();
+        index.put(summary("1", "Rainbow", "Herzliya", "Municipal", 3, 4));
+        index.put(summary("2", "Olive", "Holon", "Municipal", 3, 4));
+        index.put(summary("3", "Sunflower", "Tel Aviv", "Municipal", 3, 4));
+
+        assertEquals(Arrays.asList("Olive", "Rainbow"), names(index.search("H", null, null)));
+        assertEquals(Arrays.asList("Rainbow"), names(index.search("Her", null, null)));
+        assertEquals(Arrays.asList("Sunflower"), names(index.search("tel-av", null, null)));
+    }
+
+    @Test
+    public void search_toleratesTyposWhenNoCityHasThePrefix() {
+        GardenSearchIndex index = new GardenSearchIndex();
+        index.put(summary("1", "Rainbow", "Jerusalem", "Municipal", 3, 4));
+        index.put(summary("2", "Olive", "Haifa", "Municipal", 3, 4));
+
+        assertEquals(Arrays.asList("Rainbow"), names(index.search("Jerusalme", null, null)));
+        assertEquals(Arrays.asList("Rainbow"), names(index.search("Jeru salem", null, null)));
+        assertEquals(Arrays.asList("Olive"), names(index.search("Hiafa", null, null)));
+        assertTrue(index.search("Eilat", null, null).isEmpty());
+    }
+
+    @Test
+    public void putAndRemove_updatePostings() {
+        GardenSearchIndex index = new GardenSearchIndex();
+        index.put(summary("1", "Rainbow", "Haifa", "Municipal", 3, 4));
+        index.put(summary("1", "Rainbow", "Holon", "Private", 5));
+
+        assertTrue(index.search("Haifa", null, null).isEmpty());
+        assertEquals(Arrays.asList("Rainbow"), names(index.search("Holon", "Private", 5)));
+        assertEquals(1, index.size());
+
+        index.remove("1");
+        index.remove("missing");
+        assertTrue(index.search("Holon", null, null).isEmpty());
+        assertEquals(0, index.size());
+
+        index.put(summary("2", "Olive", "Haifa", "Municipal", 3));
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search("Haifa", null, null).isEmpty());
+    }
+
+    @Test
+    public void benchmark_searchesTenThousandGardens() {
+        GardenSearchIndex index = new GardenSearchIndex();
+        for (int i = 0; i < 10000; i++) {
+            index.put(summary(String.valueOf(i), "Garden " + i, CITIES[i % CITIES.length],
+                    AFFILIATIONS[i % AFFILIATIONS.length], 1 + i % 3, 2 + i % 3, 3 + i % 3));
+        }
+
+        String[] queries = {"Haifa", "He", "Jerusalme", "Tel"};
+        int searches = 1000;
+        int matched = 0;
+        long searchStart = System.nanoTime();
+        for (int i = 0; i < searches; i++) {
+            matched += index.search(queries[i % queries.length], AFFILIATIONS[i % AFFILIATIONS.length], 3).size();
+        }
+        double micros = (System.nanoTime() - searchStart) / 1000.0 / searches;
+
+        assertEquals(10000, index.size());
+        assertTrue(matched > 0);
+        // A generous bound, so the benchmark only fails on a regression, not on a slow CI machine
+        assertTrue("Search took " + micros + " us", micros < 50000);
+    }
+
+    private static GardenSummary summary(String id, String name, String city, String affiliation, Integer... ages) {
+        GardenSummary summary = new GardenSummary();
+        summary.setId(id);
+        summary.setName(name);
+        summary.setCity(city);
+        summary.setOrganizationalAffiliation(affiliation);
+        summary.setAges(Arrays.asList(ages));
+        return summary;
+    }
+
+    private static List<String> names(List<Garden> gardens) {
+        List<String> names = new ArrayList<>();
+        for (Garden garden : gardens) {
+            names.add(garden.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.finalprojectapp.database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the subsampling of the photos the pipeline decodes.
+ */
+public class PhotoPipelineTest {
+
+    @Test
+    public void sampleSize_keepsTheLongestSideAtLeastTheTarget() {
+        // A 12 MP camera photo decoded for the default 1600 px upload
+        int sampleSize = PhotoPipeline.sampleSize(4000, 3000, PhotoPipeline.DEFAULT_MAX_DIMENSION);
+
+        assertEquals(2, sampleSize);
+        assertTrue(4000 / sampleSize >= PhotoPipeline.DEFAULT_MAX_DIMENSION);
+        assertTrue(4000 / (sampleSize * 2) < PhotoPipeline.DEFAULT_MAX_DIMENSION);
+    }
+
+    @Test
+    public void sampleSize_usesTheLongestSideOfPortraitImages() {
+        assertEquals(PhotoPipeline.sampleSize(4000, 3000, 320), PhotoPipeline.sampleSize(3000, 4000, 320));
+        assertEquals(8, PhotoPipeline.sampleSize(3000, 4000, PhotoPipeline.DEFAULT_THUMBNAIL_MAX_DIMENSION));
+    }
+
+    @Test
+    public void sampleSize_subsamplesExactMultiplesOfTheTarget() {
+        assertEquals(4, PhotoPipeline.sampleSize(6400, 4800, 1600));
+        assertEquals(1, PhotoPipeline.sampleSize(1600, 1200, 1600));
+    }
+
+    @Test
+    public void sampleSize_returnsOneForImagesSmallerThanTheTarget() {
+        assertEquals(1, PhotoPipeline.sampleSize(800, 600, PhotoPipeline.DEFAULT_MAX_DIMENSION));
+        assertEquals(1, PhotoPipeline.sampleSize(0, 0, PhotoPipeline.DEFAULT_MAX_DIMENSION));
+    }
+}